@@ -1,6 +1,7 @@
 package serverfacade;
 
 import chess.ChessGame;
+import chess.ChessJson;
 import com.google.gson.Gson;
 import model.*;
 import java.io.*;
@@ -9,7 +10,7 @@ import java.util.*;
 
 public class ServerFacade {
     private final String serverUrl;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.create();
 
     public ServerFacade(int port) {
         this.serverUrl = "http://localhost:" + port;
@@ -0,0 +1,23 @@
+import dataaccess.*;
+import service.ArchiveAnalysisPipeline;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Analyzes every stored game. The search depth may be given as the only argument.
+ */
+public class AnalyzeArchive {
+    public static void main(String[] args) throws DataAccessException {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : ArchiveAnalysisPipeline.DEFAULT_DEPTH;
+        GameDAO gameDAO = new MySQLGameDAO();
+        GameAnalysisDAO analysisDAO = new MySQLGameAnalysisDAO();
+
+        long startNanos = System.nanoTime();
+        ArchiveAnalysisPipeline.Summary summary =
+                new ArchiveAnalysisPipeline(gameDAO, analysisDAO, depth, ForkJoinPool.commonPool()).run();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        System.out.printf("Analyzed %d games (%d skipped) in %d ms%n", summary.games(), summary.skipped(), elapsedMillis);
+        System.out.printf("Searched %d of %d positions%n", summary.searches(), summary.positions());
+    }
+}
@@ -0,0 +1,34 @@
+import dataaccess.*;
+import service.PgnImportPipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Imports the games in each PGN file given as an argument, printing progress after every batch.
+ */
+public class ImportPgn {
+    public static void main(String[] args) throws DataAccessException, IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ImportPgn <file.pgn>...");
+            return;
+        }
+        PgnImportPipeline pipeline = new PgnImportPipeline(new MySQLGameDAO(), ForkJoinPool.commonPool(),
+                progress -> System.out.printf("%d imported, %d rejected, %.0f games/s%n",
+                        progress.imported(), progress.rejected(), progress.gamesPerSecond()));
+
+        for (String file : args) {
+            System.out.println(file);
+            PgnImportPipeline.Summary summary;
+            try (InputStream in = Files.newInputStream(Path.of(file))) {
+                summary = pipeline.run(in);
+            }
+            System.out.printf("Imported %d games (%d rejected) at %.0f games/s%n",
+                    summary.imported(), summary.rejected(), summary.gamesPerSecond());
+            summary.errors().forEach(error -> System.out.println("  " + error));
+        }
+    }
+}
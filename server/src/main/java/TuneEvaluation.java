@@ -0,0 +1,49 @@
+import chess.engine.TexelTuner;
+import chess.engine.TrainingDataReader;
+import chess.engine.TunedTables;
+import chess.engine.TuningCorpus;
+import dataaccess.*;
+import service.ArchiveCorpusBuilder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Tunes the evaluation's material and piece-square values against the finished games in the
+ * archive and prints them. Takes the number of epochs and the learning rate as optional arguments,
+ * and optionally a file of self-play training data to tune against instead of the archive.
+ */
+public class TuneEvaluation {
+    private static final int DEFAULT_EPOCHS = 500;
+    private static final double DEFAULT_LEARNING_RATE = 1;
+
+    public static void main(String[] args) throws DataAccessException, IOException {
+        int epochs = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_EPOCHS;
+        double learningRate = args.length > 1 ? Double.parseDouble(args[1]) : DEFAULT_LEARNING_RATE;
+
+        long startNanos = System.nanoTime();
+        TuningCorpus corpus;
+        if (args.length > 2) {
+            corpus = new TuningCorpus();
+            try (TrainingDataReader reader = TrainingDataReader.open(Path.of(args[2]))) {
+                reader.readInto(corpus);
+            }
+        } else {
+            corpus = new ArchiveCorpusBuilder(new MySQLGameDAO(), ArchiveCorpusBuilder.DEFAULT_SKIPPED_PLIES).build();
+        }
+        System.out.printf("Loaded %d positions in %d ms%n", corpus.size(), (System.nanoTime() - startNanos) / 1_000_000);
+        if (corpus.size() == 0) {
+            System.out.println("No positions to tune from");
+            return;
+        }
+
+        startNanos = System.nanoTime();
+        TexelTuner tuner = new TexelTuner(corpus, ForkJoinPool.commonPool());
+        System.out.printf("Scale %.6f%n", tuner.fitScale());
+        TunedTables tables = tuner.tune(epochs, learningRate);
+        System.out.printf("Loss %.6f -> %.6f in %d ms%n", tables.initialLoss(), tables.finalLoss(),
+                (System.nanoTime() - startNanos) / 1_000_000);
+        System.out.print(tables.format());
+    }
+}
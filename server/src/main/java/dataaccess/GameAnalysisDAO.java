@@ -0,0 +1,15 @@
+package dataaccess;
+
+import model.GameAnalysis;
+import java.util.List;
+
+public interface GameAnalysisDAO {
+    void clear() throws DataAccessException;
+
+    /**
+     * Stores the analyses together, replacing any earlier analysis of the same games
+     */
+    void saveAnalyses(List<GameAnalysis> analyses) throws DataAccessException;
+
+    GameAnalysis getAnalysis(int gameID) throws DataAccessException;
+}
@@ -1,12 +1,55 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.GameData;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface GameDAO {
     void clear() throws DataAccessException;
     int createGame(GameData game) throws DataAccessException;
+
+    /**
+     * Stores many new games at once, all or none of them. Each gets a new ID, as with createGame.
+     */
+    void createGames(List<GameData> games) throws DataAccessException;
     GameData getGame(int gameID) throws DataAccessException;
     Collection<GameData> listGames() throws DataAccessException;
+
+    /**
+     * Lists every game's ID, name and players without its chess game, which is left null
+     */
+    Collection<GameData> listGameSummaries() throws DataAccessException;
+
+    /**
+     * Reads every game one at a time instead of all at once. The stream holds database resources
+     * and must be closed.
+     */
+    Stream<GameData> streamGames() throws DataAccessException;
+
+    /**
+     * Reads the games one user plays in, one at a time and in ID order, or every game if the
+     * username is null. The stream holds database resources and must be closed.
+     */
+    Stream<GameData> streamGames(String username) throws DataAccessException;
+
+    /**
+     * Reads one page of games in ID order, for callers that spend a long time on each game and so
+     * cannot hold a stream open. The next page starts after the last ID of this one.
+     *
+     * @param afterGameID only games with a greater ID are read; 0 for the first page
+     * @param limit       the most games to read
+     */
+    List<GameData> listGamesAfter(int afterGameID, int limit) throws DataAccessException;
     void updateGame(GameData game) throws DataAccessException;
+
+    /**
+     * Records the move just made in a stored game, which is cheaper than rewriting the game with
+     * updateGame. The game must be the stored one with exactly one move added.
+     *
+     * @param game the game after the move; its last move is the one recorded
+     * @throws DataAccessException if the game does not exist or the stored game is at another move
+     */
+    void addMove(int gameID, ChessGame game) throws DataAccessException;
 }
\ No newline at end of file
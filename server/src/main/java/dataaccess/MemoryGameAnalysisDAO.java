@@ -0,0 +1,27 @@
+package dataaccess;
+
+import model.GameAnalysis;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class MemoryGameAnalysisDAO implements GameAnalysisDAO {
+    private final Map<Integer, GameAnalysis> analyses = new HashMap<>();
+
+    @Override
+    public void clear() {
+        analyses.clear();
+    }
+
+    @Override
+    public void saveAnalyses(List<GameAnalysis> analyses) {
+        for (GameAnalysis analysis : analyses) {
+            this.analyses.put(analysis.gameID(), analysis);
+        }
+    }
+
+    @Override
+    public GameAnalysis getAnalysis(int gameID) {
+        return analyses.get(gameID);
+    }
+}
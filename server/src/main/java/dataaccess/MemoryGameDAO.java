@@ -1,17 +1,24 @@
 package dataaccess;
 
+import chess.ChessGame;
 import model.GameData;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 public class MemoryGameDAO implements GameDAO {
     private final Map<Integer, GameData> games = new HashMap<>();
+    // Each game's move count as last stored, since the stored game may be the caller's own object
+    private final Map<Integer, Integer> plies = new HashMap<>();
     private int nextGameID = 1;
 
     @Override
     public void clear() {
         games.clear();
+        plies.clear();
         nextGameID = 1;
     }
 
@@ -24,9 +31,22 @@ public class MemoryGameDAO implements GameDAO {
         GameData newGame = new GameData(gameID, game.whiteUsername(), game.blackUsername(),
                 game.gameName(), game.game());
         games.put(gameID, newGame);
+        plies.put(gameID, plies(game.game()));
         return gameID;
     }
 
+    @Override
+    public void createGames(List<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            if (game.gameName() == null) {
+                throw new DataAccessException("Game name cannot be null");
+            }
+        }
+        for (GameData game : games) {
+            createGame(game);
+        }
+    }
+
     @Override
     public GameData getGame(int gameID) {
         return games.get(gameID);
@@ -37,11 +57,62 @@ public class MemoryGameDAO implements GameDAO {
         return games.values();
     }
 
+    @Override
+    public Collection<GameData> listGameSummaries() {
+        return games.values().stream()
+                .map(game -> new GameData(game.gameID(), game.whiteUsername(), game.blackUsername(),
+                        game.gameName(), null))
+                .toList();
+    }
+
+    @Override
+    public Stream<GameData> streamGames() {
+        return List.copyOf(games.values()).stream();
+    }
+
+    @Override
+    public Stream<GameData> streamGames(String username) {
+        return streamGames().filter(game -> username == null || username.equals(game.whiteUsername())
+                || username.equals(game.blackUsername()));
+    }
+
+    @Override
+    public List<GameData> listGamesAfter(int afterGameID, int limit) {
+        return games.values().stream()
+                .filter(game -> game.gameID() > afterGameID)
+                .sorted(Comparator.comparingInt(GameData::gameID))
+                .limit(limit)
+                .toList();
+    }
+
     @Override
     public void updateGame(GameData game) throws DataAccessException {
         if (!games.containsKey(game.gameID())) {
             throw new DataAccessException("Game does not exist");
         }
         games.put(game.gameID(), game);
+        plies.put(game.gameID(), plies(game.game()));
+    }
+
+    @Override
+    public void addMove(int gameID, ChessGame game) throws DataAccessException {
+        GameData stored = games.get(gameID);
+        if (stored == null) {
+            throw new DataAccessException("Game does not exist");
+        }
+        int ply = plies(game);
+        if (ply == 0) {
+            throw new DataAccessException("Error: no move to add");
+        }
+        if (plies.get(gameID) != ply - 1) {
+            throw new DataAccessException("Error: game " + gameID + " is not at ply " + (ply - 1));
+        }
+        games.put(gameID, new GameData(gameID, stored.whiteUsername(), stored.blackUsername(),
+                stored.gameName(), game));
+        plies.put(gameID, ply);
+    }
+
+    private static int plies(ChessGame game) {
+        return game == null ? 0 : game.getMoveHistory().size();
     }
-}
\ No newline at end of file
+}
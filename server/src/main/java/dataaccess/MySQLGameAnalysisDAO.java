@@ -0,0 +1,151 @@
+package dataaccess;
+
+import model.GameAnalysis;
+import model.PlyAnalysis;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Analyses live beside the games table and are deleted with their game, so the games table must
+ * exist first.
+ */
+public class MySQLGameAnalysisDAO implements GameAnalysisDAO {
+
+    public MySQLGameAnalysisDAO() throws DataAccessException {
+        configureDatabase();
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        var statement = "DELETE FROM game_analysis";
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement)) {
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void saveAnalyses(List<GameAnalysis> analyses) throws DataAccessException {
+        var deletePlies = "DELETE FROM ply_analysis WHERE gameID = ?";
+        var upsertGame = """
+                INSERT INTO game_analysis (gameID, depth, whiteAccuracy, blackAccuracy) VALUES (?, ?, ?, ?)
+                ON DUPLICATE KEY UPDATE depth = VALUES(depth), whiteAccuracy = VALUES(whiteAccuracy),
+                blackAccuracy = VALUES(blackAccuracy)
+                """;
+        var insertPly = "INSERT INTO ply_analysis (gameID, ply, eval, accuracy, blunder) VALUES (?, ?, ?, ?, ?)";
+        try (var conn = DatabaseManager.getConnection()) {
+            // One transaction and three round trips per batch instead of one per row
+            conn.setAutoCommit(false);
+            try (var deletePs = conn.prepareStatement(deletePlies);
+                 var gamePs = conn.prepareStatement(upsertGame);
+                 var plyPs = conn.prepareStatement(insertPly)) {
+                for (GameAnalysis analysis : analyses) {
+                    deletePs.setInt(1, analysis.gameID());
+                    deletePs.addBatch();
+
+                    gamePs.setInt(1, analysis.gameID());
+                    gamePs.setInt(2, analysis.depth());
+                    setAccuracy(gamePs, 3, analysis.whiteAccuracy());
+                    setAccuracy(gamePs, 4, analysis.blackAccuracy());
+                    gamePs.addBatch();
+
+                    for (PlyAnalysis ply : analysis.plies()) {
+                        plyPs.setInt(1, analysis.gameID());
+                        plyPs.setInt(2, ply.ply());
+                        plyPs.setInt(3, ply.eval());
+                        plyPs.setDouble(4, ply.accuracy());
+                        plyPs.setBoolean(5, ply.blunder());
+                        plyPs.addBatch();
+                    }
+                }
+                deletePs.executeBatch();
+                gamePs.executeBatch();
+                plyPs.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public GameAnalysis getAnalysis(int gameID) throws DataAccessException {
+        var gameStatement = "SELECT depth, whiteAccuracy, blackAccuracy FROM game_analysis WHERE gameID = ?";
+        var plyStatement = "SELECT ply, eval, accuracy, blunder FROM ply_analysis WHERE gameID = ? ORDER BY ply";
+        try (var conn = DatabaseManager.getConnection();
+             var gamePs = conn.prepareStatement(gameStatement);
+             var plyPs = conn.prepareStatement(plyStatement)) {
+            gamePs.setInt(1, gameID);
+            try (var rs = gamePs.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                int depth = rs.getInt("depth");
+                Double whiteAccuracy = rs.getObject("whiteAccuracy", Double.class);
+                Double blackAccuracy = rs.getObject("blackAccuracy", Double.class);
+
+                var plies = new ArrayList<PlyAnalysis>();
+                plyPs.setInt(1, gameID);
+                try (var plyRs = plyPs.executeQuery()) {
+                    while (plyRs.next()) {
+                        plies.add(new PlyAnalysis(plyRs.getInt("ply"), plyRs.getInt("eval"),
+                                plyRs.getDouble("accuracy"), plyRs.getBoolean("blunder")));
+                    }
+                }
+                return new GameAnalysis(gameID, depth, whiteAccuracy, blackAccuracy, plies);
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    private static void setAccuracy(PreparedStatement ps, int index, Double accuracy) throws SQLException {
+        if (accuracy == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, accuracy);
+        }
+    }
+
+    private void configureDatabase() throws DataAccessException {
+        DatabaseManager.createDatabase();
+        try (var conn = DatabaseManager.getConnection()) {
+            var createGameTableStatement = """
+                CREATE TABLE IF NOT EXISTS game_analysis (
+                    gameID INT NOT NULL PRIMARY KEY,
+                    depth INT NOT NULL,
+                    whiteAccuracy DOUBLE,
+                    blackAccuracy DOUBLE,
+                    FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+                )
+                """;
+            var createPlyTableStatement = """
+                CREATE TABLE IF NOT EXISTS ply_analysis (
+                    gameID INT NOT NULL,
+                    ply INT NOT NULL,
+                    eval INT NOT NULL,
+                    accuracy DOUBLE NOT NULL,
+                    blunder BOOLEAN NOT NULL,
+                    PRIMARY KEY (gameID, ply),
+                    FOREIGN KEY (gameID) REFERENCES game_analysis(gameID) ON DELETE CASCADE
+                )
+                """;
+            try (var ps = conn.prepareStatement(createGameTableStatement)) {
+                ps.executeUpdate();
+            }
+            try (var ps = conn.prepareStatement(createPlyTableStatement)) {
+                ps.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+}
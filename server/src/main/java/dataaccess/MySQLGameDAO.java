@@ -1,17 +1,48 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessJson;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
 import com.google.gson.Gson;
 import model.GameData;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+/**
+ * Stores games in MySQL. The chess game itself is kept in a BLOB in the {@link GameCodec} binary form;
+ * rows written before that hold the game's JSON and are still read.
+ * <p>
+ * The BLOB is a snapshot. Moves made since are appended to game_moves, one small row each, and a
+ * game is loaded as its snapshot with those moves played on top. A new snapshot is written every
+ * {@link #SNAPSHOT_PLIES} plies so loading never plays many.
+ */
 public class MySQLGameDAO implements GameDAO {
+    static final int SNAPSHOT_PLIES = 32;
+    // The first byte of a row still holding JSON: a game object, or Gson's null
+    private static final byte JSON_NULL = 'n';
+    private static final byte JSON_OBJECT = '{';
+    // Each game with the moves made since its snapshot, in order and comma-separated
+    private static final String SELECT_GAMES = """
+            SELECT gameID, whiteUsername, blackUsername, gameName, game,
+                (SELECT GROUP_CONCAT(move ORDER BY ply) FROM game_moves
+                 WHERE game_moves.gameID = games.gameID AND game_moves.ply > games.snapshotPly) AS tail
+            FROM games""";
 
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.create();
 
     public MySQLGameDAO() throws DataAccessException {
         configureDatabase();
@@ -34,16 +65,20 @@ public class MySQLGameDAO implements GameDAO {
             throw new DataAccessException("Game name cannot be null");
         }
 
-        // Serialize the ChessGame object to JSON
-        String gameJson = gson.toJson(game.game());
+        byte[] encodedGame = encode(game.game());
 
-        var statement = "INSERT INTO games (whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?)";
+        var statement = """
+                INSERT INTO games (whiteUsername, blackUsername, gameName, game, snapshotPly, plies)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(statement, Statement.RETURN_GENERATED_KEYS)) {
             ps.setString(1, game.whiteUsername());
             ps.setString(2, game.blackUsername());
             ps.setString(3, game.gameName());
-            ps.setString(4, gameJson);
+            ps.setBytes(4, encodedGame);
+            ps.setInt(5, plies(game.game()));
+            ps.setInt(6, plies(game.game()));
             ps.executeUpdate();
 
             // Get the auto-generated gameID
@@ -58,15 +93,51 @@ public class MySQLGameDAO implements GameDAO {
         throw new DataAccessException("Error: Failed to create game");
     }
 
+    @Override
+    public void createGames(List<GameData> games) throws DataAccessException {
+        for (GameData game : games) {
+            if (game.gameName() == null) {
+                throw new DataAccessException("Game name cannot be null");
+            }
+        }
+
+        var statement = """
+                INSERT INTO games (whiteUsername, blackUsername, gameName, game, snapshotPly, plies)
+                VALUES (?, ?, ?, ?, ?, ?)
+                """;
+        try (var conn = DatabaseManager.getConnection()) {
+            // One transaction, and the driver sends the batch as multi-row inserts
+            conn.setAutoCommit(false);
+            try (var ps = conn.prepareStatement(statement)) {
+                for (GameData game : games) {
+                    ps.setString(1, game.whiteUsername());
+                    ps.setString(2, game.blackUsername());
+                    ps.setString(3, game.gameName());
+                    ps.setBytes(4, encode(game.game()));
+                    ps.setInt(5, plies(game.game()));
+                    ps.setInt(6, plies(game.game()));
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM games WHERE gameID = ?";
+        var statement = SELECT_GAMES + " WHERE gameID = ?";
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(statement)) {
             ps.setInt(1, gameID);
             try (var rs = ps.executeQuery()) {
                 if (rs.next()) {
-                    return readGame(rs);
+                    return readGame(rs, false);
                 }
             }
         } catch (SQLException e) {
@@ -78,12 +149,12 @@ public class MySQLGameDAO implements GameDAO {
     @Override
     public Collection<GameData> listGames() throws DataAccessException {
         var result = new ArrayList<GameData>();
-        var statement = "SELECT gameID, whiteUsername, blackUsername, gameName, game FROM games";
+        var statement = SELECT_GAMES;
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(statement);
              var rs = ps.executeQuery()) {
             while (rs.next()) {
-                result.add(readGame(rs));
+                result.add(readGame(rs, true));
             }
         } catch (SQLException e) {
             throw new DataAccessException("Error: " + e.getMessage());
@@ -92,39 +163,252 @@ public class MySQLGameDAO implements GameDAO {
     }
 
     @Override
-    public void updateGame(GameData game) throws DataAccessException {
-        if (getGame(game.gameID()) == null) {
-            throw new DataAccessException("Game does not exist");
+    public Collection<GameData> listGameSummaries() throws DataAccessException {
+        var result = new ArrayList<GameData>();
+        var statement = "SELECT gameID, whiteUsername, blackUsername, gameName FROM games";
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement);
+             var rs = ps.executeQuery()) {
+            while (rs.next()) {
+                result.add(new GameData(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                        rs.getString("blackUsername"), rs.getString("gameName"), null));
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
         }
+        return result;
+    }
 
-        // Serialize the ChessGame object to JSON
-        String gameJson = gson.toJson(game.game());
-
-        var statement = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ? WHERE gameID = ?";
+    @Override
+    public List<GameData> listGamesAfter(int afterGameID, int limit) throws DataAccessException {
+        var result = new ArrayList<GameData>(limit);
+        var statement = SELECT_GAMES + " WHERE gameID > ? ORDER BY gameID LIMIT ?";
         try (var conn = DatabaseManager.getConnection();
              var ps = conn.prepareStatement(statement)) {
-            ps.setString(1, game.whiteUsername());
-            ps.setString(2, game.blackUsername());
-            ps.setString(3, game.gameName());
-            ps.setString(4, gameJson);
-            ps.setInt(5, game.gameID());
-            ps.executeUpdate();
+            ps.setInt(1, afterGameID);
+            ps.setInt(2, limit);
+            try (var rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(readGame(rs, true));
+                }
+            }
         } catch (SQLException e) {
             throw new DataAccessException("Error: " + e.getMessage());
         }
+        return result;
     }
 
-    private GameData readGame(ResultSet rs) throws SQLException {
+    @Override
+    public Stream<GameData> streamGames() throws DataAccessException {
+        return streamGames(null);
+    }
+
+    @Override
+    public Stream<GameData> streamGames(String username) throws DataAccessException {
+        var statement = SELECT_GAMES
+                + (username == null ? "" : " WHERE whiteUsername = ? OR blackUsername = ?")
+                + " ORDER BY gameID";
+        Connection conn = DatabaseManager.getConnection();
+        try {
+            // A forward-only, read-only statement with this fetch size makes the driver hand rows over
+            // as they arrive instead of reading the whole table into memory first
+            PreparedStatement ps = conn.prepareStatement(statement, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(Integer.MIN_VALUE);
+            if (username != null) {
+                ps.setString(1, username);
+                ps.setString(2, username);
+            }
+            ResultSet rs = ps.executeQuery();
+            Spliterator<GameData> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                    Spliterator.ORDERED | Spliterator.NONNULL) {
+                @Override
+                public boolean tryAdvance(Consumer<? super GameData> action) {
+                    try {
+                        if (!rs.next()) {
+                            return false;
+                        }
+                        action.accept(readGame(rs, true));
+                        return true;
+                    } catch (SQLException e) {
+                        throw new RuntimeException("Error: " + e.getMessage(), e);
+                    }
+                }
+            };
+            // Closing the connection closes the statement and result set with it
+            return StreamSupport.stream(rows, false).onClose(() -> {
+                try {
+                    conn.close();
+                } catch (SQLException e) {
+                    throw new RuntimeException("Error: " + e.getMessage(), e);
+                }
+            });
+        } catch (SQLException e) {
+            try {
+                conn.close();
+            } catch (SQLException closeFailure) {
+                e.addSuppressed(closeFailure);
+            }
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Rewrites the whole game as a new snapshot. Use {@link #addMove} for a move just made, which
+     * writes only the move.
+     */
+    @Override
+    public void updateGame(GameData game) throws DataAccessException {
+        byte[] encodedGame = encode(game.game());
+        int plies = plies(game.game());
+
+        var update = """
+                UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, game = ?, snapshotPly = ?, plies = ?
+                WHERE gameID = ?
+                """;
+        var deleteMoves = "DELETE FROM game_moves WHERE gameID = ?";
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var ps = conn.prepareStatement(update);
+                 var deletePs = conn.prepareStatement(deleteMoves)) {
+                ps.setString(1, game.whiteUsername());
+                ps.setString(2, game.blackUsername());
+                ps.setString(3, game.gameName());
+                ps.setBytes(4, encodedGame);
+                ps.setInt(5, plies);
+                ps.setInt(6, plies);
+                ps.setInt(7, game.gameID());
+                // The driver reports rows matched, not rows changed, so this is 0 only for a missing game
+                if (ps.executeUpdate() == 0) {
+                    conn.rollback();
+                    throw new DataAccessException("Game does not exist");
+                }
+                // The snapshot holds the whole history, which may not be the one the moves came from
+                deletePs.setInt(1, game.gameID());
+                deletePs.executeUpdate();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void addMove(int gameID, ChessGame game) throws DataAccessException {
+        List<ChessMove> history = game.getMoveHistory();
+        if (history.isEmpty()) {
+            throw new DataAccessException("Error: no move to add");
+        }
+        int ply = history.size();
+
+        var advance = "UPDATE games SET plies = ? WHERE gameID = ? AND plies = ?";
+        var insertMove = "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?)";
+        var snapshot = "UPDATE games SET game = ?, snapshotPly = ? WHERE gameID = ?";
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (var advancePs = conn.prepareStatement(advance);
+                 var movePs = conn.prepareStatement(insertMove)) {
+                // Only moves on from the stored ply, so a stale or repeated write changes nothing
+                advancePs.setInt(1, ply);
+                advancePs.setInt(2, gameID);
+                advancePs.setInt(3, ply - 1);
+                if (advancePs.executeUpdate() == 0) {
+                    conn.rollback();
+                    throw new DataAccessException("Error: game " + gameID + " is not at ply " + (ply - 1));
+                }
+                movePs.setInt(1, gameID);
+                movePs.setInt(2, ply);
+                movePs.setInt(3, history.getLast().toCompact());
+                movePs.executeUpdate();
+                if (ply % SNAPSHOT_PLIES == 0) {
+                    try (var snapshotPs = conn.prepareStatement(snapshot)) {
+                        snapshotPs.setBytes(1, encode(game));
+                        snapshotPs.setInt(2, ply);
+                        snapshotPs.setInt(3, gameID);
+                        snapshotPs.executeUpdate();
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new DataAccessException("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @param lazy whether to build the game only when it is first asked for, for callers reading many
+     *             games that often want only the names; a game that cannot be read then throws an
+     *             IllegalStateException from {@link GameData#game()} instead of an SQLException here
+     */
+    private GameData readGame(ResultSet rs, boolean lazy) throws SQLException {
         int gameID = rs.getInt("gameID");
         String whiteUsername = rs.getString("whiteUsername");
         String blackUsername = rs.getString("blackUsername");
         String gameName = rs.getString("gameName");
-        String gameJson = rs.getString("game");
+        byte[] bytes = rs.getBytes("game");
+        String tail = rs.getString("tail");
+
+        if (!lazy) {
+            return new GameData(gameID, whiteUsername, blackUsername, gameName, readChessGame(bytes, tail));
+        }
+        return GameData.lazy(gameID, whiteUsername, blackUsername, gameName, () -> {
+            try {
+                return readChessGame(bytes, tail);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        });
+    }
+
+    private ChessGame readChessGame(byte[] bytes, String tail) throws SQLException {
+        ChessGame game = decode(bytes);
+        if (game != null && tail != null) {
+            playTail(game, tail);
+        }
+        return game;
+    }
+
+    /**
+     * Plays the moves made since the snapshot, checking each is legal without the cost of
+     * {@link ChessGame#makeMove}
+     */
+    private static void playTail(ChessGame game, String tail) throws SQLException {
+        try {
+            for (String move : tail.split(",")) {
+                game.makeCompactMove(Integer.parseInt(move));
+            }
+        } catch (InvalidMoveException | NumberFormatException e) {
+            throw new SQLException("Stored moves cannot be played: " + e.getMessage(), e);
+        }
+    }
+
+    private static int plies(ChessGame game) {
+        return game == null ? 0 : game.getMoveHistory().size();
+    }
 
-        // Deserialize the ChessGame from JSON
-        ChessGame game = gson.fromJson(gameJson, ChessGame.class);
+    private static byte[] encode(ChessGame game) {
+        // A missing game is stored as no bytes at all
+        return game == null ? new byte[0] : GameCodec.encode(game, true);
+    }
 
-        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+    private ChessGame decode(byte[] bytes) throws SQLException {
+        if (bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == JSON_OBJECT || bytes[0] == JSON_NULL) {
+            return gson.fromJson(new String(bytes, StandardCharsets.UTF_8), ChessGame.class);
+        }
+        try {
+            return GameCodec.decode(bytes);
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Stored game cannot be read: " + e.getMessage(), e);
+        }
     }
 
     private void configureDatabase() throws DataAccessException {
@@ -136,14 +420,76 @@ public class MySQLGameDAO implements GameDAO {
                     whiteUsername VARCHAR(255),
                     blackUsername VARCHAR(255),
                     gameName VARCHAR(255) NOT NULL,
-                    game TEXT NOT NULL
+                    game BLOB NOT NULL,
+                    snapshotPly INT NOT NULL DEFAULT 0,
+                    plies INT NOT NULL DEFAULT 0
                 )
                 """;
             try (var ps = conn.prepareStatement(createTableStatement)) {
                 ps.executeUpdate();
             }
+
+            // Tables from before the binary form hold JSON text; the bytes stay as they are
+            var columnType = """
+                SELECT DATA_TYPE FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = 'game'
+                """;
+            try (var ps = conn.prepareStatement(columnType);
+                 var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getString(1).equalsIgnoreCase("text")) {
+                    try (var alter = conn.prepareStatement("ALTER TABLE games MODIFY game BLOB NOT NULL")) {
+                        alter.executeUpdate();
+                    }
+                }
+            }
+
+            // Tables from before game_moves hold only snapshots, each as long as its game
+            var plyColumn = """
+                SELECT COUNT(*) FROM information_schema.COLUMNS
+                WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'games' AND COLUMN_NAME = 'plies'
+                """;
+            try (var ps = conn.prepareStatement(plyColumn);
+                 var rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) == 0) {
+                    addPlyColumns(conn);
+                }
+            }
+
+            var createMovesStatement = """
+                CREATE TABLE IF NOT EXISTS game_moves (
+                    gameID INT NOT NULL,
+                    ply INT NOT NULL,
+                    move SMALLINT NOT NULL,
+                    PRIMARY KEY (gameID, ply),
+                    FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+                )
+                """;
+            try (var ps = conn.prepareStatement(createMovesStatement)) {
+                ps.executeUpdate();
+            }
         } catch (SQLException e) {
             throw new DataAccessException("Error: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    private void addPlyColumns(Connection conn) throws SQLException {
+        var alter = "ALTER TABLE games ADD snapshotPly INT NOT NULL DEFAULT 0, ADD plies INT NOT NULL DEFAULT 0";
+        try (var ps = conn.prepareStatement(alter)) {
+            ps.executeUpdate();
+        }
+        var select = "SELECT gameID, game FROM games";
+        var update = "UPDATE games SET snapshotPly = ?, plies = ? WHERE gameID = ?";
+        try (var selectPs = conn.prepareStatement(select);
+             var updatePs = conn.prepareStatement(update);
+             var rs = selectPs.executeQuery()) {
+            while (rs.next()) {
+                int plies = plies(decode(rs.getBytes("game")));
+                updatePs.setInt(1, plies);
+                updatePs.setInt(2, plies);
+                updatePs.setInt(3, rs.getInt("gameID"));
+                updatePs.addBatch();
+            }
+            updatePs.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package server;
+
+import io.javalin.http.Context;
+import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.io.SocketChannelEndPoint;
+import org.eclipse.jetty.server.Request;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Notices when a client closes its connection while its request is still waiting for a response.
+ * <p>
+ * Jetty does not read from a connection while a request on it is in progress, so it only finds out
+ * the client has gone when the response is written. The watcher registers each waiting connection
+ * with a selector of its own instead. A client waiting for its response sends nothing more, so the
+ * connection becoming readable means it was closed. Nothing is read, leaving the connection to Jetty.
+ */
+class DisconnectWatcher implements AutoCloseable {
+    private final Selector selector;
+    // Registering blocks while the selector is selecting, so registrations are handed to its thread
+    private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+
+    DisconnectWatcher() {
+        try {
+            selector = Selector.open();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open disconnect selector: " + e.getMessage(), e);
+        }
+        Thread thread = new Thread(this::run, "disconnect-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Calls onDisconnect on the watcher's thread if the request's client closes its connection
+     *
+     * @return stops watching, to be called once the response is ready
+     */
+    Runnable watch(Context ctx, Runnable onDisconnect) {
+        EndPoint endPoint = Request.getBaseRequest(ctx.req()).getHttpChannel().getEndPoint();
+        // Other connections, like TLS ones, have data of their own passing under the request
+        if (!(endPoint instanceof SocketChannelEndPoint socketEndPoint)) {
+            return () -> { };
+        }
+        Watch watch = new Watch(socketEndPoint.getChannel(), onDisconnect);
+        pending.add(watch::register);
+        selector.wakeup();
+        return watch::stop;
+    }
+
+    @Override
+    public void close() {
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // Nothing left to watch either way
+        }
+    }
+
+    private void run() {
+        while (selector.isOpen()) {
+            try {
+                selector.select();
+                Runnable task;
+                while ((task = pending.poll()) != null) {
+                    task.run();
+                }
+                for (SelectionKey key : selector.selectedKeys()) {
+                    key.cancel();
+                    ((Watch) key.attachment()).disconnected();
+                }
+                selector.selectedKeys().clear();
+            } catch (IOException | ClosedSelectorException e) {
+                return;
+            }
+        }
+    }
+
+    private final class Watch {
+        private final SelectableChannel channel;
+        private final Runnable onDisconnect;
+        private SelectionKey key;
+        private volatile boolean done;
+
+        Watch(SelectableChannel channel, Runnable onDisconnect) {
+            this.channel = channel;
+            this.onDisconnect = onDisconnect;
+        }
+
+        void register() {
+            if (done) {
+                return;
+            }
+            try {
+                try {
+                    key = channel.register(selector, SelectionKey.OP_READ, this);
+                } catch (CancelledKeyException e) {
+                    // The connection's previous request was watched too, and that key goes on the next select
+                    selector.selectNow();
+                    key = channel.register(selector, SelectionKey.OP_READ, this);
+                }
+            } catch (ClosedChannelException e) {
+                disconnected();
+            } catch (IOException e) {
+                // Left unwatched; the response is still written as usual
+            }
+        }
+
+        void disconnected() {
+            if (!done) {
+                done = true;
+                onDisconnect.run();
+            }
+        }
+
+        void stop() {
+            done = true;
+            pending.add(() -> {
+                if (key != null) {
+                    key.cancel();
+                }
+            });
+            selector.wakeup();
+        }
+    }
+}
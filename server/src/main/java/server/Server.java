@@ -1,25 +1,46 @@
 package server;
 
 import chess.ChessGame;
+import chess.ChessJson;
+import chess.engine.BookEntry;
+import chess.engine.MateResult;
+import chess.engine.OpeningBook;
 import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
 import dataaccess.*;
 import io.javalin.*;
 import io.javalin.http.Context;
 import io.javalin.json.JsonMapper;
 import model.*;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import service.*;
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
 
 public class Server {
+    private static final int ANALYSIS_QUEUE_CAPACITY = 256;
+    private static final Logger LOG = LoggerFactory.getLogger(Server.class);
 
     private final Javalin javalin;
-    private final Gson gson = new Gson();
+    private final Gson gson = ChessJson.create();
 
     private final UserService userService;
     private final GameService gameService;
     private final ClearService clearService;
+    private final HintService hintService;
+    private final PuzzleService puzzleService;
+    private final AnalysisService analysisService;
+    private final ImportService importService;
+    private final ExportService exportService;
+    private final AnalysisScheduler analysisScheduler;
+    private final DisconnectWatcher disconnectWatcher = new DisconnectWatcher();
 
     public Server() {
         UserDAO userDAO;
@@ -36,6 +57,12 @@ public class Server {
         userService = new UserService(userDAO, authDAO);
         gameService = new GameService(gameDAO, authDAO);
         clearService = new ClearService(userDAO, gameDAO, authDAO);
+        hintService = new HintService(gameDAO, authDAO, loadOpeningBook());
+        puzzleService = new PuzzleService(authDAO);
+        analysisScheduler = AnalysisScheduler.withDefaults(ANALYSIS_QUEUE_CAPACITY);
+        analysisService = new AnalysisService(gameDAO, authDAO, analysisScheduler);
+        importService = new ImportService(gameDAO, authDAO, ForkJoinPool.commonPool());
+        exportService = new ExportService(gameDAO, authDAO);
 
         javalin = Javalin.create(config -> {
             config.staticFiles.add("web");
@@ -66,6 +93,35 @@ public class Server {
         javalin.get("/game", this::handleListGames);
         javalin.post("/game", this::handleCreateGame);
         javalin.put("/game", this::handleJoinGame);
+
+        // Opening book hints
+        javalin.get("/hint", this::handleHint);
+
+        // Mate puzzle checking
+        javalin.post("/puzzles", this::handleSolvePuzzles);
+
+        // Engine analysis of a position
+        javalin.post("/analysis", this::handleAnalysis);
+        javalin.get("/analysis/metrics", this::handleAnalysisMetrics);
+
+        // Bulk import of PGN games
+        javalin.post("/import", this::handleImport);
+        javalin.get("/export", this::handleExport);
+    }
+
+    /**
+     * The book file is set with the chess.book system property. Without one, hints are always empty.
+     */
+    private static OpeningBook loadOpeningBook() {
+        String bookPath = System.getProperty("chess.book");
+        if (bookPath == null || !Files.exists(Path.of(bookPath))) {
+            return null;
+        }
+        try {
+            return OpeningBook.open(Path.of(bookPath));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open opening book: " + e.getMessage(), e);
+        }
     }
 
     public int run(int desiredPort) {
@@ -75,6 +131,8 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        analysisScheduler.close();
+        disconnectWatcher.close();
     }
 
     private void handleClear(Context ctx) {
@@ -201,6 +259,143 @@ public class Server {
         }
     }
 
+    private void handleHint(Context ctx) {
+        try {
+            String authToken = ctx.header("authorization");
+            if (authToken == null) {
+                throw new DataAccessException("unauthorized");
+            }
+
+            int gameID;
+            try {
+                gameID = Integer.parseInt(ctx.queryParam("gameID"));
+            } catch (NumberFormatException e) {
+                throw new DataAccessException("bad request");
+            }
+
+            List<BookEntry> hints = hintService.getHints(gameID, authToken);
+            ctx.status(200);
+            ctx.json(Map.of("moves", hints));
+        } catch (DataAccessException e) {
+            handleDataAccessException(e, ctx);
+        }
+    }
+
+    private void handleSolvePuzzles(Context ctx) {
+        try {
+            String authToken = ctx.header("authorization");
+            if (authToken == null) {
+                throw new DataAccessException("unauthorized");
+            }
+
+            PuzzleRequest request;
+            try {
+                request = gson.fromJson(ctx.body(), PuzzleRequest.class);
+            } catch (JsonSyntaxException e) {
+                throw new DataAccessException("bad request");
+            }
+            if (request == null) {
+                throw new DataAccessException("bad request");
+            }
+
+            List<MateResult> results = puzzleService.solvePuzzles(request.puzzles(), authToken);
+            ctx.status(200);
+            ctx.json(Map.of("results", results));
+        } catch (DataAccessException e) {
+            handleDataAccessException(e, ctx);
+        }
+    }
+
+    private record PuzzleRequest(List<Puzzle> puzzles) {
+    }
+
+    private void handleAnalysis(Context ctx) {
+        try {
+            String authToken = ctx.header("authorization");
+            if (authToken == null) {
+                throw new DataAccessException("unauthorized");
+            }
+
+            AnalysisRequest request;
+            try {
+                request = gson.fromJson(ctx.body(), AnalysisRequest.class);
+            } catch (JsonSyntaxException e) {
+                throw new DataAccessException("bad request");
+            }
+
+            AnalysisScheduler.Ticket ticket = analysisService.submit(request, authToken);
+            // The request thread is let go while the analysis waits its turn, and a client that
+            // gives up takes its analysis out of the queue with it
+            ctx.future(() -> {
+                Runnable stopWatching = disconnectWatcher.watch(ctx, ticket::cancel);
+                return ticket.result().handle((lines, error) -> {
+                    stopWatching.run();
+                    if (error != null) {
+                        DataAccessException failure = AnalysisService.failure(error);
+                        if (!(failure.getCause() instanceof CancellationException)) {
+                            LOG.error("Analysis failed", failure.getCause());
+                        }
+                        handleDataAccessException(failure, ctx);
+                    } else {
+                        ctx.status(200);
+                        ctx.json(Map.of("lines", lines));
+                    }
+                    return null;
+                });
+            });
+        } catch (DataAccessException e) {
+            handleDataAccessException(e, ctx);
+        }
+    }
+
+    private void handleAnalysisMetrics(Context ctx) {
+        ctx.status(200);
+        ctx.json(analysisScheduler.metrics());
+    }
+
+    private void handleImport(Context ctx) {
+        try {
+            String authToken = ctx.header("authorization");
+            if (authToken == null) {
+                throw new DataAccessException("unauthorized");
+            }
+
+            // The body is read as it arrives rather than held in memory
+            PgnImportPipeline.Summary summary = importService.importGames(ctx.bodyInputStream(), authToken);
+            ctx.status(200);
+            ctx.json(summary);
+        } catch (DataAccessException e) {
+            handleDataAccessException(e, ctx);
+        }
+    }
+
+    private void handleExport(Context ctx) {
+        try {
+            String authToken = ctx.header("authorization");
+            if (authToken == null) {
+                throw new DataAccessException("unauthorized");
+            }
+
+            ExportService.Format format;
+            try {
+                String formatName = ctx.queryParam("format");
+                format = formatName == null ? ExportService.Format.PGN
+                        : ExportService.Format.valueOf(formatName.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new DataAccessException("bad request");
+            }
+
+            ctx.status(200);
+            ctx.contentType(format == ExportService.Format.PGN ? "application/x-chess-pgn" : "application/x-ndjson");
+            // Games go straight to the response as they are read, never all held at once
+            exportService.export(authToken, ctx.queryParam("username"), format, ctx.outputStream());
+        } catch (DataAccessException e) {
+            handleDataAccessException(e, ctx);
+        } catch (IOException e) {
+            // The client stopped reading part way through; there is no one left to tell
+        }
+    }
+
     private void handleDataAccessException(DataAccessException e, Context ctx) {
         String message = ensureErrorPrefix(e.getMessage());
 
@@ -210,6 +405,8 @@ public class Server {
             ctx.status(403);
         } else if (message.contains("bad request")) {
             ctx.status(400);
+        } else if (message.contains("busy") || message.contains("cancelled")) {
+            ctx.status(503);
         } else {
             ctx.status(500);
         }
@@ -0,0 +1,337 @@
+package service;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.Zobrist;
+import chess.engine.EngineOptions;
+import chess.engine.SearchEngine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TaperedEvaluator;
+import model.AnalysisPriority;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs engine analyses on a fixed set of worker threads, one search per thread at a time.
+ * <p>
+ * Waiting analyses are taken LIVE first, then REVIEW, then BULK, oldest first within a priority,
+ * and each gets the time budget of its priority. The queue has a fixed capacity so a burst of
+ * requests is turned away instead of piling up behind the workers. Asking for a position that is
+ * already waiting or running, with the same lines and depth, joins that analysis instead of starting
+ * another one, raising its priority if needed. An analysis is dropped from the queue or stopped
+ * mid-search once everyone who asked for it has cancelled.
+ * <p>
+ * Each worker keeps its own engine and hash table between analyses, so positions from the same game
+ * reuse each other's work.
+ */
+public class AnalysisScheduler implements AutoCloseable {
+    public static final Map<AnalysisPriority, Long> DEFAULT_BUDGETS_MILLIS = Map.of(
+            AnalysisPriority.LIVE, 1000L,
+            AnalysisPriority.REVIEW, 3000L,
+            AnalysisPriority.BULK, 10000L);
+    private static final int HASH_SIZE_MB = 4;
+
+    private final int capacity;
+    private final Map<AnalysisPriority, Long> budgetsMillis;
+
+    // Everything below is guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition jobAvailable = lock.newCondition();
+    private final PriorityQueue<Job> queue = new PriorityQueue<>(
+            Comparator.comparing((Job job) -> job.priority).thenComparingLong(job -> job.sequence));
+    private final Map<JobKey, Job> jobs = new HashMap<>();
+    private long nextSequence;
+    private boolean closed;
+    private int running;
+    private long submitted;
+    private long deduplicated;
+    private long rejected;
+    private long cancelled;
+    private long completed;
+    private long started;
+    private long totalWaitNanos;
+    private long maxWaitNanos;
+
+    /**
+     * @param workerCount   how many analyses run at once
+     * @param capacity      how many analyses may wait before new ones are rejected
+     * @param budgetsMillis the longest each priority's analyses may search
+     */
+    public AnalysisScheduler(int workerCount, int capacity, Map<AnalysisPriority, Long> budgetsMillis) {
+        if (workerCount < 1 || capacity < 1 || !budgetsMillis.keySet().containsAll(EnumSet.allOf(AnalysisPriority.class))) {
+            throw new IllegalArgumentException("Need at least one worker, room in the queue and a budget for every priority");
+        }
+        this.capacity = capacity;
+        this.budgetsMillis = new EnumMap<>(budgetsMillis);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(this::work, "analysis-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * A scheduler with a worker for each core and the default budgets
+     */
+    public static AnalysisScheduler withDefaults(int capacity) {
+        return new AnalysisScheduler(Runtime.getRuntime().availableProcessors(), capacity, DEFAULT_BUDGETS_MILLIS);
+    }
+
+    /**
+     * Queues an analysis of a position, or joins an identical one already queued or running
+     *
+     * @param game      the position; later changes to it do not affect the analysis
+     * @param lineCount how many moves to return
+     * @param depth     how many plies deep to search, time budget allowing
+     * @param priority  how urgently the answer is wanted
+     * @return the caller's hold on the analysis
+     * @throws RejectedExecutionException if the queue is full or the scheduler is closed
+     */
+    public Ticket submit(ChessGame game, int lineCount, int depth, AnalysisPriority priority) {
+        JobKey key = new JobKey(Zobrist.positionKey(game.getBoard(), game.getTeamTurn()), lineCount, depth);
+        lock.lock();
+        try {
+            if (closed) {
+                throw new RejectedExecutionException("Analysis scheduler is closed");
+            }
+            Job job = jobs.get(key);
+            if (job != null) {
+                deduplicated++;
+                job.subscribers++;
+                if (!job.running && priority.compareTo(job.priority) < 0) {
+                    queue.remove(job);
+                    job.priority = priority;
+                    queue.add(job);
+                }
+                return new Ticket(job);
+            }
+            if (queue.size() >= capacity) {
+                rejected++;
+                throw new RejectedExecutionException("Analysis queue is full");
+            }
+
+            ChessGame copy = new ChessGame();
+            copy.setBoard(new ChessBoard(game.getBoard()));
+            copy.setTeamTurn(game.getTeamTurn());
+            job = new Job(key, copy, priority, nextSequence++, System.nanoTime());
+            jobs.put(key, job);
+            queue.add(job);
+            submitted++;
+            jobAvailable.signal();
+            return new Ticket(job);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the scheduler's counters as of now
+     */
+    public Metrics metrics() {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            long oldestWaitNanos = 0;
+            for (Job job : queue) {
+                oldestWaitNanos = Math.max(oldestWaitNanos, now - job.enqueuedNanos);
+            }
+            long averageWaitNanos = started == 0 ? 0 : totalWaitNanos / started;
+            return new Metrics(queue.size(), running, submitted, deduplicated, rejected, cancelled, completed,
+                    averageWaitNanos / 1_000_000, maxWaitNanos / 1_000_000, oldestWaitNanos / 1_000_000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cancels every waiting and running analysis and lets the workers finish
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (Job job : queue) {
+                job.result.cancel(false);
+            }
+            cancelled += queue.size();
+            queue.clear();
+            for (Job job : jobs.values()) {
+                if (job.running) {
+                    job.worker.interrupt();
+                }
+            }
+            jobs.clear();
+            jobAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void work() {
+        SearchEngine engine = new SearchEngine(EngineOptions.defaults().withHashSizeMb(HASH_SIZE_MB),
+                new TaperedEvaluator());
+        while (true) {
+            Job job;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !closed) {
+                    jobAvailable.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                job = queue.poll();
+                job.running = true;
+                job.worker = Thread.currentThread();
+                running++;
+                started++;
+                long waitNanos = System.nanoTime() - job.enqueuedNanos;
+                totalWaitNanos += waitNanos;
+                maxWaitNanos = Math.max(maxWaitNanos, waitNanos);
+            } finally {
+                lock.unlock();
+            }
+
+            List<SearchResult> lines = null;
+            RuntimeException failure = null;
+            try {
+                SearchLimits limits = new SearchLimits(0, 0, 0, 0, budgetsMillis.get(job.priority), job.depth(), 0);
+                lines = engine.searchLines(job.game, limits, job.lineCount());
+                // A position without legal moves has a single line with no move
+                if (lines.getFirst().bestMove() == null) {
+                    lines = List.of();
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                running--;
+                job.running = false;
+                jobs.remove(job.key, job);
+                // Cancelling interrupts only while the job runs, so clearing here keeps it off the next job
+                boolean interrupted = Thread.interrupted();
+                if (job.subscribers == 0 || interrupted) {
+                    job.result.cancel(false);
+                } else if (failure != null) {
+                    job.result.completeExceptionally(failure);
+                } else {
+                    completed++;
+                    job.result.complete(lines);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void unsubscribe(Job job) {
+        lock.lock();
+        try {
+            job.subscribers--;
+            if (job.subscribers > 0 || job.result.isDone()) {
+                return;
+            }
+            cancelled++;
+            jobs.remove(job.key, job);
+            if (job.running) {
+                // The engine checks for interrupts as it searches, and this also covers a search not yet started
+                job.worker.interrupt();
+            } else if (queue.remove(job)) {
+                job.result.cancel(false);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * One caller's hold on an analysis, which may be shared with other callers
+     */
+    public final class Ticket {
+        private final Job job;
+        private final CompletableFuture<List<SearchResult>> result;
+        private boolean cancelled;
+
+        private Ticket(Job job) {
+            this.job = job;
+            this.result = job.result.copy();
+        }
+
+        /**
+         * @return the lines, best first and empty without legal moves, failing if the analysis was cancelled
+         */
+        public CompletableFuture<List<SearchResult>> result() {
+            return result;
+        }
+
+        /**
+         * Gives up this caller's interest in the analysis, stopping it if nobody else is waiting on it
+         */
+        public void cancel() {
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+            }
+            result.cancel(false);
+            unsubscribe(job);
+        }
+    }
+
+    /**
+     * @param queueDepth        analyses waiting for a worker
+     * @param running           analyses being searched
+     * @param submitted         analyses queued since the scheduler started
+     * @param deduplicated      requests that joined an analysis already queued or running
+     * @param rejected          requests turned away because the queue was full
+     * @param cancelled         analyses dropped or stopped because every caller cancelled
+     * @param completed         analyses that finished with an answer
+     * @param averageWaitMillis how long started analyses waited for a worker on average
+     * @param maxWaitMillis     the longest any started analysis waited for a worker
+     * @param oldestWaitMillis  how long the longest waiting analysis has been queued so far
+     */
+    public record Metrics(int queueDepth, int running, long submitted, long deduplicated, long rejected,
+                          long cancelled, long completed, long averageWaitMillis, long maxWaitMillis,
+                          long oldestWaitMillis) {
+    }
+
+    private record JobKey(long positionKey, int lineCount, int depth) {
+    }
+
+    private static final class Job {
+        final JobKey key;
+        final ChessGame game;
+        final long sequence;
+        final long enqueuedNanos;
+        final CompletableFuture<List<SearchResult>> result = new CompletableFuture<>();
+        AnalysisPriority priority;
+        int subscribers = 1;
+        boolean running;
+        Thread worker;
+
+        Job(JobKey key, ChessGame game, AnalysisPriority priority, long sequence, long enqueuedNanos) {
+            this.key = key;
+            this.game = game;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+
+        int lineCount() {
+            return key.lineCount();
+        }
+
+        int depth() {
+            return key.depth();
+        }
+    }
+}
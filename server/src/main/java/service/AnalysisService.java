@@ -0,0 +1,108 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.SearchResult;
+import dataaccess.*;
+import model.AnalysisPriority;
+import model.AnalysisRequest;
+import model.GameData;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AnalysisService {
+    public static final int DEFAULT_LINES = 3;
+    public static final int MAX_LINES = 5;
+    public static final int DEFAULT_DEPTH = 8;
+    public static final int MAX_DEPTH = 16;
+
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final AnalysisScheduler scheduler;
+
+    public AnalysisService(GameDAO gameDAO, AuthDAO authDAO, AnalysisScheduler scheduler) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Finds the best few moves of a position, each with its score and expected line of play, waiting
+     * for the answer
+     *
+     * @return the lines, best first, fewer than asked for if the position has fewer legal moves
+     */
+    public List<SearchResult> analyze(AnalysisRequest request, String authToken) throws DataAccessException {
+        try {
+            return submit(request, authToken).result().join();
+        } catch (CancellationException | CompletionException e) {
+            throw failure(e);
+        }
+    }
+
+    /**
+     * Turns the way an analysis's result failed into the error to report: a cancelled analysis is
+     * reported as such, and anything else as a failure carrying what the search threw
+     *
+     * @param error what the result failed with, wrapped in a CompletionException or not
+     */
+    public static DataAccessException failure(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException) {
+            return new DataAccessException("Error: analysis cancelled", cause);
+        }
+        return new DataAccessException("Error: analysis failed", cause);
+    }
+
+    /**
+     * Queues an analysis of a position without waiting for it. Deep requests return what the search
+     * has found when the priority's time budget runs out.
+     *
+     * @return the caller's hold on the analysis, whose result has the lines, best first
+     */
+    public AnalysisScheduler.Ticket submit(AnalysisRequest request, String authToken) throws DataAccessException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+
+        if (request == null || (request.fen() == null) == (request.gameID() == null)) {
+            throw new DataAccessException("Error: bad request");
+        }
+        int lineCount = request.lines() == null ? DEFAULT_LINES : request.lines();
+        int depth = request.depth() == null ? DEFAULT_DEPTH : request.depth();
+        if (lineCount < 1 || lineCount > MAX_LINES || depth < 1 || depth > MAX_DEPTH) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        ChessGame game = request.fen() != null ? readFen(request.fen()) : storedGame(request.gameID());
+        if (game.getBoard().getKingPosition(ChessGame.TeamColor.WHITE) == null
+                || game.getBoard().getKingPosition(ChessGame.TeamColor.BLACK) == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        AnalysisPriority priority = request.priority() == null ? AnalysisPriority.REVIEW : request.priority();
+        try {
+            return scheduler.submit(game, lineCount, depth, priority);
+        } catch (RejectedExecutionException e) {
+            throw new DataAccessException("Error: server busy");
+        }
+    }
+
+    private static ChessGame readFen(String fen) throws DataAccessException {
+        try {
+            return ChessGame.fromFen(fen);
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException("Error: bad request");
+        }
+    }
+
+    private ChessGame storedGame(int gameID) throws DataAccessException {
+        GameData game = gameDAO.getGame(gameID);
+        if (game == null || game.game() == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+        return game.game();
+    }
+}
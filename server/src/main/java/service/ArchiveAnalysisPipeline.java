@@ -0,0 +1,276 @@
+package service;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.Zobrist;
+import chess.engine.EngineOptions;
+import chess.engine.SearchEngine;
+import chess.engine.SearchLimits;
+import chess.engine.TaperedEvaluator;
+import dataaccess.DataAccessException;
+import dataaccess.GameAnalysisDAO;
+import dataaccess.GameDAO;
+import model.GameAnalysis;
+import model.GameData;
+import model.PlyAnalysis;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reviews every stored game offline: each game is replayed from its move history, every position
+ * is searched to a fixed depth, and each move gets an evaluation, an accuracy and a blunder flag.
+ * <p>
+ * Games are read a page at a time and handled in batches. No database read is left open while a
+ * batch is searched, since a stream would stall on the server for as long as the searches run and
+ * the server gives up on a stalled stream after a minute. The positions of a batch that have not been
+ * searched before are searched in parallel on a fork/join pool, and the batch's analyses are then
+ * written together. Scores are kept by position, so an opening shared by many games is only searched
+ * once. Only the first {@link #CACHED_PLIES} plies are kept across batches, since later positions
+ * rarely come up again and would make the cache grow with the archive.
+ * <p>
+ * Accuracy follows the winning chances of the mover before and after the move, as estimated from the
+ * centipawn score, so a pawn thrown away in an even position costs more than one thrown away when
+ * already a rook up.
+ */
+public class ArchiveAnalysisPipeline {
+    public static final int DEFAULT_DEPTH = 8;
+    /** Games handled together; also how many are written per database batch */
+    static final int BATCH_GAMES = 64;
+    static final int CACHED_PLIES = 24;
+    /** A move that drops the mover's winning chances by this many percentage points is a blunder */
+    static final double BLUNDER_WIN_DROP = 15;
+    private static final int HASH_SIZE_MB = 4;
+
+    private final GameDAO gameDAO;
+    private final GameAnalysisDAO analysisDAO;
+    private final int depth;
+    private final ForkJoinPool pool;
+    // Scores by Zobrist key, from white's point of view. Only the thread running the pipeline uses it.
+    private final Map<Long, Integer> cache = new HashMap<>();
+    private final ThreadLocal<SearchEngine> engines = ThreadLocal.withInitial(
+            () -> new SearchEngine(EngineOptions.defaults().withHashSizeMb(HASH_SIZE_MB), new TaperedEvaluator()));
+
+    /**
+     * @param depth how many plies deep to search each position
+     * @param pool  the pool the searches run on, one per worker at a time
+     */
+    public ArchiveAnalysisPipeline(GameDAO gameDAO, GameAnalysisDAO analysisDAO, int depth, ForkJoinPool pool) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1");
+        }
+        this.gameDAO = gameDAO;
+        this.analysisDAO = analysisDAO;
+        this.depth = depth;
+        this.pool = pool;
+    }
+
+    /**
+     * Analyzes every stored game that has moves, replacing earlier analyses. Games whose move
+     * history does not lead to their current position, such as ones whose board was set directly,
+     * are skipped.
+     *
+     * @return what was done
+     */
+    public Summary run() throws DataAccessException {
+        int analyzed = 0;
+        int skipped = 0;
+        long positions = 0;
+        long searches = 0;
+        List<ReplayedGame> batch = new ArrayList<>(BATCH_GAMES);
+        int lastGameID = 0;
+        List<GameData> page;
+        do {
+            page = gameDAO.listGamesAfter(lastGameID, BATCH_GAMES);
+            for (GameData data : page) {
+                lastGameID = data.gameID();
+                ReplayedGame game = replay(data);
+                if (game == null) {
+                    skipped++;
+                    continue;
+                }
+                batch.add(game);
+                positions += game.positions().size();
+                if (batch.size() == BATCH_GAMES) {
+                    searches += analyzeBatch(batch);
+                    analyzed += batch.size();
+                    batch.clear();
+                }
+            }
+        } while (page.size() == BATCH_GAMES);
+        if (!batch.isEmpty()) {
+            searches += analyzeBatch(batch);
+            analyzed += batch.size();
+        }
+        return new Summary(analyzed, skipped, positions, searches);
+    }
+
+    /**
+     * @param games     games analyzed
+     * @param skipped   games without moves or whose moves could not be replayed
+     * @param positions positions in the analyzed games, counting repeats
+     * @param searches  positions actually searched, the rest coming from the cache
+     */
+    public record Summary(int games, int skipped, long positions, long searches) {
+    }
+
+    private record Position(long key, ChessGame game) {
+    }
+
+    private record ReplayedGame(int gameID, List<Position> positions) {
+    }
+
+    private static ReplayedGame replay(GameData data) {
+        ChessGame stored = data.game();
+        if (stored == null || stored.getMoveHistory().isEmpty()) {
+            return null;
+        }
+        ChessGame replay = new ChessGame();
+        List<Position> positions = new ArrayList<>(stored.getMoveHistory().size() + 1);
+        positions.add(snapshot(replay));
+        try {
+            for (ChessMove move : stored.getMoveHistory()) {
+                replay.makeMove(move);
+                positions.add(snapshot(replay));
+            }
+        } catch (InvalidMoveException e) {
+            return null;
+        }
+        if (!replay.getBoard().equals(stored.getBoard()) || replay.getTeamTurn() != stored.getTeamTurn()) {
+            return null;
+        }
+        return new ReplayedGame(data.gameID(), positions);
+    }
+
+    private static Position snapshot(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(new ChessBoard(game.getBoard()));
+        copy.setTeamTurn(game.getTeamTurn());
+        return new Position(Zobrist.positionKey(copy.getBoard(), copy.getTeamTurn()), copy);
+    }
+
+    /**
+     * @return how many positions were searched
+     */
+    private int analyzeBatch(List<ReplayedGame> batch) throws DataAccessException {
+        // Each position not already known is searched once however often it appears in the batch
+        Map<Long, Position> unknown = new LinkedHashMap<>();
+        Set<Long> cacheable = new HashSet<>();
+        for (ReplayedGame game : batch) {
+            for (int ply = 0; ply < game.positions().size(); ply++) {
+                Position position = game.positions().get(ply);
+                if (!cache.containsKey(position.key())) {
+                    unknown.putIfAbsent(position.key(), position);
+                    if (ply < CACHED_PLIES) {
+                        cacheable.add(position.key());
+                    }
+                }
+            }
+        }
+
+        Position[] toSearch = unknown.values().toArray(new Position[0]);
+        int[] scores = new int[toSearch.length];
+        pool.invoke(new SearchPositions(toSearch, scores, 0, toSearch.length));
+        Map<Long, Integer> batchScores = new HashMap<>();
+        for (int i = 0; i < toSearch.length; i++) {
+            batchScores.put(toSearch[i].key(), scores[i]);
+            if (cacheable.contains(toSearch[i].key())) {
+                cache.put(toSearch[i].key(), scores[i]);
+            }
+        }
+
+        List<GameAnalysis> analyses = new ArrayList<>(batch.size());
+        for (ReplayedGame game : batch) {
+            analyses.add(analyze(game, batchScores));
+        }
+        analysisDAO.saveAnalyses(analyses);
+        return toSearch.length;
+    }
+
+    private GameAnalysis analyze(ReplayedGame game, Map<Long, Integer> scores) {
+        List<PlyAnalysis> plies = new ArrayList<>(game.positions().size() - 1);
+        double[] accuracyTotals = new double[2];
+        int[] moveCounts = new int[2];
+        for (int ply = 1; ply < game.positions().size(); ply++) {
+            Position before = game.positions().get(ply - 1);
+            int evalBefore = knownScore(before.key(), scores);
+            int evalAfter = knownScore(game.positions().get(ply).key(), scores);
+            ChessGame.TeamColor mover = before.game().getTeamTurn();
+            int sign = mover == ChessGame.TeamColor.WHITE ? 1 : -1;
+
+            double winDrop = Math.max(0, winPercent(sign * evalBefore) - winPercent(sign * evalAfter));
+            double accuracy = Math.clamp(103.1668 * Math.exp(-0.04354 * winDrop) - 3.1669, 0, 100);
+            plies.add(new PlyAnalysis(ply, evalAfter, accuracy, winDrop >= BLUNDER_WIN_DROP));
+            accuracyTotals[mover.ordinal()] += accuracy;
+            moveCounts[mover.ordinal()]++;
+        }
+        return new GameAnalysis(game.gameID(), depth, average(accuracyTotals[0], moveCounts[0]),
+                average(accuracyTotals[1], moveCounts[1]), plies);
+    }
+
+    private int knownScore(long key, Map<Long, Integer> batchScores) {
+        Integer score = batchScores.get(key);
+        return score != null ? score : cache.get(key);
+    }
+
+    /**
+     * The side's chance of winning, 0-100, given its score in centipawns
+     */
+    static double winPercent(int centipawns) {
+        return 50 + 50 * (2 / (1 + Math.exp(-0.00368208 * centipawns)) - 1);
+    }
+
+    private static Double average(double total, int count) {
+        return count == 0 ? null : total / count;
+    }
+
+    /**
+     * The position's score from white's point of view
+     */
+    private int score(ChessGame game) {
+        ChessGame.TeamColor team = game.getTeamTurn();
+        int score;
+        // The engine reports no score for a position without moves
+        if (game.isInCheckmate(team)) {
+            score = -SearchEngine.MATE_SCORE;
+        } else if (game.isInStalemate(team)) {
+            score = 0;
+        } else {
+            SearchEngine engine = engines.get();
+            // Cached scores are shared between games, so none may depend on what a thread searched before
+            engine.clearHash();
+            score = engine.search(game, SearchLimits.depth(depth)).score();
+        }
+        return team == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    private final class SearchPositions extends RecursiveAction {
+        private final Position[] positions;
+        private final int[] scores;
+        private final int from;
+        private final int to;
+
+        SearchPositions(Position[] positions, int[] scores, int from, int to) {
+            this.positions = positions;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    scores[from] = score(positions[from].game());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new SearchPositions(positions, scores, from, middle),
+                    new SearchPositions(positions, scores, middle, to));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package service;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.engine.TuningCorpus;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Builds a tuning corpus from the finished games in the archive. A game is finished when its
+ * final position is checkmate or stalemate; games still in progress have no result to learn from.
+ * <p>
+ * Every position of a finished game is labelled with the game's result except the opening plies,
+ * which say little about the outcome, and positions that are not quiet: the side to move in check,
+ * or the move before a capture. The evaluation can not judge those without searching.
+ */
+public class ArchiveCorpusBuilder {
+    public static final int DEFAULT_SKIPPED_PLIES = 8;
+
+    private final GameDAO gameDAO;
+    private final int skippedPlies;
+
+    public ArchiveCorpusBuilder(GameDAO gameDAO, int skippedPlies) {
+        this.gameDAO = gameDAO;
+        this.skippedPlies = skippedPlies;
+    }
+
+    /**
+     * @return the positions of every finished game that replays to its stored position
+     */
+    public TuningCorpus build() throws DataAccessException {
+        TuningCorpus corpus = new TuningCorpus();
+        try (Stream<GameData> games = gameDAO.streamGames()) {
+            Iterator<GameData> iterator = games.iterator();
+            while (iterator.hasNext()) {
+                GameData game = iterator.next();
+                if (game.game() != null) {
+                    addGame(game.game(), corpus);
+                }
+            }
+        }
+        return corpus;
+    }
+
+    private void addGame(ChessGame stored, TuningCorpus corpus) {
+        ChessGame.TeamColor loser = stored.getTeamTurn();
+        double result;
+        if (stored.isInCheckmate(loser)) {
+            result = loser == ChessGame.TeamColor.WHITE ? 0 : 1;
+        } else if (stored.isInStalemate(loser)) {
+            result = 0.5;
+        } else {
+            return;
+        }
+
+        // The positions go into the corpus only once the whole history is known to replay
+        List<ChessBoard> positions = new ArrayList<>();
+        ChessGame replay = new ChessGame();
+        int ply = 0;
+        try {
+            for (ChessMove move : stored.getMoveHistory()) {
+                boolean capture = replay.getBoard().getPiece(move.getEndPosition()) != null;
+                if (ply >= skippedPlies && !capture && !replay.isInCheck(replay.getTeamTurn())) {
+                    positions.add(new ChessBoard(replay.getBoard()));
+                }
+                replay.makeMove(move);
+                ply++;
+            }
+        } catch (InvalidMoveException e) {
+            return;
+        }
+        if (replay.getBoard().equals(stored.getBoard())) {
+            for (ChessBoard board : positions) {
+                corpus.add(board, result);
+            }
+        }
+    }
+}
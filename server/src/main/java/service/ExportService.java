@@ -0,0 +1,93 @@
+package service;
+
+import chess.ChessJson;
+import chess.pgn.PgnWriter;
+import com.google.gson.Gson;
+import dataaccess.*;
+import model.GameData;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class ExportService {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    public enum Format {
+        /** One PGN game after another */
+        PGN,
+        /** One JSON game per line */
+        NDJSON
+    }
+
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final Gson gson = ChessJson.create();
+
+    public ExportService(GameDAO gameDAO, AuthDAO authDAO) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+    }
+
+    /**
+     * Writes games out as they are read from the database, so memory use stays the same however
+     * many there are. Nothing is written unless the caller is logged in.
+     *
+     * @param username only the games this user plays in, or every game if null
+     * @param out      where the games go; flushed but not closed
+     * @return how many games were written
+     * @throws IOException if the games cannot be written to the output
+     */
+    public int export(String authToken, String username, Format format, OutputStream out)
+            throws DataAccessException, IOException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+        if (format == null || out == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        int count = 0;
+        try (Stream<GameData> games = gameDAO.streamGames(username)) {
+            Iterator<GameData> iterator = games.iterator();
+            if (format == Format.PGN) {
+                PgnWriter writer = new PgnWriter(out);
+                while (iterator.hasNext()) {
+                    GameData game = iterator.next();
+                    // A game without a board has no position to write
+                    if (game.game() != null) {
+                        writer.write(tags(game), game.game());
+                        count++;
+                    }
+                }
+                writer.flush();
+            } else {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+                while (iterator.hasNext()) {
+                    gson.toJson(iterator.next(), GameData.class, writer);
+                    writer.write('\n');
+                    count++;
+                }
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The Seven Tag Roster, less the result, which the writer works out from the position
+     */
+    private static Map<String, String> tags(GameData game) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", game.gameName());
+        tags.put("Site", "?");
+        tags.put("Date", "????.??.??");
+        tags.put("Round", "-");
+        tags.put("White", game.whiteUsername() == null ? "?" : game.whiteUsername());
+        tags.put("Black", game.blackUsername() == null ? "?" : game.blackUsername());
+        return tags;
+    }
+}
@@ -34,7 +34,7 @@ public class GameService {
             throw new DataAccessException("Error: unauthorized");
         }
 
-        return gameDAO.listGames();
+        return gameDAO.listGameSummaries();
     }
 
     public void joinGame(ChessGame.TeamColor playerColor, int gameID, String authToken)
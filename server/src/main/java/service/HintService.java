@@ -0,0 +1,42 @@
+package service;
+
+import chess.engine.BookEntry;
+import chess.engine.OpeningBook;
+import dataaccess.*;
+import model.GameData;
+
+import java.util.List;
+
+public class HintService {
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final OpeningBook openingBook;
+
+    /**
+     * @param openingBook the book to look moves up in, or null if the server has none
+     */
+    public HintService(GameDAO gameDAO, AuthDAO authDAO, OpeningBook openingBook) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Looks up the book moves for a game's current position, heaviest first
+     */
+    public List<BookEntry> getHints(int gameID, String authToken) throws DataAccessException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+
+        GameData game = gameDAO.getGame(gameID);
+        if (game == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+
+        if (openingBook == null) {
+            return List.of();
+        }
+        return openingBook.probe(game.game());
+    }
+}
@@ -0,0 +1,37 @@
+package service;
+
+import dataaccess.*;
+
+import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
+
+public class ImportService {
+    private final GameDAO gameDAO;
+    private final AuthDAO authDAO;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param pool the pool imported games are played on
+     */
+    public ImportService(GameDAO gameDAO, AuthDAO authDAO, ForkJoinPool pool) {
+        this.gameDAO = gameDAO;
+        this.authDAO = authDAO;
+        this.pool = pool;
+    }
+
+    /**
+     * Stores every game in the PGN text that can be played, skipping the rest
+     *
+     * @param pgn PGN text in UTF-8, read as it arrives; closed when done
+     * @return how many games were stored and skipped, and how fast
+     */
+    public PgnImportPipeline.Summary importGames(InputStream pgn, String authToken) throws DataAccessException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+        if (pgn == null) {
+            throw new DataAccessException("Error: bad request");
+        }
+        return new PgnImportPipeline(gameDAO, pool).run(pgn);
+    }
+}
@@ -0,0 +1,176 @@
+package service;
+
+import chess.pgn.PgnGame;
+import chess.pgn.PgnReader;
+import chess.pgn.PgnRecord;
+import dataaccess.DataAccessException;
+import dataaccess.GameDAO;
+import model.GameData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+/**
+ * Imports the games in PGN text into the game store.
+ * <p>
+ * The calling thread only splits the text into each game's tags and moves. Playing the moves, which
+ * checks that every one is legal, is most of the work, so a batch of games is played on a fork/join
+ * pool while the calling thread reads the next batch and stores the one before it. Each batch is
+ * stored in one transaction. Games that cannot be played are skipped, and the reasons for the first
+ * few are kept.
+ */
+public class PgnImportPipeline {
+    /** Games played together and stored in one transaction */
+    static final int BATCH_GAMES = 1000;
+    /** Games one fork/join task plays without splitting further */
+    static final int GAMES_PER_TASK = 32;
+    static final int MAX_ERRORS = 20;
+    static final int MAX_NAME_LENGTH = 255;
+
+    private final GameDAO gameDAO;
+    private final ForkJoinPool pool;
+    private final Consumer<Summary> progress;
+
+    /**
+     * @param pool the pool the games are played on
+     */
+    public PgnImportPipeline(GameDAO gameDAO, ForkJoinPool pool) {
+        this(gameDAO, pool, summary -> {
+        });
+    }
+
+    /**
+     * @param pool     the pool the games are played on
+     * @param progress told the totals so far after each batch is stored
+     */
+    public PgnImportPipeline(GameDAO gameDAO, ForkJoinPool pool, Consumer<Summary> progress) {
+        this.gameDAO = gameDAO;
+        this.pool = pool;
+        this.progress = progress;
+    }
+
+    /**
+     * Imports every game in the text. The batches stored before a failure stay stored.
+     *
+     * @param pgn PGN text in UTF-8; closed when done
+     * @return what was imported
+     * @throws DataAccessException if the text cannot be read or the games cannot be stored
+     */
+    public Summary run(InputStream pgn) throws DataAccessException {
+        Tally tally = new Tally(System.nanoTime());
+        PlayGames playing = null;
+        try (PgnReader reader = new PgnReader(pgn)) {
+            while (playing != null || reader.hasNext()) {
+                PlayGames next = null;
+                if (reader.hasNext()) {
+                    List<PgnRecord> batch = new ArrayList<>(BATCH_GAMES);
+                    while (batch.size() < BATCH_GAMES && reader.hasNext()) {
+                        batch.add(reader.nextRecord());
+                    }
+                    next = new PlayGames(batch.toArray(new PgnRecord[0]), new PgnGame[batch.size()], 0, batch.size());
+                    pool.execute(next);
+                }
+                if (playing != null) {
+                    playing.join();
+                    store(playing.games, tally);
+                    progress.accept(tally.summary());
+                }
+                playing = next;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            throw new DataAccessException("Error: cannot read games: " + e.getMessage());
+        }
+        return tally.summary();
+    }
+
+    /**
+     * @param imported       games stored
+     * @param rejected       games skipped because they could not be read or played
+     * @param gamesPerSecond games read, stored or not, per second of the run so far
+     * @param errors         why the first few rejected games were rejected
+     */
+    public record Summary(int imported, int rejected, double gamesPerSecond, List<String> errors) {
+    }
+
+    private static final class Tally {
+        private final long startNanos;
+        private final List<String> errors = new ArrayList<>();
+        private int imported;
+        private int rejected;
+
+        Tally(long startNanos) {
+            this.startNanos = startNanos;
+        }
+
+        Summary summary() {
+            double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1e9;
+            return new Summary(imported, rejected, (imported + rejected) / seconds, List.copyOf(errors));
+        }
+    }
+
+    private void store(PgnGame[] games, Tally tally) throws DataAccessException {
+        List<GameData> valid = new ArrayList<>(games.length);
+        for (PgnGame game : games) {
+            if (game.valid()) {
+                valid.add(new GameData(0, null, null, gameName(game), game.game()));
+            } else {
+                tally.rejected++;
+                if (tally.errors.size() < MAX_ERRORS) {
+                    tally.errors.add("Line " + game.line() + ": " + game.error());
+                }
+            }
+        }
+        if (!valid.isEmpty()) {
+            gameDAO.createGames(valid);
+            tally.imported += valid.size();
+        }
+    }
+
+    /**
+     * Names the game after its players, or its event if they are not given. The players are not
+     * stored as the game's usernames, which belong to this server's accounts.
+     */
+    static String gameName(PgnGame game) {
+        String white = game.tags().get("White");
+        String black = game.tags().get("Black");
+        String name;
+        if (white != null && black != null) {
+            name = white + " vs " + black;
+        } else {
+            name = game.tags().getOrDefault("Event", "Imported game");
+        }
+        return name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+    }
+
+    private static final class PlayGames extends RecursiveAction {
+        private final PgnRecord[] records;
+        private final PgnGame[] games;
+        private final int from;
+        private final int to;
+
+        PlayGames(PgnRecord[] records, PgnGame[] games, int from, int to) {
+            this.records = records;
+            this.games = games;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    games[i] = records[i].replay();
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new PlayGames(records, games, from, middle), new PlayGames(records, games, middle, to));
+        }
+    }
+}
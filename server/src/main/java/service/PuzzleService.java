@@ -0,0 +1,48 @@
+package service;
+
+import chess.engine.MateResult;
+import chess.engine.MateSolver;
+import dataaccess.*;
+import model.Puzzle;
+
+import java.util.List;
+
+public class PuzzleService {
+    public static final int MAX_PUZZLES = 100;
+    public static final int MAX_MATE_IN = 8;
+    // Keeps one hard puzzle from holding up the rest of the batch
+    private static final long NODE_LIMIT = 2_000_000;
+    private static final int HASH_BITS = 18;
+
+    private final AuthDAO authDAO;
+
+    public PuzzleService(AuthDAO authDAO) {
+        this.authDAO = authDAO;
+    }
+
+    /**
+     * Checks each puzzle for a forced mate by the side to move within its number of moves.
+     * Puzzles are solved in parallel, each with its own solver.
+     *
+     * @return one result per puzzle, in the same order
+     */
+    public List<MateResult> solvePuzzles(List<Puzzle> puzzles, String authToken) throws DataAccessException {
+        if (authDAO.getAuth(authToken) == null) {
+            throw new DataAccessException("Error: unauthorized");
+        }
+
+        if (puzzles == null || puzzles.isEmpty() || puzzles.size() > MAX_PUZZLES) {
+            throw new DataAccessException("Error: bad request");
+        }
+        for (Puzzle puzzle : puzzles) {
+            if (puzzle == null || puzzle.game() == null || puzzle.game().getBoard() == null
+                    || puzzle.mateIn() < 1 || puzzle.mateIn() > MAX_MATE_IN) {
+                throw new DataAccessException("Error: bad request");
+            }
+        }
+
+        return puzzles.parallelStream()
+                .map(puzzle -> new MateSolver(HASH_BITS).solve(puzzle.game(), puzzle.mateIn(), NODE_LIMIT))
+                .toList();
+    }
+}
@@ -1,10 +1,16 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
 import model.*;
 import org.junit.jupiter.api.*;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -14,12 +20,14 @@ public class DataAccessTest {
     private static MySQLUserDAO userDAO;
     private static MySQLAuthDAO authDAO;
     private static MySQLGameDAO gameDAO;
+    private static MySQLGameAnalysisDAO analysisDAO;
 
     @BeforeAll
     public static void init() throws DataAccessException {
         userDAO = new MySQLUserDAO();
         authDAO = new MySQLAuthDAO();
         gameDAO = new MySQLGameDAO();
+        analysisDAO = new MySQLGameAnalysisDAO();
     }
 
     @BeforeEach
@@ -407,4 +415,158 @@ public class DataAccessTest {
         assertNotNull(retrieved);
         assertEquals(originalGameID, retrieved.gameID());
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(31)
+    @DisplayName("Stream Games Success")
+    public void streamGamesSuccess() throws DataAccessException {
+        gameDAO.createGame(new GameData(0, null, null, "Game 1", new ChessGame()));
+        gameDAO.createGame(new GameData(0, null, null, "Game 2", new ChessGame()));
+
+        try (Stream<GameData> games = gameDAO.streamGames()) {
+            assertEquals(2, games.count());
+        }
+    }
+
+    @Test
+    @Order(32)
+    @DisplayName("Save Analysis Replaces Earlier One")
+    public void saveAnalysisReplacesEarlierOne() throws DataAccessException {
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Test Game", new ChessGame()));
+        analysisDAO.saveAnalyses(List.of(new GameAnalysis(gameID, 4, 90.0, null, List.of(
+                new PlyAnalysis(1, 30, 90.0, false)))));
+        GameAnalysis analysis = new GameAnalysis(gameID, 6, 95.5, 20.0, List.of(
+                new PlyAnalysis(1, 25, 95.5, false),
+                new PlyAnalysis(2, 400, 20.0, true)));
+
+        analysisDAO.saveAnalyses(List.of(analysis));
+
+        assertEquals(analysis, analysisDAO.getAnalysis(gameID));
+    }
+
+    @Test
+    @Order(33)
+    @DisplayName("Analysis Deleted With Game")
+    public void analysisDeletedWithGame() throws DataAccessException {
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Test Game", new ChessGame()));
+        analysisDAO.saveAnalyses(List.of(new GameAnalysis(gameID, 4, 90.0, null, List.of(
+                new PlyAnalysis(1, 30, 90.0, false)))));
+
+        gameDAO.clear();
+
+        assertNull(analysisDAO.getAnalysis(gameID));
+    }
+
+    @Test
+    @Order(34)
+    @DisplayName("Stored Game Keeps History")
+    public void storedGameKeepsHistory() throws DataAccessException, InvalidMoveException {
+        ChessGame chessGame = new ChessGame();
+        chessGame.makeMove(ChessMove.fromUci("e2e4"));
+        chessGame.makeMove(ChessMove.fromUci("e7e5"));
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Test Game", chessGame));
+
+        ChessGame retrieved = gameDAO.getGame(gameID).game();
+
+        assertEquals(chessGame, retrieved);
+        assertEquals(chessGame.getMoveHistory(), retrieved.getMoveHistory());
+    }
+
+    @Test
+    @Order(35)
+    @DisplayName("JSON Game Still Read")
+    public void jsonGameStillRead() throws Exception {
+        ChessGame chessGame = new ChessGame();
+        chessGame.makeMove(ChessMove.fromUci("g1f3"));
+        try (var conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement("INSERT INTO games (gameName, game) VALUES ('Old Game', ?)")) {
+            ps.setBytes(1, new Gson().toJson(chessGame).getBytes(StandardCharsets.UTF_8));
+            ps.executeUpdate();
+        }
+
+        try (Stream<GameData> games = gameDAO.streamGames()) {
+            GameData old = games.filter(game -> game.gameName().equals("Old Game")).findFirst().orElseThrow();
+            assertEquals(chessGame, old.game());
+            assertEquals(chessGame.getMoveHistory(), old.game().getMoveHistory());
+        }
+    }
+
+    @Test
+    @Order(36)
+    @DisplayName("Create Games Stores Every Game")
+    public void createGamesStoresEveryGame() throws DataAccessException {
+        gameDAO.createGames(List.of(
+                new GameData(0, null, null, "Batch 1", new ChessGame()),
+                new GameData(0, null, null, "Batch 2", new ChessGame())));
+
+        assertEquals(2, gameDAO.listGames().size());
+    }
+
+    @Test
+    @Order(37)
+    @DisplayName("Create Games Stores None On Bad Game")
+    public void createGamesStoresNoneOnBadGame() throws DataAccessException {
+        assertThrows(DataAccessException.class, () -> gameDAO.createGames(List.of(
+                new GameData(0, null, null, "Batch 1", new ChessGame()),
+                new GameData(0, null, null, null, new ChessGame()))));
+
+        assertTrue(gameDAO.listGames().isEmpty());
+    }
+
+    @Test
+    @Order(38)
+    @DisplayName("Added Moves Are Read Back")
+    public void addedMovesAreReadBack() throws DataAccessException, InvalidMoveException {
+        ChessGame chessGame = new ChessGame();
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Moves", chessGame));
+        for (String uci : List.of("e2e4", "e7e5", "g1f3")) {
+            chessGame.makeMove(ChessMove.fromUci(uci));
+            gameDAO.addMove(gameID, chessGame);
+        }
+
+        ChessGame stored = gameDAO.getGame(gameID).game();
+        assertEquals(chessGame, stored);
+        assertEquals(chessGame.getMoveHistory(), stored.getMoveHistory());
+    }
+
+    @Test
+    @Order(39)
+    @DisplayName("Add Move Rejects Stale Game")
+    public void addMoveRejectsStaleGame() throws DataAccessException, InvalidMoveException {
+        ChessGame chessGame = new ChessGame();
+        int gameID = gameDAO.createGame(new GameData(0, null, null, "Moves", chessGame));
+        String[] shuffle = {"g1f3", "g8f6", "f3g1", "f6g8"};
+        for (int ply = 0; ply < MySQLGameDAO.SNAPSHOT_PLIES + 2; ply++) {
+            chessGame.makeMove(ChessMove.fromUci(shuffle[ply % shuffle.length]));
+            gameDAO.addMove(gameID, chessGame);
+        }
+
+        assertThrows(DataAccessException.class, () -> gameDAO.addMove(gameID, chessGame));
+        ChessGame stored = gameDAO.getGame(gameID).game();
+        assertEquals(chessGame.getMoveHistory(), stored.getMoveHistory());
+        assertThrows(DataAccessException.class, () -> gameDAO.addMove(gameID + 1, chessGame));
+    }
+
+    @Test
+    @Order(40)
+    @DisplayName("Game Summaries Leave Out Games")
+    public void gameSummariesLeaveOutGames() throws DataAccessException {
+        int gameID = gameDAO.createGame(new GameData(0, "white", null, "Summary", new ChessGame()));
+
+        Collection<GameData> summaries = gameDAO.listGameSummaries();
+        assertEquals(List.of(new GameData(gameID, "white", null, "Summary", null)), List.copyOf(summaries));
+    }
+
+    @Test
+    @Order(41)
+    @DisplayName("Games Read A Page At A Time")
+    public void gamesReadAPageAtATime() throws DataAccessException {
+        int first = gameDAO.createGame(new GameData(0, null, null, "Page 1", new ChessGame()));
+        int second = gameDAO.createGame(new GameData(0, null, null, "Page 2", new ChessGame()));
+        int third = gameDAO.createGame(new GameData(0, null, null, "Page 3", new ChessGame()));
+
+        assertEquals(List.of(first, second), gameDAO.listGamesAfter(0, 2).stream().map(GameData::gameID).toList());
+        assertEquals(List.of(third), gameDAO.listGamesAfter(second, 2).stream().map(GameData::gameID).toList());
+        assertTrue(gameDAO.listGamesAfter(third, 2).isEmpty());
+    }
+}
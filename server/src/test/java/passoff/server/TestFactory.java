@@ -1,5 +1,6 @@
 package passoff.server;
 
+import chess.ChessJson;
 import com.google.gson.GsonBuilder;
 
 public class TestFactory {
@@ -34,7 +35,7 @@ public class TestFactory {
          */
         GsonBuilder builder = new GsonBuilder();
         // builder.registerTypeAdapter(ChessMove.class, /*type adapter or json serializer */);
-        return builder;
+        return ChessJson.register(builder);
     }
 
 }
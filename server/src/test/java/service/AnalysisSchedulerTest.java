@@ -0,0 +1,196 @@
+package service;
+
+import chess.ChessGame;
+import chess.engine.SearchResult;
+import model.AnalysisPriority;
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+public class AnalysisSchedulerTest {
+
+    // Long enough that only cancelling ends the blocking analysis
+    private static final Map<AnalysisPriority, Long> BUDGETS = Map.of(
+            AnalysisPriority.LIVE, 60_000L,
+            AnalysisPriority.REVIEW, 60_000L,
+            AnalysisPriority.BULK, 60_000L);
+
+    private AnalysisScheduler scheduler;
+
+    @BeforeEach
+    public void setup() {
+        scheduler = new AnalysisScheduler(1, 2, BUDGETS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    /**
+     * Occupies the only worker until the returned ticket is cancelled
+     */
+    private AnalysisScheduler.Ticket blockWorker() throws InterruptedException {
+        AnalysisScheduler.Ticket blocker = scheduler.submit(new ChessGame(), 1, 64, AnalysisPriority.BULK);
+        awaitRunning(1);
+        return blocker;
+    }
+
+    private void awaitRunning(int running) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (scheduler.metrics().running() != running) {
+            Assertions.assertTrue(System.currentTimeMillis() < deadline, "worker never reached " + running + " running");
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    @DisplayName("Runs Higher Priorities First")
+    public void runsHigherPrioritiesFirst() throws InterruptedException {
+        scheduler.close();
+        scheduler = new AnalysisScheduler(1, 8, BUDGETS);
+        AnalysisScheduler.Ticket blocker = blockWorker();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        // The depths keep the three apart so none joins another
+        AnalysisScheduler.Ticket bulk = scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.BULK);
+        AnalysisScheduler.Ticket live = scheduler.submit(new ChessGame(), 1, 2, AnalysisPriority.LIVE);
+        AnalysisScheduler.Ticket review = scheduler.submit(new ChessGame(), 1, 3, AnalysisPriority.REVIEW);
+        bulk.result().thenRun(() -> order.add("bulk"));
+        live.result().thenRun(() -> order.add("live"));
+        review.result().thenRun(() -> order.add("review"));
+        Assertions.assertEquals(3, scheduler.metrics().queueDepth());
+
+        blocker.cancel();
+        bulk.result().join();
+
+        Assertions.assertEquals(List.of("live", "review", "bulk"), order);
+        AnalysisScheduler.Metrics metrics = scheduler.metrics();
+        Assertions.assertEquals(3, metrics.completed());
+        Assertions.assertEquals(1, metrics.cancelled());
+        Assertions.assertTrue(metrics.maxWaitMillis() >= metrics.averageWaitMillis());
+    }
+
+    @Test
+    @DisplayName("Identical Requests Share One Analysis")
+    public void identicalRequestsShareOneAnalysis() throws InterruptedException {
+        AnalysisScheduler.Ticket blocker = blockWorker();
+
+        AnalysisScheduler.Ticket first = scheduler.submit(new ChessGame(), 2, 2, AnalysisPriority.REVIEW);
+        AnalysisScheduler.Ticket second = scheduler.submit(new ChessGame(), 2, 2, AnalysisPriority.REVIEW);
+        Assertions.assertEquals(1, scheduler.metrics().queueDepth());
+        Assertions.assertEquals(1, scheduler.metrics().deduplicated());
+
+        // One caller giving up leaves the analysis running for the other
+        first.cancel();
+        blocker.cancel();
+        List<SearchResult> lines = second.result().join();
+
+        Assertions.assertEquals(2, lines.size());
+        Assertions.assertThrows(CancellationException.class, () -> first.result().join());
+    }
+
+    @Test
+    @DisplayName("Duplicate Raises Queued Priority")
+    public void duplicateRaisesQueuedPriority() throws InterruptedException {
+        scheduler.close();
+        scheduler = new AnalysisScheduler(1, 8, BUDGETS);
+        AnalysisScheduler.Ticket blocker = blockWorker();
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        AnalysisScheduler.Ticket bulk = scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.BULK);
+        AnalysisScheduler.Ticket review = scheduler.submit(new ChessGame(), 1, 2, AnalysisPriority.REVIEW);
+        scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.LIVE);
+        bulk.result().thenRun(() -> order.add("bulk"));
+        review.result().thenRun(() -> order.add("review"));
+
+        blocker.cancel();
+        review.result().join();
+
+        Assertions.assertEquals(List.of("bulk", "review"), order);
+    }
+
+    @Test
+    @DisplayName("Cancelling Drops Queued Analysis")
+    public void cancellingDropsQueuedAnalysis() throws InterruptedException {
+        blockWorker();
+
+        AnalysisScheduler.Ticket ticket = scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.REVIEW);
+        ticket.cancel();
+
+        Assertions.assertEquals(0, scheduler.metrics().queueDepth());
+        Assertions.assertEquals(1, scheduler.metrics().cancelled());
+        Assertions.assertTrue(ticket.result().isCancelled());
+    }
+
+    @Test
+    @DisplayName("Cancelling Stops Running Search")
+    public void cancellingStopsRunningSearch() throws InterruptedException {
+        AnalysisScheduler.Ticket blocker = blockWorker();
+
+        blocker.cancel();
+
+        awaitRunning(0);
+        Assertions.assertTrue(blocker.result().isCancelled());
+        // The worker is free again
+        List<SearchResult> lines = scheduler.submit(new ChessGame(), 1, 2, AnalysisPriority.LIVE).result().join();
+        Assertions.assertEquals(1, lines.size());
+    }
+
+    @Test
+    @DisplayName("Rejects When Queue Is Full")
+    public void rejectsWhenQueueIsFull() throws InterruptedException {
+        blockWorker();
+        scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.BULK);
+        scheduler.submit(new ChessGame(), 1, 2, AnalysisPriority.BULK);
+
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> scheduler.submit(new ChessGame(), 1, 3, AnalysisPriority.LIVE));
+        // Joining a queued analysis takes no room
+        Assertions.assertDoesNotThrow(() -> scheduler.submit(new ChessGame(), 1, 2, AnalysisPriority.LIVE));
+
+        AnalysisScheduler.Metrics metrics = scheduler.metrics();
+        Assertions.assertEquals(2, metrics.queueDepth());
+        Assertions.assertEquals(1, metrics.rejected());
+        Assertions.assertEquals(3, metrics.submitted());
+    }
+
+    @Test
+    @DisplayName("Position Without Moves Has No Lines")
+    public void positionWithoutMovesHasNoLines() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(List.of(), scheduler.submit(game, 3, 4, AnalysisPriority.LIVE).result().join());
+    }
+
+    @Test
+    @DisplayName("Closing Cancels Waiting Analyses")
+    public void closingCancelsWaitingAnalyses() throws InterruptedException {
+        blockWorker();
+        AnalysisScheduler.Ticket ticket = scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.REVIEW);
+
+        scheduler.close();
+
+        Assertions.assertThrows(CompletionException.class, () -> ticket.result().join());
+        Assertions.assertThrows(RejectedExecutionException.class,
+                () -> scheduler.submit(new ChessGame(), 1, 1, AnalysisPriority.REVIEW));
+    }
+}
@@ -0,0 +1,120 @@
+package service;
+
+import chess.*;
+import chess.engine.SearchResult;
+import dataaccess.*;
+import model.AnalysisRequest;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+
+public class AnalysisServiceTest {
+
+    private static final String BACK_RANK_MATE = "6k1/5ppp/8/8/8/8/5PPP/R5K1 w";
+
+    private GameDAO gameDAO;
+    private AnalysisScheduler scheduler;
+    private AnalysisService analysisService;
+    private String validAuthToken;
+    private int gameID;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        gameDAO = new MemoryGameDAO();
+        AuthDAO authDAO = new MemoryAuthDAO();
+        scheduler = new AnalysisScheduler(2, 8, AnalysisScheduler.DEFAULT_BUDGETS_MILLIS);
+        analysisService = new AnalysisService(gameDAO, authDAO, scheduler);
+
+        validAuthToken = "valid-token-123";
+        authDAO.createAuth(new AuthData(validAuthToken, "testuser"));
+        gameID = gameDAO.createGame(new GameData(0, null, null, "Test Game", new ChessGame()));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    @DisplayName("Analyze FEN Success")
+    public void analyzeFenSuccess() throws DataAccessException {
+        List<SearchResult> lines = analysisService.analyze(
+                new AnalysisRequest(BACK_RANK_MATE, null, 3, 3, null), validAuthToken);
+
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                lines.getFirst().bestMove());
+        Assertions.assertTrue(lines.getFirst().isMateScore());
+        Assertions.assertEquals(3, lines.stream().map(SearchResult::bestMove).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Analyze Game Success")
+    public void analyzeGameSuccess() throws DataAccessException {
+        List<SearchResult> lines = analysisService.analyze(
+                new AnalysisRequest(null, gameID, 2, 3, null), validAuthToken);
+
+        Assertions.assertEquals(2, lines.size());
+    }
+
+    @Test
+    @DisplayName("Analyze Unauthorized")
+    public void analyzeUnauthorized() {
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> analysisService.analyze(new AnalysisRequest(null, gameID, 2, 3, null), "invalid-token")
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("unauthorized"));
+    }
+
+    @Test
+    @DisplayName("Analyze Bad Request")
+    public void analyzeBadRequest() {
+        List<AnalysisRequest> requests = List.of(
+                new AnalysisRequest(null, null, 3, 3, null),
+                new AnalysisRequest(BACK_RANK_MATE, gameID, 3, 3, null),
+                new AnalysisRequest("not a position", null, 3, 3, null),
+                new AnalysisRequest("8/8/8/8/8/8/8/R5K1 w", null, 3, 3, null),
+                new AnalysisRequest(null, 9999, 3, 3, null),
+                new AnalysisRequest(null, gameID, 0, 3, null),
+                new AnalysisRequest(null, gameID, 3, AnalysisService.MAX_DEPTH + 1, null));
+
+        for (AnalysisRequest request : requests) {
+            DataAccessException exception = Assertions.assertThrows(
+                    DataAccessException.class,
+                    () -> analysisService.analyze(request, validAuthToken),
+                    request.toString()
+            );
+            Assertions.assertTrue(exception.getMessage().contains("bad request"));
+        }
+    }
+
+    @Test
+    @DisplayName("Analyze Server Busy")
+    public void analyzeServerBusy() {
+        scheduler.close();
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> analysisService.submit(new AnalysisRequest(null, gameID, 2, 3, null), validAuthToken)
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("busy"));
+    }
+
+    @Test
+    @DisplayName("Analysis Failure Unwrapped")
+    public void analysisFailureUnwrapped() {
+        IllegalStateException searchError = new IllegalStateException("search broke");
+        DataAccessException failed = AnalysisService.failure(new CompletionException(searchError));
+        Assertions.assertTrue(failed.getMessage().contains("analysis failed"));
+        Assertions.assertSame(searchError, failed.getCause());
+
+        DataAccessException cancelled = AnalysisService.failure(new CancellationException());
+        Assertions.assertTrue(cancelled.getMessage().contains("analysis cancelled"));
+    }
+}
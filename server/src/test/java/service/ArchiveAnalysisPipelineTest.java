@@ -0,0 +1,111 @@
+package service;
+
+import chess.*;
+import dataaccess.*;
+import model.GameAnalysis;
+import model.GameData;
+import model.PlyAnalysis;
+import org.junit.jupiter.api.*;
+
+import java.util.concurrent.ForkJoinPool;
+
+public class ArchiveAnalysisPipelineTest {
+
+    private static final int DEPTH = 3;
+
+    private GameDAO gameDAO;
+    private GameAnalysisDAO analysisDAO;
+    private ArchiveAnalysisPipeline pipeline;
+
+    @BeforeEach
+    public void setup() {
+        gameDAO = new MemoryGameDAO();
+        analysisDAO = new MemoryGameAnalysisDAO();
+        pipeline = new ArchiveAnalysisPipeline(gameDAO, analysisDAO, DEPTH, ForkJoinPool.commonPool());
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeMove(new ChessMove(
+                    new ChessPosition(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    new ChessPosition(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+        return game;
+    }
+
+    private int store(ChessGame game) throws DataAccessException {
+        return gameDAO.createGame(new GameData(0, "white", "black", "Archived", game));
+    }
+
+    @Test
+    @DisplayName("Analyzes Every Move")
+    public void analyzesEveryMove() throws Exception {
+        int gameID = store(play("e2e4", "e7e5", "g1f3", "b8c6", "f1b5"));
+
+        ArchiveAnalysisPipeline.Summary summary = pipeline.run();
+
+        Assertions.assertEquals(1, summary.games());
+        GameAnalysis analysis = analysisDAO.getAnalysis(gameID);
+        Assertions.assertEquals(DEPTH, analysis.depth());
+        Assertions.assertEquals(5, analysis.plies().size());
+        for (int i = 0; i < analysis.plies().size(); i++) {
+            PlyAnalysis ply = analysis.plies().get(i);
+            Assertions.assertEquals(i + 1, ply.ply());
+            Assertions.assertTrue(ply.accuracy() >= 0 && ply.accuracy() <= 100);
+        }
+        Assertions.assertTrue(analysis.whiteAccuracy() > 50);
+        Assertions.assertTrue(analysis.blackAccuracy() > 50);
+    }
+
+    @Test
+    @DisplayName("Flags Blunder")
+    public void flagsBlunder() throws Exception {
+        // 3...Nf6?? allows Qxf7 mate
+        int gameID = store(play("e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6", "h5f7"));
+
+        pipeline.run();
+
+        GameAnalysis analysis = analysisDAO.getAnalysis(gameID);
+        PlyAnalysis blunder = analysis.plies().get(5);
+        Assertions.assertTrue(blunder.blunder());
+        Assertions.assertTrue(blunder.accuracy() < 10);
+        Assertions.assertEquals(1, analysis.plies().stream().filter(PlyAnalysis::blunder).count());
+        // The mating move leaves black mated
+        Assertions.assertTrue(analysis.plies().getLast().eval() > 10000);
+        Assertions.assertTrue(analysis.whiteAccuracy() > analysis.blackAccuracy());
+    }
+
+    @Test
+    @DisplayName("Shared Opening Searched Once")
+    public void sharedOpeningSearchedOnce() throws Exception {
+        store(play("e2e4", "e7e5", "g1f3", "b8c6"));
+        store(play("e2e4", "e7e5", "g1f3", "g8f6"));
+        store(play("e2e4", "e7e5", "f1c4"));
+
+        ArchiveAnalysisPipeline.Summary summary = pipeline.run();
+
+        Assertions.assertEquals(3, summary.games());
+        Assertions.assertEquals(14, summary.positions());
+        // Start, e4, e5, Nf3, then Nc6, Nf6 and Bc4
+        Assertions.assertEquals(7, summary.searches());
+        // A second run finds the openings in the cache
+        Assertions.assertEquals(0, pipeline.run().searches());
+    }
+
+    @Test
+    @DisplayName("Skips Games That Cannot Be Replayed")
+    public void skipsGamesThatCannotBeReplayed() throws Exception {
+        int unplayed = store(new ChessGame());
+        ChessGame setUp = play("e2e4");
+        setUp.setBoard(new ChessBoard(setUp.getBoard()));
+        int boardSet = store(setUp);
+
+        ArchiveAnalysisPipeline.Summary summary = pipeline.run();
+
+        Assertions.assertEquals(0, summary.games());
+        Assertions.assertEquals(2, summary.skipped());
+        Assertions.assertNull(analysisDAO.getAnalysis(unplayed));
+        Assertions.assertNull(analysisDAO.getAnalysis(boardSet));
+    }
+}
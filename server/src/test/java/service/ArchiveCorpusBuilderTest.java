@@ -0,0 +1,64 @@
+package service;
+
+import chess.*;
+import chess.engine.TuningCorpus;
+import dataaccess.*;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+public class ArchiveCorpusBuilderTest {
+
+    private GameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() {
+        gameDAO = new MemoryGameDAO();
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeMove(new ChessMove(
+                    new ChessPosition(move.charAt(1) - '0', move.charAt(0) - 'a' + 1),
+                    new ChessPosition(move.charAt(3) - '0', move.charAt(2) - 'a' + 1), null));
+        }
+        return game;
+    }
+
+    private void store(ChessGame game) throws DataAccessException {
+        gameDAO.createGame(new GameData(0, "white", "black", "Archived", game));
+    }
+
+    @Test
+    @DisplayName("Uses Quiet Positions Of Finished Games")
+    public void usesQuietPositionsOfFinishedGames() throws Exception {
+        // Scholar's mate: 7 positions before the mate, the last of them right before Qxf7
+        store(play("e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6", "h5f7"));
+
+        TuningCorpus corpus = new ArchiveCorpusBuilder(gameDAO, 2).build();
+
+        // Plies 2-5 are kept and ply 6 is before the capture
+        Assertions.assertEquals(4, corpus.size());
+    }
+
+    @Test
+    @DisplayName("Skips Unfinished Games")
+    public void skipsUnfinishedGames() throws Exception {
+        store(play("e2e4", "e7e5", "g1f3", "b8c6", "f1b5", "a7a6"));
+        store(new ChessGame());
+
+        Assertions.assertEquals(0, new ArchiveCorpusBuilder(gameDAO, 0).build().size());
+    }
+
+    @Test
+    @DisplayName("Skips Games That Cannot Be Replayed")
+    public void skipsGamesThatCannotBeReplayed() throws Exception {
+        ChessGame game = play("e2e4", "e7e5", "d1h5", "b8c6", "f1c4", "g8f6", "h5f7");
+        // The board is set directly, so the history no longer leads to it
+        ChessBoard mated = new ChessBoard(game.getBoard());
+        game.setBoard(mated);
+        store(game);
+
+        Assertions.assertEquals(0, new ArchiveCorpusBuilder(gameDAO, 0).build().size());
+    }
+}
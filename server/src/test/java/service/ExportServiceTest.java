@@ -0,0 +1,80 @@
+package service;
+
+import chess.*;
+import dataaccess.*;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ExportServiceTest {
+
+    private GameDAO gameDAO;
+    private ExportService exportService;
+    private String validAuthToken;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        gameDAO = new MemoryGameDAO();
+        AuthDAO authDAO = new MemoryAuthDAO();
+        exportService = new ExportService(gameDAO, authDAO);
+
+        validAuthToken = "valid-token-123";
+        authDAO.createAuth(new AuthData(validAuthToken, "testuser"));
+
+        ChessGame played = new ChessGame();
+        played.makeSanMove("d4");
+        played.makeSanMove("Nf6");
+        gameDAO.createGame(new GameData(0, "alice", "bob", "First", played));
+        gameDAO.createGame(new GameData(0, "carol", null, "Second", new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Export PGN")
+    public void exportPgn() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = exportService.export(validAuthToken, null, ExportService.Format.PGN, out);
+
+        Assertions.assertEquals(2, count);
+        String pgn = out.toString(StandardCharsets.UTF_8);
+        Assertions.assertTrue(pgn.startsWith("""
+                [Event "First"]
+                [Site "?"]
+                [Date "????.??.??"]
+                [Round "-"]
+                [White "alice"]
+                [Black "bob"]
+                [Result "*"]
+
+                1. d4 Nf6 *
+                """), pgn);
+        Assertions.assertTrue(pgn.contains("[Event \"Second\"]"), pgn);
+    }
+
+    @Test
+    @DisplayName("Export NDJSON For One Player")
+    public void exportNdjsonForOnePlayer() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        int count = exportService.export(validAuthToken, "bob", ExportService.Format.NDJSON, out);
+
+        Assertions.assertEquals(1, count);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(1, lines.length);
+        GameData read = ChessJson.create().fromJson(lines[0], GameData.class);
+        Assertions.assertEquals(gameDAO.getGame(read.gameID()), read);
+    }
+
+    @Test
+    @DisplayName("Export Unauthorized")
+    public void exportUnauthorized() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Assertions.assertThrows(DataAccessException.class,
+                () -> exportService.export("invalid-token", null, ExportService.Format.PGN, out));
+        Assertions.assertEquals(0, out.size());
+    }
+}
@@ -0,0 +1,82 @@
+package service;
+
+import chess.*;
+import chess.engine.BookEntry;
+import chess.engine.OpeningBook;
+import chess.engine.Polyglot;
+import dataaccess.*;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+public class HintServiceTest {
+
+    private static final ChessMove E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+
+    @TempDir
+    Path tempDir;
+
+    private GameDAO gameDAO;
+    private AuthDAO authDAO;
+    private HintService hintService;
+    private String validAuthToken;
+    private int gameID;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        gameDAO = new MemoryGameDAO();
+        authDAO = new MemoryAuthDAO();
+
+        Path bookPath = tempDir.resolve("book.bin");
+        OpeningBook.write(bookPath, List.of(new BookEntry(Polyglot.key(new ChessGame()), E4, 12, 0)));
+        hintService = new HintService(gameDAO, authDAO, OpeningBook.open(bookPath));
+
+        validAuthToken = "valid-token-123";
+        authDAO.createAuth(new AuthData(validAuthToken, "testuser"));
+        gameID = gameDAO.createGame(new GameData(0, null, null, "Test Game", new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Get Hints Success")
+    public void getHintsSuccess() throws DataAccessException {
+        List<BookEntry> hints = hintService.getHints(gameID, validAuthToken);
+
+        Assertions.assertEquals(1, hints.size());
+        Assertions.assertEquals(E4, hints.getFirst().move());
+        Assertions.assertEquals(12, hints.getFirst().weight());
+    }
+
+    @Test
+    @DisplayName("Get Hints Unauthorized")
+    public void getHintsUnauthorized() {
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> hintService.getHints(gameID, "invalid-token")
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("unauthorized"));
+    }
+
+    @Test
+    @DisplayName("Get Hints Bad Game")
+    public void getHintsBadGame() {
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> hintService.getHints(9999, validAuthToken)
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("bad request"));
+    }
+
+    @Test
+    @DisplayName("Get Hints Without Book")
+    public void getHintsWithoutBook() throws DataAccessException {
+        HintService noBook = new HintService(gameDAO, authDAO, null);
+
+        Assertions.assertTrue(noBook.getHints(gameID, validAuthToken).isEmpty());
+    }
+}
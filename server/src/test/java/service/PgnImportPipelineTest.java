@@ -0,0 +1,109 @@
+package service;
+
+import chess.*;
+import dataaccess.*;
+import model.AuthData;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class PgnImportPipelineTest {
+
+    private GameDAO gameDAO;
+
+    @BeforeEach
+    public void setup() {
+        gameDAO = new MemoryGameDAO();
+    }
+
+    private static InputStream pgn(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Imports Playable Games")
+    public void importsPlayableGames() throws Exception {
+        String text = """
+                [White "Ana"]
+                [Black "Bo"]
+
+                1. e4 e5 2. Nf3 Nc6 1/2-1/2
+
+                [Event "Blunder"]
+
+                1. e4 e5 2. Ke3 *
+
+                [Event "Endgame"]
+                [FEN "4k3/8/8/8/8/8/4P3/4K3 w - - 0 1"]
+
+                1. e4 Kd7 *
+                """;
+
+        PgnImportPipeline.Summary summary = new PgnImportPipeline(gameDAO, ForkJoinPool.commonPool()).run(pgn(text));
+
+        Assertions.assertEquals(2, summary.imported());
+        Assertions.assertEquals(1, summary.rejected());
+        Assertions.assertEquals(1, summary.errors().size());
+        Assertions.assertTrue(summary.errors().getFirst().startsWith("Line 6: 2.Ke3"), summary.errors().getFirst());
+
+        List<GameData> games = new ArrayList<>(gameDAO.listGames());
+        Assertions.assertEquals("Ana vs Bo", games.get(0).gameName());
+        Assertions.assertNull(games.get(0).whiteUsername());
+        Assertions.assertEquals(4, games.get(0).game().getMoveHistory().size());
+        Assertions.assertEquals("Endgame", games.get(1).gameName());
+        Assertions.assertEquals("8/3k4/8/8/4P3/8/8/4K3 w - - 1 2", games.get(1).game().toFen());
+    }
+
+    @Test
+    @DisplayName("Stores In Batches And Reports Progress")
+    public void storesInBatchesAndReportsProgress() throws Exception {
+        int count = PgnImportPipeline.BATCH_GAMES * 2 + 1;
+        String text = "[Event \"Repeat\"]\n\n1. d4 d5 2. c4 e6 *\n\n".repeat(count);
+        List<PgnImportPipeline.Summary> progress = new ArrayList<>();
+
+        PgnImportPipeline.Summary summary =
+                new PgnImportPipeline(gameDAO, ForkJoinPool.commonPool(), progress::add).run(pgn(text));
+
+        Assertions.assertEquals(count, summary.imported());
+        Assertions.assertEquals(count, gameDAO.listGames().size());
+        Assertions.assertEquals(3, progress.size());
+        Assertions.assertEquals(PgnImportPipeline.BATCH_GAMES, progress.getFirst().imported());
+        Assertions.assertTrue(summary.gamesPerSecond() > 0);
+        for (GameData game : gameDAO.listGames()) {
+            Assertions.assertEquals(ChessGame.fromFen("rnbqkbnr/ppp2ppp/4p3/3p4/2PP4/8/PP2PPPP/RNBQKBNR w - - 0 3"),
+                    game.game());
+        }
+    }
+
+    @Test
+    @DisplayName("Nothing Stored From A Bad Batch")
+    public void nothingStoredFromABadBatch() throws DataAccessException {
+        GameDAO failing = new MemoryGameDAO() {
+            @Override
+            public void createGames(List<GameData> games) throws DataAccessException {
+                throw new DataAccessException("Error: disk full");
+            }
+        };
+
+        Assertions.assertThrows(DataAccessException.class, () ->
+                new PgnImportPipeline(failing, ForkJoinPool.commonPool()).run(pgn("1. e4 *")));
+        Assertions.assertEquals(0, failing.listGames().size());
+    }
+
+    @Test
+    @DisplayName("Import Service Requires Login")
+    public void importServiceRequiresLogin() throws Exception {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        authDAO.createAuth(new AuthData("token", "user"));
+        ImportService service = new ImportService(gameDAO, authDAO, ForkJoinPool.commonPool());
+
+        Assertions.assertThrows(DataAccessException.class, () -> service.importGames(pgn("1. e4 *"), "wrong"));
+        Assertions.assertEquals(1, service.importGames(pgn("1. e4 *"), "token").imported());
+    }
+}
@@ -0,0 +1,75 @@
+package service;
+
+import chess.*;
+import chess.engine.MateResult;
+import dataaccess.*;
+import model.AuthData;
+import model.Puzzle;
+import org.junit.jupiter.api.*;
+
+import java.util.List;
+
+public class PuzzleServiceTest {
+
+    private PuzzleService puzzleService;
+    private String validAuthToken;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        AuthDAO authDAO = new MemoryAuthDAO();
+        puzzleService = new PuzzleService(authDAO);
+
+        validAuthToken = "valid-token-123";
+        authDAO.createAuth(new AuthData(validAuthToken, "testuser"));
+    }
+
+    private static ChessGame backRankMate() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int col = 6; col <= 8; col++) {
+            board.addPiece(new ChessPosition(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    @DisplayName("Solve Puzzles Success")
+    public void solvePuzzlesSuccess() throws DataAccessException {
+        List<MateResult> results = puzzleService.solvePuzzles(
+                List.of(new Puzzle(backRankMate(), 1), new Puzzle(new ChessGame(), 2)), validAuthToken);
+
+        Assertions.assertEquals(2, results.size());
+        Assertions.assertEquals(MateResult.Status.MATE, results.get(0).status());
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                results.get(0).line().getFirst());
+        Assertions.assertEquals(MateResult.Status.NO_MATE, results.get(1).status());
+    }
+
+    @Test
+    @DisplayName("Solve Puzzles Unauthorized")
+    public void solvePuzzlesUnauthorized() {
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> puzzleService.solvePuzzles(List.of(new Puzzle(backRankMate(), 1)), "invalid-token")
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("unauthorized"));
+    }
+
+    @Test
+    @DisplayName("Solve Puzzles Bad Request")
+    public void solvePuzzlesBadRequest() {
+        DataAccessException exception = Assertions.assertThrows(
+                DataAccessException.class,
+                () -> puzzleService.solvePuzzles(List.of(new Puzzle(backRankMate(), 0)), validAuthToken)
+        );
+
+        Assertions.assertTrue(exception.getMessage().contains("bad request"));
+        Assertions.assertThrows(DataAccessException.class,
+                () -> puzzleService.solvePuzzles(List.of(), validAuthToken));
+    }
+}
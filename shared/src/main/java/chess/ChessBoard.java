@@ -12,10 +12,48 @@ import java.util.Objects;
 public class ChessBoard {
     private final ChessPiece[][] squares = new ChessPiece[8][8];
 
+    // Kept up to date on every add/remove so the engine never has to scan the board for them.
+    // Transient so they stay out of the serialized game; a copy rebuilds them from the squares.
+    private transient long zobristKey;
+    private transient long pawnKey;
+    private final transient long[][] pieceBitboards = new long[2][6];
+    private final transient long[] occupancy = new long[2];
+    private final transient int[][] pieceCounts = new int[2][6];
+    private final transient int[] kingSquares = {-1, -1};
+    private transient int middlegameScore;
+    private transient int endgameScore;
+    private transient int gamePhase;
+    private transient PieceListener listener;
+
+    private static final int[][] KNIGHT_OFFSETS = {{2,1}, {2,-1}, {-2,1}, {-2,-1}, {1,2}, {-1,2}, {1,-2}, {-1,-2}};
+    private static final int[][] KING_OFFSETS = {{1,1}, {1,-1}, {-1,1}, {-1,-1}, {1,0}, {-1,0}, {0,1}, {0,-1}};
+    private static final int[][] ORTHOGONAL = {{1,0}, {0,1}, {0,-1}, {-1,0}};
+    private static final int[][] DIAGONAL = {{1,1}, {-1,1}, {1,-1}, {-1,-1}};
+
+    // For each square, the squares a knight or king could attack it from, and every square on its
+    // rank, file or diagonals, so attack tests can skip the pieces that could not possibly reach it
+    private static final long[] KNIGHT_MASKS = masks(KNIGHT_OFFSETS, false);
+    private static final long[] KING_MASKS = masks(KING_OFFSETS, false);
+    private static final long[] ORTHOGONAL_LINES = masks(ORTHOGONAL, true);
+    private static final long[] DIAGONAL_LINES = masks(DIAGONAL, true);
+
     public ChessBoard() {
 
     }
 
+    /**
+     * Creates a copy of another board. The pieces themselves are immutable and are shared.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                place(row, col, other.squares[row][col]);
+            }
+        }
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -23,7 +61,7 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        place(position.getRow() - 1, position.getColumn() - 1, piece);
     }
 
     /**
@@ -32,7 +70,7 @@ public class ChessBoard {
      * @param position where to remove the piece from
      */
     public void removePiece(ChessPosition position) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = null;
+        place(position.getRow() - 1, position.getColumn() - 1, null);
     }
 
     /**
@@ -46,6 +84,28 @@ public class ChessBoard {
         return squares[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece without needing a ChessPosition
+     *
+     * @param row 1 codes for the bottom row
+     * @param col 1 codes for the left column
+     * @return Either the piece at the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int row, int col) {
+        return squares[row - 1][col - 1];
+    }
+
+    /**
+     * Puts a chess piece on a square, or empties it, without needing a ChessPosition
+     *
+     * @param row   1 codes for the bottom row
+     * @param col   1 codes for the left column
+     * @param piece the piece to put there, or null to empty the square
+     */
+    public void setPiece(int row, int col, ChessPiece piece) {
+        place(row - 1, col - 1, piece);
+    }
+
     /**
      * Sets the board to the default starting board
      * (How the game of chess normally starts)
@@ -54,7 +114,7 @@ public class ChessBoard {
         //Remove all
         for (int x = 0; x < 8; x++){
             for (int y = 0; y < 8; y++){
-                this.squares[x][y] = null;
+                place(x, y, null);
             }
         }
 
@@ -92,7 +152,367 @@ public class ChessBoard {
     }
 
     private void addPiece(ChessPosition chessPosition, ChessGame.TeamColor color, ChessPiece.PieceType type) {
-        squares[chessPosition.getRow() - 1][chessPosition.getColumn() - 1] = new ChessPiece(color, type);
+        addPiece(chessPosition, new ChessPiece(color, type));
+    }
+
+    /**
+     * Every change to a square goes through here so the incremental state stays in sync.
+     * Rows and columns count from 0.
+     */
+    void place(int row, int col, ChessPiece piece) {
+        int square = row * 8 + col;
+        ChessPiece old = squares[row][col];
+        if (old != null) {
+            zobristKey ^= Zobrist.pieceKey(old, square);
+            pieceCounts[old.getTeamColor().ordinal()][old.getPieceType().ordinal()]--;
+            middlegameScore -= PieceSquareTables.middlegame(old, square);
+            endgameScore -= PieceSquareTables.endgame(old, square);
+            gamePhase -= PieceSquareTables.phaseWeight(old.getPieceType());
+            occupancy[old.getTeamColor().ordinal()] &= ~(1L << square);
+            pieceBitboards[old.getTeamColor().ordinal()][old.getPieceType().ordinal()] &= ~(1L << square);
+            if (old.getPieceType() == ChessPiece.PieceType.PAWN) {
+                pawnKey ^= Zobrist.pieceKey(old, square);
+            }
+            if (old.getPieceType() == ChessPiece.PieceType.KING
+                    && kingSquares[old.getTeamColor().ordinal()] == square) {
+                kingSquares[old.getTeamColor().ordinal()] = -1;
+            }
+        }
+        squares[row][col] = piece;
+        if (piece != null) {
+            zobristKey ^= Zobrist.pieceKey(piece, square);
+            pieceCounts[piece.getTeamColor().ordinal()][piece.getPieceType().ordinal()]++;
+            middlegameScore += PieceSquareTables.middlegame(piece, square);
+            endgameScore += PieceSquareTables.endgame(piece, square);
+            gamePhase += PieceSquareTables.phaseWeight(piece.getPieceType());
+            occupancy[piece.getTeamColor().ordinal()] |= 1L << square;
+            pieceBitboards[piece.getTeamColor().ordinal()][piece.getPieceType().ordinal()] |= 1L << square;
+            if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                pawnKey ^= Zobrist.pieceKey(piece, square);
+            }
+            if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+                kingSquares[piece.getTeamColor().ordinal()] = square;
+            }
+        }
+        if (listener != null && old != piece) {
+            listener.pieceChanged(square, old, piece);
+        }
+    }
+
+    /**
+     * Sets the listener told about every later change to the squares. A copy of the board starts without one.
+     *
+     * @param listener the listener, or null to remove it
+     */
+    public void setPieceListener(PieceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on this board (the team to move is not included)
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * @return the Zobrist key of the pawns alone, which changes only when a pawn moves or is captured
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return the team's pawns as a bitboard, where bit (row - 1) * 8 + (column - 1) is set for each pawn
+     */
+    public long getPawns(ChessGame.TeamColor color) {
+        return pieceBitboards[color.ordinal()][ChessPiece.PieceType.PAWN.ordinal()];
+    }
+
+    /**
+     * @return the team's pieces of one type as a bitboard, laid out as in {@link #getPawns}
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceBitboards[color.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return every piece of the team as a bitboard, laid out as in {@link #getPawns}
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return occupancy[color.ordinal()];
+    }
+
+    /**
+     * @return how many pieces of the given color and type are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceCounts[color.ordinal()][type.ordinal()];
+    }
+
+    /**
+     * @return material plus piece-square values for the middlegame, white minus black
+     */
+    public int getMiddlegameScore() {
+        return middlegameScore;
+    }
+
+    /**
+     * @return material plus piece-square values for the endgame, white minus black
+     */
+    public int getEndgameScore() {
+        return endgameScore;
+    }
+
+    /**
+     * @return how much non-pawn material is left, from {@link PieceSquareTables#MAX_PHASE}
+     * at the start of the game down to 0 with only kings and pawns
+     */
+    public int getGamePhase() {
+        return gamePhase;
+    }
+
+    /**
+     * @return the position of the team's king, or null if it has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor color) {
+        int square = kingSquares[color.ordinal()];
+        if (square < 0) {
+            return null;
+        }
+        return new ChessPosition(square / 8 + 1, square % 8 + 1);
+    }
+
+    /**
+     * @return the square of the team's king as (row - 1) * 8 + (column - 1), or -1 if it has no king on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Determines if any piece of the attacking team could capture on the given square.
+     * Looks outward from the square instead of generating every enemy move.
+     *
+     * @param row       1 codes for the bottom row
+     * @param col       1 codes for the left column
+     * @param attackers the team doing the attacking
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int row, int col, ChessGame.TeamColor attackers) {
+        // A white pawn attacks upward, so it would sit one row below the square
+        int pawnRow = attackers == ChessGame.TeamColor.WHITE ? row - 1 : row + 1;
+        if (isPieceAt(pawnRow, col - 1, attackers, ChessPiece.PieceType.PAWN)
+                || isPieceAt(pawnRow, col + 1, attackers, ChessPiece.PieceType.PAWN)) {
+            return true;
+        }
+        int square = (row - 1) * 8 + col - 1;
+        long[] pieces = pieceBitboards[attackers.ordinal()];
+        if ((KNIGHT_MASKS[square] & pieces[ChessPiece.PieceType.KNIGHT.ordinal()]) != 0
+                || (KING_MASKS[square] & pieces[ChessPiece.PieceType.KING.ordinal()]) != 0) {
+            return true;
+        }
+        long queens = pieces[ChessPiece.PieceType.QUEEN.ordinal()];
+        return (ORTHOGONAL_LINES[square] & (pieces[ChessPiece.PieceType.ROOK.ordinal()] | queens)) != 0
+                && isSlidingAttack(row, col, attackers, ORTHOGONAL, ChessPiece.PieceType.ROOK)
+                || (DIAGONAL_LINES[square] & (pieces[ChessPiece.PieceType.BISHOP.ordinal()] | queens)) != 0
+                && isSlidingAttack(row, col, attackers, DIAGONAL, ChessPiece.PieceType.BISHOP);
+    }
+
+    private boolean isSlidingAttack(int row, int col, ChessGame.TeamColor attackers, int[][] directions,
+                                    ChessPiece.PieceType slider) {
+        for (int[] dir : directions) {
+            int r = row + dir[0];
+            int c = col + dir[1];
+            while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                ChessPiece piece = squares[r - 1][c - 1];
+                if (piece != null) {
+                    if (piece.getTeamColor() == attackers && (piece.getPieceType() == slider
+                            || piece.getPieceType() == ChessPiece.PieceType.QUEEN)) {
+                        return true;
+                    }
+                    break;
+                }
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Finds the pieces of one type and team that attack the given square, looking outward from it.
+     * Pawns count by their captures, not their pushes, and whether a move would leave the king in
+     * check is not considered.
+     *
+     * @param row   1 codes for the bottom row
+     * @param col   1 codes for the left column
+     * @param color the team the pieces belong to
+     * @param type  the type of piece
+     * @return bit {@code (row-1)*8+(col-1)} set for each attacking piece's square
+     */
+    public long getAttackers(int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        long attackers = 0;
+        switch (type) {
+            case PAWN -> {
+                int pawnRow = color == ChessGame.TeamColor.WHITE ? row - 1 : row + 1;
+                attackers |= squareIf(pawnRow, col - 1, color, type) | squareIf(pawnRow, col + 1, color, type);
+            }
+            case KNIGHT, KING -> {
+                for (int[] offset : type == ChessPiece.PieceType.KNIGHT ? KNIGHT_OFFSETS : KING_OFFSETS) {
+                    attackers |= squareIf(row + offset[0], col + offset[1], color, type);
+                }
+            }
+            default -> {
+                if (type != ChessPiece.PieceType.BISHOP) {
+                    attackers |= slidingAttackers(row, col, color, type, ORTHOGONAL);
+                }
+                if (type != ChessPiece.PieceType.ROOK) {
+                    attackers |= slidingAttackers(row, col, color, type, DIAGONAL);
+                }
+            }
+        }
+        return attackers;
+    }
+
+    private long slidingAttackers(int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type,
+                                  int[][] directions) {
+        long attackers = 0;
+        for (int[] dir : directions) {
+            int r = row + dir[0];
+            int c = col + dir[1];
+            while (r >= 1 && r <= 8 && c >= 1 && c <= 8 && squares[r - 1][c - 1] == null) {
+                r += dir[0];
+                c += dir[1];
+            }
+            attackers |= squareIf(r, c, color, type);
+        }
+        return attackers;
+    }
+
+    private long squareIf(int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return isPieceAt(row, col, color, type) ? 1L << ((row - 1) * 8 + col - 1) : 0;
+    }
+
+    private boolean isPieceAt(int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return false;
+        }
+        ChessPiece piece = squares[row - 1][col - 1];
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    /**
+     * Reads the piece placement field of a FEN string, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR}, onto this empty board
+     *
+     * @param fen text starting with the field
+     * @return the index just past the field
+     * @throws IllegalArgumentException if the field is not eight valid ranks
+     */
+    int readPlacement(String fen) {
+        int row = 8;
+        int col = 1;
+        int i = 0;
+        for (; i < fen.length() && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c == '/') {
+                if (col != 9 || row == 1) {
+                    throw new IllegalArgumentException("Bad rank in FEN: " + fen);
+                }
+                row--;
+                col = 1;
+            } else if (c >= '1' && c <= '8') {
+                col += c - '0';
+            } else {
+                ChessPiece.PieceType type = fenPieceType(c);
+                if (type == null || col > 8) {
+                    throw new IllegalArgumentException("Bad piece placement in FEN: " + fen);
+                }
+                ChessGame.TeamColor color = c < 'a' ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                place(row - 1, col - 1, ChessPiece.of(color, type));
+                col++;
+            }
+            if (col > 9) {
+                throw new IllegalArgumentException("Bad rank in FEN: " + fen);
+            }
+        }
+        if (row != 1 || col != 9) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        return i;
+    }
+
+    /**
+     * Writes the pieces as the piece placement field of a FEN string
+     *
+     * @param fen where to write the field
+     */
+    void appendPlacement(StringBuilder fen) {
+        for (int row = 7; row >= 0; row--) {
+            int empty = 0;
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(fenLetter(piece));
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 0) {
+                fen.append('/');
+            }
+        }
+    }
+
+    private static long[] masks(int[][] directions, boolean slide) {
+        long[] masks = new long[64];
+        for (int square = 0; square < 64; square++) {
+            for (int[] dir : directions) {
+                int row = square / 8 + dir[0];
+                int col = square % 8 + dir[1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    masks[square] |= 1L << (row * 8 + col);
+                    if (!slide) {
+                        break;
+                    }
+                    row += dir[0];
+                    col += dir[1];
+                }
+            }
+        }
+        return masks;
+    }
+
+    private static ChessPiece.PieceType fenPieceType(char letter) {
+        return switch (letter) {
+            case 'K', 'k' -> ChessPiece.PieceType.KING;
+            case 'Q', 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'R', 'r' -> ChessPiece.PieceType.ROOK;
+            case 'B', 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'N', 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'P', 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+    }
+
+    private static char fenLetter(ChessPiece piece) {
+        char letter = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? Character.toUpperCase(letter) : letter;
     }
 
     @Override
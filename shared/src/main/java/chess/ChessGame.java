@@ -11,11 +11,27 @@ import java.util.*;
 public class ChessGame {
     private TeamColor currentTeam = TeamColor.WHITE;
     private ChessBoard board = new ChessBoard();
+    private List<ChessMove> moveHistory = new ArrayList<>();
+    // Plies since the last capture or pawn move, and the move number, counting from 1
+    private int halfmoveClock;
+    private int fullmoveNumber = 1;
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long RANK_1 = 0xFFL;
 
     public ChessGame() {
         board.resetBoard();
     }
 
+    /**
+     * Starts a game from a position that was read in, skipping the setup of a board that would be
+     * thrown away
+     */
+    ChessGame(ChessBoard board, TeamColor teamToMove) {
+        this.board = board;
+        this.currentTeam = teamToMove;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -104,8 +120,103 @@ public class ChessGame {
             throw new InvalidMoveException("Move puts the king in check. Invalid move.");
         }
 
-        // Switch the turn
+        finishMove(move, selectedPiece, capturedPiece);
+    }
+
+    /**
+     * Plays the move written in Standard Algebraic Notation. Finding the move already shows it is
+     * legal, so it is not checked again the way {@link #makeMove} checks it.
+     *
+     * @param san the move, in any form {@link #parseSan} reads
+     * @return the move played
+     * @throws InvalidMoveException if the text does not name exactly one legal move
+     */
+    public ChessMove makeSanMove(String san) throws InvalidMoveException {
+        ChessMove move = parseSan(san);
+        playLegalMove(move);
+        return move;
+    }
+
+    /**
+     * Plays a move packed by {@link ChessMove#toCompact()}, checking it is legal from the target
+     * square's attackers as {@link #makeSanMove} does rather than the way {@link #makeMove} does
+     *
+     * @param compact the packed move
+     * @return the move played
+     * @throws InvalidMoveException if the move is not legal in the current position
+     */
+    public ChessMove makeCompactMove(int compact) throws InvalidMoveException {
+        ChessMove move;
+        try {
+            move = ChessMove.fromCompact(compact);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMoveException(e.getMessage());
+        }
+        ChessPosition start = move.getStartPosition();
+        ChessPosition end = move.getEndPosition();
+        ChessPiece piece = board.getPiece(start);
+        if (piece == null || piece.getTeamColor() != currentTeam) {
+            throw new InvalidMoveException("No legal move " + move.toUci());
+        }
+        long from = 1L << ((start.getRow() - 1) * 8 + start.getColumn() - 1);
+        if ((legalOrigins(end, piece.getPieceType()) & from) == 0) {
+            throw new InvalidMoveException("No legal move " + move.toUci());
+        }
+        ChessPiece.PieceType promotion = move.getPromotionPiece();
+        boolean promotes = piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && end.getRow() == (currentTeam == TeamColor.WHITE ? 8 : 1);
+        if (promotes != (promotion != null)) {
+            throw new InvalidMoveException("No legal move " + move.toUci());
+        }
+        playLegalMove(move);
+        return move;
+    }
+
+    /**
+     * Plays a move already known to be legal, without checking it again
+     */
+    private void playLegalMove(ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessPiece capturedPiece = board.getPiece(move.getEndPosition());
+        executeMoveOnBoard(move, piece);
+        finishMove(move, piece, capturedPiece);
+    }
+
+    /**
+     * Updates the clocks, turn and history once a move is on the board
+     */
+    private void finishMove(ChessMove move, ChessPiece piece, ChessPiece capturedPiece) {
+        boolean resetsClock = capturedPiece != null || piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = resetsClock ? 0 : halfmoveClock + 1;
+        if (currentTeam == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
         currentTeam = (currentTeam == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        moveHistory.add(move);
+    }
+
+    /**
+     * @return how many plies have been played since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current move, starting at 1 and going up after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    /**
+     * Gets the moves made so far. Setting the board starts the history over, so it only leads from
+     * the starting position to the current one if the board was never set.
+     *
+     * @return the moves, oldest first
+     */
+    public List<ChessMove> getMoveHistory() {
+        return Collections.unmodifiableList(moveHistory);
     }
 
     /**
@@ -222,19 +333,7 @@ public class ChessGame {
      * Checks if the team has any valid moves available
      */
     private boolean hasNoValidMoves(TeamColor teamColor) {
-        for (int x = 1; x <= 8; x++) {
-            for (int y = 1; y <= 8; y++) {
-                ChessPosition piecePosition = new ChessPosition(x, y);
-                ChessPiece piece = board.getPiece(piecePosition);
-                if (piece != null && piece.getTeamColor() == teamColor) {
-                    Collection<ChessMove> possibleMoves = validMoves(piecePosition);
-                    if (!possibleMoves.isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-        return true;
+        return !hasLegalMove(teamColor);
     }
 
     /**
@@ -257,12 +356,15 @@ public class ChessGame {
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board, starting the move history and clocks over
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        moveHistory = new ArrayList<>();
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
     }
 
     /**
@@ -274,6 +376,343 @@ public class ChessGame {
         return this.board;
     }
 
+    /**
+     * Puts back a move history and clocks that were saved with the game, without replaying the moves
+     */
+    void restore(List<ChessMove> history, int halfmoveClock, int fullmoveNumber) {
+        moveHistory = history;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * Finds the legal move written in Standard Algebraic Notation, such as {@code Nbd7},
+     * {@code exd5} or {@code e8=Q+}. Check, mate and annotation marks are ignored. Long algebraic
+     * moves such as {@code Ng1-f3} and UCI moves such as {@code g1f3} or {@code e7e8q} are read as
+     * well, since their start square is just a full disambiguation. A move that starts with a square
+     * instead of a piece letter moves whatever piece is on that square.
+     * <p>
+     * The moving piece is looked for among the attackers of the target square, so only the few
+     * pieces that could get there are tried instead of every legal move.
+     *
+     * @param san the move
+     * @return the move, legal in the current position
+     * @throws InvalidMoveException if the text is not a move, or does not name exactly one legal move
+     */
+    public ChessMove parseSan(String san) throws InvalidMoveException {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        if (san.startsWith("O-O") || san.startsWith("0-0")) {
+            throw new InvalidMoveException("Castling is not supported: " + san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (end > 0 && "KQRBN".indexOf(san.charAt(0)) >= 0) {
+            type = sanPieceType(san.charAt(0));
+            start = 1;
+        } else if (startsWithSquares(san, end)) {
+            // UCI and long algebraic text without a piece letter name the piece by its square
+            ChessPiece piece = board.getPiece(san.charAt(1) - '0', san.charAt(0) - 'a' + 1);
+            if (piece != null && piece.getTeamColor() == currentTeam) {
+                type = piece.getPieceType();
+            }
+        }
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end - start >= 3) {
+            char last = san.charAt(end - 1);
+            // UCI writes the promotion in lower case, which cannot be mistaken for a file after a rank
+            if ("QRBN".indexOf(last) >= 0 || "qrbn".indexOf(last) >= 0 && Character.isDigit(san.charAt(end - 2))) {
+                promotion = sanPieceType(Character.toUpperCase(last));
+                end -= san.charAt(end - 2) == '=' ? 2 : 1;
+            }
+        }
+        if (end - start < 2) {
+            throw new InvalidMoveException("Not a move: " + san);
+        }
+        int targetCol = san.charAt(end - 2) - 'a' + 1;
+        int targetRow = san.charAt(end - 1) - '0';
+        if (targetCol < 1 || targetCol > 8 || targetRow < 1 || targetRow > 8) {
+            throw new InvalidMoveException("Not a move: " + san);
+        }
+        ChessPosition target = new ChessPosition(targetRow, targetCol);
+
+        // Whatever is left narrows down where the piece comes from
+        long origins = legalOrigins(target, type);
+        boolean fileGiven = false;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                origins &= FILE_A << (c - 'a');
+                fileGiven = true;
+            } else if (c >= '1' && c <= '8') {
+                origins &= RANK_1 << ((c - '1') * 8);
+            } else if (c != 'x' && c != '-') {
+                throw new InvalidMoveException("Not a move: " + san);
+            }
+        }
+        if (type == ChessPiece.PieceType.PAWN && !fileGiven) {
+            // A pawn capture always names its file, so without one this is a push
+            origins &= FILE_A << (targetCol - 1);
+        }
+
+        if (origins == 0) {
+            throw new InvalidMoveException("No legal move " + san);
+        }
+        if (Long.bitCount(origins) > 1) {
+            throw new InvalidMoveException("Ambiguous move: " + san);
+        }
+        boolean promotes = type == ChessPiece.PieceType.PAWN && targetRow == (currentTeam == TeamColor.WHITE ? 8 : 1);
+        if (promotes && promotion == null) {
+            throw new InvalidMoveException("Missing promotion piece: " + san);
+        }
+        if (!promotes && promotion != null) {
+            throw new InvalidMoveException("No legal move " + san);
+        }
+        int from = Long.numberOfTrailingZeros(origins);
+        return new ChessMove(new ChessPosition(from / 8 + 1, from % 8 + 1), target, promotion);
+    }
+
+    /**
+     * @return whether the text begins with two squares, apart from a separator between them and a
+     * promotion piece after them
+     */
+    private static boolean startsWithSquares(String san, int end) {
+        if (end < 4 || !isSquare(san, 0)) {
+            return false;
+        }
+        int second = san.charAt(2) == '-' || san.charAt(2) == 'x' ? 3 : 2;
+        if (end < second + 2 || !isSquare(san, second)) {
+            return false;
+        }
+        int rest = end - second - 2;
+        return rest == 0 || rest == 1 || rest == 2 && san.charAt(second + 2) == '=';
+    }
+
+    private static boolean isSquare(String text, int index) {
+        char file = text.charAt(index);
+        char rank = text.charAt(index + 1);
+        return file >= 'a' && file <= 'h' && rank >= '1' && rank <= '8';
+    }
+
+    /**
+     * Finds the squares the side to move could legally move a piece of the given type from to
+     * reach the target, starting from the target's attackers rather than every legal move
+     *
+     * @return bit {@code (row-1)*8+(col-1)} set for each such square
+     */
+    long legalOrigins(ChessPosition target, ChessPiece.PieceType type) {
+        int row = target.getRow();
+        int col = target.getColumn();
+        ChessPiece occupant = board.getPiece(row, col);
+        if (occupant != null && occupant.getTeamColor() == currentTeam) {
+            return 0;
+        }
+        long origins = type == ChessPiece.PieceType.PAWN && occupant == null
+                ? pawnPushOrigin(row, col)
+                : board.getAttackers(row, col, currentTeam, type);
+        for (long rest = origins; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            ChessMove move = new ChessMove(new ChessPosition(square / 8 + 1, square % 8 + 1), target, null);
+            if (exposesKing(currentTeam, move)) {
+                origins &= ~(1L << square);
+            }
+        }
+        return origins;
+    }
+
+    /**
+     * @return the square of the side to move's pawn that could push to the given empty square, or 0
+     */
+    private long pawnPushOrigin(int row, int col) {
+        int forward = currentTeam == TeamColor.WHITE ? 1 : -1;
+        int from = row - forward;
+        if (from < 1 || from > 8) {
+            return 0;
+        }
+        ChessPiece piece = board.getPiece(from, col);
+        if (piece == null && row == (currentTeam == TeamColor.WHITE ? 4 : 5)) {
+            from -= forward;
+            piece = board.getPiece(from, col);
+        }
+        boolean ownPawn = piece != null && piece.getTeamColor() == currentTeam
+                && piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        return ownPawn ? 1L << ((from - 1) * 8 + col - 1) : 0;
+    }
+
+    /**
+     * Determines if a move would leave the team's king attacked, checking only the king's square
+     */
+    private boolean exposesKing(TeamColor team, ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        executeMoveOnBoard(move, piece);
+        ChessPosition king = board.getKingPosition(team);
+        boolean attacked = king != null && board.isSquareAttacked(king.getRow(), king.getColumn(), opponent(team));
+        undoMove(move, piece, captured);
+        return attacked;
+    }
+
+    /**
+     * Works out the suffix a move gets in Standard Algebraic Notation
+     *
+     * @param move a legal move for the side to move
+     * @return "#" if the move mates, "+" if it only checks, otherwise ""
+     */
+    String checkSuffix(ChessMove move) {
+        TeamColor opponent = opponent(currentTeam);
+        ChessPiece piece = board.getPiece(move.getStartPosition());
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        executeMoveOnBoard(move, piece);
+        ChessPosition king = board.getKingPosition(opponent);
+        String suffix = "";
+        if (king != null && board.isSquareAttacked(king.getRow(), king.getColumn(), currentTeam)) {
+            suffix = hasLegalMove(opponent) ? "+" : "#";
+        }
+        undoMove(move, piece, captured);
+        return suffix;
+    }
+
+    private boolean hasLegalMove(TeamColor team) {
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece == null || piece.getTeamColor() != team) {
+                    continue;
+                }
+                for (ChessMove move : piece.pieceMoves(board, new ChessPosition(row, col))) {
+                    if (!exposesKing(team, move)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static TeamColor opponent(TeamColor team) {
+        return team == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    private static ChessPiece.PieceType sanPieceType(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            default -> ChessPiece.PieceType.KNIGHT;
+        };
+    }
+
+    /**
+     * Reads a position written in Forsyth-Edwards Notation, such as
+     * {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1}.
+     * <p>
+     * The piece placement and side to move are required. The castling and en passant fields are
+     * checked but not kept, since this game has neither, and missing move clocks start at 0 and 1.
+     * The text is read in one pass without splitting it.
+     *
+     * @param fen the position
+     * @return a game at that position, with no move history
+     * @throws IllegalArgumentException if the text is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        ChessBoard board = new ChessBoard();
+        int length = fen.length();
+        int i = board.readPlacement(fen);
+        if (i + 1 >= length || fen.charAt(i) != ' ' || (i + 2 < length && fen.charAt(i + 2) != ' ')) {
+            throw new IllegalArgumentException("Bad FEN: " + fen);
+        }
+        TeamColor teamToMove = switch (fen.charAt(i + 1)) {
+            case 'w' -> TeamColor.WHITE;
+            case 'b' -> TeamColor.BLACK;
+            default -> throw new IllegalArgumentException("Bad side to move in FEN: " + fen);
+        };
+        i += 3;
+
+        // Castling rights: '-' or some of KQkq
+        int start = i;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            if (c != 'K' && c != 'Q' && c != 'k' && c != 'q' && !(c == '-' && i == start)) {
+                throw new IllegalArgumentException("Bad castling rights in FEN: " + fen);
+            }
+        }
+        if (i == start && start < length) {
+            throw new IllegalArgumentException("Bad castling rights in FEN: " + fen);
+        }
+        i++;
+
+        // En passant target: '-' or a square on the third or sixth rank
+        start = i;
+        for (; i < length && fen.charAt(i) != ' '; i++) {
+            char c = fen.charAt(i);
+            boolean valid = switch (i - start) {
+                case 0 -> c == '-' || (c >= 'a' && c <= 'h');
+                case 1 -> fen.charAt(start) != '-' && (c == '3' || c == '6');
+                default -> false;
+            };
+            if (!valid) {
+                throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+            }
+        }
+        if (start < length && (i == start || (fen.charAt(start) != '-' && i - start != 2))) {
+            throw new IllegalArgumentException("Bad en passant square in FEN: " + fen);
+        }
+        i++;
+
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        if (i < length) {
+            start = i;
+            for (; i < length && fen.charAt(i) != ' '; i++) {
+                halfmoveClock = fenDigit(fen, i) + halfmoveClock * 10;
+            }
+            if (i == start || i - start > 4) {
+                throw new IllegalArgumentException("Bad halfmove clock in FEN: " + fen);
+            }
+            i++;
+        }
+        if (i < length) {
+            fullmoveNumber = 0;
+            start = i;
+            for (; i < length; i++) {
+                fullmoveNumber = fenDigit(fen, i) + fullmoveNumber * 10;
+            }
+            if (i - start > 5 || fullmoveNumber == 0) {
+                throw new IllegalArgumentException("Bad move number in FEN: " + fen);
+            }
+        }
+
+        ChessGame game = new ChessGame(board, teamToMove);
+        game.halfmoveClock = halfmoveClock;
+        game.fullmoveNumber = fullmoveNumber;
+        return game;
+    }
+
+    /**
+     * Writes the position in Forsyth-Edwards Notation. Castling and en passant are always '-',
+     * since this game has neither.
+     *
+     * @return the position, about 60 characters
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        board.appendPlacement(fen);
+        fen.append(currentTeam == TeamColor.WHITE ? " w - - " : " b - - ");
+        return fen.append(halfmoveClock).append(' ').append(fullmoveNumber).toString();
+    }
+
+    private static int fenDigit(String fen, int index) {
+        char c = fen.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Bad move count in FEN: " + fen);
+        }
+        return c - '0';
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
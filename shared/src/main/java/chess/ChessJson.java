@@ -0,0 +1,245 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact JSON for games, boards and moves, written and read by hand instead of by reflection.
+ * <p>
+ * A board is its FEN piece placement, a move is its UCI text, and a game is
+ * {@code {"fen": "...", "moves": ["e2e4", ...]}}. That is a few hundred bytes a game instead of
+ * the 2-3 KB of nulls and piece objects reflection writes. The older reflective form is still
+ * read, so games stored before the switch load as they did.
+ */
+public final class ChessJson {
+    private static final TypeAdapter<ChessMove> MOVE = new MoveAdapter().nullSafe();
+    private static final TypeAdapter<ChessBoard> BOARD = new BoardAdapter().nullSafe();
+    private static final TypeAdapter<ChessGame> GAME = new GameAdapter().nullSafe();
+
+    private ChessJson() {
+    }
+
+    /**
+     * Registers the adapters on a builder
+     *
+     * @param builder the builder to add them to
+     * @return the same builder
+     */
+    public static GsonBuilder register(GsonBuilder builder) {
+        return builder.registerTypeAdapter(ChessMove.class, MOVE)
+                .registerTypeAdapter(ChessBoard.class, BOARD)
+                .registerTypeAdapter(ChessGame.class, GAME);
+    }
+
+    /**
+     * @return a Gson with the adapters registered
+     */
+    public static Gson create() {
+        return register(new GsonBuilder()).create();
+    }
+
+    private static final class MoveAdapter extends TypeAdapter<ChessMove> {
+        @Override
+        public void write(JsonWriter out, ChessMove move) throws IOException {
+            out.value(move.toUci());
+        }
+
+        @Override
+        public ChessMove read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.STRING) {
+                try {
+                    return ChessMove.fromUci(in.nextString());
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+            }
+            // The reflective form: {"startPosition": {"row": 2, "col": 5}, "endPosition": ..., "promotionPiece": ...}
+            ChessPosition start = null;
+            ChessPosition end = null;
+            ChessPiece.PieceType promotion = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "startPosition" -> start = readPosition(in);
+                    case "endPosition" -> end = readPosition(in);
+                    case "promotionPiece" -> promotion = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (start == null || end == null) {
+                throw new JsonParseException("Move without start or end position");
+            }
+            return new ChessMove(start, end, promotion);
+        }
+
+        private static ChessPosition readPosition(JsonReader in) throws IOException {
+            int row = 0;
+            int col = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "row" -> row = in.nextInt();
+                    case "col" -> col = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ChessPosition(row, col);
+        }
+    }
+
+    private static final class BoardAdapter extends TypeAdapter<ChessBoard> {
+        @Override
+        public void write(JsonWriter out, ChessBoard board) throws IOException {
+            StringBuilder placement = new StringBuilder(72);
+            board.appendPlacement(placement);
+            out.value(placement.toString());
+        }
+
+        @Override
+        public ChessBoard read(JsonReader in) throws IOException {
+            ChessBoard board = new ChessBoard();
+            if (in.peek() == JsonToken.STRING) {
+                String placement = in.nextString();
+                try {
+                    if (board.readPlacement(placement) != placement.length()) {
+                        throw new JsonParseException("Bad board: " + placement);
+                    }
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+                return board;
+            }
+            // The reflective form: {"squares": [[null, {"pieceColor": "WHITE", "type": "ROOK"}, ...], ...]}
+            in.beginObject();
+            while (in.hasNext()) {
+                if (!in.nextName().equals("squares")) {
+                    in.skipValue();
+                    continue;
+                }
+                in.beginArray();
+                for (int row = 1; in.hasNext(); row++) {
+                    in.beginArray();
+                    for (int col = 1; in.hasNext(); col++) {
+                        ChessPiece piece = readPiece(in);
+                        if (piece != null) {
+                            board.addPiece(new ChessPosition(row, col), piece);
+                        }
+                    }
+                    in.endArray();
+                }
+                in.endArray();
+            }
+            in.endObject();
+            return board;
+        }
+
+        private static ChessPiece readPiece(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ChessGame.TeamColor color = null;
+            ChessPiece.PieceType type = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "pieceColor" -> color = readEnum(in, ChessGame.TeamColor.class);
+                    case "type" -> type = readEnum(in, ChessPiece.PieceType.class);
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            if (color == null || type == null) {
+                throw new JsonParseException("Piece without color or type");
+            }
+            return ChessPiece.of(color, type);
+        }
+    }
+
+    private static final class GameAdapter extends TypeAdapter<ChessGame> {
+        @Override
+        public void write(JsonWriter out, ChessGame game) throws IOException {
+            out.beginObject();
+            out.name("fen").value(game.toFen());
+            out.name("moves").beginArray();
+            for (ChessMove move : game.getMoveHistory()) {
+                MOVE.write(out, move);
+            }
+            out.endArray();
+            out.endObject();
+        }
+
+        @Override
+        public ChessGame read(JsonReader in) throws IOException {
+            String fen = null;
+            List<ChessMove> moves = new ArrayList<>();
+            // Only in the reflective form
+            ChessBoard board = null;
+            ChessGame.TeamColor team = ChessGame.TeamColor.WHITE;
+            int halfmoveClock = 0;
+            int fullmoveNumber = 1;
+
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "fen" -> fen = in.nextString();
+                    case "moves", "moveHistory" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            moves.add(MOVE.read(in));
+                        }
+                        in.endArray();
+                    }
+                    case "board" -> board = BOARD.read(in);
+                    case "currentTeam" -> team = readEnum(in, ChessGame.TeamColor.class);
+                    case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                    case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+
+            ChessGame game;
+            if (fen != null) {
+                try {
+                    game = ChessGame.fromFen(fen);
+                } catch (IllegalArgumentException e) {
+                    throw new JsonParseException(e.getMessage(), e);
+                }
+                halfmoveClock = game.getHalfmoveClock();
+                fullmoveNumber = game.getFullmoveNumber();
+            } else {
+                game = new ChessGame();
+                if (board != null) {
+                    game.setBoard(board);
+                }
+                game.setTeamTurn(team);
+            }
+            game.restore(moves, halfmoveClock, fullmoveNumber);
+            return game;
+        }
+    }
+
+    private static <E extends Enum<E>> E readEnum(JsonReader in, Class<E> type) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        try {
+            return Enum.valueOf(type, in.nextString());
+        } catch (IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage(), e);
+        }
+    }
+}
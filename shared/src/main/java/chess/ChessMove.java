@@ -45,6 +45,159 @@ public class ChessMove {
         return promotionPiece;
     }
 
+    /**
+     * Packs this move into 16 bits: start square in bits 0-5, end square in bits 6-11
+     * and the promotion piece (ordinal + 1, or 0 for none) in bits 12-14.
+     * Squares are numbered (row - 1) * 8 + (column - 1).
+     *
+     * @return the packed move
+     */
+    public int toCompact() {
+        int start = (startPosition.getRow() - 1) * 8 + startPosition.getColumn() - 1;
+        int end = (endPosition.getRow() - 1) * 8 + endPosition.getColumn() - 1;
+        int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        return start | (end << 6) | (promotion << 12);
+    }
+
+    /**
+     * Unpacks a move produced by {@link #toCompact()}
+     *
+     * @param compact the packed move
+     * @return the move
+     * @throws IllegalArgumentException if the value is not one {@link #toCompact()} could produce
+     */
+    public static ChessMove fromCompact(int compact) {
+        int start = compact & 0x3F;
+        int end = (compact >>> 6) & 0x3F;
+        int promotion = (compact >>> 12) & 0x7;
+        boolean promotesToPiece = promotion == 0 || promotion > ChessPiece.PieceType.KING.ordinal() + 1
+                && promotion < ChessPiece.PieceType.PAWN.ordinal() + 1;
+        if ((compact & ~0x7FFF) != 0 || !promotesToPiece) {
+            throw new IllegalArgumentException("Not a packed move: " + compact);
+        }
+        return new ChessMove(new ChessPosition(start / 8 + 1, start % 8 + 1),
+                new ChessPosition(end / 8 + 1, end % 8 + 1),
+                promotion == 0 ? null : ChessPiece.PieceType.values()[promotion - 1]);
+    }
+
+    /**
+     * Writes this move in UCI long algebraic notation, such as {@code e2e4} or {@code e7e8q}
+     *
+     * @return the move
+     */
+    public String toUci() {
+        char[] text = new char[promotionPiece == null ? 4 : 5];
+        text[0] = (char) ('a' + startPosition.getColumn() - 1);
+        text[1] = (char) ('0' + startPosition.getRow());
+        text[2] = (char) ('a' + endPosition.getColumn() - 1);
+        text[3] = (char) ('0' + endPosition.getRow());
+        if (promotionPiece != null) {
+            text[4] = switch (promotionPiece) {
+                case QUEEN -> 'q';
+                case ROOK -> 'r';
+                case BISHOP -> 'b';
+                case KNIGHT -> 'n';
+                default -> throw new IllegalStateException("Cannot promote to " + promotionPiece);
+            };
+        }
+        return new String(text);
+    }
+
+    /**
+     * Reads a move in UCI long algebraic notation
+     *
+     * @param uci the move, such as {@code e2e4} or {@code e7e8q}
+     * @return the move
+     * @throws IllegalArgumentException if the text is not a move
+     */
+    public static ChessMove fromUci(String uci) {
+        if (uci.length() != 4 && uci.length() != 5) {
+            throw new IllegalArgumentException("Bad UCI move: " + uci);
+        }
+        ChessPiece.PieceType promotion = null;
+        if (uci.length() == 5) {
+            promotion = switch (uci.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Bad UCI promotion: " + uci);
+            };
+        }
+        return new ChessMove(uciSquare(uci, 0), uciSquare(uci, 2), promotion);
+    }
+
+    /**
+     * Writes this move in Standard Algebraic Notation, such as {@code Nbd7}, {@code exd5} or
+     * {@code e8=Q#}. The moving piece is only told apart from others that could reach the same
+     * square by the attackers of that square, not by generating every legal move.
+     *
+     * @param game the game, in the position the move is about to be made from
+     * @return the move
+     * @throws IllegalArgumentException if the side to move has no piece on the start square
+     */
+    public String toSan(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        ChessPiece piece = board.getPiece(startPosition);
+        if (piece == null || piece.getTeamColor() != game.getTeamTurn()) {
+            throw new IllegalArgumentException("No piece to move on " + toUci().substring(0, 2));
+        }
+        boolean capture = board.getPiece(endPosition) != null;
+        StringBuilder san = new StringBuilder(8);
+        if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                san.append(fileLetter(startPosition)).append('x');
+            }
+        } else {
+            san.append(sanLetter(piece.getPieceType()));
+            int start = (startPosition.getRow() - 1) * 8 + startPosition.getColumn() - 1;
+            long others = game.legalOrigins(endPosition, piece.getPieceType()) & ~(1L << start);
+            if (others != 0) {
+                // The file if that is enough, then the rank, then both
+                boolean fileShared = (others & 0x0101010101010101L << (start % 8)) != 0;
+                boolean rankShared = (others & 0xFFL << (start / 8 * 8)) != 0;
+                if (!fileShared || rankShared) {
+                    san.append(fileLetter(startPosition));
+                }
+                if (fileShared) {
+                    san.append(startPosition.getRow());
+                }
+            }
+            if (capture) {
+                san.append('x');
+            }
+        }
+        san.append(fileLetter(endPosition)).append(endPosition.getRow());
+        if (promotionPiece != null) {
+            san.append('=').append(sanLetter(promotionPiece));
+        }
+        return san.append(game.checkSuffix(this)).toString();
+    }
+
+    private static char fileLetter(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1);
+    }
+
+    private static char sanLetter(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> throw new IllegalArgumentException("Pawns have no letter");
+        };
+    }
+
+    private static ChessPosition uciSquare(String uci, int index) {
+        int col = uci.charAt(index) - 'a' + 1;
+        int row = uci.charAt(index + 1) - '0';
+        if (col < 1 || col > 8 || row < 1 || row > 8) {
+            throw new IllegalArgumentException("Bad UCI square: " + uci);
+        }
+        return new ChessPosition(row, col);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (o == null || getClass() != o.getClass()) {
@@ -12,6 +12,9 @@ import java.util.Objects;
  */
 public class ChessPiece {
 
+    // One instance of each piece, for code that builds many boards
+    private static final ChessPiece[][] SHARED = new ChessPiece[2][6];
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
 
@@ -20,6 +23,23 @@ public class ChessPiece {
         this.type = type;
     }
 
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                SHARED[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
+    /**
+     * Pieces are immutable, so one instance of each can be shared instead of allocating new ones
+     *
+     * @return the shared piece of that color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return SHARED[pieceColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * The various different chess piece options
      */
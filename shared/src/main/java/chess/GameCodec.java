@@ -0,0 +1,194 @@
+package chess;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A compact, versioned binary form of a {@link ChessGame} for storage and transfer.
+ * <p>
+ * Version 1 is laid out as:
+ * <ul>
+ *     <li>1 byte: the version</li>
+ *     <li>1 byte: flags, bit 0 set if black is to move and bit 1 set if a move list follows</li>
+ *     <li>32 bytes: one 4-bit code per square in square order, {@code (row-1)*8+(col-1)}, two to a
+ *     byte with the first in the low nibble; 0 is empty, otherwise the piece type ordinal plus 1,
+ *     plus 8 for black</li>
+ *     <li>varint: the halfmove clock</li>
+ *     <li>varint: the fullmove number</li>
+ *     <li>if flagged: a varint move count, then each move as a varint of
+ *     {@link ChessMove#toCompact()}</li>
+ * </ul>
+ * Varints are unsigned, 7 bits a byte with the low bits first. A game comes to 37 bytes plus
+ * about 2 a move. Everything is read and written straight from the buffer, with no text in between.
+ */
+public final class GameCodec {
+    public static final int VERSION = 1;
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int HAS_MOVES = 2;
+    private static final int BOARD_BYTES = 32;
+    private static final int BLACK_CODE = 8;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private GameCodec() {
+    }
+
+    /**
+     * @param withMoves whether the move history is included
+     * @return the exact number of bytes {@link #encode(ChessGame, boolean, ByteBuffer)} will write
+     */
+    public static int encodedSize(ChessGame game, boolean withMoves) {
+        int size = 2 + BOARD_BYTES + varintSize(game.getHalfmoveClock()) + varintSize(game.getFullmoveNumber());
+        if (withMoves) {
+            List<ChessMove> moves = game.getMoveHistory();
+            size += varintSize(moves.size());
+            for (ChessMove move : moves) {
+                size += varintSize(move.toCompact());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Writes a game into the buffer at its position
+     *
+     * @param withMoves whether to include the move history
+     * @throws java.nio.BufferOverflowException if the buffer has too little room left
+     */
+    public static void encode(ChessGame game, boolean withMoves, ByteBuffer out) {
+        out.put((byte) VERSION);
+        out.put((byte) ((game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0)
+                | (withMoves ? HAS_MOVES : 0)));
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int low = code(board.getPiece(square / 8 + 1, square % 8 + 1));
+            int high = code(board.getPiece(square / 8 + 1, square % 8 + 2));
+            out.put((byte) (low | high << 4));
+        }
+        putVarint(out, game.getHalfmoveClock());
+        putVarint(out, game.getFullmoveNumber());
+        if (withMoves) {
+            List<ChessMove> moves = game.getMoveHistory();
+            putVarint(out, moves.size());
+            for (ChessMove move : moves) {
+                putVarint(out, move.toCompact());
+            }
+        }
+    }
+
+    /**
+     * @param withMoves whether to include the move history
+     * @return the game as a new array of exactly its size
+     */
+    public static byte[] encode(ChessGame game, boolean withMoves) {
+        byte[] bytes = new byte[encodedSize(game, withMoves)];
+        encode(game, withMoves, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Reads a game from the buffer at its position, leaving the position just past it
+     *
+     * @return the game, with its move history if one was stored
+     * @throws IllegalArgumentException if the bytes are not a game this version can read
+     */
+    public static ChessGame decode(ByteBuffer in) {
+        if (in.remaining() < 2 + BOARD_BYTES + 2) {
+            throw new IllegalArgumentException("Encoded game is too short");
+        }
+        int version = in.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unknown encoded game version " + version);
+        }
+        int flags = in.get();
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int packed = in.get();
+            place(board, square, packed & 0xF);
+            place(board, square + 1, packed >>> 4 & 0xF);
+        }
+        int halfmoveClock = getVarint(in);
+        int fullmoveNumber = getVarint(in);
+        List<ChessMove> moves = new ArrayList<>();
+        if ((flags & HAS_MOVES) != 0) {
+            int count = getVarint(in);
+            // Every move takes at least a byte, so a bad count cannot make us allocate much
+            if (count > in.remaining()) {
+                throw new IllegalArgumentException("Encoded game is truncated");
+            }
+            moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                moves.add(ChessMove.fromCompact(getVarint(in)));
+            }
+        }
+
+        ChessGame game = new ChessGame(board,
+                (flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.restore(moves, halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    /**
+     * @return the game held in the whole array
+     * @throws IllegalArgumentException if the bytes are not a game this version can read
+     */
+    public static ChessGame decode(byte[] bytes) {
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        ChessGame game = decode(in);
+        if (in.hasRemaining()) {
+            throw new IllegalArgumentException("Encoded game has " + in.remaining() + " trailing bytes");
+        }
+        return game;
+    }
+
+    private static int code(ChessPiece piece) {
+        if (piece == null) {
+            return 0;
+        }
+        int color = piece.getTeamColor() == ChessGame.TeamColor.BLACK ? BLACK_CODE : 0;
+        return piece.getPieceType().ordinal() + 1 + color;
+    }
+
+    private static void place(ChessBoard board, int square, int code) {
+        if (code == 0) {
+            return;
+        }
+        int type = (code & 7) - 1;
+        if (type < 0 || type >= TYPES.length) {
+            throw new IllegalArgumentException("Bad piece code " + code + " in encoded game");
+        }
+        ChessGame.TeamColor color = code >= BLACK_CODE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        board.place(square / 8, square % 8, ChessPiece.of(color, TYPES[type]));
+    }
+
+    private static int varintSize(int value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    private static void putVarint(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static int getVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!in.hasRemaining()) {
+                throw new IllegalArgumentException("Encoded game is truncated");
+            }
+            int b = in.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long in encoded game");
+    }
+}
@@ -0,0 +1,14 @@
+package chess;
+
+/**
+ * Told about every change to a board's squares, so state built from the pieces can be kept up
+ * to date as pieces move instead of being rebuilt from the whole board
+ */
+public interface PieceListener {
+    /**
+     * @param square  (row - 1) * 8 + (column - 1)
+     * @param removed the piece that was on the square, or null
+     * @param added   the piece now on the square, or null
+     */
+    void pieceChanged(int square, ChessPiece removed, ChessPiece added);
+}
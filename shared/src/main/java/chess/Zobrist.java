@@ -0,0 +1,55 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys used to hash chess positions.
+ * <p>
+ * A position's key is the XOR of one key per occupied square (by color and piece type),
+ * plus the side key when black is to move. Because XOR is its own inverse, a key can be
+ * kept up to date by toggling the keys of the squares that change.
+ */
+public final class Zobrist {
+    private static final long[][][] PIECE_KEYS = new long[2][6][64];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        // Fixed seed so that keys are the same on every run and every machine
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for (int color = 0; color < 2; color++) {
+            for (int type = 0; type < 6; type++) {
+                for (int square = 0; square < 64; square++) {
+                    PIECE_KEYS[color][type][square] = random.nextLong();
+                }
+            }
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param piece  the piece standing on the square
+     * @param square square index, (row - 1) * 8 + (column - 1)
+     * @return the key for that piece on that square
+     */
+    public static long pieceKey(ChessPiece piece, int square) {
+        return PIECE_KEYS[piece.getTeamColor().ordinal()][piece.getPieceType().ordinal()][square];
+    }
+
+    /**
+     * @return the key toggled in when black is the team to move
+     */
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * @return the full key of a board with the given team to move
+     */
+    public static long positionKey(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        long key = board.getZobristKey();
+        return teamToMove == ChessGame.TeamColor.BLACK ? key ^ BLACK_TO_MOVE : key;
+    }
+}
@@ -0,0 +1,328 @@
+package chess.engine;
+
+import chess.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Plays a candidate engine against a baseline to measure the difference between them.
+ * <p>
+ * Games are played in pairs from the same opening, once with each color, so a lopsided opening
+ * does not favour either side. Each worker thread keeps one engine of each kind and takes the
+ * next pair when it finishes one, so the workers stay busy until the games run out or the SPRT
+ * reaches a decision.
+ * <p>
+ * Most of the time goes into the engines, so games are kept short: a game ends as soon as the
+ * search finds no move, on the fifty-move rule, threefold repetition or bare kings, and both
+ * engines agreeing a game is decided or dead drawn settles it without playing it out.
+ * <p>
+ * Given a {@link TrainingDataWriter}, the arena also records the quiet positions the engines
+ * searched, with their scores and the game's result, as training data. A game's positions are
+ * held until it ends and then written together.
+ */
+public class Arena {
+    /** Games that last this long are drawn */
+    static final int MAX_PLIES = 400;
+    /** A side scoring itself this far behind for RESIGN_MOVES moves in a row, with the other side agreeing, has lost */
+    static final int RESIGN_SCORE = 1000;
+    static final int RESIGN_MOVES = 3;
+    /** After DRAW_START_PLY, scores this close to even on both sides mean a draw */
+    static final int DRAW_SCORE = 10;
+    static final int DRAW_PLIES = 10;
+    static final int DRAW_START_PLY = 80;
+
+    private final ArenaPlayer candidate;
+    private final ArenaPlayer baseline;
+    private final ArenaSettings settings;
+
+    // Guarded by this
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public Arena(ArenaPlayer candidate, ArenaPlayer baseline, ArenaSettings settings) {
+        if (settings.gamePairs() < 1 || settings.threads() < 1 || settings.openingPlies() < 0) {
+            throw new IllegalArgumentException("Need at least one game pair and one thread");
+        }
+        this.candidate = candidate;
+        this.baseline = baseline;
+        this.settings = settings;
+    }
+
+    /**
+     * The result of one game
+     */
+    enum Outcome {
+        WHITE_WINS,
+        DRAW,
+        BLACK_WINS
+    }
+
+    /**
+     * Plays the match. Pairs already started when the SPRT decides are finished and counted.
+     * Any training data is flushed before this returns.
+     *
+     * @return the results from the candidate's side
+     * @throws UncheckedIOException if the training data cannot be written
+     */
+    public ArenaResult run() {
+        long startNanos = System.nanoTime();
+        AtomicInteger nextPair = new AtomicInteger();
+        AtomicBoolean decided = new AtomicBoolean();
+        ExecutorService workers = Executors.newFixedThreadPool(settings.threads());
+        List<Future<?>> running = new ArrayList<>(settings.threads());
+        for (int i = 0; i < settings.threads(); i++) {
+            running.add(workers.submit(() -> {
+                SearchEngine candidateEngine = candidate.newEngine();
+                SearchEngine baselineEngine = baseline.newEngine();
+                int pair;
+                while (!decided.get() && (pair = nextPair.getAndIncrement()) < settings.gamePairs()) {
+                    ChessGame opening = opening(new Random(settings.seed() * 1_000_003 + pair));
+                    record(playGame(opening, candidateEngine, baselineEngine), ChessGame.TeamColor.WHITE, decided);
+                    record(playGame(opening, baselineEngine, candidateEngine), ChessGame.TeamColor.BLACK, decided);
+                }
+            }));
+        }
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting; every game ends within MAX_PLIES moves
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+            if (settings.trainingData() != null) {
+                settings.trainingData().flush();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        synchronized (this) {
+            Sprt sprt = settings.sprt();
+            double llr = sprt == null ? 0 : sprt.llr(wins, draws, losses);
+            Sprt.Decision decision = sprt == null ? Sprt.Decision.CONTINUE : sprt.decide(wins, draws, losses);
+            return new ArenaResult(wins, draws, losses, llr, decision, elapsedMillis);
+        }
+    }
+
+    private synchronized void record(Outcome outcome, ChessGame.TeamColor candidateColor, AtomicBoolean decided) {
+        if (outcome == Outcome.DRAW) {
+            draws++;
+        } else if ((outcome == Outcome.WHITE_WINS) == (candidateColor == ChessGame.TeamColor.WHITE)) {
+            wins++;
+        } else {
+            losses++;
+        }
+        if (settings.sprt() != null && settings.sprt().decide(wins, draws, losses) != Sprt.Decision.CONTINUE) {
+            decided.set(true);
+        }
+    }
+
+    /**
+     * Chooses an opening from the book, weighted by the book's weights, or from random legal moves.
+     * An opening that leaves no legal moves is cut short before its last move.
+     */
+    ChessGame opening(Random random) {
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < settings.openingPlies(); ply++) {
+            ChessMove move = settings.openingBook() == null ? randomMove(game, random) : bookMove(game, random);
+            if (move == null) {
+                break;
+            }
+            // Try the move on a copy first so the game keeps its history
+            ChessGame next = copy(game);
+            try {
+                next.makeMove(move);
+                if (legalMoves(next).isEmpty()) {
+                    break;
+                }
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                break;
+            }
+        }
+        return game;
+    }
+
+    /**
+     * Plays one game from the given position to the end, recording its training data if wanted
+     */
+    Outcome playGame(ChessGame start, SearchEngine whiteEngine, SearchEngine blackEngine) {
+        List<Sampled> sampled = settings.trainingData() == null ? null : new ArrayList<>();
+        Outcome outcome = play(start, whiteEngine, blackEngine, sampled);
+        if (sampled != null && !sampled.isEmpty()) {
+            double result = switch (outcome) {
+                case WHITE_WINS -> 1;
+                case DRAW -> 0.5;
+                case BLACK_WINS -> 0;
+            };
+            List<TrainingSample> samples = new ArrayList<>(sampled.size());
+            for (Sampled position : sampled) {
+                samples.add(new TrainingSample(position.board(), position.toMove(), position.score(), result,
+                        position.ply()));
+            }
+            try {
+                settings.trainingData().write(samples);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * A position recorded before its game's result is known
+     */
+    private record Sampled(ChessBoard board, ChessGame.TeamColor toMove, int score, int ply) {
+    }
+
+    private Outcome play(ChessGame start, SearchEngine whiteEngine, SearchEngine blackEngine, List<Sampled> sampled) {
+        ChessGame game = copy(start);
+        int startPly = start.getMoveHistory().size();
+        whiteEngine.clearHash();
+        blackEngine.clearHash();
+        Map<Long, Integer> seen = new HashMap<>();
+        seen.put(Zobrist.positionKey(game.getBoard(), game.getTeamTurn()), 1);
+        int quietPlies = 0;
+        int[] lastScores = new int[2];
+        int[] losingStreaks = new int[2];
+        int drawStreak = 0;
+
+        for (int ply = 0; ply < MAX_PLIES; ply++) {
+            ChessGame.TeamColor mover = game.getTeamTurn();
+            SearchEngine engine = mover == ChessGame.TeamColor.WHITE ? whiteEngine : blackEngine;
+            SearchResult result = engine.search(game, settings.moveLimits());
+            ChessMove move = result.bestMove();
+            if (move == null) {
+                return game.isInCheck(mover) ? loss(mover) : Outcome.DRAW;
+            }
+
+            // Adjudicate on what both engines say about the position
+            int side = mover.ordinal();
+            lastScores[side] = result.score();
+            losingStreaks[side] = result.score() <= -RESIGN_SCORE ? losingStreaks[side] + 1 : 0;
+            if (losingStreaks[side] >= RESIGN_MOVES && lastScores[1 - side] >= RESIGN_SCORE) {
+                return loss(mover);
+            }
+            drawStreak = ply >= DRAW_START_PLY && Math.abs(result.score()) <= DRAW_SCORE ? drawStreak + 1 : 0;
+            if (drawStreak >= DRAW_PLIES) {
+                return Outcome.DRAW;
+            }
+
+            ChessPiece moving = game.getBoard().getPiece(move.getStartPosition());
+            boolean capture = game.getBoard().getPiece(move.getEndPosition()) != null;
+            boolean resetsClock = capture || moving.getPieceType() == ChessPiece.PieceType.PAWN;
+
+            // Only quiet positions are worth learning a static evaluation from
+            if (sampled != null && !capture && move.getPromotionPiece() == null
+                    && !SearchEngine.isMateScore(result.score()) && !game.isInCheck(mover)) {
+                int whiteScore = mover == ChessGame.TeamColor.WHITE ? result.score() : -result.score();
+                sampled.add(new Sampled(new ChessBoard(game.getBoard()), mover, whiteScore, startPly + ply));
+            }
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                throw new IllegalStateException("Engine chose illegal move " + move + ": " + e.getMessage(), e);
+            }
+
+            quietPlies = resetsClock ? 0 : quietPlies + 1;
+            if (quietPlies >= 100 || insufficientMaterial(game.getBoard())) {
+                return Outcome.DRAW;
+            }
+            if (seen.merge(Zobrist.positionKey(game.getBoard(), game.getTeamTurn()), 1, Integer::sum) >= 3) {
+                return Outcome.DRAW;
+            }
+        }
+        return Outcome.DRAW;
+    }
+
+    private static Outcome loss(ChessGame.TeamColor loser) {
+        return loser == ChessGame.TeamColor.WHITE ? Outcome.BLACK_WINS : Outcome.WHITE_WINS;
+    }
+
+    /**
+     * Only kings, or kings and a single bishop or knight
+     */
+    static boolean insufficientMaterial(ChessBoard board) {
+        int minors = 0;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece == null || piece.getPieceType() == ChessPiece.PieceType.KING) {
+                    continue;
+                }
+                if (piece.getPieceType() != ChessPiece.PieceType.BISHOP
+                        && piece.getPieceType() != ChessPiece.PieceType.KNIGHT) {
+                    return false;
+                }
+                minors++;
+            }
+        }
+        return minors <= 1;
+    }
+
+    private ChessMove bookMove(ChessGame game, Random random) {
+        List<BookEntry> entries = settings.openingBook().probe(game);
+        int totalWeight = 0;
+        for (BookEntry entry : entries) {
+            totalWeight += entry.weight();
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        int choice = random.nextInt(totalWeight);
+        for (BookEntry entry : entries) {
+            choice -= entry.weight();
+            if (choice < 0) {
+                return entry.move();
+            }
+        }
+        return entries.getLast().move();
+    }
+
+    private static ChessMove randomMove(ChessGame game, Random random) {
+        List<ChessMove> moves = legalMoves(game);
+        return moves.isEmpty() ? null : moves.get(random.nextInt(moves.size()));
+    }
+
+    private static List<ChessMove> legalMoves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(row, col);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    moves.addAll(game.validMoves(new ChessPosition(row, col)));
+                }
+            }
+        }
+        // Valid moves come back as a set, so sort them for repeatable openings
+        moves.sort(Comparator.comparing(ChessMove::toString));
+        return moves;
+    }
+
+    private static ChessGame copy(ChessGame game) {
+        ChessGame copy = new ChessGame();
+        copy.setBoard(new ChessBoard(game.getBoard()));
+        copy.setTeamTurn(game.getTeamTurn());
+        return copy;
+    }
+}
@@ -0,0 +1,18 @@
+package chess.engine;
+
+import java.util.function.Supplier;
+
+/**
+ * One side of an arena match. Each worker builds its own engine from this, so the evaluator
+ * supplier must hand out a fresh evaluator every time.
+ *
+ * @param name      how the player is reported
+ * @param options   the engine's search switches and hash size
+ * @param evaluator makes the engine's evaluator
+ */
+public record ArenaPlayer(String name, EngineOptions options, Supplier<Evaluator> evaluator) {
+
+    SearchEngine newEngine() {
+        return new SearchEngine(options, evaluator.get());
+    }
+}
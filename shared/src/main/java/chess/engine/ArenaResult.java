@@ -0,0 +1,58 @@
+package chess.engine;
+
+/**
+ * How an arena match went, from the candidate's side
+ *
+ * @param wins          games the candidate won
+ * @param draws         drawn games
+ * @param losses        games the candidate lost
+ * @param llr           the SPRT log-likelihood ratio, 0 without a test
+ * @param decision      what the SPRT concluded, CONTINUE without a test or if the games ran out first
+ * @param elapsedMillis wall time of the whole match
+ */
+public record ArenaResult(int wins, int draws, int losses, double llr, Sprt.Decision decision,
+                          long elapsedMillis) {
+
+    public int games() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * @return the candidate's share of the points, 0-1
+     */
+    public double score() {
+        return games() == 0 ? 0.5 : (wins + 0.5 * draws) / games();
+    }
+
+    /**
+     * @return the candidate's estimated strength over the baseline
+     */
+    public double eloDifference() {
+        return elo(score());
+    }
+
+    /**
+     * @return half the width of the 95% confidence interval around {@link #eloDifference()}, the
+     * interval itself being a little lopsided
+     */
+    public double eloError() {
+        if (games() == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = score();
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games();
+        double margin = 1.96 * Math.sqrt(variance / games());
+        return (elo(score + margin) - elo(score - margin)) / 2;
+    }
+
+    public double gamesPerSecond() {
+        return elapsedMillis == 0 ? games() * 1000.0 : games() * 1000.0 / elapsedMillis;
+    }
+
+    private static double elo(double score) {
+        // A clean sweep has no finite Elo, so it is capped just short of it
+        double clamped = Math.clamp(score, 1e-6, 1 - 1e-6);
+        return -400 * Math.log10(1 / clamped - 1);
+    }
+}
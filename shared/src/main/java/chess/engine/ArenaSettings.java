@@ -0,0 +1,54 @@
+package chess.engine;
+
+/**
+ * How an arena match is played
+ *
+ * @param moveLimits   what each engine may spend on each move, usually a node or time budget
+ * @param gamePairs    the most pairs of games to play; each opening is played once with each color
+ * @param threads      how many games are played at once
+ * @param openingPlies how many plies of each opening are chosen before the engines take over
+ * @param openingBook  where openings come from, or null to play random legal moves
+ * @param sprt         the test that ends the match early, or null to play every pair
+ * @param seed         makes the openings repeatable
+ * @param trainingData where quiet positions from the games are recorded, or null to record none
+ */
+public record ArenaSettings(SearchLimits moveLimits, int gamePairs, int threads, int openingPlies,
+                            OpeningBook openingBook, Sprt sprt, long seed, TrainingDataWriter trainingData) {
+
+    /**
+     * @return 100 pairs at 5000 nodes a move on every core, with 8 random opening plies, no test and
+     * nothing recorded
+     */
+    public static ArenaSettings defaults() {
+        return new ArenaSettings(SearchLimits.nodes(5000), 100, Runtime.getRuntime().availableProcessors(),
+                8, null, null, 1, null);
+    }
+
+    public ArenaSettings withMoveLimits(SearchLimits limits) {
+        return new ArenaSettings(limits, gamePairs, threads, openingPlies, openingBook, sprt, seed, trainingData);
+    }
+
+    public ArenaSettings withGamePairs(int pairs) {
+        return new ArenaSettings(moveLimits, pairs, threads, openingPlies, openingBook, sprt, seed, trainingData);
+    }
+
+    public ArenaSettings withThreads(int count) {
+        return new ArenaSettings(moveLimits, gamePairs, count, openingPlies, openingBook, sprt, seed, trainingData);
+    }
+
+    public ArenaSettings withOpenings(OpeningBook book, int plies) {
+        return new ArenaSettings(moveLimits, gamePairs, threads, plies, book, sprt, seed, trainingData);
+    }
+
+    public ArenaSettings withSprt(Sprt test) {
+        return new ArenaSettings(moveLimits, gamePairs, threads, openingPlies, openingBook, test, seed, trainingData);
+    }
+
+    public ArenaSettings withSeed(long value) {
+        return new ArenaSettings(moveLimits, gamePairs, threads, openingPlies, openingBook, sprt, value, trainingData);
+    }
+
+    public ArenaSettings withTrainingData(TrainingDataWriter writer) {
+        return new ArenaSettings(moveLimits, gamePairs, threads, openingPlies, openingBook, sprt, seed, writer);
+    }
+}
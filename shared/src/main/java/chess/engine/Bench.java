@@ -0,0 +1,115 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+import java.io.PrintStream;
+
+/**
+ * Searches a fixed set of positions to a fixed depth and reports the total node count and speed.
+ * <p>
+ * The search is deterministic, so the node count is a signature of what the move generator and
+ * search do: any change to them that is meant to leave behaviour alone must leave the signature
+ * alone too. Nodes per second is the number to watch for speed changes, best compared between
+ * runs on the same machine. Each position starts with an empty transposition table so positions
+ * do not affect each other.
+ * <p>
+ * Run it with {@code java -cp shared/target/classes chess.engine.Bench [depth]} or through the
+ * tests tagged {@code bench} with {@code mvn -pl shared test -Pbench}.
+ */
+public final class Bench {
+    public static final int DEFAULT_DEPTH = 6;
+
+    /**
+     * Piece placement and side to move in FEN. The game has no castling or en passant state to
+     * set, so FEN's other fields are left off.
+     */
+    static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w",
+            "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w",
+            "4rrk1/pp1n3p/3q2pQ/2p1pb2/2PP4/2P3N1/P2B2PP/4RRK1 b",
+            "rq3rk1/ppp2ppp/1bnpb3/3N2B1/3NP3/7P/PPPQ1PP1/2KR3R w",
+            "r1bq1r1k/1pp1n1pp/1p1p4/4p2Q/4Pp2/1BNP4/PPP2PPP/3R1RK1 w",
+            "r3r1k1/2p2ppp/p1p1bn2/8/1q2P3/2NPQN2/PPP3PP/R4RK1 b",
+            "r1bbk1nr/pp3p1p/2n5/1N4p1/2Np1B2/8/PPP2PPP/2KR1B1R w",
+            "r1bq1rk1/ppp1nppp/4n3/3p3Q/3P4/1BP1B3/PP1N2PP/R4RK1 w",
+            "r2q1rk1/2p1bppp/p2p1n2/1p2P3/4P1b1/1nP1BN2/PP3PPP/RN1QR1K1 w",
+            "r1bqkb1r/2pp1ppp/p1n5/1p2p3/3Pn3/1B3N2/PPP2PPP/RNBQ1RK1 b",
+            "r2qkbnr/2p2pp1/p1pp4/4p2p/4P1b1/5N1P/PPPP1PP1/RNBQ1RK1 w",
+            "r1bqkb1r/pp3ppp/2np1n2/4p1B1/3NP3/2N5/PPP2PPP/R2QKB1R w",
+            "3r1rk1/p5pp/bpp1pp2/8/q1PP1P2/b3P3/P2NQRPP/1R2B1K1 b",
+            "6k1/p3q2p/1nr3pB/8/3Q1P2/6P1/PP5P/3R2K1 b",
+            "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w",
+            "rnbqkb1r/pppppppp/5n2/8/3P4/8/PPP1PPPP/RNBQKBNR w",
+            "r1bqkbnr/pppp1ppp/2n5/4p3/4P3/5N2/PPPP1PPP/RNBQKB1R w",
+            "r1bqkbnr/pppp1ppp/2n5/1B2p3/4P3/5N2/PPPP1PPP/RNBQK2R b",
+            "rnbqkb1r/ppp1pppp/5n2/3p4/2PP4/8/PP2PPPP/RNBQKBNR w",
+            "rnbqk2r/pppp1ppp/4pn2/8/1bPP4/2N5/PP2PPPP/R1BQKBNR w",
+            "rnbqkbnr/pp2pppp/2p5/3p4/3PP3/8/PPP2PPP/RNBQKBNR w",
+            "r1bqk2r/pppp1ppp/2n2n2/2b1p3/2B1P3/3P1N2/PPP2PPP/RNBQK2R w",
+            "2rq1rk1/pp1bppbp/3p1np1/4n3/3NP2P/1BN1BP2/PPPQ2P1/2KR3R b",
+            "r1b2rk1/2q1bppp/p2ppn2/1p6/3BPP2/2NB4/PPP1Q1PP/2KR3R w",
+            "2r3k1/pp3ppp/2n1b3/3p4/3P4/2NB1N2/PP3PPP/4R1K1 w",
+            "r2q1rk1/ppp2ppp/2n1bn2/2bpp3/4P3/2PP1NP1/PP1N1PBP/R1BQ1RK1 w",
+            "3rr1k1/pp3pp1/1qn2np1/8/3p4/PP1R1P2/2P1NQPP/R1B3K1 b",
+            "2r2rk1/1bqnbppp/pp1ppn2/8/2PNP3/1PN1B3/P3BPPP/2RQ1RK1 w",
+            "1k1r3r/pp2qpp1/2n1p2p/3pP3/3P4/P1P2N2/5PPP/1R1QR1K1 w",
+            "r3kbnr/ppp2ppp/2n5/3q4/3P2b1/5N2/PPP1BPPP/RNBQK2R w",
+            "4r1k1/r1q2ppp/ppp2n2/4P3/5Rb1/1N1BQ3/PPP3PP/R5K1 w",
+            "2kr3r/pppq1ppp/2np1n2/2b1p1B1/2B1P1b1/2NP1N2/PPPQ1PPP/2KR3R w",
+            "r1bqr1k1/pp1n1pbp/2pp1np1/4p3/2PPP3/2N2NP1/PP3PBP/R1BQR1K1 w",
+            "8/8/4k3/8/2p5/8/B2P2K1/8 w",
+            "8/5k2/8/8/8/8/2R5/4K3 w",
+            "8/8/8/8/4k3/8/8/KQ6 b",
+            "6k1/5ppp/8/8/8/8/5PPP/3R2K1 w",
+            "8/pp3k2/2p5/3p4/3P4/2P5/PP3K2/8 w",
+            "8/8/1p1k4/p1p5/P1P5/1P1K4/8/8 w",
+            "6k1/6p1/7p/8/8/7P/6P1/6K1 b",
+            "8/1k6/8/8/8/8/6K1/5BN1 w",
+            "8/4kp2/6p1/7p/7P/6P1/5PK1/8 w",
+            "8/8/8/5N2/8/p7/8/2NK3k w",
+            "8/3k4/8/8/8/4B3/4KB2/2B5 w",
+            "8/8/1P6/5pr1/8/4R3/7k/2K5 w",
+            "8/R7/2q5/8/6k1/8/1P5p/K6R w",
+    };
+
+    private Bench() {
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_DEPTH;
+        run(depth, System.out);
+    }
+
+    /**
+     * Searches every bench position
+     *
+     * @param depth how many plies deep to search each position
+     * @param out   where to print a line per position and the totals, or null for no output
+     * @return the totals
+     */
+    public static BenchResult run(int depth, PrintStream out) {
+        SearchEngine engine = new SearchEngine();
+        long nodes = 0;
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < POSITIONS.length; i++) {
+            engine.clearHash();
+            SearchResult result = engine.search(ChessGame.fromFen(POSITIONS[i]), depth);
+            nodes += result.nodes();
+            if (out != null) {
+                out.printf("Position %d/%d: %d nodes%n", i + 1, POSITIONS.length, result.nodes());
+            }
+        }
+        BenchResult bench = new BenchResult(POSITIONS.length, depth, nodes, (System.nanoTime() - startNanos) / 1_000_000);
+        if (out != null) {
+            out.println("===========================");
+            out.printf("Total time (ms) : %d%n", bench.elapsedMillis());
+            out.printf("Nodes searched  : %d%n", bench.nodes());
+            out.printf("Nodes/second    : %d%n", bench.nodesPerSecond());
+        }
+        return bench;
+    }
+}
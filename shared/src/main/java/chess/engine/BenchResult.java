@@ -0,0 +1,19 @@
+package chess.engine;
+
+/**
+ * The totals of a bench run
+ *
+ * @param positions     how many positions were searched
+ * @param depth         the depth each position was searched to
+ * @param nodes         positions visited over the whole run, the run's signature
+ * @param elapsedMillis wall time spent searching
+ */
+public record BenchResult(int positions, int depth, long nodes, long elapsedMillis) {
+
+    /**
+     * @return nodes searched per second
+     */
+    public long nodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+}
@@ -0,0 +1,14 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+/**
+ * One move stored in an opening book
+ *
+ * @param key    Polyglot key of the position the move is played from
+ * @param move   the book move
+ * @param weight how often the move should be chosen relative to the others in the position
+ * @param learn  learning data, kept as read
+ */
+public record BookEntry(long key, ChessMove move, int weight, int learn) {
+}
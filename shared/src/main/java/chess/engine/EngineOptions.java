@@ -0,0 +1,42 @@
+package chess.engine;
+
+/**
+ * Switches and sizes for the search engine. Every selective-search technique can be
+ * turned off on its own so its effect on node counts and playing strength can be measured.
+ *
+ * @param nullMovePruning    skip a turn to prove a position is already good enough to cut off
+ * @param lateMoveReductions search quiet moves late in the move list to a reduced depth
+ * @param futilityPruning    drop quiet moves near the leaves that cannot raise alpha
+ * @param razoring           drop straight into quiescence near the leaves when far below alpha
+ * @param hashSizeMb         size of the transposition table in megabytes
+ */
+public record EngineOptions(boolean nullMovePruning, boolean lateMoveReductions, boolean futilityPruning,
+                            boolean razoring, int hashSizeMb) {
+
+    /**
+     * @return options with every technique turned on and a 16 MB table
+     */
+    public static EngineOptions defaults() {
+        return new EngineOptions(true, true, true, true, 16);
+    }
+
+    public EngineOptions withNullMovePruning(boolean enabled) {
+        return new EngineOptions(enabled, lateMoveReductions, futilityPruning, razoring, hashSizeMb);
+    }
+
+    public EngineOptions withLateMoveReductions(boolean enabled) {
+        return new EngineOptions(nullMovePruning, enabled, futilityPruning, razoring, hashSizeMb);
+    }
+
+    public EngineOptions withFutilityPruning(boolean enabled) {
+        return new EngineOptions(nullMovePruning, lateMoveReductions, enabled, razoring, hashSizeMb);
+    }
+
+    public EngineOptions withRazoring(boolean enabled) {
+        return new EngineOptions(nullMovePruning, lateMoveReductions, futilityPruning, enabled, hashSizeMb);
+    }
+
+    public EngineOptions withHashSizeMb(int sizeMb) {
+        return new EngineOptions(nullMovePruning, lateMoveReductions, futilityPruning, razoring, sizeMb);
+    }
+}
@@ -0,0 +1,17 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Scores a position without searching it
+ */
+public interface Evaluator {
+
+    /**
+     * @param board      the position to score
+     * @param teamToMove the team whose turn it is
+     * @return the score in centipawns from the point of view of the team to move
+     */
+    int evaluate(ChessBoard board, ChessGame.TeamColor teamToMove);
+}
@@ -0,0 +1,32 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The answer to a mate puzzle
+ *
+ * @param status        whether a forced mate was found, ruled out, or neither before the node limit
+ * @param line          the forced mate with the defender's longest resistance, empty unless status is MATE
+ * @param nodes         how many positions were visited
+ * @param elapsedMillis how long solving took
+ */
+public record MateResult(Status status, List<ChessMove> line, long nodes, long elapsedMillis) {
+
+    public enum Status {
+        /** The side to move forces mate within the limit */
+        MATE,
+        /** The side to move cannot force mate within the limit */
+        NO_MATE,
+        /** The node limit ran out before the question was settled */
+        UNKNOWN
+    }
+
+    /**
+     * @return how many moves of the side to move the mate takes, or 0 without a mate
+     */
+    public int mateIn() {
+        return (line.size() + 1) / 2;
+    }
+}
@@ -0,0 +1,406 @@
+package chess.engine;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Proves or disproves forced mates with depth-first proof-number search.
+ * <p>
+ * Every position is an OR node when the attacker is to move, proven once any move proves mate, or
+ * an AND node when the defender is to move, proven once every reply does. Each node has a proof
+ * number, the fewest leaves that still need proving to prove it, and a disproof number, the same
+ * for disproving it. The search always expands the most proving child, going deeper only while the
+ * node's numbers stay under thresholds handed down from its parent, so like alpha-beta it needs
+ * memory only for the current path plus a transposition table, but it heads straight for narrow
+ * forcing lines instead of searching every reply to a fixed depth.
+ * <p>
+ * The search is limited to a number of attacker moves, and the plies left are part of the table
+ * key, so positions reached at different depths are never confused. Searching mate in 1, 2 and so
+ * on up to the limit finds the shortest mate.
+ * <p>
+ * Not thread safe: each thread needs its own solver.
+ */
+public class MateSolver {
+    /** Puzzles are limited to this many attacker moves */
+    public static final int MAX_MOVES = 32;
+
+    private static final int INFINITY = 100_000_000;
+    private static final int DEFAULT_HASH_BITS = 20;
+    private static final long[] PLY_KEYS = new long[2 * MAX_MOVES];
+    private static final long BLACK_ATTACKS;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x3A7E50L);
+        for (int i = 0; i < PLY_KEYS.length; i++) {
+            PLY_KEYS[i] = random.nextLong();
+        }
+        BLACK_ATTACKS = random.nextLong();
+    }
+
+    private final long[] keys;
+    private final int[] proofs;
+    private final int[] disproofs;
+    private final int mask;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor attacker;
+    private long nodes;
+    private long nodeLimit;
+    private boolean aborted;
+
+    public MateSolver() {
+        this(DEFAULT_HASH_BITS);
+    }
+
+    /**
+     * @param hashBits the transposition table holds 2^hashBits entries
+     */
+    public MateSolver(int hashBits) {
+        keys = new long[1 << hashBits];
+        proofs = new int[1 << hashBits];
+        disproofs = new int[1 << hashBits];
+        mask = (1 << hashBits) - 1;
+    }
+
+    /**
+     * Looks for a forced mate by the side to move. The game itself is not modified.
+     *
+     * @param game     the puzzle position
+     * @param maxMoves the most attacker moves the mate may take
+     * @return the shortest mate, or NO_MATE if there is none within maxMoves
+     */
+    public MateResult solve(ChessGame game, int maxMoves) {
+        return solve(game, maxMoves, 0);
+    }
+
+    /**
+     * Looks for a forced mate by the side to move. The game itself is not modified.
+     *
+     * @param game      the puzzle position
+     * @param maxMoves  the most attacker moves the mate may take
+     * @param nodeLimit gives up with UNKNOWN after visiting this many positions, 0 for no limit
+     * @return the shortest mate, NO_MATE if there is none within maxMoves, or UNKNOWN
+     */
+    public MateResult solve(ChessGame game, int maxMoves, long nodeLimit) {
+        if (maxMoves < 1 || maxMoves > MAX_MOVES) {
+            throw new IllegalArgumentException("Mates must be between 1 and " + MAX_MOVES + " moves");
+        }
+        long startNanos = System.nanoTime();
+        board = new ChessBoard(game.getBoard());
+        attacker = game.getTeamTurn();
+        nodes = 0;
+        this.nodeLimit = nodeLimit;
+        aborted = false;
+
+        for (int moves = 1; moves <= maxMoves && !aborted; moves++) {
+            if (prove(2 * moves - 1, attacker)) {
+                List<ChessMove> line = new ArrayList<>();
+                extractLine(2 * moves - 1, line);
+                return new MateResult(MateResult.Status.MATE, line, nodes, elapsedMillis(startNanos));
+            }
+        }
+        MateResult.Status status = aborted ? MateResult.Status.UNKNOWN : MateResult.Status.NO_MATE;
+        return new MateResult(status, List.of(), nodes, elapsedMillis(startNanos));
+    }
+
+    /**
+     * Clears the transposition table
+     */
+    public void clearHash() {
+        Arrays.fill(keys, 0);
+    }
+
+    /**
+     * Searches the board's position until it is proven or disproven
+     *
+     * @return true if proven
+     */
+    private boolean prove(int plies, ChessGame.TeamColor toMove) {
+        long key = key(plies, toMove);
+        int slot = slot(key);
+        if (slot < 0) {
+            evaluate(plies, toMove, key);
+            slot = slot(key);
+        }
+        if (slot < 0) {
+            return false;
+        }
+        if (proofs[slot] != 0 && disproofs[slot] != 0) {
+            return search(plies, toMove, key, INFINITY, INFINITY) >>> 32 == 0;
+        }
+        return proofs[slot] == 0;
+    }
+
+    /**
+     * Expands the position until its proof number reaches proofThreshold or its disproof number
+     * reaches disproofThreshold
+     *
+     * @return the final proof number in the high 32 bits and disproof number in the low 32 bits
+     */
+    private long search(int plies, ChessGame.TeamColor toMove, long key, int proofThreshold, int disproofThreshold) {
+        boolean orNode = toMove == attacker;
+        ChessGame.TeamColor opponent = opposite(toMove);
+        List<ChessMove> moves = legalMoves(toMove);
+        int[] childProofs = new int[moves.size()];
+        int[] childDisproofs = new int[moves.size()];
+        long[] childKeys = new long[moves.size()];
+
+        // Children are read from the table once; after that only the child just searched changes,
+        // and its numbers come back from the search, so an evicted table entry cannot stall the loop
+        for (int i = 0; i < moves.size(); i++) {
+            ChessMove move = moves.get(i);
+            ChessPiece captured = makeMove(move, toMove);
+            childKeys[i] = key(plies - 1, opponent);
+            int slot = slot(childKeys[i]);
+            if (slot < 0) {
+                evaluate(plies - 1, opponent, childKeys[i]);
+                slot = slot(childKeys[i]);
+            }
+            childProofs[i] = slot < 0 ? 1 : proofs[slot];
+            childDisproofs[i] = slot < 0 ? 1 : disproofs[slot];
+            unmakeMove(move, toMove, captured);
+        }
+
+        while (true) {
+            int proof;
+            int disproof;
+            int best = 0;
+            int secondBest = INFINITY;
+            if (orNode) {
+                proof = INFINITY;
+                disproof = 0;
+                for (int i = 0; i < moves.size(); i++) {
+                    disproof = saturatedAdd(disproof, childDisproofs[i]);
+                    if (childProofs[i] < proof) {
+                        secondBest = proof;
+                        proof = childProofs[i];
+                        best = i;
+                    } else if (childProofs[i] < secondBest) {
+                        secondBest = childProofs[i];
+                    }
+                }
+            } else {
+                proof = 0;
+                disproof = INFINITY;
+                for (int i = 0; i < moves.size(); i++) {
+                    proof = saturatedAdd(proof, childProofs[i]);
+                    if (childDisproofs[i] < disproof) {
+                        secondBest = disproof;
+                        disproof = childDisproofs[i];
+                        best = i;
+                    } else if (childDisproofs[i] < secondBest) {
+                        secondBest = childDisproofs[i];
+                    }
+                }
+            }
+
+            if (proof >= proofThreshold || disproof >= disproofThreshold || aborted) {
+                store(key, proof, disproof);
+                return pack(proof, disproof);
+            }
+
+            int childProofThreshold;
+            int childDisproofThreshold;
+            if (orNode) {
+                childProofThreshold = Math.min(proofThreshold, saturatedAdd(secondBest, 1));
+                childDisproofThreshold = thresholdFor(disproofThreshold, disproof, childDisproofs[best]);
+            } else {
+                childDisproofThreshold = Math.min(disproofThreshold, saturatedAdd(secondBest, 1));
+                childProofThreshold = thresholdFor(proofThreshold, proof, childProofs[best]);
+            }
+
+            ChessMove move = moves.get(best);
+            ChessPiece captured = makeMove(move, toMove);
+            countNode();
+            long numbers = search(plies - 1, opponent, childKeys[best], childProofThreshold, childDisproofThreshold);
+            unmakeMove(move, toMove, captured);
+            childProofs[best] = (int) (numbers >>> 32);
+            childDisproofs[best] = (int) numbers;
+        }
+    }
+
+    /**
+     * Gives a position seen for the first time its starting numbers and stores them. Mates and
+     * stalemates are settled at once; otherwise the side to move's number of legal moves is used,
+     * so forcing moves that leave the defender few replies are tried first.
+     */
+    private void evaluate(int plies, ChessGame.TeamColor toMove, long key) {
+        countNode();
+        int moveCount = legalMoves(toMove).size();
+        if (toMove == attacker) {
+            if (moveCount == 0 || plies == 0) {
+                store(key, INFINITY, 0);
+            } else {
+                store(key, 1, moveCount);
+            }
+        } else if (moveCount == 0) {
+            if (isInCheck(toMove)) {
+                store(key, 0, INFINITY);
+            } else {
+                store(key, INFINITY, 0);
+            }
+        } else if (plies == 0) {
+            store(key, INFINITY, 0);
+        } else {
+            store(key, moveCount, 1);
+        }
+    }
+
+    /**
+     * Follows the proof from the root: the attacker plays a proven move, and the defender plays
+     * the reply that puts mate off longest
+     */
+    private void extractLine(int plies, List<ChessMove> line) {
+        ChessGame.TeamColor defender = opposite(attacker);
+        List<ChessMove> played = new ArrayList<>();
+        List<ChessPiece> captures = new ArrayList<>();
+        while (plies > 0) {
+            ChessMove attack = null;
+            for (ChessMove move : legalMoves(attacker)) {
+                ChessPiece captured = makeMove(move, attacker);
+                boolean proven = prove(plies - 1, defender);
+                unmakeMove(move, attacker, captured);
+                if (proven) {
+                    attack = move;
+                    break;
+                }
+            }
+            if (attack == null) {
+                // Only reachable if the table lost the proof and the node limit stopped a re-search
+                break;
+            }
+            captures.add(makeMove(attack, attacker));
+            played.add(attack);
+            line.add(attack);
+
+            ChessMove longestDefense = null;
+            int longestMate = 0;
+            for (ChessMove move : legalMoves(defender)) {
+                ChessPiece captured = makeMove(move, defender);
+                for (int moves = 1; 2 * moves - 1 <= plies - 2; moves++) {
+                    if (prove(2 * moves - 1, attacker)) {
+                        if (moves > longestMate) {
+                            longestMate = moves;
+                            longestDefense = move;
+                        }
+                        break;
+                    }
+                }
+                unmakeMove(move, defender, captured);
+            }
+            if (longestDefense == null) {
+                break;
+            }
+            captures.add(makeMove(longestDefense, defender));
+            played.add(longestDefense);
+            line.add(longestDefense);
+            plies = 2 * longestMate - 1;
+        }
+        for (int i = played.size() - 1; i >= 0; i--) {
+            unmakeMove(played.get(i), i % 2 == 0 ? attacker : defender, captures.get(i));
+        }
+    }
+
+    private List<ChessMove> legalMoves(ChessGame.TeamColor team) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece == null || piece.getTeamColor() != team) {
+                    continue;
+                }
+                for (ChessMove move : piece.pieceMoves(board, new ChessPosition(row, col))) {
+                    ChessPiece captured = makeMove(move, team);
+                    if (!isInCheck(team)) {
+                        moves.add(move);
+                    }
+                    unmakeMove(move, team, captured);
+                }
+            }
+        }
+        return moves;
+    }
+
+    private ChessPiece makeMove(ChessMove move, ChessGame.TeamColor team) {
+        ChessPiece moving = board.getPiece(move.getStartPosition());
+        ChessPiece captured = board.getPiece(move.getEndPosition());
+        board.removePiece(move.getStartPosition());
+        board.addPiece(move.getEndPosition(), move.getPromotionPiece() == null
+                ? moving : new ChessPiece(team, move.getPromotionPiece()));
+        return captured;
+    }
+
+    private void unmakeMove(ChessMove move, ChessGame.TeamColor team, ChessPiece captured) {
+        ChessPiece moved = board.getPiece(move.getEndPosition());
+        board.addPiece(move.getEndPosition(), captured);
+        board.addPiece(move.getStartPosition(), move.getPromotionPiece() == null
+                ? moved : new ChessPiece(team, ChessPiece.PieceType.PAWN));
+    }
+
+    private boolean isInCheck(ChessGame.TeamColor team) {
+        ChessPosition king = board.getKingPosition(team);
+        return king != null && board.isSquareAttacked(king.getRow(), king.getColumn(), opposite(team));
+    }
+
+    private long key(int plies, ChessGame.TeamColor toMove) {
+        long key = board.getZobristKey() ^ PLY_KEYS[plies];
+        if (toMove == ChessGame.TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        if (attacker == ChessGame.TeamColor.BLACK) {
+            key ^= BLACK_ATTACKS;
+        }
+        return key;
+    }
+
+    private int slot(long key) {
+        int slot = (int) key & mask;
+        return keys[slot] == key ? slot : -1;
+    }
+
+    private void store(long key, int proof, int disproof) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        proofs[slot] = proof;
+        disproofs[slot] = disproof;
+    }
+
+    private void countNode() {
+        nodes++;
+        if (nodeLimit > 0 && nodes >= nodeLimit) {
+            aborted = true;
+        }
+    }
+
+    /**
+     * The child may use whatever is left of the parent's threshold once the other children's
+     * numbers are taken out
+     */
+    private static int thresholdFor(int parentThreshold, int parentNumber, int childNumber) {
+        if (parentThreshold >= INFINITY) {
+            return INFINITY;
+        }
+        long threshold = (long) parentThreshold - parentNumber + childNumber;
+        return (int) Math.min(INFINITY, threshold);
+    }
+
+    private static long pack(int proof, int disproof) {
+        return (long) proof << 32 | disproof;
+    }
+
+    private static int saturatedAdd(int a, int b) {
+        return (int) Math.min(INFINITY, (long) a + b);
+    }
+
+    private static ChessGame.TeamColor opposite(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,25 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores a position by counting material
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        int score = 0;
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            int difference = board.getPieceCount(ChessGame.TeamColor.WHITE, type)
+                    - board.getPieceCount(ChessGame.TeamColor.BLACK, type);
+            score += difference * PIECE_VALUES[type.ordinal()];
+        }
+        return teamToMove == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+}
@@ -0,0 +1,210 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.Arrays;
+
+/**
+ * Generates pseudo-legal moves straight from the board's squares into an int array, each packed as
+ * by {@link chess.ChessMove#toCompact()}, so the search allocates nothing per node.
+ * <p>
+ * Moves come out in the order {@link ChessPiece#pieceMoves} gives them, square by square from a1,
+ * so the search breaks ties between equally ordered moves the same way either generator is used.
+ */
+final class MoveGenerator {
+    // More than the most pseudo-legal moves of any position
+    static final int MAX_MOVES = 256;
+
+    private static final int[] KING_OFFSETS = {1, 1, 1, -1, -1, 1, -1, -1, 1, 0, -1, 0, 0, 1, 0, -1};
+    private static final int[] KNIGHT_OFFSETS = {2, 1, 2, -1, -2, 1, -2, -1, 1, 2, -1, 2, 1, -2, -1, -2};
+    private static final int[] DIAGONAL = {1, 1, -1, 1, 1, -1, -1, -1};
+    private static final int[] ORTHOGONAL = {1, 0, 0, 1, 0, -1, -1, 0};
+
+    // For each square, the squares one step away, or along each direction nearest first, in the orders above
+    private static final int[][] KING_TARGETS = steps(KING_OFFSETS);
+    private static final int[][] KNIGHT_TARGETS = steps(KNIGHT_OFFSETS);
+    private static final int[][][] DIAGONAL_RAYS = rays(DIAGONAL);
+    private static final int[][][] ORTHOGONAL_RAYS = rays(ORTHOGONAL);
+
+    // Packed promotion codes, the piece type's ordinal plus one, in the order pieceMoves adds them
+    private static final int[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN.ordinal() + 1, ChessPiece.PieceType.ROOK.ordinal() + 1,
+            ChessPiece.PieceType.BISHOP.ordinal() + 1, ChessPiece.PieceType.KNIGHT.ordinal() + 1};
+    private static final int QUEEN_PROMOTION = PROMOTIONS[0];
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Fills the array with the pseudo-legal moves of the team to move. Moves that leave the king in
+     * check are left for the caller to filter out after making them.
+     *
+     * @param capturesOnly keep only captures and queen promotions
+     * @param moves        where to write the moves, at least {@link #MAX_MOVES} long
+     * @return how many moves were written
+     */
+    static int generate(ChessBoard board, ChessGame.TeamColor team, boolean capturesOnly, int[] moves) {
+        long own = board.getOccupancy(team);
+        long enemy = board.getOccupancy(team == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        int count = 0;
+        // Lowest bit first is a1, b1 and so on, the order pieceMoves is called in
+        for (long pieces = own; pieces != 0; pieces &= pieces - 1) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            count = switch (board.getPiece(square / 8 + 1, square % 8 + 1).getPieceType()) {
+                case KING -> addSteps(own, enemy, square, KING_TARGETS[square], capturesOnly, moves, count);
+                case QUEEN -> addSlides(own, enemy, square, ORTHOGONAL_RAYS[square], capturesOnly, moves,
+                        addSlides(own, enemy, square, DIAGONAL_RAYS[square], capturesOnly, moves, count));
+                case BISHOP -> addSlides(own, enemy, square, DIAGONAL_RAYS[square], capturesOnly, moves, count);
+                case KNIGHT -> addSteps(own, enemy, square, KNIGHT_TARGETS[square], capturesOnly, moves, count);
+                case ROOK -> addSlides(own, enemy, square, ORTHOGONAL_RAYS[square], capturesOnly, moves, count);
+                case PAWN -> addPawnMoves(team, own | enemy, enemy, square, capturesOnly, moves, count);
+            };
+        }
+        return count;
+    }
+
+    /**
+     * @return the start square of a packed move, as (row - 1) * 8 + (column - 1)
+     */
+    static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /**
+     * @return the end square of a packed move, as (row - 1) * 8 + (column - 1)
+     */
+    static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a packed move promotes to, or null if it is not a promotion
+     */
+    static ChessPiece.PieceType promotion(int move) {
+        int code = move >>> 12;
+        return code == 0 ? null : TYPES[code - 1];
+    }
+
+    static boolean isQueenPromotion(int move) {
+        return move >>> 12 == QUEEN_PROMOTION;
+    }
+
+    private static int addSteps(long own, long enemy, int from, int[] targets, boolean capturesOnly,
+                                int[] moves, int count) {
+        for (int to : targets) {
+            long bit = 1L << to;
+            if ((own & bit) == 0 && (!capturesOnly || (enemy & bit) != 0)) {
+                moves[count++] = from | to << 6;
+            }
+        }
+        return count;
+    }
+
+    private static int addSlides(long own, long enemy, int from, int[][] rays, boolean capturesOnly,
+                                 int[] moves, int count) {
+        for (int[] ray : rays) {
+            for (int to : ray) {
+                long bit = 1L << to;
+                if ((own & bit) != 0) {
+                    break;
+                }
+                if ((enemy & bit) != 0) {
+                    moves[count++] = from | to << 6;
+                    break;
+                }
+                if (!capturesOnly) {
+                    moves[count++] = from | to << 6;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int addPawnMoves(ChessGame.TeamColor team, long occupied, long enemy, int from,
+                                    boolean capturesOnly, int[] moves, int count) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int row = from / 8;
+        int col = from % 8;
+        int ahead = white ? from + 8 : from - 8;
+        if (ahead < 0 || ahead >= 64) {
+            return count;
+        }
+        boolean promoting = row == (white ? 6 : 1);
+
+        if ((occupied & 1L << ahead) == 0) {
+            if (promoting) {
+                count = addPromotions(from, ahead, capturesOnly, moves, count);
+            } else if (!capturesOnly) {
+                moves[count++] = from | ahead << 6;
+                int twoAhead = white ? ahead + 8 : ahead - 8;
+                if (row == (white ? 1 : 6) && (occupied & 1L << twoAhead) == 0) {
+                    moves[count++] = from | twoAhead << 6;
+                }
+            }
+        }
+
+        // Toward the h file first, then the a file
+        for (int side = 1; side >= -1; side -= 2) {
+            if (col + side >= 0 && col + side < 8 && (enemy & 1L << (ahead + side)) != 0) {
+                if (promoting) {
+                    count = addPromotions(from, ahead + side, false, moves, count);
+                } else {
+                    moves[count++] = from | (ahead + side) << 6;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * A quiet promotion counts as a capture only when it makes a queen
+     */
+    private static int addPromotions(int from, int to, boolean queenOnly, int[] moves, int count) {
+        for (int promotion : PROMOTIONS) {
+            if (!queenOnly || promotion == QUEEN_PROMOTION) {
+                moves[count++] = from | to << 6 | promotion << 12;
+            }
+        }
+        return count;
+    }
+
+    private static int[][] steps(int[] offsets) {
+        int[][] targets = new int[64][];
+        for (int square = 0; square < 64; square++) {
+            int[] squares = new int[offsets.length / 2];
+            int count = 0;
+            for (int i = 0; i < offsets.length; i += 2) {
+                int row = square / 8 + offsets[i];
+                int col = square % 8 + offsets[i + 1];
+                if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    squares[count++] = row * 8 + col;
+                }
+            }
+            targets[square] = Arrays.copyOf(squares, count);
+        }
+        return targets;
+    }
+
+    private static int[][][] rays(int[] directions) {
+        int[][][] rays = new int[64][directions.length / 2][];
+        for (int square = 0; square < 64; square++) {
+            for (int i = 0; i < directions.length; i += 2) {
+                int[] squares = new int[7];
+                int count = 0;
+                int row = square / 8 + directions[i];
+                int col = square % 8 + directions[i + 1];
+                while (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                    squares[count++] = row * 8 + col;
+                    row += directions[i];
+                    col += directions[i + 1];
+                }
+                rays[square][i / 2] = Arrays.copyOf(squares, count);
+            }
+        }
+        return rays;
+    }
+}
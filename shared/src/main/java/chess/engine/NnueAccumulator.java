@@ -0,0 +1,114 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.PieceListener;
+
+/**
+ * Both sides' input layer outputs for one board, kept up to date as pieces move.
+ * <p>
+ * A move of any piece but a king changes a handful of inputs, so their weights are added or
+ * subtracted as the board reports each change. When a king moves every input of its side's view
+ * changes, so that view is only marked stale and rebuilt from the board the next time it is read.
+ */
+final class NnueAccumulator implements PieceListener {
+    private final NnueNetwork network;
+    private final NnueKernels kernels;
+    private final short[][] values;
+    private final boolean[] stale = {true, true};
+    private final int[] kingSquares = {-1, -1};
+    private ChessBoard board;
+
+    NnueAccumulator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+        values = new short[2][network.hidden];
+    }
+
+    /**
+     * Starts following a board, and stops following the one before it
+     */
+    void attach(ChessBoard board) {
+        if (this.board != null) {
+            this.board.setPieceListener(null);
+        }
+        this.board = board;
+        stale[0] = true;
+        stale[1] = true;
+        board.setPieceListener(this);
+    }
+
+    /**
+     * @return the board being followed, or null
+     */
+    ChessBoard board() {
+        return board;
+    }
+
+    /**
+     * @param perspective whose view of the board
+     * @return that side's input layer outputs, before clipping
+     */
+    short[] values(ChessGame.TeamColor perspective) {
+        int side = perspective.ordinal();
+        if (stale[side]) {
+            refresh(perspective);
+        }
+        return values[side];
+    }
+
+    @Override
+    public void pieceChanged(int square, ChessPiece removed, ChessPiece added) {
+        if (removed != null) {
+            update(square, removed, false);
+        }
+        if (added != null) {
+            update(square, added, true);
+        }
+    }
+
+    private void update(int square, ChessPiece piece, boolean adding) {
+        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
+            int side = piece.getTeamColor().ordinal();
+            stale[side] = true;
+            kingSquares[side] = adding ? square : -1;
+            return;
+        }
+        for (ChessGame.TeamColor perspective : ChessGame.TeamColor.values()) {
+            int side = perspective.ordinal();
+            if (stale[side]) {
+                continue;
+            }
+            int offset = network.featureOffset(perspective, kingSquares[side], piece, square);
+            if (adding) {
+                kernels.add(values[side], network.featureWeights, offset);
+            } else {
+                kernels.subtract(values[side], network.featureWeights, offset);
+            }
+        }
+    }
+
+    private void refresh(ChessGame.TeamColor perspective) {
+        int side = perspective.ordinal();
+        short[] view = values[side];
+        System.arraycopy(network.featureBiases, 0, view, 0, view.length);
+        ChessPosition king = board.getKingPosition(perspective);
+        if (king == null) {
+            // Only reachable on hand-built boards; the biases alone are the best there is
+            kingSquares[side] = -1;
+            stale[side] = true;
+            return;
+        }
+        int kingSquare = (king.getRow() - 1) * 8 + king.getColumn() - 1;
+        kingSquares[side] = kingSquare;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square / 8 + 1, square % 8 + 1);
+            if (piece != null && piece.getPieceType() != ChessPiece.PieceType.KING) {
+                kernels.add(view, network.featureWeights, network.featureOffset(perspective, kingSquare, piece, square));
+            }
+        }
+        stale[side] = false;
+    }
+}
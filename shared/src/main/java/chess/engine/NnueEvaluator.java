@@ -0,0 +1,86 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Scores positions with an {@link NnueNetwork}.
+ * <p>
+ * The first time a board is scored the evaluator starts listening to it, so while a search
+ * makes and unmakes moves on that board the input layer is updated a few inputs at a time instead
+ * of being recomputed. Only one board is followed at a time and an evaluator must not be shared
+ * between threads, which matches how {@link SearchEngine} works on its own copy of the board.
+ */
+public class NnueEvaluator implements Evaluator {
+    private final NnueNetwork network;
+    private final NnueKernels kernels;
+    private final NnueAccumulator accumulator;
+    private final byte[] input;
+    private final byte[] firstOutput;
+    private final byte[] secondOutput;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this(network, NnueKernels.best());
+    }
+
+    NnueEvaluator(NnueNetwork network, NnueKernels kernels) {
+        this.network = network;
+        this.kernels = kernels;
+        accumulator = new NnueAccumulator(network, kernels);
+        input = new byte[2 * network.hidden];
+        firstOutput = new byte[network.firstLayer];
+        secondOutput = new byte[network.secondLayer];
+    }
+
+    /**
+     * @param path a network file
+     * @return an evaluator for the network
+     * @throws IOException if the file cannot be read or is not a network
+     */
+    public static NnueEvaluator load(Path path) throws IOException {
+        return new NnueEvaluator(NnueNetwork.load(path));
+    }
+
+    /**
+     * @return true if the Vector API is doing the arithmetic
+     */
+    public boolean isVectorized() {
+        return !(kernels instanceof ScalarNnueKernels);
+    }
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        if (accumulator.board() != board) {
+            accumulator.attach(board);
+        }
+        ChessGame.TeamColor opponent = teamToMove == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        clip(accumulator.values(teamToMove), input, 0);
+        clip(accumulator.values(opponent), input, network.hidden);
+
+        layer(input, network.firstBiases, network.firstWeights, firstOutput);
+        layer(firstOutput, network.secondBiases, network.secondWeights, secondOutput);
+        int output = network.outputBias + kernels.dot(secondOutput, network.outputWeights, 0, secondOutput.length);
+        return output / NnueNetwork.OUTPUT_SCALE;
+    }
+
+    private void layer(byte[] in, int[] biases, byte[] weights, byte[] out) {
+        for (int i = 0; i < out.length; i++) {
+            int sum = biases[i] + kernels.dot(in, weights, i * in.length, in.length);
+            out[i] = clip(sum >> NnueNetwork.WEIGHT_SHIFT);
+        }
+    }
+
+    private static void clip(short[] values, byte[] out, int offset) {
+        for (int i = 0; i < values.length; i++) {
+            out[offset + i] = clip(values[i]);
+        }
+    }
+
+    private static byte clip(int value) {
+        return (byte) Math.max(0, Math.min(127, value));
+    }
+}
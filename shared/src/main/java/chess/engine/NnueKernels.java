@@ -0,0 +1,45 @@
+package chess.engine;
+
+/**
+ * The inner loops of the network: adding one input's weights to an accumulator and the
+ * multiply-add of a quantised layer. There is a plain Java version and one using the Vector API,
+ * which is an incubator module and only usable when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+interface NnueKernels {
+
+    /**
+     * Adds {@code weights[offset..offset + accumulator.length)} to the accumulator, wrapping on overflow
+     */
+    void add(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * Subtracts {@code weights[offset..offset + accumulator.length)} from the accumulator, wrapping on overflow
+     */
+    void subtract(short[] accumulator, short[] weights, int offset);
+
+    /**
+     * @return the sum of {@code input[i] * weights[offset + i]} for i below length
+     */
+    int dot(byte[] input, byte[] weights, int offset, int length);
+
+    /**
+     * @return the vector kernels if the Vector API module is loaded and the hardware has vectors as
+     * wide as they use, otherwise the plain ones
+     */
+    static NnueKernels best() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name so nothing links against the module when it is missing
+                Class<?> kernels = Class.forName("chess.engine.VectorNnueKernels");
+                if (!(boolean) kernels.getDeclaredMethod("isNative").invoke(null)) {
+                    return new ScalarNnueKernels();
+                }
+                return (NnueKernels) kernels.getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                return new ScalarNnueKernels();
+            }
+        }
+        return new ScalarNnueKernels();
+    }
+}
@@ -0,0 +1,179 @@
+package chess.engine;
+
+import chess.ChessPiece;
+import chess.ChessGame;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The weights of a small quantised evaluation network with a HalfKP input layer.
+ * <p>
+ * Each side has its own view of the board: one input for every combination of that side's king
+ * square, a non-king piece (type and whether it is friend or foe) and the piece's square, 40960 in
+ * all, with black's view flipped so both sides see their own pieces at the bottom. An input layer of
+ * 16-bit weights turns each view into {@code hidden} values, the side to move's first. Those go
+ * through two hidden layers and an output layer with 8-bit weights and 32-bit biases, each
+ * followed by clipping to 0-127.
+ * <p>
+ * The file is little-endian: the magic bytes NNUE, the format version, the hidden, first layer and
+ * second layer sizes as ints, then each layer's biases followed by its weights, the input layer
+ * as shorts and the others as bias ints and weight bytes. It is memory mapped while loading, so
+ * the tens of megabytes of input weights are copied straight from the page cache.
+ */
+public class NnueNetwork {
+    static final int KING_SQUARES = 64;
+    static final int PIECE_KINDS = 10;
+    static final int FEATURES = KING_SQUARES * PIECE_KINDS * 64;
+    /** Hidden layer sums are divided by 2^WEIGHT_SHIFT to bring them back to 0-127 */
+    static final int WEIGHT_SHIFT = 6;
+    /** The output is divided by this to give centipawns */
+    static final int OUTPUT_SCALE = 16;
+
+    private static final byte[] MAGIC = {'N', 'N', 'U', 'E'};
+    private static final int VERSION = 1;
+
+    final int hidden;
+    final int firstLayer;
+    final int secondLayer;
+    final short[] featureBiases;
+    final short[] featureWeights;
+    final int[] firstBiases;
+    final byte[] firstWeights;
+    final int[] secondBiases;
+    final byte[] secondWeights;
+    final int outputBias;
+    final byte[] outputWeights;
+
+    NnueNetwork(int hidden, int firstLayer, int secondLayer, short[] featureBiases, short[] featureWeights,
+                int[] firstBiases, byte[] firstWeights, int[] secondBiases, byte[] secondWeights,
+                int outputBias, byte[] outputWeights) {
+        this.hidden = hidden;
+        this.firstLayer = firstLayer;
+        this.secondLayer = secondLayer;
+        this.featureBiases = featureBiases;
+        this.featureWeights = featureWeights;
+        this.firstBiases = firstBiases;
+        this.firstWeights = firstWeights;
+        this.secondBiases = secondBiases;
+        this.secondWeights = secondWeights;
+        this.outputBias = outputBias;
+        this.outputWeights = outputWeights;
+    }
+
+    /**
+     * Loads a network file. The file is mapped only for the read: every weight is copied into
+     * arrays on the heap, which the kernels work on, and the mapping is not kept.
+     *
+     * @param path the network file
+     * @return the network
+     * @throws IOException if the file cannot be read or is not a network
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!java.util.Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION) {
+                throw new IOException(path + " is not a version " + VERSION + " network");
+            }
+            int hidden = buffer.getInt();
+            int firstLayer = buffer.getInt();
+            int secondLayer = buffer.getInt();
+            long expected = 2L * hidden + 2L * FEATURES * hidden + 4L * firstLayer + 2L * hidden * firstLayer
+                    + 4L * secondLayer + (long) firstLayer * secondLayer + 4 + secondLayer;
+            if (hidden <= 0 || firstLayer <= 0 || secondLayer <= 0 || buffer.remaining() != expected) {
+                throw new IOException(path + " has the wrong size for its layers");
+            }
+
+            short[] featureBiases = new short[hidden];
+            short[] featureWeights = new short[FEATURES * hidden];
+            buffer.asShortBuffer().get(featureBiases).get(featureWeights);
+            buffer.position(buffer.position() + 2 * (featureBiases.length + featureWeights.length));
+
+            int[] firstBiases = readInts(buffer, firstLayer);
+            byte[] firstWeights = readBytes(buffer, 2 * hidden * firstLayer);
+            int[] secondBiases = readInts(buffer, secondLayer);
+            byte[] secondWeights = readBytes(buffer, firstLayer * secondLayer);
+            int outputBias = buffer.getInt();
+            byte[] outputWeights = readBytes(buffer, secondLayer);
+            return new NnueNetwork(hidden, firstLayer, secondLayer, featureBiases, featureWeights,
+                    firstBiases, firstWeights, secondBiases, secondWeights, outputBias, outputWeights);
+        }
+    }
+
+    /**
+     * Writes the network in the format {@link #load} reads
+     *
+     * @param path the file to create or replace
+     * @throws IOException if the file cannot be written
+     */
+    public void write(Path path) throws IOException {
+        int size = MAGIC.length + 16 + 2 * (featureBiases.length + featureWeights.length)
+                + 4 * firstBiases.length + firstWeights.length + 4 * secondBiases.length + secondWeights.length
+                + 4 + outputWeights.length;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC).putInt(VERSION).putInt(hidden).putInt(firstLayer).putInt(secondLayer);
+        buffer.asShortBuffer().put(featureBiases).put(featureWeights);
+        buffer.position(buffer.position() + 2 * (featureBiases.length + featureWeights.length));
+        for (int bias : firstBiases) {
+            buffer.putInt(bias);
+        }
+        buffer.put(firstWeights);
+        for (int bias : secondBiases) {
+            buffer.putInt(bias);
+        }
+        buffer.put(secondWeights);
+        buffer.putInt(outputBias);
+        buffer.put(outputWeights);
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * @return how many values each side's view of the board is turned into
+     */
+    public int getHiddenSize() {
+        return hidden;
+    }
+
+    /**
+     * The input for a piece seen from one side. Kings are not inputs; they pick the set of inputs instead.
+     *
+     * @param perspective whose view of the board
+     * @param kingSquare  that side's king, (row - 1) * 8 + (column - 1)
+     * @param piece       a piece other than a king
+     * @param square      the piece's square
+     * @return the offset of the input's weights in {@link #featureWeights}
+     */
+    int featureOffset(ChessGame.TeamColor perspective, int kingSquare, ChessPiece piece, int square) {
+        int flip = perspective == ChessGame.TeamColor.WHITE ? 0 : 56;
+        // Kings never get here, so the other five types take ordinals 1-5
+        int kind = (piece.getPieceType().ordinal() - 1) * 2 + (piece.getTeamColor() == perspective ? 0 : 1);
+        int feature = ((kingSquare ^ flip) * PIECE_KINDS + kind) * 64 + (square ^ flip);
+        return feature * hidden;
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer, int count) {
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+}
@@ -0,0 +1,182 @@
+package chess.engine;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * An opening book in the Polyglot binary format: 16-byte big-endian entries of key (8 bytes),
+ * move (2), weight (2) and learn (4), sorted by key.
+ * <p>
+ * The file is memory mapped rather than read, so opening a book takes no time and no heap however
+ * large it is, and each probe is a binary search that only touches a few pages.
+ */
+public class OpeningBook {
+    static final int ENTRY_SIZE = 16;
+    // Each mapped segment holds a whole number of entries and stays under the 2 GB buffer limit
+    private static final int ENTRIES_PER_SEGMENT = 1 << 26;
+
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+    private final Random random = new Random();
+
+    private OpeningBook(MappedByteBuffer[] segments, long entryCount) {
+        this.segments = segments;
+        this.entryCount = entryCount;
+    }
+
+    /**
+     * Maps a book file into memory
+     *
+     * @param path the book file
+     * @return the book
+     * @throws IOException if the file cannot be read or is not a whole number of entries
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size % ENTRY_SIZE != 0) {
+                throw new IOException("Book size " + size + " is not a multiple of " + ENTRY_SIZE);
+            }
+            long entryCount = size / ENTRY_SIZE;
+            int segmentCount = (int) ((entryCount + ENTRIES_PER_SEGMENT - 1) / ENTRIES_PER_SEGMENT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+            long segmentBytes = (long) ENTRIES_PER_SEGMENT * ENTRY_SIZE;
+            for (int i = 0; i < segmentCount; i++) {
+                long offset = i * segmentBytes;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(segmentBytes, size - offset));
+            }
+            // The mapping stays valid after the channel is closed
+            return new OpeningBook(segments, entryCount);
+        }
+    }
+
+    /**
+     * Writes entries as a book file, sorting them by key
+     *
+     * @param path    the file to create or replace
+     * @param entries the entries to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path path, Collection<BookEntry> entries) throws IOException {
+        List<BookEntry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparing(BookEntry::key, Long::compareUnsigned)
+                .thenComparing(Comparator.comparingInt(BookEntry::weight).reversed()));
+        ByteBuffer buffer = ByteBuffer.allocate(sorted.size() * ENTRY_SIZE);
+        for (BookEntry entry : sorted) {
+            buffer.putLong(entry.key());
+            buffer.putShort((short) Polyglot.encodeMove(entry.move()));
+            buffer.putShort((short) entry.weight());
+            buffer.putInt(entry.learn());
+        }
+        buffer.flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Finds every book move for the game's position that is legal in the game,
+     * heaviest first
+     *
+     * @param game the game to look up
+     * @return the book moves, empty if the position is not in the book
+     */
+    public List<BookEntry> probe(ChessGame game) {
+        long key = Polyglot.key(game);
+        List<BookEntry> moves = new ArrayList<>();
+        for (long index = firstIndexOf(key); index < entryCount && keyAt(index) == key; index++) {
+            ChessMove move = Polyglot.decodeMove(moveAt(index));
+            // Keys can collide, so only trust moves the game accepts
+            Collection<ChessMove> legalMoves = game.validMoves(move.getStartPosition());
+            if (legalMoves != null && legalMoves.contains(move) && weightAt(index) > 0) {
+                moves.add(new BookEntry(key, move, weightAt(index), learnAt(index)));
+            }
+        }
+        moves.sort(Comparator.comparingInt(BookEntry::weight).reversed());
+        return moves;
+    }
+
+    /**
+     * Picks a book move at random, each move as likely as its share of the total weight
+     *
+     * @return the chosen move, or null if the position is not in the book
+     */
+    public ChessMove pickMove(ChessGame game) {
+        List<BookEntry> moves = probe(game);
+        int totalWeight = 0;
+        for (BookEntry entry : moves) {
+            totalWeight += entry.weight();
+        }
+        if (totalWeight == 0) {
+            return null;
+        }
+        int choice = random.nextInt(totalWeight);
+        for (BookEntry entry : moves) {
+            choice -= entry.weight();
+            if (choice < 0) {
+                return entry.move();
+            }
+        }
+        return moves.getLast().move();
+    }
+
+    /**
+     * @return how many entries the book holds
+     */
+    public long size() {
+        return entryCount;
+    }
+
+    /**
+     * Binary search for the first entry whose key is not below the given key.
+     * Keys are compared unsigned, as Polyglot sorts them.
+     */
+    private long firstIndexOf(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (Long.compareUnsigned(keyAt(mid), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(long index) {
+        return segment(index).getLong(offset(index));
+    }
+
+    private int moveAt(long index) {
+        return segment(index).getShort(offset(index) + 8) & 0xFFFF;
+    }
+
+    private int weightAt(long index) {
+        return segment(index).getShort(offset(index) + 10) & 0xFFFF;
+    }
+
+    private int learnAt(long index) {
+        return segment(index).getInt(offset(index) + 12);
+    }
+
+    private MappedByteBuffer segment(long index) {
+        return segments[(int) (index / ENTRIES_PER_SEGMENT)];
+    }
+
+    private static int offset(long index) {
+        return (int) (index % ENTRIES_PER_SEGMENT) * ENTRY_SIZE;
+    }
+}
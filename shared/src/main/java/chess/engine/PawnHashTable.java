@@ -0,0 +1,93 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Direct-mapped cache of pawn structure evaluations, keyed by the board's pawn key.
+ * <p>
+ * Pawns move far less often than other pieces, so almost every position reached in a search
+ * shares its pawn structure with one already evaluated. Each slot holds the key, the middlegame
+ * and endgame pawn scores (white minus black) and both teams' passed pawns as bitboards.
+ */
+class PawnHashTable {
+    private final long[] keys;
+    private final int[] middlegameScores;
+    private final int[] endgameScores;
+    private final long[] whitePassed;
+    private final long[] blackPassed;
+    private final boolean[] used;
+    private final int mask;
+
+    private long probes;
+    private long hits;
+
+    /**
+     * @param sizeBits the table holds 2^sizeBits entries
+     */
+    PawnHashTable(int sizeBits) {
+        int size = 1 << sizeBits;
+        keys = new long[size];
+        middlegameScores = new int[size];
+        endgameScores = new int[size];
+        whitePassed = new long[size];
+        blackPassed = new long[size];
+        used = new boolean[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return the slot holding the pawn structure, or -1 if it is not cached
+     */
+    int probe(long pawnKey) {
+        probes++;
+        int index = (int) pawnKey & mask;
+        if (used[index] && keys[index] == pawnKey) {
+            hits++;
+            return index;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the slot the entry was written to
+     */
+    int store(long pawnKey, int middlegame, int endgame, long whitePassedPawns, long blackPassedPawns) {
+        int index = (int) pawnKey & mask;
+        keys[index] = pawnKey;
+        middlegameScores[index] = middlegame;
+        endgameScores[index] = endgame;
+        whitePassed[index] = whitePassedPawns;
+        blackPassed[index] = blackPassedPawns;
+        used[index] = true;
+        return index;
+    }
+
+    int middlegame(int index) {
+        return middlegameScores[index];
+    }
+
+    int endgame(int index) {
+        return endgameScores[index];
+    }
+
+    long whitePassed(int index) {
+        return whitePassed[index];
+    }
+
+    long blackPassed(int index) {
+        return blackPassed[index];
+    }
+
+    /**
+     * @return the fraction of probes that found their entry, or 0 before any probe
+     */
+    double hitRate() {
+        return probes == 0 ? 0 : (double) hits / probes;
+    }
+
+    void clear() {
+        Arrays.fill(used, false);
+        probes = 0;
+        hits = 0;
+    }
+}
@@ -0,0 +1,93 @@
+package chess.engine;
+
+/**
+ * Scores doubled, isolated and passed pawns from the pawn bitboards.
+ * Bit (row - 1) * 8 + (column - 1) is set for each pawn.
+ */
+final class PawnStructure {
+    static final int DOUBLED_MIDDLEGAME = -10;
+    static final int DOUBLED_ENDGAME = -20;
+    static final int ISOLATED_MIDDLEGAME = -10;
+    static final int ISOLATED_ENDGAME = -15;
+    // Indexed by how many rows the pawn has advanced from its own back row
+    static final int[] PASSED_MIDDLEGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 55, 85, 120, 0};
+
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares ahead of a pawn on its own and neighbouring files, [color][square]
+    private static final long[][] FRONT_SPANS = new long[2][64];
+
+    static {
+        for (int col = 0; col < 8; col++) {
+            FILES[col] = FILE_A << col;
+        }
+        for (int col = 0; col < 8; col++) {
+            ADJACENT_FILES[col] = (col > 0 ? FILES[col - 1] : 0) | (col < 7 ? FILES[col + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            long span = FILES[square % 8] | ADJACENT_FILES[square % 8];
+            long above = row == 7 ? 0 : -1L << ((row + 1) * 8);
+            long below = row == 0 ? 0 : -1L >>> ((8 - row) * 8);
+            FRONT_SPANS[0][square] = span & above;
+            FRONT_SPANS[1][square] = span & below;
+        }
+    }
+
+    private PawnStructure() {
+    }
+
+    /**
+     * Evaluates the pawns and stores the result in the table
+     *
+     * @return the slot the result was stored in
+     */
+    static int evaluate(long whitePawns, long blackPawns, long pawnKey, PawnHashTable table) {
+        int middlegame = 0;
+        int endgame = 0;
+        long whitePassed = 0;
+        long blackPassed = 0;
+
+        for (int col = 0; col < 8; col++) {
+            int whiteOnFile = Long.bitCount(whitePawns & FILES[col]);
+            int blackOnFile = Long.bitCount(blackPawns & FILES[col]);
+            if (whiteOnFile > 1) {
+                middlegame += DOUBLED_MIDDLEGAME * (whiteOnFile - 1);
+                endgame += DOUBLED_ENDGAME * (whiteOnFile - 1);
+            }
+            if (blackOnFile > 1) {
+                middlegame -= DOUBLED_MIDDLEGAME * (blackOnFile - 1);
+                endgame -= DOUBLED_ENDGAME * (blackOnFile - 1);
+            }
+            if (whiteOnFile > 0 && (whitePawns & ADJACENT_FILES[col]) == 0) {
+                middlegame += ISOLATED_MIDDLEGAME * whiteOnFile;
+                endgame += ISOLATED_ENDGAME * whiteOnFile;
+            }
+            if (blackOnFile > 0 && (blackPawns & ADJACENT_FILES[col]) == 0) {
+                middlegame -= ISOLATED_MIDDLEGAME * blackOnFile;
+                endgame -= ISOLATED_ENDGAME * blackOnFile;
+            }
+        }
+
+        for (long pawns = whitePawns; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if ((FRONT_SPANS[0][square] & blackPawns) == 0) {
+                whitePassed |= 1L << square;
+                middlegame += PASSED_MIDDLEGAME[square / 8];
+                endgame += PASSED_ENDGAME[square / 8];
+            }
+        }
+        for (long pawns = blackPawns; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if ((FRONT_SPANS[1][square] & whitePawns) == 0) {
+                blackPassed |= 1L << square;
+                middlegame -= PASSED_MIDDLEGAME[7 - square / 8];
+                endgame -= PASSED_ENDGAME[7 - square / 8];
+            }
+        }
+
+        return table.store(pawnKey, middlegame, endgame, whitePassed, blackPassed);
+    }
+}
@@ -0,0 +1,106 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Lets an engine think on the opponent's time.
+ * <p>
+ * After the engine moves, it guesses the opponent's reply and searches the position after that
+ * reply on a background virtual thread. If the guess was right, the search simply carries on under
+ * the real time limits and usually answers at once. If it was wrong, the background search is
+ * stopped and a fresh search starts, which still benefits from the transposition table it filled.
+ */
+public class Ponderer {
+    private final SearchEngine engine;
+
+    private CompletableFuture<SearchResult> ponderSearch;
+    private ChessGame ponderGame;
+    private ChessMove predictedMove;
+
+    public Ponderer(SearchEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Starts searching the position after the predicted reply. Does nothing if the
+     * prediction is missing or is not a legal move.
+     *
+     * @param game          the game after the engine's own move, with the opponent to move
+     * @param predictedMove the reply the opponent is expected to play
+     */
+    public synchronized void startPondering(ChessGame game, ChessMove predictedMove) {
+        cancel();
+        if (predictedMove == null) {
+            return;
+        }
+        ChessGame afterReply = new ChessGame();
+        afterReply.setBoard(new ChessBoard(game.getBoard()));
+        afterReply.setTeamTurn(game.getTeamTurn());
+        try {
+            afterReply.makeMove(predictedMove);
+        } catch (InvalidMoveException e) {
+            return;
+        }
+
+        this.ponderGame = afterReply;
+        this.predictedMove = predictedMove;
+        ponderSearch = new CompletableFuture<>();
+        CompletableFuture<SearchResult> result = ponderSearch;
+        engine.preparePonder();
+        Thread.ofVirtual().name("ponder").start(() -> {
+            try {
+                result.complete(engine.ponder(afterReply));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    /**
+     * Finds the engine's reply to the opponent's move, reusing the ponder search if it guessed right
+     *
+     * @param game         the game after the opponent's move, with the engine to move
+     * @param opponentMove the move the opponent played
+     * @param limits       how long the engine may think about its reply
+     * @return the engine's reply
+     */
+    public synchronized SearchResult respond(ChessGame game, ChessMove opponentMove, SearchLimits limits) {
+        if (ponderSearch != null && opponentMove.equals(predictedMove) && game.equals(ponderGame)) {
+            engine.ponderHit(limits);
+            SearchResult result = ponderSearch.join();
+            clear();
+            return result;
+        }
+        cancel();
+        return engine.search(game, limits);
+    }
+
+    /**
+     * Stops any ponder search and waits for its thread to finish
+     */
+    public synchronized void cancel() {
+        if (ponderSearch != null) {
+            engine.stop();
+            ponderSearch.exceptionally(e -> null).join();
+            clear();
+        }
+    }
+
+    /**
+     * @return true while a ponder search is running
+     */
+    public synchronized boolean isPondering() {
+        return ponderSearch != null && !ponderSearch.isDone();
+    }
+
+    private void clear() {
+        ponderSearch = null;
+        ponderGame = null;
+        predictedMove = null;
+    }
+}
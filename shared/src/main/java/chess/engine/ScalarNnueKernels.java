@@ -0,0 +1,30 @@
+package chess.engine;
+
+/**
+ * The network's inner loops in plain Java, used when the Vector API is not available
+ */
+final class ScalarNnueKernels implements NnueKernels {
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        for (int i = 0; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] input, byte[] weights, int offset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += input[i] * weights[offset + i];
+        }
+        return sum;
+    }
+}
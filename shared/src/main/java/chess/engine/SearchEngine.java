@@ -0,0 +1,918 @@
+package chess.engine;
+
+import chess.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Finds the best move in a chess game with an iterative deepening alpha-beta search.
+ * <p>
+ * The search works on its own copy of the game's board, making and unmaking moves in place.
+ * On top of the plain search it uses a transposition table, quiescence search, killer and
+ * history move ordering, and the selective techniques switched by {@link EngineOptions}.
+ */
+public class SearchEngine {
+    public static final int MATE_SCORE = 30000;
+    public static final int MAX_PLY = 128;
+    private static final int INFINITY = 32000;
+
+    // Null move
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int NULL_MOVE_VERIFY_DEPTH = 8;
+
+    // Late move reductions
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVE = 3;
+    private static final int LMR_HISTORY_DIVISOR = 4000;
+    private static final int[][] LMR_TABLE = new int[64][64];
+
+    // Futility pruning and razoring, indexed by remaining depth
+    private static final int[] FUTILITY_MARGINS = {0, 200, 350, 500};
+    private static final int[] RAZOR_MARGINS = {0, 300, 500};
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+
+    // Half width of the first window tried for each extra line of a multi-line search
+    private static final int ASPIRATION_WINDOW = 40;
+
+    private static final int HISTORY_LIMIT = 16384;
+    // Clock checked every 256 nodes, well under a millisecond of searching
+    private static final long STOP_CHECK_INTERVAL = 255;
+    private static final long PONDER_WAIT_NANOS = 1_000_000;
+
+    static {
+        for (int depth = 1; depth < 64; depth++) {
+            for (int moveNumber = 1; moveNumber < 64; moveNumber++) {
+                LMR_TABLE[depth][moveNumber] = (int) (0.75 + Math.log(depth) * Math.log(moveNumber) / 2.25);
+            }
+        }
+    }
+
+    private final EngineOptions options;
+    private final Evaluator evaluator;
+    private final TranspositionTable table;
+    private OpeningBook openingBook;
+    private Tablebase tablebase;
+
+    // Moves inside the search are packed as by ChessMove.toCompact, with 0 for none
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[][][] history = new int[2][64][64];
+    private final int[][] pvTable = new int[MAX_PLY][MAX_PLY];
+    private final int[] pvLength = new int[MAX_PLY];
+    private final long[] keyStack = new long[MAX_PLY];
+    // One list of moves, their ordering scores and the quiet moves tried for each ply, reused at every node
+    private final int[][] moveStack = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] orderStack = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    private final int[][] quietStack = new int[MAX_PLY][MoveGenerator.MAX_MOVES];
+    // Root moves skipped while searching for the second and later lines
+    private final int[] excludedRootMoves = new int[MoveGenerator.MAX_MOVES];
+    private int excludedRootCount;
+    // Tried first at the root instead of the hash move, which is left out in the later lines
+    private int rootFirstMove;
+    // Score of the root move in pvTable[0], which is exact because the root is searched with a full window
+    private int rootScore;
+
+    private ChessBoard board;
+    private ChessGame.TeamColor teamToMove;
+    private ChessGame.TeamColor rootTeam;
+    private long nodes;
+    private long nodeLimit;
+    private TimeManager timeManager;
+    private volatile boolean stopRequested;
+    private boolean stopped;
+
+    // Set from other threads to turn a ponder search into a real one
+    private volatile boolean pondering;
+    private volatile SearchLimits ponderHitLimits;
+    private volatile long ponderHitNanos;
+    private boolean ponderSearch;
+
+    public SearchEngine() {
+        this(EngineOptions.defaults(), new TaperedEvaluator());
+    }
+
+    public SearchEngine(EngineOptions options, Evaluator evaluator) {
+        this.options = options;
+        this.evaluator = evaluator;
+        this.table = new TranspositionTable(options.hashSizeMb());
+    }
+
+    /**
+     * Searches the game's current position to a fixed depth. The game itself is not modified.
+     *
+     * @param game     the game to search
+     * @param maxDepth how many plies deep to search
+     * @return the best move found and statistics about the search
+     */
+    public SearchResult search(ChessGame game, int maxDepth) {
+        return search(game, SearchLimits.depth(maxDepth));
+    }
+
+    /**
+     * Searches the game's current position until one of the limits is reached or
+     * {@link #stop()} is called. Interrupting the searching thread also stops it.
+     * The game itself is not modified.
+     *
+     * @param game   the game to search
+     * @param limits how much time, depth and nodes the search may use
+     * @return the best move found and statistics about the search
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        if (openingBook != null) {
+            long startNanos = System.nanoTime();
+            ChessMove bookMove = openingBook.pickMove(game);
+            if (bookMove != null) {
+                return new SearchResult(bookMove, 0, 0, 0, List.of(bookMove),
+                        (System.nanoTime() - startNanos) / 1_000_000);
+            }
+        }
+        if (tablebase != null) {
+            long startNanos = System.nanoTime();
+            TablebaseResult outcome = tablebase.probe(game);
+            ChessMove tableMove = outcome == null ? null : tablebase.bestMove(game);
+            if (tableMove != null) {
+                int score = switch (outcome.outcome()) {
+                    case WIN -> MATE_SCORE - outcome.pliesToMate();
+                    case LOSS -> -MATE_SCORE + outcome.pliesToMate();
+                    case DRAW -> 0;
+                };
+                return new SearchResult(tableMove, score, 0, 0, List.of(tableMove),
+                        (System.nanoTime() - startNanos) / 1_000_000);
+            }
+        }
+        stopRequested = false;
+        pondering = false;
+        return runSearch(game, limits, false, 1).getFirst();
+    }
+
+    /**
+     * Searches for the best few moves of the game's current position, each with its own score and
+     * expected line of play. The book and tablebase are not used, since the point is to compare moves.
+     * <p>
+     * Every iteration searches the best line as usual, then searches the root again with the moves
+     * already chosen left out, once per extra line. Those searches share the transposition table
+     * and move ordering with the first, and start from the line's score in the last iteration, so
+     * three lines cost about two and a half times as much as one.
+     *
+     * @param game      the game to search
+     * @param limits    how much time, depth and nodes the search may use
+     * @param lineCount how many moves to return
+     * @return the lines, best first, fewer than lineCount if there are fewer legal moves. Nodes and
+     * elapsed time are those of the whole search.
+     */
+    public List<SearchResult> searchLines(ChessGame game, SearchLimits limits, int lineCount) {
+        if (lineCount < 1) {
+            throw new IllegalArgumentException("At least one line is needed");
+        }
+        stopRequested = false;
+        pondering = false;
+        return runSearch(game, limits, false, lineCount);
+    }
+
+    /**
+     * Positions found in the book are answered from it without searching
+     *
+     * @param openingBook the book to use, or null for none
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Positions with few enough pieces for the tables are answered with perfect play without searching
+     *
+     * @param tablebase the endgame tables to use, or null for none
+     */
+    public void setTablebase(Tablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Called on the caller's thread before a ponder search is handed to another thread, so a
+     * stop or ponder hit that arrives before that thread starts searching is not lost
+     */
+    void preparePonder() {
+        stopRequested = false;
+        pondering = true;
+    }
+
+    /**
+     * Searches without limits until {@link #stop()} or {@link #ponderHit(SearchLimits)} is called.
+     * Must follow {@link #preparePonder()}.
+     */
+    SearchResult ponder(ChessGame game) {
+        return runSearch(game, SearchLimits.infinite(), true, 1).getFirst();
+    }
+
+    /**
+     * Tells a ponder search that the opponent played the predicted move. The search keeps
+     * everything it has found so far and from now on respects the given limits. Safe to call
+     * from any thread.
+     *
+     * @param limits the limits of the real search, timed from this call
+     */
+    public void ponderHit(SearchLimits limits) {
+        ponderHitNanos = System.nanoTime();
+        ponderHitLimits = limits;
+        pondering = false;
+    }
+
+    private List<SearchResult> runSearch(ChessGame game, SearchLimits limits, boolean ponderSearch, int lineCount) {
+        long startNanos = System.nanoTime();
+        this.ponderSearch = ponderSearch;
+        board = new ChessBoard(game.getBoard());
+        teamToMove = game.getTeamTurn();
+        rootTeam = teamToMove;
+        nodes = 0;
+        stopped = false;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        timeManager = new TimeManager(limits, teamToMove, startNanos);
+        clearOrderingTables();
+
+        int maxDepth = limits.depth() > 0 ? Math.min(limits.depth(), MAX_PLY - 1) : MAX_PLY - 1;
+        int bestMove = 0;
+        int bestScore = 0;
+        int completedDepth = 0;
+        List<ChessMove> principalLine = List.of();
+        int bestMoveChanges = 0;
+        int stableIterations = 0;
+        List<SearchResult> otherLines = List.of();
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            checkPonderHit();
+            int score = search(depth, -INFINITY, INFINITY, 0, true);
+            // Root moves are only recorded once fully searched, so a partial iteration still
+            // holds a usable move, with its score, if it got that far
+            if (pvLength[0] > 0) {
+                int iterationMove = pvTable[0][0];
+                if (iterationMove == bestMove) {
+                    stableIterations++;
+                } else {
+                    bestMoveChanges++;
+                    stableIterations = 0;
+                }
+                bestMove = iterationMove;
+                principalLine = toMoves(pvTable[0], pvLength[0]);
+                bestScore = rootScore;
+            }
+            if (stopped) {
+                break;
+            }
+            completedDepth = depth;
+            if (lineCount > 1) {
+                List<SearchResult> lines = searchOtherLines(depth, bestMove, score, lineCount - 1, otherLines);
+                if (stopped) {
+                    break;
+                }
+                otherLines = lines;
+            }
+            // No point searching deeper once a forced mate has been found
+            if (Math.abs(score) >= MATE_SCORE - depth) {
+                break;
+            }
+            timeManager.updateStability(bestMoveChanges, stableIterations);
+            bestMoveChanges /= 2;
+            if (!timeManager.canStartIteration(System.nanoTime())) {
+                break;
+            }
+        }
+        waitForPonderHit();
+
+        if (bestMove == 0) {
+            bestMove = firstLegalMove();
+            principalLine = bestMove == 0 ? List.of() : List.of(ChessMove.fromCompact(bestMove));
+        }
+        long elapsedMillis = timeManager.elapsedMillis(System.nanoTime());
+        List<SearchResult> results = new ArrayList<>(lineCount);
+        results.add(new SearchResult(bestMove == 0 ? null : ChessMove.fromCompact(bestMove), bestScore,
+                completedDepth, nodes, principalLine, elapsedMillis));
+        for (SearchResult line : otherLines) {
+            // A stopped iteration can still change the best move to one of the earlier lines
+            if (line.bestMove().toCompact() == bestMove) {
+                continue;
+            }
+            results.add(new SearchResult(line.bestMove(), line.score(), line.depth(), nodes,
+                    line.principalLine(), elapsedMillis));
+        }
+        return results;
+    }
+
+    /**
+     * Searches the root again with the best move and then each line found left out. A line cannot
+     * score more than the one found before it, and usually scores about what it did in the last
+     * iteration, so each search starts with a narrow window and that line's last move first.
+     *
+     * @param bestScore the score of the best move at this depth
+     * @param previous  the lines found by the last iteration
+     * @return up to count lines at this depth, best first, or a partial list if the search stopped
+     */
+    private List<SearchResult> searchOtherLines(int depth, int bestMove, int bestScore, int count,
+                                                List<SearchResult> previous) {
+        List<SearchResult> lines = new ArrayList<>(count);
+        excludedRootMoves[excludedRootCount++] = bestMove;
+        while (lines.size() < count) {
+            int index = lines.size();
+            rootFirstMove = index < previous.size() ? previous.get(index).bestMove().toCompact() : 0;
+            int ceiling = lines.isEmpty() ? bestScore : lines.getLast().score();
+            int guess = index < previous.size() ? Math.min(previous.get(index).score(), ceiling) : -INFINITY;
+            int score = aspirationSearch(depth, guess, ceiling);
+            // Nothing is recorded once every legal move has been left out
+            if (stopped || pvLength[0] == 0) {
+                break;
+            }
+            List<ChessMove> line = toMoves(pvTable[0], pvLength[0]);
+            lines.add(new SearchResult(line.getFirst(), score, depth, nodes, line, 0));
+            excludedRootMoves[excludedRootCount++] = pvTable[0][0];
+        }
+        excludedRootCount = 0;
+        rootFirstMove = 0;
+        lines.sort(Comparator.comparingInt(SearchResult::score).reversed());
+        return lines;
+    }
+
+    /**
+     * Searches the root with a narrow window around a guess, widening it on each side that fails
+     *
+     * @param guess   the expected score, or -INFINITY to search everything up to the ceiling
+     * @param ceiling the highest score expected, which is only exceeded if the search is unstable
+     */
+    private int aspirationSearch(int depth, int guess, int ceiling) {
+        int delta = ASPIRATION_WINDOW;
+        int alpha = Math.max(guess - delta, -INFINITY);
+        int beta = guess == -INFINITY ? ceiling + 1 : Math.min(guess + delta, ceiling + 1);
+        while (true) {
+            int score = search(depth, alpha, beta, 0, true);
+            if (stopped) {
+                return score;
+            }
+            if (score <= alpha && alpha > -INFINITY) {
+                alpha = Math.max(alpha - delta, -INFINITY);
+            } else if (score >= beta && beta < INFINITY) {
+                beta = Math.min(beta + delta, INFINITY);
+            } else {
+                return score;
+            }
+            delta *= 2;
+        }
+    }
+
+    /**
+     * Asks a running search to stop. It returns its best move so far within a few milliseconds.
+     * Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Forgets everything learned in earlier searches
+     */
+    public void clearHash() {
+        table.clear();
+    }
+
+    public EngineOptions getOptions() {
+        return options;
+    }
+
+    private int search(int depth, int alpha, int beta, int ply, boolean allowNullMove) {
+        pvLength[ply] = 0;
+        boolean pvNode = beta - alpha > 1;
+        long key = Zobrist.positionKey(board, teamToMove);
+        keyStack[ply] = key;
+
+        if (ply > 0 && isRepetition(key, ply)) {
+            return 0;
+        }
+
+        boolean inCheck = isInCheck(teamToMove);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0) {
+            return quiesce(alpha, beta, ply);
+        }
+        if (countNodeAndCheckStop()) {
+            return 0;
+        }
+        if (ply >= MAX_PLY - 1) {
+            return evaluate();
+        }
+
+        // Transposition table
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (!pvNode && TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER_BOUND && score >= beta)
+                        || (bound == TranspositionTable.UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        if (ply == 0 && rootFirstMove != 0) {
+            hashMove = rootFirstMove;
+        }
+        int staticEval = inCheck ? -INFINITY : evaluate();
+
+        if (!pvNode && !inCheck) {
+            // Razoring: far below alpha near the leaves, only a capture can save the position
+            if (options.razoring() && depth < RAZOR_MARGINS.length
+                    && staticEval + RAZOR_MARGINS[depth] <= alpha) {
+                int razorAlpha = alpha - RAZOR_MARGINS[depth];
+                int score = quiesce(razorAlpha, razorAlpha + 1, ply);
+                if (score <= razorAlpha) {
+                    return score;
+                }
+            }
+
+            // Reverse futility: so far above beta that the opponent cannot catch up in time
+            if (options.futilityPruning() && depth < FUTILITY_MARGINS.length && !isMateScore(beta)
+                    && staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                return staticEval;
+            }
+
+            // Null move: pass the turn, and if we are still above beta this node is not worth searching.
+            // Positions with only pawns left are prone to zugzwang, where passing would be the best move.
+            if (options.nullMovePruning() && allowNullMove && depth >= NULL_MOVE_MIN_DEPTH
+                    && staticEval >= beta && hasPiecesBesidesPawns(teamToMove)) {
+                int reduction = 2 + depth / 4;
+                teamToMove = opponent(teamToMove);
+                int score = -search(depth - 1 - reduction, -beta, -beta + 1, ply + 1, false);
+                teamToMove = opponent(teamToMove);
+                if (stopped) {
+                    return 0;
+                }
+                if (score >= beta) {
+                    if (isMateScore(score)) {
+                        score = beta;
+                    }
+                    if (depth < NULL_MOVE_VERIFY_DEPTH) {
+                        return score;
+                    }
+                    // Deep cutoffs are checked with a real reduced search to catch zugzwang
+                    int verified = search(depth - 1 - reduction, beta - 1, beta, ply, false);
+                    if (verified >= beta) {
+                        return score;
+                    }
+                }
+            }
+        }
+
+        boolean futile = options.futilityPruning() && !pvNode && !inCheck && depth < FUTILITY_MARGINS.length
+                && !isMateScore(alpha) && staticEval + FUTILITY_MARGINS[depth] <= alpha;
+
+        int[] moves = moveStack[ply];
+        int[] orderScores = orderStack[ply];
+        int moveCount = MoveGenerator.generate(board, teamToMove, false, moves);
+        scoreMoves(moves, orderScores, moveCount, hashMove, ply);
+
+        int bestScore = -INFINITY;
+        int bestMove = 0;
+        int originalAlpha = alpha;
+        int legalMoves = 0;
+        int[] quietsTried = quietStack[ply];
+        int quietCount = 0;
+
+        for (int i = 0; i < moveCount; i++) {
+            int move = pickNext(moves, orderScores, moveCount, i);
+            if (ply == 0 && isExcludedRootMove(move)) {
+                continue;
+            }
+            ChessPiece moving = pieceAt(MoveGenerator.from(move));
+            ChessPiece captured = pieceAt(MoveGenerator.to(move));
+            boolean quiet = captured == null && MoveGenerator.promotion(move) == null;
+
+            makeMove(move, moving);
+            if (mayExposeKing(move, moving, inCheck) && isInCheck(opponent(teamToMove))) {
+                unmakeMove(move, moving, captured);
+                continue;
+            }
+            legalMoves++;
+            boolean givesCheck = mayGiveCheck(move) && isInCheck(teamToMove);
+
+            if (futile && quiet && !givesCheck && legalMoves > 1) {
+                unmakeMove(move, moving, captured);
+                bestScore = Math.max(bestScore, staticEval + FUTILITY_MARGINS[depth]);
+                continue;
+            }
+
+            int score;
+            if (legalMoves == 1) {
+                score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+            } else {
+                int reduction = 0;
+                if (options.lateMoveReductions() && depth >= LMR_MIN_DEPTH && legalMoves > LMR_MIN_MOVE
+                        && quiet && !inCheck && !givesCheck && !isKiller(move, ply)) {
+                    reduction = LMR_TABLE[Math.min(depth, 63)][Math.min(legalMoves, 63)];
+                    // Moves that have caused cutoffs elsewhere are reduced less, failures more
+                    reduction -= historyScore(move) / LMR_HISTORY_DIVISOR;
+                    if (pvNode) {
+                        reduction--;
+                    }
+                    reduction = Math.max(0, Math.min(reduction, depth - 2));
+                }
+                score = -search(depth - 1 - reduction, -alpha - 1, -alpha, ply + 1, true);
+                if (reduction > 0 && score > alpha) {
+                    score = -search(depth - 1, -alpha - 1, -alpha, ply + 1, true);
+                }
+                if (score > alpha && score < beta) {
+                    score = -search(depth - 1, -beta, -alpha, ply + 1, true);
+                }
+            }
+            unmakeMove(move, moving, captured);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalLine(move, ply);
+                    if (ply == 0) {
+                        rootScore = score;
+                    }
+                    if (score >= beta) {
+                        if (quiet) {
+                            rewardQuietMove(move, quietsTried, quietCount, depth, ply);
+                        }
+                        break;
+                    }
+                }
+            }
+            if (quiet) {
+                quietsTried[quietCount++] = move;
+            }
+        }
+
+        if (legalMoves == 0) {
+            return inCheck ? -MATE_SCORE + ply : 0;
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER_BOUND
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER_BOUND;
+        // With root moves left out the score is not the position's, so it must not be stored
+        if (ply > 0 || excludedRootCount == 0) {
+            table.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        }
+        return bestScore;
+    }
+
+    /**
+     * Searches captures only until the position is quiet, so the evaluation is
+     * never taken in the middle of an exchange
+     */
+    private int quiesce(int alpha, int beta, int ply) {
+        pvLength[ply] = 0;
+        if (countNodeAndCheckStop()) {
+            return 0;
+        }
+        int standPat = evaluate();
+        if (ply >= MAX_PLY - 1 || standPat >= beta) {
+            return standPat;
+        }
+        if (standPat > alpha) {
+            alpha = standPat;
+        }
+
+        int[] moves = moveStack[ply];
+        int[] orderScores = orderStack[ply];
+        int moveCount = MoveGenerator.generate(board, teamToMove, true, moves);
+        scoreMoves(moves, orderScores, moveCount, 0, ply);
+        int bestScore = standPat;
+        boolean inCheck = moveCount > 0 && isInCheck(teamToMove);
+
+        for (int i = 0; i < moveCount; i++) {
+            int move = pickNext(moves, orderScores, moveCount, i);
+            ChessPiece moving = pieceAt(MoveGenerator.from(move));
+            ChessPiece captured = pieceAt(MoveGenerator.to(move));
+
+            makeMove(move, moving);
+            if (mayExposeKing(move, moving, inCheck) && isInCheck(opponent(teamToMove))) {
+                unmakeMove(move, moving, captured);
+                continue;
+            }
+            int score = -quiesce(-beta, -alpha, ply + 1);
+            unmakeMove(move, moving, captured);
+            if (stopped) {
+                return 0;
+            }
+
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (score >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Counts the node and, every few hundred nodes, checks the clock, node limit and stop requests.
+     *
+     * @return true if the search has to unwind
+     */
+    private boolean countNodeAndCheckStop() {
+        nodes++;
+        if (stopped) {
+            return true;
+        }
+        if ((nodes & STOP_CHECK_INTERVAL) == 0 || nodes >= nodeLimit) {
+            checkPonderHit();
+            stopped = stopRequested || nodes >= nodeLimit || Thread.currentThread().isInterrupted()
+                    || timeManager.isPastHardDeadline(System.nanoTime());
+        }
+        return stopped;
+    }
+
+    /**
+     * Once the predicted move has been played, the ponder search becomes a normal search
+     * with the real limits
+     */
+    private void checkPonderHit() {
+        if (ponderSearch && !pondering) {
+            timeManager = new TimeManager(ponderHitLimits, rootTeam, ponderHitNanos);
+            ponderSearch = false;
+        }
+    }
+
+    /**
+     * A ponder search must not return on its own, even when it runs out of depth or finds a mate,
+     * because its move is only wanted once the opponent has actually moved
+     */
+    private void waitForPonderHit() {
+        while (ponderSearch && !stopRequested && !Thread.currentThread().isInterrupted()) {
+            checkPonderHit();
+            if (ponderSearch) {
+                LockSupport.parkNanos(PONDER_WAIT_NANOS);
+            }
+        }
+    }
+
+    private int firstLegalMove() {
+        int[] moves = moveStack[0];
+        int moveCount = MoveGenerator.generate(board, teamToMove, false, moves);
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            ChessPiece moving = pieceAt(MoveGenerator.from(move));
+            ChessPiece captured = pieceAt(MoveGenerator.to(move));
+            makeMove(move, moving);
+            boolean legal = !isInCheck(opponent(teamToMove));
+            unmakeMove(move, moving, captured);
+            if (legal) {
+                return move;
+            }
+        }
+        return 0;
+    }
+
+    private int evaluate() {
+        return evaluator.evaluate(board, teamToMove);
+    }
+
+    /**
+     * Hash move first, then captures by most valuable victim and least valuable attacker,
+     * then killer moves, then quiet moves by history
+     */
+    private void scoreMoves(int[] moves, int[] scores, int moveCount, int hashMove, int ply) {
+        for (int i = 0; i < moveCount; i++) {
+            int move = moves[i];
+            ChessPiece captured = pieceAt(MoveGenerator.to(move));
+            if (hashMove != 0 && move == hashMove) {
+                scores[i] = 1_000_000;
+            } else if (captured != null) {
+                ChessPiece attacker = pieceAt(MoveGenerator.from(move));
+                scores[i] = 100_000 + MaterialEvaluator.PIECE_VALUES[captured.getPieceType().ordinal()] * 10
+                        - MaterialEvaluator.PIECE_VALUES[attacker.getPieceType().ordinal()] / 10;
+            } else if (MoveGenerator.isQueenPromotion(move)) {
+                scores[i] = 90_000;
+            } else if (move == killers[ply][0]) {
+                scores[i] = 80_000;
+            } else if (move == killers[ply][1]) {
+                scores[i] = 79_000;
+            } else {
+                scores[i] = historyScore(move);
+            }
+        }
+    }
+
+    /**
+     * Selection sort one step at a time, since a cutoff usually comes before the list is exhausted
+     */
+    private static int pickNext(int[] moves, int[] scores, int moveCount, int index) {
+        int best = index;
+        for (int i = index + 1; i < moveCount; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            int move = moves[best];
+            moves[best] = moves[index];
+            moves[index] = move;
+            int score = scores[best];
+            scores[best] = scores[index];
+            scores[index] = score;
+        }
+        return moves[index];
+    }
+
+    private void rewardQuietMove(int move, int[] quietsTried, int quietCount, int depth, int ply) {
+        if (move != killers[ply][0]) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int bonus = depth * depth;
+        updateHistory(move, bonus);
+        for (int i = 0; i < quietCount; i++) {
+            updateHistory(quietsTried[i], -bonus);
+        }
+    }
+
+    private void updateHistory(int move, int bonus) {
+        int[] fromRow = history[teamToMove.ordinal()][MoveGenerator.from(move)];
+        int to = MoveGenerator.to(move);
+        // Pulls large values back toward zero so the table never saturates
+        fromRow[to] += bonus - fromRow[to] * Math.abs(bonus) / HISTORY_LIMIT;
+    }
+
+    private int historyScore(int move) {
+        return history[teamToMove.ordinal()][MoveGenerator.from(move)][MoveGenerator.to(move)];
+    }
+
+    private boolean isKiller(int move, int ply) {
+        return move == killers[ply][0] || move == killers[ply][1];
+    }
+
+    private boolean isExcludedRootMove(int move) {
+        for (int i = 0; i < excludedRootCount; i++) {
+            if (excludedRootMoves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void updatePrincipalLine(int move, int ply) {
+        pvTable[ply][0] = move;
+        int childLength = ply + 1 < MAX_PLY ? pvLength[ply + 1] : 0;
+        System.arraycopy(pvTable[ply + 1], 0, pvTable[ply], 1, childLength);
+        pvLength[ply] = childLength + 1;
+    }
+
+    private static List<ChessMove> toMoves(int[] line, int length) {
+        List<ChessMove> moves = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            moves.add(ChessMove.fromCompact(line[i]));
+        }
+        return List.copyOf(moves);
+    }
+
+    private void clearOrderingTables() {
+        for (int[] plyKillers : killers) {
+            plyKillers[0] = 0;
+            plyKillers[1] = 0;
+        }
+        for (int[][] colorHistory : history) {
+            for (int[] fromRow : colorHistory) {
+                Arrays.fill(fromRow, 0);
+            }
+        }
+    }
+
+    private ChessPiece pieceAt(int square) {
+        return board.getPiece(square / 8 + 1, square % 8 + 1);
+    }
+
+    private void makeMove(int move, ChessPiece moving) {
+        int from = MoveGenerator.from(move);
+        int to = MoveGenerator.to(move);
+        ChessPiece.PieceType promotion = MoveGenerator.promotion(move);
+        board.setPiece(from / 8 + 1, from % 8 + 1, null);
+        board.setPiece(to / 8 + 1, to % 8 + 1,
+                promotion == null ? moving : ChessPiece.of(moving.getTeamColor(), promotion));
+        teamToMove = opponent(teamToMove);
+    }
+
+    private void unmakeMove(int move, ChessPiece moving, ChessPiece captured) {
+        int from = MoveGenerator.from(move);
+        int to = MoveGenerator.to(move);
+        board.setPiece(from / 8 + 1, from % 8 + 1, moving);
+        board.setPiece(to / 8 + 1, to % 8 + 1, captured);
+        teamToMove = opponent(teamToMove);
+    }
+
+    private boolean isInCheck(ChessGame.TeamColor team) {
+        int king = board.getKingSquare(team);
+        return king >= 0 && board.isSquareAttacked(king / 8 + 1, king % 8 + 1, opponent(team));
+    }
+
+    /**
+     * Called after the move is made. A king that was not in check can only be left in check by
+     * moving it, or by moving a piece off a line through it.
+     *
+     * @return false if the move certainly left its own king safe, true if that has to be checked
+     */
+    private boolean mayExposeKing(int move, ChessPiece moving, boolean wasInCheck) {
+        return wasInCheck || moving.getPieceType() == ChessPiece.PieceType.KING
+                || onSameLine(MoveGenerator.from(move), board.getKingSquare(moving.getTeamColor()));
+    }
+
+    /**
+     * Called after the move is made. Only the moved piece, from a square it attacks the king from
+     * if the way is clear, or a piece behind the square it left can give check.
+     *
+     * @return false if the move certainly gave no check, true if that has to be checked
+     */
+    private boolean mayGiveCheck(int move) {
+        int king = board.getKingSquare(teamToMove);
+        if (king < 0) {
+            return false;
+        }
+        int to = MoveGenerator.to(move);
+        int rows = Math.abs(to / 8 - king / 8);
+        int cols = Math.abs(to % 8 - king % 8);
+        boolean direct = switch (pieceAt(to).getPieceType()) {
+            case KING -> false;
+            case QUEEN -> rows == cols || rows == 0 || cols == 0;
+            case BISHOP -> rows == cols;
+            case KNIGHT -> rows * cols == 2;
+            case ROOK -> rows == 0 || cols == 0;
+            case PAWN -> rows == 1 && cols == 1;
+        };
+        return direct || onSameLine(MoveGenerator.from(move), king);
+    }
+
+    private static boolean onSameLine(int square, int other) {
+        if (other < 0) {
+            return false;
+        }
+        int rows = Math.abs(square / 8 - other / 8);
+        int cols = Math.abs(square % 8 - other % 8);
+        return rows == 0 || cols == 0 || rows == cols;
+    }
+
+    /**
+     * Only positions with the same team to move can repeat, so check every other ply
+     */
+    private boolean isRepetition(long key, int ply) {
+        for (int i = ply - 2; i >= 0; i -= 2) {
+            if (keyStack[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean hasPiecesBesidesPawns(ChessGame.TeamColor team) {
+        return board.getPieceCount(team, ChessPiece.PieceType.QUEEN) > 0
+                || board.getPieceCount(team, ChessPiece.PieceType.ROOK) > 0
+                || board.getPieceCount(team, ChessPiece.PieceType.BISHOP) > 0
+                || board.getPieceCount(team, ChessPiece.PieceType.KNIGHT) > 0;
+    }
+
+    /**
+     * Mate scores are stored relative to the current node so they stay correct at any ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+
+    static boolean isMateScore(int score) {
+        return Math.abs(score) >= MATE_SCORE - MAX_PLY;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return team == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -0,0 +1,46 @@
+package chess.engine;
+
+/**
+ * What the engine may spend on a search. A value of 0 means no limit of that kind.
+ *
+ * @param whiteTime      white's remaining clock time in milliseconds
+ * @param blackTime      black's remaining clock time in milliseconds
+ * @param whiteIncrement milliseconds added to white's clock after each move
+ * @param blackIncrement milliseconds added to black's clock after each move
+ * @param moveTime       exact milliseconds to spend on this move, overriding the clocks
+ * @param depth          deepest iteration to search, in plies
+ * @param nodes          most positions to visit
+ */
+public record SearchLimits(long whiteTime, long blackTime, long whiteIncrement, long blackIncrement,
+                           long moveTime, int depth, long nodes) {
+
+    /**
+     * @return limits that search until {@link SearchEngine#stop()} is called
+     */
+    public static SearchLimits infinite() {
+        return new SearchLimits(0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(0, 0, 0, 0, 0, depth, 0);
+    }
+
+    public static SearchLimits moveTime(long millis) {
+        return new SearchLimits(0, 0, 0, 0, millis, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, 0, 0, 0, 0, 0, nodes);
+    }
+
+    public static SearchLimits clock(long whiteTime, long blackTime, long whiteIncrement, long blackIncrement) {
+        return new SearchLimits(whiteTime, blackTime, whiteIncrement, blackIncrement, 0, 0, 0);
+    }
+
+    /**
+     * @return true if the search has a clock or move time to respect
+     */
+    public boolean isTimed() {
+        return moveTime > 0 || whiteTime > 0 || blackTime > 0;
+    }
+}
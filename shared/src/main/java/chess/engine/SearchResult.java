@@ -0,0 +1,40 @@
+package chess.engine;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove      the move to play, or null if the side to move has no legal moves
+ * @param score         centipawns from the point of view of the side to move
+ * @param depth         the last fully completed iteration
+ * @param nodes         positions visited, including quiescence
+ * @param principalLine the expected line of play starting with bestMove
+ * @param elapsedMillis wall time spent searching
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes,
+                           List<ChessMove> principalLine, long elapsedMillis) {
+
+    /**
+     * @return nodes searched per second
+     */
+    public long nodesPerSecond() {
+        return elapsedMillis == 0 ? nodes * 1000 : nodes * 1000 / elapsedMillis;
+    }
+
+    /**
+     * @return the opponent's expected reply to bestMove, or null if the line ends before it
+     */
+    public ChessMove ponderMove() {
+        return principalLine.size() > 1 ? principalLine.get(1) : null;
+    }
+
+    /**
+     * @return true if the score is a forced mate for either side
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= SearchEngine.MATE_SCORE - SearchEngine.MAX_PLY;
+    }
+}
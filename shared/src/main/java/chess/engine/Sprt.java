@@ -0,0 +1,75 @@
+package chess.engine;
+
+/**
+ * A sequential probability ratio test of whether a change gains Elo: H0 says the true difference
+ * is elo0, H1 says it is elo1. Games are played until the log-likelihood ratio of the results
+ * crosses one of the bounds, which on average takes far fewer games than a fixed-length match
+ * with the same error rates.
+ * <p>
+ * The ratio uses the normal approximation to the game scores, with the draw rate taken from the
+ * games played, which is accurate enough once a few dozen games are in.
+ *
+ * @param elo0  the difference under H0
+ * @param elo1  the difference under H1
+ * @param alpha how often H1 may be accepted when H0 holds
+ * @param beta  how often H0 may be accepted when H1 holds
+ */
+public record Sprt(double elo0, double elo1, double alpha, double beta) {
+
+    public enum Decision {
+        /** Not enough games to tell yet */
+        CONTINUE,
+        /** The results fit a difference of elo0 */
+        ACCEPT_H0,
+        /** The results fit a difference of elo1 */
+        ACCEPT_H1
+    }
+
+    public Sprt {
+        if (elo1 <= elo0 || alpha <= 0 || alpha >= 1 || beta <= 0 || beta >= 1) {
+            throw new IllegalArgumentException("Need elo0 < elo1 and error rates between 0 and 1");
+        }
+    }
+
+    public double lowerBound() {
+        return Math.log(beta / (1 - alpha));
+    }
+
+    public double upperBound() {
+        return Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * @return the log-likelihood ratio of H1 against H0, 0 while every game has had the same result
+     */
+    public double llr(int wins, int draws, int losses) {
+        int games = wins + draws + losses;
+        if (games == 0) {
+            return 0;
+        }
+        double score = (wins + 0.5 * draws) / games;
+        double variance = (wins * Math.pow(1 - score, 2) + draws * Math.pow(0.5 - score, 2)
+                + losses * Math.pow(score, 2)) / games;
+        if (variance == 0) {
+            return 0;
+        }
+        double score0 = expectedScore(elo0);
+        double score1 = expectedScore(elo1);
+        return games * (score1 - score0) * (2 * score - score0 - score1) / (2 * variance);
+    }
+
+    public Decision decide(int wins, int draws, int losses) {
+        double llr = llr(wins, draws, losses);
+        if (llr >= upperBound()) {
+            return Decision.ACCEPT_H1;
+        }
+        if (llr <= lowerBound()) {
+            return Decision.ACCEPT_H0;
+        }
+        return Decision.CONTINUE;
+    }
+
+    static double expectedScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+}
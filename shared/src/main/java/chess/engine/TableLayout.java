@@ -0,0 +1,317 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * How the positions of one endgame table are numbered.
+ * <p>
+ * A table covers one material signature such as KQK or KBNK, always named with the stronger side
+ * as white; positions where black holds the stronger material are looked up with colors and rows
+ * flipped. An index is built from the side to move, the white king's slot and then 64 squares for
+ * every other piece, white king first among the pieces, then white's other pieces, the black king
+ * and black's other pieces, each side in K Q R B N P order.
+ * <p>
+ * Without pawns the board has eight symmetries, so the white king is moved into the a1-d1-d4
+ * triangle and only has 10 slots. Pawns only move one way, so with pawns the board is only
+ * mirrored left to right and the white king has the 32 squares on files a-d.
+ */
+final class TableLayout {
+    static final int MAX_PIECES = 4;
+    static final String PIECE_ORDER = "KQRBNP";
+
+    private static final int[] TRIANGLE_SLOTS = new int[64];
+    private static final int[] TRIANGLE_SQUARES = new int[10];
+    private static final int[] HALF_SLOTS = new int[64];
+    private static final int[] HALF_SQUARES = new int[32];
+    private static final int[] PIECE_STRENGTH = {0, 9, 5, 3, 3, 1};
+
+    private static final Map<String, TableLayout> LAYOUTS = new ConcurrentHashMap<>();
+
+    static {
+        int triangle = 0;
+        int half = 0;
+        for (int square = 0; square < 64; square++) {
+            int row = square / 8;
+            int col = square % 8;
+            TRIANGLE_SLOTS[square] = -1;
+            HALF_SLOTS[square] = -1;
+            if (col <= 3 && row <= col) {
+                TRIANGLE_SQUARES[triangle] = square;
+                TRIANGLE_SLOTS[square] = triangle++;
+            }
+            if (col <= 3) {
+                HALF_SQUARES[half] = square;
+                HALF_SLOTS[square] = half++;
+            }
+        }
+    }
+
+    final String name;
+    final int pieceCount;
+    final boolean hasPawns;
+    final ChessGame.TeamColor[] colors;
+    final ChessPiece.PieceType[] types;
+    final long size;
+    private final int kingSlots;
+
+    private TableLayout(String name) {
+        this.name = name;
+        int blackKing = name.indexOf('K', 1);
+        pieceCount = name.length();
+        hasPawns = name.indexOf('P') >= 0;
+        colors = new ChessGame.TeamColor[pieceCount];
+        types = new ChessPiece.PieceType[pieceCount];
+        for (int i = 0; i < pieceCount; i++) {
+            colors[i] = i < blackKing ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            types[i] = typeOf(name.charAt(i));
+        }
+        kingSlots = hasPawns ? HALF_SQUARES.length : TRIANGLE_SQUARES.length;
+        long positions = 2L * kingSlots;
+        for (int i = 1; i < pieceCount; i++) {
+            positions *= 64;
+        }
+        size = positions;
+    }
+
+    /**
+     * @param name a material signature such as KRK, in canonical form
+     * @return the layout for the signature
+     */
+    static TableLayout of(String name) {
+        return LAYOUTS.computeIfAbsent(name, TableLayout::new);
+    }
+
+    /**
+     * Puts a material signature in canonical form: each side's pieces in K Q R B N P order and
+     * the side with more material first
+     *
+     * @param white white's pieces, king included
+     * @param black black's pieces, king included
+     * @return the table name, e.g. KBNK
+     */
+    static String canonicalName(String white, String black) {
+        white = sortPieces(white);
+        black = sortPieces(black);
+        return isStronger(black, white) ? black + white : white + black;
+    }
+
+    /**
+     * @return true if every position of the table is a draw because only kings are left
+     */
+    static boolean isBareKings(String name) {
+        return name.equals("KK");
+    }
+
+    /**
+     * Splits a table name into its white and black pieces
+     */
+    static String[] sides(String name) {
+        int blackKing = name.indexOf('K', 1);
+        if (name.charAt(0) != 'K' || blackKing < 0) {
+            throw new IllegalArgumentException("Not a material signature: " + name);
+        }
+        return new String[]{name.substring(0, blackKing), name.substring(blackKing)};
+    }
+
+    /**
+     * Finds the table and index of a position
+     *
+     * @param board      the position
+     * @param teamToMove the side to move
+     * @return the table and index, or null if the board has more than {@link #MAX_PIECES} pieces
+     */
+    static Location locate(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        int count = 0;
+        int[] squares = new int[MAX_PIECES];
+        ChessPiece[] pieces = new ChessPiece[MAX_PIECES];
+        StringBuilder white = new StringBuilder(MAX_PIECES);
+        StringBuilder black = new StringBuilder(MAX_PIECES);
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square / 8 + 1, square % 8 + 1);
+            if (piece == null) {
+                continue;
+            }
+            if (count == MAX_PIECES) {
+                return null;
+            }
+            squares[count] = square;
+            pieces[count++] = piece;
+            (piece.getTeamColor() == ChessGame.TeamColor.WHITE ? white : black).append(letterOf(piece.getPieceType()));
+        }
+
+        String whitePieces = sortPieces(white.toString());
+        String blackPieces = sortPieces(black.toString());
+        boolean flipped = isStronger(blackPieces, whitePieces);
+        String name = flipped ? blackPieces + whitePieces : whitePieces + blackPieces;
+        TableLayout layout = of(name);
+
+        // Put each piece in the slot the layout expects, flipping colors if black is the stronger side
+        int[] ordered = new int[count];
+        boolean[] filled = new boolean[count];
+        for (int i = 0; i < count; i++) {
+            ChessGame.TeamColor color = pieces[i].getTeamColor();
+            int square = squares[i];
+            if (flipped) {
+                color = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                square = (7 - square / 8) * 8 + square % 8;
+            }
+            for (int slot = 0; slot < count; slot++) {
+                if (!filled[slot] && layout.colors[slot] == color && layout.types[slot] == pieces[i].getPieceType()) {
+                    ordered[slot] = square;
+                    filled[slot] = true;
+                    break;
+                }
+            }
+        }
+        ChessGame.TeamColor mover = teamToMove;
+        if (flipped) {
+            mover = mover == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        }
+        return new Location(name, layout.index(ordered, mover));
+    }
+
+    /**
+     * @param squares the square of every piece in layout order, changed in place to the
+     *                symmetric position the index stands for
+     * @return the index of the position
+     */
+    long index(int[] squares, ChessGame.TeamColor teamToMove) {
+        canonicalize(squares);
+        long index = teamToMove.ordinal() * (long) kingSlots
+                + (hasPawns ? HALF_SLOTS[squares[0]] : TRIANGLE_SLOTS[squares[0]]);
+        for (int i = 1; i < pieceCount; i++) {
+            index = index * 64 + squares[i];
+        }
+        return index;
+    }
+
+    /**
+     * Without pawns a white king on the a1-h8 diagonal is left where it is, so the position
+     * mirrored along that diagonal has an index of its own
+     *
+     * @param squares squares as left by {@link #index}, changed in place to the mirrored position
+     * @return the index of the mirrored position, or -1 if it is the same position
+     */
+    long diagonalTwin(int[] squares, ChessGame.TeamColor teamToMove) {
+        if (hasPawns || squares[0] / 8 != squares[0] % 8) {
+            return -1;
+        }
+        long index = index(squares, teamToMove);
+        transform(squares, square -> square % 8 * 8 + square / 8);
+        long twin = index(squares, teamToMove);
+        return twin == index ? -1 : twin;
+    }
+
+    /**
+     * Fills in the squares of the position with the given index
+     *
+     * @return the side to move
+     */
+    ChessGame.TeamColor decode(long index, int[] squares) {
+        for (int i = pieceCount - 1; i >= 1; i--) {
+            squares[i] = (int) (index % 64);
+            index /= 64;
+        }
+        int slot = (int) (index % kingSlots);
+        squares[0] = hasPawns ? HALF_SQUARES[slot] : TRIANGLE_SQUARES[slot];
+        return index / kingSlots == 0 ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    private void canonicalize(int[] squares) {
+        if (squares[0] % 8 > 3) {
+            transform(squares, square -> square / 8 * 8 + 7 - square % 8);
+        }
+        if (hasPawns) {
+            return;
+        }
+        if (squares[0] / 8 > 3) {
+            transform(squares, square -> (7 - square / 8) * 8 + square % 8);
+        }
+        if (squares[0] / 8 > squares[0] % 8) {
+            transform(squares, square -> square % 8 * 8 + square / 8);
+        }
+    }
+
+    private void transform(int[] squares, IntUnaryOperator symmetry) {
+        for (int i = 0; i < pieceCount; i++) {
+            squares[i] = symmetry.applyAsInt(squares[i]);
+        }
+    }
+
+    static char letterOf(ChessPiece.PieceType type) {
+        return switch (type) {
+            case KING -> 'K';
+            case QUEEN -> 'Q';
+            case ROOK -> 'R';
+            case BISHOP -> 'B';
+            case KNIGHT -> 'N';
+            case PAWN -> 'P';
+        };
+    }
+
+    static ChessPiece.PieceType typeOf(char letter) {
+        return switch (letter) {
+            case 'K' -> ChessPiece.PieceType.KING;
+            case 'Q' -> ChessPiece.PieceType.QUEEN;
+            case 'R' -> ChessPiece.PieceType.ROOK;
+            case 'B' -> ChessPiece.PieceType.BISHOP;
+            case 'N' -> ChessPiece.PieceType.KNIGHT;
+            case 'P' -> ChessPiece.PieceType.PAWN;
+            default -> throw new IllegalArgumentException("Not a piece letter: " + letter);
+        };
+    }
+
+    private static String sortPieces(String pieces) {
+        char[] letters = pieces.toCharArray();
+        for (int i = 1; i < letters.length; i++) {
+            char letter = letters[i];
+            int j = i - 1;
+            while (j >= 0 && PIECE_ORDER.indexOf(letters[j]) > PIECE_ORDER.indexOf(letter)) {
+                letters[j + 1] = letters[j];
+                j--;
+            }
+            letters[j + 1] = letter;
+        }
+        return new String(letters);
+    }
+
+    private static boolean isStronger(String pieces, String other) {
+        int strength = strength(pieces);
+        int otherStrength = strength(other);
+        if (strength != otherStrength) {
+            return strength > otherStrength;
+        }
+        if (pieces.length() != other.length()) {
+            return pieces.length() > other.length();
+        }
+        // Same material value and count, e.g. KBKN: order by piece letters so the name is stable
+        for (int i = 0; i < pieces.length(); i++) {
+            int order = PIECE_ORDER.indexOf(pieces.charAt(i));
+            int otherOrder = PIECE_ORDER.indexOf(other.charAt(i));
+            if (order != otherOrder) {
+                return order < otherOrder;
+            }
+        }
+        return false;
+    }
+
+    private static int strength(String pieces) {
+        int strength = 0;
+        for (int i = 0; i < pieces.length(); i++) {
+            strength += PIECE_STRENGTH[PIECE_ORDER.indexOf(pieces.charAt(i))];
+        }
+        return strength;
+    }
+
+    /**
+     * A position's table and index within it
+     */
+    record Location(String name, long index) {
+    }
+}
@@ -0,0 +1,198 @@
+package chess.engine;
+
+import chess.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Endgame tables of perfect play for positions with up to four pieces, as written by
+ * {@link TablebaseGenerator}.
+ * <p>
+ * Each table is one file named after its material, e.g. KRK.ctb: the magic bytes CTB1, the length
+ * of the name in one byte, the name, the number of positions as a big-endian long, and then one
+ * byte per position in {@link TableLayout} order. A byte of 0 is a draw, n > 0 means the side to
+ * move mates in n plies, -n means the side to move is mated in n - 1 plies, and -128 marks a
+ * position that cannot occur. Files are memory mapped, so opening costs no heap and a probe reads
+ * a single byte.
+ */
+public class Tablebase {
+    static final String EXTENSION = ".ctb";
+    static final byte INVALID = Byte.MIN_VALUE;
+    private static final byte[] MAGIC = {'C', 'T', 'B', '1'};
+
+    private final Map<String, ByteBuffer> tables;
+
+    private Tablebase(Map<String, ByteBuffer> tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * Maps every table file in a directory
+     *
+     * @param directory the directory holding the .ctb files
+     * @return the tables found, possibly none
+     * @throws IOException if the directory or a table cannot be read
+     */
+    public static Tablebase open(Path directory) throws IOException {
+        Map<String, ByteBuffer> tables = new HashMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.toString().endsWith(EXTENSION)).toList()) {
+                Map.Entry<String, ByteBuffer> table = map(file);
+                tables.put(table.getKey(), table.getValue());
+            }
+        }
+        return new Tablebase(tables);
+    }
+
+    /**
+     * @return the material signatures of the tables available, e.g. KQK
+     */
+    public Set<String> tables() {
+        return Collections.unmodifiableSet(tables.keySet());
+    }
+
+    /**
+     * Looks up the game's current position
+     *
+     * @param game the game to look up
+     * @return the outcome with perfect play, or null if no table covers the position
+     */
+    public TablebaseResult probe(ChessGame game) {
+        byte value = value(game.getBoard(), game.getTeamTurn());
+        return value == INVALID ? null : result(value);
+    }
+
+    /**
+     * Finds the move that wins fastest, holds the draw, or loses slowest
+     *
+     * @param game the game to play a move in
+     * @return the move, or null if the position or any position it leads to is not covered
+     */
+    public ChessMove bestMove(ChessGame game) {
+        ChessGame.TeamColor mover = game.getTeamTurn();
+        ChessGame.TeamColor other = mover == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ChessBoard board = game.getBoard();
+        ChessMove bestMove = null;
+        int bestRank = Integer.MIN_VALUE;
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece == null || piece.getTeamColor() != mover) {
+                    continue;
+                }
+                for (ChessMove move : game.validMoves(new ChessPosition(row, col))) {
+                    ChessBoard child = new ChessBoard(board);
+                    child.removePiece(move.getStartPosition());
+                    child.addPiece(move.getEndPosition(), move.getPromotionPiece() == null
+                            ? piece : new ChessPiece(mover, move.getPromotionPiece()));
+                    byte value = value(child, other);
+                    if (value == INVALID) {
+                        return null;
+                    }
+                    int rank = rankForMover(value);
+                    if (rank > bestRank) {
+                        bestRank = rank;
+                        bestMove = move;
+                    }
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Orders the moves of a position by what they lead to: quick wins first, slow losses before quick ones
+     *
+     * @param childValue the table value of the position after the move, for the opponent
+     */
+    static int rankForMover(byte childValue) {
+        if (childValue < 0) {
+            return 1000 + childValue;
+        }
+        if (childValue > 0) {
+            return -1000 + childValue;
+        }
+        return 0;
+    }
+
+    static TablebaseResult result(byte value) {
+        if (value > 0) {
+            return new TablebaseResult(TablebaseResult.Outcome.WIN, value);
+        }
+        if (value < 0) {
+            return new TablebaseResult(TablebaseResult.Outcome.LOSS, -value - 1);
+        }
+        return new TablebaseResult(TablebaseResult.Outcome.DRAW, 0);
+    }
+
+    private byte value(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        TableLayout.Location location = TableLayout.locate(board, teamToMove);
+        if (location == null) {
+            return INVALID;
+        }
+        if (TableLayout.isBareKings(location.name())) {
+            return 0;
+        }
+        ByteBuffer table = tables.get(location.name());
+        return table == null ? INVALID : table.get((int) location.index());
+    }
+
+    /**
+     * Writes a table file
+     *
+     * @param file   the file to create or replace
+     * @param name   the table's material signature
+     * @param values one byte per position
+     * @throws IOException if the file cannot be written
+     */
+    static void write(Path file, String name, byte[] values) throws IOException {
+        byte[] nameBytes = name.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length + 1 + nameBytes.length + Long.BYTES);
+        header.put(MAGIC).put((byte) nameBytes.length).put(nameBytes).putLong(values.length).flip();
+        ByteBuffer body = ByteBuffer.wrap(values);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+        }
+    }
+
+    /**
+     * Maps a table file
+     *
+     * @return the table's name and a read-only view of its values
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    static Map.Entry<String, ByteBuffer> map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            mapped.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(file + " is not an endgame table");
+            }
+            byte[] name = new byte[mapped.get()];
+            mapped.get(name);
+            long size = mapped.getLong();
+            String tableName = new String(name, StandardCharsets.US_ASCII);
+            if (size != TableLayout.of(tableName).size || mapped.remaining() != size) {
+                throw new IOException(file + " has the wrong number of positions for " + tableName);
+            }
+            // The mapping stays valid after the channel is closed
+            return Map.entry(tableName, mapped.slice());
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package chess.engine;
+
+import chess.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Builds the endgame tables read by {@link Tablebase}.
+ * <p>
+ * Every position of a table is solved by retrograde analysis in passes. The first pass looks at
+ * the whole table and finds checkmates, stalemates and results decided by captures or promotions.
+ * Each later pass n only revisits positions one move before a position solved in pass n - 1,
+ * found by moving pieces backwards. It marks as won a position with a move into a known loss, as
+ * long as the mate comes within n plies, and marks as lost a position whose moves all lead
+ * to known wins for the opponent. Positions still unknown when nothing is left to revisit are
+ * draws. Captures and promotions leave the table, so the tables they lead into are built first.
+ * <p>
+ * Moves come from {@link ChessPiece#pieceMoves} and are checked for legality with
+ * {@link ChessBoard#isSquareAttacked}, so the tables follow the same rules as {@link ChessGame}.
+ * Each pass splits the table into chunks solved in parallel on the common fork/join pool; a pass
+ * only reads the values of the previous pass, so the result does not depend on scheduling.
+ * <p>
+ * Usage: {@code TablebaseGenerator <directory> KQK KRK KPK KBNK ...}
+ */
+public class TablebaseGenerator {
+    private static final int CHUNK_SIZE = 1 << 12;
+    private static final String PROMOTIONS = "QRBN";
+
+    private final Path directory;
+    private final Map<String, ByteBuffer> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param directory where the tables are written, and where existing tables are reused from
+     */
+    public TablebaseGenerator(Path directory) {
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: TablebaseGenerator <directory> <material>...");
+            System.exit(1);
+        }
+        Path directory = Path.of(args[0]);
+        Files.createDirectories(directory);
+        TablebaseGenerator generator = new TablebaseGenerator(directory);
+        for (int i = 1; i < args.length; i++) {
+            generator.generate(args[i]);
+        }
+    }
+
+    /**
+     * Builds a table and every table it depends on, skipping those already in the directory
+     *
+     * @param material the material signature, e.g. KRK or KBNK, with up to four pieces
+     * @throws IOException if a table cannot be read or written
+     */
+    public void generate(String material) throws IOException {
+        String[] sides = TableLayout.sides(material);
+        String name = TableLayout.canonicalName(sides[0], sides[1]);
+        if (name.length() > TableLayout.MAX_PIECES) {
+            throw new IllegalArgumentException("Tables have at most " + TableLayout.MAX_PIECES + " pieces: " + name);
+        }
+        if (TableLayout.isBareKings(name) || tables.containsKey(name)) {
+            return;
+        }
+        Path file = directory.resolve(name + Tablebase.EXTENSION);
+        if (Files.exists(file)) {
+            tables.put(name, Tablebase.map(file).getValue());
+            return;
+        }
+        for (String dependency : dependencies(name)) {
+            generate(dependency);
+        }
+
+        long startNanos = System.nanoTime();
+        byte[] values = solve(TableLayout.of(name));
+        Tablebase.write(file, name, values);
+        tables.put(name, ByteBuffer.wrap(values));
+        System.out.printf("%s: %d positions in %d ms%n", name, values.length,
+                (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    /**
+     * @return the tables reachable from the given one by a capture or a promotion
+     */
+    static Collection<String> dependencies(String name) {
+        String[] sides = TableLayout.sides(name);
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (int side = 0; side < 2; side++) {
+            String pieces = sides[side];
+            String opponent = sides[1 - side];
+            for (int i = 1; i < pieces.length(); i++) {
+                String captured = pieces.substring(0, i) + pieces.substring(i + 1);
+                dependencies.add(side == 0 ? TableLayout.canonicalName(captured, opponent)
+                        : TableLayout.canonicalName(opponent, captured));
+                if (pieces.charAt(i) == 'P') {
+                    for (char promotion : PROMOTIONS.toCharArray()) {
+                        String promoted = pieces.substring(0, i) + promotion + pieces.substring(i + 1);
+                        dependencies.add(side == 0 ? TableLayout.canonicalName(promoted, opponent)
+                                : TableLayout.canonicalName(opponent, promoted));
+                    }
+                }
+            }
+        }
+        return dependencies;
+    }
+
+    private byte[] solve(TableLayout layout) {
+        int size = Math.toIntExact(layout.size);
+        byte[] values = new byte[size];
+        boolean[] solved = new boolean[size];
+        boolean[] pending = new boolean[size];
+        Arrays.fill(pending, true);
+        int chunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        for (int pass = 0; ; pass++) {
+            byte[] previous = values.clone();
+            boolean[] current = pending;
+            boolean[] next = new boolean[size];
+            int winHorizon = pass;
+            AtomicBoolean anyPending = new AtomicBoolean();
+            IntStream.range(0, chunks).parallel().forEach(chunk -> {
+                Solver solver = new Solver(layout, previous, values, solved, next, winHorizon);
+                solver.solve(current, chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE));
+                if (solver.marked) {
+                    anyPending.set(true);
+                }
+            });
+            if (!anyPending.get()) {
+                return values;
+            }
+            pending = next;
+        }
+    }
+
+    /**
+     * Solves one chunk of one pass with its own scratch board
+     */
+    private class Solver {
+        private final TableLayout layout;
+        private final byte[] previous;
+        private final byte[] values;
+        private final boolean[] solved;
+        private final boolean[] next;
+        private final int winHorizon;
+        private final ChessBoard board = new ChessBoard();
+        private final int[] squares;
+        private final int[] moved;
+        private boolean marked;
+
+        Solver(TableLayout layout, byte[] previous, byte[] values, boolean[] solved, boolean[] next, int winHorizon) {
+            this.layout = layout;
+            this.previous = previous;
+            this.values = values;
+            this.solved = solved;
+            this.next = next;
+            this.winHorizon = winHorizon;
+            squares = new int[layout.pieceCount];
+            moved = new int[layout.pieceCount];
+        }
+
+        void solve(boolean[] pending, int from, int to) {
+            for (int index = from; index < to; index++) {
+                if (pending[index] && !solved[index]) {
+                    solvePosition(index);
+                }
+            }
+        }
+
+        private void solvePosition(int index) {
+            ChessGame.TeamColor mover = layout.decode(index, squares);
+            if (!placePieces()) {
+                values[index] = Tablebase.INVALID;
+                solved[index] = true;
+                return;
+            }
+            ChessGame.TeamColor other = mover == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            ChessPosition opponentKing = board.getKingPosition(other);
+            if (board.isSquareAttacked(opponentKing.getRow(), opponentKing.getColumn(), mover)) {
+                // The side that just moved left its king in check
+                clearPieces();
+                values[index] = Tablebase.INVALID;
+                solved[index] = true;
+                return;
+            }
+
+            int legalMoves = 0;
+            int fastestWin = Integer.MAX_VALUE;
+            int slowestLoss = 0;
+            boolean allLose = true;
+            for (int i = 0; i < layout.pieceCount; i++) {
+                if (layout.colors[i] != mover) {
+                    continue;
+                }
+                ChessPosition start = new ChessPosition(squares[i] / 8 + 1, squares[i] % 8 + 1);
+                ChessPiece piece = board.getPiece(start);
+                for (ChessMove move : piece.pieceMoves(board, start)) {
+                    ChessPiece captured = board.getPiece(move.getEndPosition());
+                    board.removePiece(start);
+                    board.addPiece(move.getEndPosition(), move.getPromotionPiece() == null
+                            ? piece : new ChessPiece(mover, move.getPromotionPiece()));
+                    ChessPosition king = board.getKingPosition(mover);
+                    if (!board.isSquareAttacked(king.getRow(), king.getColumn(), other)) {
+                        legalMoves++;
+                        byte child = captured == null && move.getPromotionPiece() == null
+                                ? previous[indexAfter(i, move.getEndPosition(), other)]
+                                : valueOutsideTable(other);
+                        if (child < 0) {
+                            fastestWin = Math.min(fastestWin, -child);
+                        } else if (child > 0) {
+                            slowestLoss = Math.max(slowestLoss, child + 1);
+                        } else {
+                            allLose = false;
+                        }
+                    }
+                    board.addPiece(move.getEndPosition(), captured);
+                    board.addPiece(start, piece);
+                }
+            }
+
+            byte value = 0;
+            boolean known = false;
+            if (legalMoves == 0) {
+                ChessPosition king = board.getKingPosition(mover);
+                value = board.isSquareAttacked(king.getRow(), king.getColumn(), other) ? (byte) -1 : 0;
+                known = true;
+            } else if (fastestWin <= winHorizon) {
+                value = encode(fastestWin);
+                known = true;
+            } else if (fastestWin != Integer.MAX_VALUE) {
+                // A win through a capture or promotion that mates later than this pass can prove
+                next[index] = true;
+                marked = true;
+            } else if (allLose) {
+                value = encode(-slowestLoss);
+                known = true;
+            }
+            if (known) {
+                values[index] = value;
+                solved[index] = true;
+                if (value != 0) {
+                    markPredecessors(other);
+                }
+            }
+            clearPieces();
+        }
+
+        /**
+         * @return the index of the position after the piece in slot i moves to the given square
+         */
+        private int indexAfter(int slot, ChessPosition end, ChessGame.TeamColor teamToMove) {
+            System.arraycopy(squares, 0, moved, 0, squares.length);
+            moved[slot] = (end.getRow() - 1) * 8 + end.getColumn() - 1;
+            return (int) layout.index(moved, teamToMove);
+        }
+
+        /**
+         * Queues for the next pass every position from which the side that just moved could
+         * have reached the one on the board without a capture or promotion
+         */
+        private void markPredecessors(ChessGame.TeamColor previousMover) {
+            for (int i = 0; i < layout.pieceCount; i++) {
+                if (layout.colors[i] != previousMover) {
+                    continue;
+                }
+                ChessPosition at = new ChessPosition(squares[i] / 8 + 1, squares[i] % 8 + 1);
+                ChessPiece piece = board.getPiece(at);
+                if (piece.getPieceType() == ChessPiece.PieceType.PAWN) {
+                    int back = previousMover == ChessGame.TeamColor.WHITE ? -1 : 1;
+                    int startRow = previousMover == ChessGame.TeamColor.WHITE ? 2 : 7;
+                    int row = at.getRow() + back;
+                    if (row != startRow + back && board.getPiece(row, at.getColumn()) == null) {
+                        mark(indexAfter(i, new ChessPosition(row, at.getColumn()), previousMover));
+                        if (row + back == startRow && board.getPiece(startRow, at.getColumn()) == null) {
+                            mark(indexAfter(i, new ChessPosition(startRow, at.getColumn()), previousMover));
+                        }
+                    }
+                    continue;
+                }
+                // Every piece but a pawn moves the same way backwards as forwards
+                for (ChessMove move : piece.pieceMoves(board, at)) {
+                    if (board.getPiece(move.getEndPosition()) == null) {
+                        mark(indexAfter(i, move.getEndPosition(), previousMover));
+                        long twin = layout.diagonalTwin(moved, previousMover);
+                        if (twin >= 0) {
+                            mark((int) twin);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void mark(int index) {
+            if (!solved[index]) {
+                next[index] = true;
+                marked = true;
+            }
+        }
+
+        /**
+         * Puts the decoded pieces on the scratch board
+         *
+         * @return false, leaving the board empty, if the squares do not make a position
+         */
+        private boolean placePieces() {
+            for (int i = 0; i < layout.pieceCount; i++) {
+                int row = squares[i] / 8;
+                if (layout.types[i] == ChessPiece.PieceType.PAWN && (row == 0 || row == 7)) {
+                    return false;
+                }
+                for (int j = 0; j < i; j++) {
+                    if (squares[j] == squares[i]) {
+                        return false;
+                    }
+                }
+            }
+            for (int i = 0; i < layout.pieceCount; i++) {
+                board.addPiece(new ChessPosition(squares[i] / 8 + 1, squares[i] % 8 + 1),
+                        new ChessPiece(layout.colors[i], layout.types[i]));
+            }
+            return true;
+        }
+
+        private void clearPieces() {
+            for (int i = 0; i < layout.pieceCount; i++) {
+                board.removePiece(new ChessPosition(squares[i] / 8 + 1, squares[i] % 8 + 1));
+            }
+        }
+
+        private byte valueOutsideTable(ChessGame.TeamColor teamToMove) {
+            TableLayout.Location location = TableLayout.locate(board, teamToMove);
+            if (TableLayout.isBareKings(location.name())) {
+                return 0;
+            }
+            return tables.get(location.name()).get((int) location.index());
+        }
+    }
+
+    /**
+     * @param plies positive to mate in that many plies, negative to be mated in that many
+     */
+    private static byte encode(int plies) {
+        // Byte.MIN_VALUE is taken by Tablebase.INVALID
+        if (plies > Byte.MAX_VALUE || plies - 1 <= Byte.MIN_VALUE) {
+            throw new IllegalStateException("Distance to mate " + plies + " does not fit in a table byte");
+        }
+        return (byte) (plies > 0 ? plies : plies - 1);
+    }
+}
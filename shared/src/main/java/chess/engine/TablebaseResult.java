@@ -0,0 +1,23 @@
+package chess.engine;
+
+/**
+ * What an endgame table says about a position, from the side to move's point of view
+ *
+ * @param outcome     whether the side to move wins, draws or loses with perfect play
+ * @param pliesToMate half-moves until mate for a win or loss, 0 for a draw or when already mated
+ */
+public record TablebaseResult(Outcome outcome, int pliesToMate) {
+
+    public enum Outcome {
+        WIN,
+        DRAW,
+        LOSS
+    }
+
+    /**
+     * @return full moves until mate, counting the mating side's moves
+     */
+    public int movesToMate() {
+        return (pliesToMate + 1) / 2;
+    }
+}
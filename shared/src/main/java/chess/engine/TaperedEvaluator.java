@@ -0,0 +1,87 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Scores a position by material, piece placement and pawn structure, blending middlegame and
+ * endgame values by how much material is left. The material and placement sums are kept by the
+ * board as pieces move, and pawn structure comes from a pawn hash table, so evaluating is
+ * constant time except on the rare pawn hash miss.
+ */
+public class TaperedEvaluator implements Evaluator {
+    private static final int DEFAULT_PAWN_HASH_BITS = 14;
+
+    private final PawnHashTable pawnTable;
+
+    public TaperedEvaluator() {
+        this(DEFAULT_PAWN_HASH_BITS);
+    }
+
+    /**
+     * @param pawnHashBits the pawn hash table holds 2^pawnHashBits entries
+     */
+    public TaperedEvaluator(int pawnHashBits) {
+        pawnTable = new PawnHashTable(pawnHashBits);
+    }
+
+    @Override
+    public int evaluate(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        int middlegame = board.getMiddlegameScore();
+        int endgame = board.getEndgameScore();
+
+        long pawnKey = board.getPawnKey();
+        int slot = pawnTable.probe(pawnKey);
+        if (slot < 0) {
+            slot = PawnStructure.evaluate(board.getPawns(ChessGame.TeamColor.WHITE),
+                    board.getPawns(ChessGame.TeamColor.BLACK), pawnKey, pawnTable);
+        }
+        middlegame += pawnTable.middlegame(slot);
+        endgame += pawnTable.endgame(slot) + blockedPassedPawns(board, pawnTable.whitePassed(slot),
+                pawnTable.blackPassed(slot));
+
+        // Promotions can push the phase past the starting value
+        int phase = Math.min(board.getGamePhase(), PieceSquareTables.MAX_PHASE);
+        int score = (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase))
+                / PieceSquareTables.MAX_PHASE;
+        return teamToMove == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return the share of pawn structure lookups answered from the pawn hash table
+     */
+    public double getPawnHashHitRate() {
+        return pawnTable.hitRate();
+    }
+
+    /**
+     * A passed pawn with an enemy piece sitting in front of it is worth half as much.
+     * Depends on pieces other than pawns, so it cannot be cached with the pawn structure.
+     */
+    private int blockedPassedPawns(ChessBoard board, long whitePassed, long blackPassed) {
+        int adjustment = 0;
+        for (long pawns = whitePassed; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if (square / 8 == 7) {
+                continue;
+            }
+            ChessPiece blocker = board.getPiece(square / 8 + 2, square % 8 + 1);
+            if (blocker != null && blocker.getTeamColor() == ChessGame.TeamColor.BLACK) {
+                adjustment -= PawnStructure.PASSED_ENDGAME[square / 8] / 2;
+            }
+        }
+        for (long pawns = blackPassed; pawns != 0; pawns &= pawns - 1) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            if (square / 8 == 0) {
+                continue;
+            }
+            ChessPiece blocker = board.getPiece(square / 8, square % 8 + 1);
+            if (blocker != null && blocker.getTeamColor() == ChessGame.TeamColor.WHITE) {
+                adjustment += PawnStructure.PASSED_ENDGAME[7 - square / 8] / 2;
+            }
+        }
+        return adjustment;
+    }
+}
@@ -0,0 +1,155 @@
+package chess.engine;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Tunes the material and piece-square values against game results, Texel style.
+ * <p>
+ * Each position's evaluation is turned into an expected result with a logistic curve, and the
+ * mean squared difference from the actual results is minimised. The curve's scale is first fitted
+ * to the current values so the tuning only moves the values, not the scale. The values are then
+ * improved with Adam, each step computing the exact gradient over the whole corpus. Since the
+ * evaluation is linear in the values, the gradient of one position only touches the parameters
+ * of its own pieces, and the corpus is split across the pool with each part summing its own
+ * gradient.
+ */
+public class TexelTuner {
+    // Positions one task works through before splitting no further
+    private static final int CHUNK = 8192;
+    private static final double BETA1 = 0.9;
+    private static final double BETA2 = 0.999;
+    private static final double EPSILON = 1e-8;
+
+    private final TuningCorpus corpus;
+    private final ForkJoinPool pool;
+    private double scale;
+
+    public TexelTuner(TuningCorpus corpus, ForkJoinPool pool) {
+        if (corpus.size() == 0) {
+            throw new IllegalArgumentException("The corpus is empty");
+        }
+        this.corpus = corpus;
+        this.pool = pool;
+    }
+
+    /**
+     * Fits the logistic curve's scale to the current values with a golden section search
+     *
+     * @return the scale, per centipawn
+     */
+    public double fitScale() {
+        double low = 0;
+        double high = 0.02;
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double[] parameters = TuningCorpus.currentParameters();
+        for (int i = 0; i < 40; i++) {
+            double left = high - ratio * (high - low);
+            double right = low + ratio * (high - low);
+            if (loss(parameters, left) < loss(parameters, right)) {
+                high = right;
+            } else {
+                low = left;
+            }
+        }
+        scale = (low + high) / 2;
+        return scale;
+    }
+
+    /**
+     * Tunes from the current values, fitting the scale first if that has not been done
+     *
+     * @param epochs       how many gradient steps to take
+     * @param learningRate how far a step may move a value, in centipawns
+     * @return the tuned values, with the loss before and after
+     */
+    public TunedTables tune(int epochs, double learningRate) {
+        if (scale == 0) {
+            fitScale();
+        }
+        double[] parameters = TuningCorpus.currentParameters();
+        double initialLoss = loss(parameters, scale);
+        double[] firstMoment = new double[parameters.length];
+        double[] secondMoment = new double[parameters.length];
+        for (int epoch = 1; epoch <= epochs; epoch++) {
+            double[] gradient = gradient(parameters);
+            double firstCorrection = 1 - Math.pow(BETA1, epoch);
+            double secondCorrection = 1 - Math.pow(BETA2, epoch);
+            for (int i = 0; i < parameters.length; i++) {
+                firstMoment[i] = BETA1 * firstMoment[i] + (1 - BETA1) * gradient[i];
+                secondMoment[i] = BETA2 * secondMoment[i] + (1 - BETA2) * gradient[i] * gradient[i];
+                parameters[i] -= learningRate * (firstMoment[i] / firstCorrection)
+                        / (Math.sqrt(secondMoment[i] / secondCorrection) + EPSILON);
+            }
+        }
+        return TunedTables.from(parameters, initialLoss, loss(parameters, scale));
+    }
+
+    /**
+     * @return the mean squared error of the expected results under the parameters
+     */
+    double loss(double[] parameters, double scale) {
+        return pool.invoke(new Sweep(parameters, scale, false, 0, corpus.size()))[parameters.length] / corpus.size();
+    }
+
+    /**
+     * @return the derivative of the loss by each parameter
+     */
+    double[] gradient(double[] parameters) {
+        double[] sums = pool.invoke(new Sweep(parameters, scale, true, 0, corpus.size()));
+        double[] gradient = new double[parameters.length];
+        for (int i = 0; i < gradient.length; i++) {
+            gradient[i] = sums[i] / corpus.size();
+        }
+        return gradient;
+    }
+
+    double getScale() {
+        return scale;
+    }
+
+    /**
+     * Sums the gradient over a range of positions, with the squared error in the last slot
+     */
+    private final class Sweep extends RecursiveTask<double[]> {
+        private final double[] parameters;
+        private final double scale;
+        private final boolean withGradient;
+        private final int from;
+        private final int to;
+
+        Sweep(double[] parameters, double scale, boolean withGradient, int from, int to) {
+            this.parameters = parameters;
+            this.scale = scale;
+            this.withGradient = withGradient;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > CHUNK) {
+                int middle = (from + to) >>> 1;
+                Sweep left = new Sweep(parameters, scale, withGradient, from, middle);
+                left.fork();
+                double[] sums = new Sweep(parameters, scale, withGradient, middle, to).compute();
+                double[] leftSums = left.join();
+                for (int i = 0; i < sums.length; i++) {
+                    sums[i] += leftSums[i];
+                }
+                return sums;
+            }
+
+            double[] sums = new double[parameters.length + 1];
+            for (int position = from; position < to; position++) {
+                double expected = 1 / (1 + Math.exp(-scale * corpus.evaluate(position, parameters)));
+                double error = expected - corpus.result(position);
+                sums[parameters.length] += error * error;
+                if (withGradient) {
+                    corpus.accumulateGradient(position, 2 * error * expected * (1 - expected) * scale, sums);
+                }
+            }
+            return sums;
+        }
+    }
+}
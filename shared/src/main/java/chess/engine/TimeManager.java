@@ -0,0 +1,92 @@
+package chess.engine;
+
+import chess.ChessGame;
+
+/**
+ * Turns search limits into deadlines.
+ * <p>
+ * The soft deadline is checked between iterations: a new iteration only starts if it is likely
+ * to finish before it. The hard deadline is checked during the search, which then stops within a
+ * few milliseconds. While the best move keeps changing between iterations the soft deadline is
+ * pushed back, since the search has not settled on an answer yet.
+ */
+class TimeManager {
+    // Kept back from every allocation for the time it takes to send the move
+    static final long MOVE_OVERHEAD_MILLIS = 10;
+    private static final int EXPECTED_MOVES_TO_GO = 30;
+    private static final double MAX_INSTABILITY_SCALE = 2.5;
+    private static final double STABLE_SCALE = 0.75;
+    private static final int STABLE_ITERATIONS = 4;
+
+    private final long startNanos;
+    private final long softMillis;
+    private final long hardMillis;
+    private double instabilityScale = 1.0;
+
+    TimeManager(SearchLimits limits, ChessGame.TeamColor teamToMove, long startNanos) {
+        this.startNanos = startNanos;
+        if (limits.moveTime() > 0) {
+            softMillis = Math.max(1, limits.moveTime() - MOVE_OVERHEAD_MILLIS);
+            hardMillis = softMillis;
+        } else if (limits.whiteTime() > 0 || limits.blackTime() > 0) {
+            boolean white = teamToMove == ChessGame.TeamColor.WHITE;
+            long remaining = white ? limits.whiteTime() : limits.blackTime();
+            long increment = white ? limits.whiteIncrement() : limits.blackIncrement();
+            long available = Math.max(1, remaining - MOVE_OVERHEAD_MILLIS);
+            long soft = remaining / EXPECTED_MOVES_TO_GO + increment * 3 / 4;
+            softMillis = Math.max(1, Math.min(soft, available));
+            hardMillis = Math.max(1, Math.min(Math.max(softMillis * 4, available / 4), available));
+        } else {
+            softMillis = Long.MAX_VALUE;
+            hardMillis = Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Records how the last iteration went so the soft deadline can adapt
+     *
+     * @param bestMoveChanges  how many of the recent iterations changed the best move
+     * @param stableIterations how many iterations in a row kept the same best move
+     */
+    void updateStability(int bestMoveChanges, int stableIterations) {
+        if (bestMoveChanges > 0) {
+            instabilityScale = Math.min(MAX_INSTABILITY_SCALE, 1.0 + 0.5 * bestMoveChanges);
+        } else if (stableIterations >= STABLE_ITERATIONS) {
+            instabilityScale = STABLE_SCALE;
+        } else {
+            instabilityScale = 1.0;
+        }
+    }
+
+    /**
+     * @return true if there is time left to begin another iteration
+     */
+    boolean canStartIteration(long nowNanos) {
+        if (softMillis == Long.MAX_VALUE) {
+            return true;
+        }
+        long soft = Math.min(hardMillis, (long) (softMillis * instabilityScale));
+        // The next iteration usually takes longer than all earlier ones together, so do not
+        // start one that cannot finish before the deadline
+        return elapsedMillis(nowNanos) < soft / 2;
+    }
+
+    /**
+     * @return true once the search has to stop
+     */
+    boolean isPastHardDeadline(long nowNanos) {
+        return hardMillis != Long.MAX_VALUE && elapsedMillis(nowNanos) >= hardMillis;
+    }
+
+    long elapsedMillis(long nowNanos) {
+        return (nowNanos - startNanos) / 1_000_000;
+    }
+
+    long softMillis() {
+        return softMillis;
+    }
+
+    long hardMillis() {
+        return hardMillis;
+    }
+}
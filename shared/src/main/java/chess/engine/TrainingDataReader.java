@@ -0,0 +1,95 @@
+package chess.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records a {@link TrainingDataWriter} wrote, one at a time.
+ * <p>
+ * The file is read through a fixed buffer rather than loaded or mapped, so a file of any size can be
+ * streamed in a single pass with constant memory.
+ */
+public class TrainingDataReader implements Closeable {
+    // 32768 records, 1 MB
+    private static final int BUFFER_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final long size;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TrainingSample.SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+
+    private TrainingDataReader(FileChannel channel, long size) {
+        this.channel = channel;
+        this.size = size;
+        // Start empty so the first read fills the buffer
+        buffer.limit(0);
+    }
+
+    /**
+     * Opens a file of training records
+     *
+     * @param path the file to read
+     * @return the reader
+     * @throws IOException if the file cannot be read or is not a whole number of records
+     */
+    public static TrainingDataReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        long bytes = channel.size();
+        if (bytes % TrainingSample.SIZE != 0) {
+            channel.close();
+            throw new IOException("Training data size " + bytes + " is not a multiple of " + TrainingSample.SIZE);
+        }
+        return new TrainingDataReader(channel, bytes / TrainingSample.SIZE);
+    }
+
+    /**
+     * @return how many records the file held when it was opened
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return the next record, or null at the end of the file
+     * @throws IOException if the file cannot be read or holds a corrupt record
+     */
+    public TrainingSample next() throws IOException {
+        if (buffer.remaining() < TrainingSample.SIZE) {
+            buffer.compact();
+            while (buffer.position() < TrainingSample.SIZE && channel.read(buffer) >= 0) {
+                // Keep reading until a whole record is in or the file ends
+            }
+            buffer.flip();
+            if (buffer.remaining() < TrainingSample.SIZE) {
+                return null;
+            }
+        }
+        return TrainingSample.readFrom(buffer);
+    }
+
+    /**
+     * Adds every remaining record to a tuning corpus
+     *
+     * @param corpus where the positions and results go
+     * @return how many records were added
+     * @throws IOException if the file cannot be read or holds a corrupt record
+     */
+    public long readInto(TuningCorpus corpus) throws IOException {
+        long added = 0;
+        for (TrainingSample sample = next(); sample != null; sample = next()) {
+            corpus.add(sample.board(), sample.result());
+            added++;
+        }
+        return added;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,92 @@
+package chess.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends {@link TrainingSample} records to a file.
+ * <p>
+ * Records are packed into a large direct buffer and only reach the channel when it fills, so the
+ * file is written in big sequential chunks however small each game is. Games from several threads
+ * may be written at once; each game's records stay together.
+ */
+public class TrainingDataWriter implements Closeable {
+    // 32768 records, 1 MB
+    private static final int BUFFER_RECORDS = 1 << 15;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_RECORDS * TrainingSample.SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    private long written;
+
+    private TrainingDataWriter(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a file for appending, creating it if needed
+     *
+     * @param path the file to add records to
+     * @return the writer
+     * @throws IOException if the file cannot be opened
+     */
+    public static TrainingDataWriter open(Path path) throws IOException {
+        return new TrainingDataWriter(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND));
+    }
+
+    /**
+     * Adds records to the buffer, writing it out whenever it fills
+     *
+     * @param samples the records to add
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void write(List<TrainingSample> samples) throws IOException {
+        for (TrainingSample sample : samples) {
+            if (buffer.remaining() < TrainingSample.SIZE) {
+                drain();
+            }
+            sample.writeTo(buffer);
+            written++;
+        }
+    }
+
+    /**
+     * @return how many records have been written, counting any still buffered
+     */
+    public synchronized long count() {
+        return written;
+    }
+
+    /**
+     * Writes out whatever is buffered
+     *
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized void flush() throws IOException {
+        drain();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            drain();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
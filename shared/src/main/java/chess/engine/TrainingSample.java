@@ -0,0 +1,115 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * One position from a self-play game, with what the engine thought of it and how the game ended.
+ * <p>
+ * On disk a sample is a fixed 32-byte little-endian record:
+ * <ul>
+ *     <li>bytes 0-7: occupancy, bit {@code (row-1)*8+(col-1)} set for each occupied square</li>
+ *     <li>bytes 8-23: a 4-bit code per occupied square in square order, two to a byte with the
+ *     first in the low nibble; the code is the piece type ordinal, plus 8 for black</li>
+ *     <li>byte 24: 1 if black is to move, otherwise 0</li>
+ *     <li>byte 25: the result for white, 0 for a loss, 1 for a draw and 2 for a win</li>
+ *     <li>bytes 26-27: the search score from white's side, in centipawns</li>
+ *     <li>bytes 28-29: the ply the position was reached at</li>
+ *     <li>bytes 30-31: unused, always 0</li>
+ * </ul>
+ * A position never holds more than 32 pieces, so the codes always fit.
+ *
+ * @param board  the position
+ * @param toMove the side to move
+ * @param score  the search score from white's side, in centipawns
+ * @param result the game's result for white: 1 for a win, 0.5 for a draw and 0 for a loss
+ * @param ply    how many plies into the game the position came up
+ */
+public record TrainingSample(ChessBoard board, ChessGame.TeamColor toMove, int score, double result, int ply) {
+    static final int SIZE = 32;
+    private static final int MAX_PIECES = 32;
+    private static final int BLACK_CODE = 8;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    public TrainingSample {
+        if (result != 0 && result != 0.5 && result != 1) {
+            throw new IllegalArgumentException("Result must be 0, 0.5 or 1");
+        }
+    }
+
+    /**
+     * Packs the sample into the next SIZE bytes of the buffer, which must be little-endian
+     */
+    void writeTo(ByteBuffer buffer) {
+        long occupancy = 0;
+        long lowCodes = 0;
+        long highCodes = 0;
+        int count = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square / 8 + 1, square % 8 + 1);
+            if (piece == null) {
+                continue;
+            }
+            if (count == MAX_PIECES) {
+                throw new IllegalArgumentException("More than " + MAX_PIECES + " pieces on the board");
+            }
+            occupancy |= 1L << square;
+            long code = piece.getPieceType().ordinal()
+                    + (piece.getTeamColor() == ChessGame.TeamColor.BLACK ? BLACK_CODE : 0);
+            if (count < 16) {
+                lowCodes |= code << (count * 4);
+            } else {
+                highCodes |= code << ((count - 16) * 4);
+            }
+            count++;
+        }
+        buffer.putLong(occupancy);
+        buffer.putLong(lowCodes);
+        buffer.putLong(highCodes);
+        buffer.put((byte) (toMove == ChessGame.TeamColor.BLACK ? 1 : 0));
+        buffer.put((byte) (result * 2));
+        buffer.putShort((short) Math.clamp(score, Short.MIN_VALUE, Short.MAX_VALUE));
+        buffer.putShort((short) Math.min(ply, Short.MAX_VALUE));
+        buffer.putShort((short) 0);
+    }
+
+    /**
+     * Unpacks the next SIZE bytes of the buffer, which must be little-endian
+     *
+     * @throws IOException if the bytes are not a valid record
+     */
+    static TrainingSample readFrom(ByteBuffer buffer) throws IOException {
+        long occupancy = buffer.getLong();
+        long lowCodes = buffer.getLong();
+        long highCodes = buffer.getLong();
+        int side = buffer.get();
+        int result = buffer.get();
+        int score = buffer.getShort();
+        int ply = buffer.getShort();
+        buffer.getShort();
+        if (Long.bitCount(occupancy) > MAX_PIECES || (side & ~1) != 0 || result < 0 || result > 2) {
+            throw new IOException("Corrupt training record");
+        }
+
+        ChessBoard board = new ChessBoard();
+        int count = 0;
+        for (long rest = occupancy; rest != 0; rest &= rest - 1) {
+            int square = Long.numberOfTrailingZeros(rest);
+            int code = (int) ((count < 16 ? lowCodes >>> (count * 4) : highCodes >>> ((count - 16) * 4)) & 0xF);
+            if ((code & 7) >= TYPES.length) {
+                throw new IOException("Corrupt training record: piece code " + code);
+            }
+            ChessGame.TeamColor color = code >= BLACK_CODE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            board.addPiece(new ChessPosition(square / 8 + 1, square % 8 + 1),
+                    ChessPiece.of(color, TYPES[code & 7]));
+            count++;
+        }
+        return new TrainingSample(board, side == 1 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE,
+                score, result / 2.0, ply);
+    }
+}
@@ -0,0 +1,72 @@
+package chess.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size hash table of previously searched positions.
+ * <p>
+ * Each slot is two longs: the full position key, and the packed entry
+ * (move in bits 0-15, score in bits 16-31, depth in bits 32-39, bound in bits 40-41).
+ * Primitive arrays keep the table out of the garbage collector's way.
+ */
+class TranspositionTable {
+    static final int EXACT = 1;
+    static final int LOWER_BOUND = 2;
+    static final int UPPER_BOUND = 3;
+
+    private static final int BYTES_PER_ENTRY = 16;
+
+    private final long[] keys;
+    private final long[] entries;
+    private final int mask;
+
+    TranspositionTable(int sizeMb) {
+        long slots = Math.max(1L, (long) sizeMb * 1024 * 1024 / BYTES_PER_ENTRY);
+        int size = Integer.highestOneBit((int) Math.min(slots, 1 << 30));
+        keys = new long[size];
+        entries = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * @return the packed entry for the key, or 0 if the position is not stored
+     */
+    long probe(long key) {
+        int index = (int) key & mask;
+        return keys[index] == key ? entries[index] : 0;
+    }
+
+    void store(long key, int move, int score, int depth, int bound) {
+        int index = (int) key & mask;
+        // Keep deeper results for the same position unless this one is exact
+        if (keys[index] == key && depth(entries[index]) > depth && bound != EXACT) {
+            return;
+        }
+        keys[index] = key;
+        entries[index] = (move & 0xFFFFL)
+                | ((long) (score & 0xFFFF) << 16)
+                | ((long) (depth & 0xFF) << 32)
+                | ((long) bound << 40);
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(entries, 0);
+    }
+
+    static int move(long entry) {
+        return (int) (entry & 0xFFFF);
+    }
+
+    static int score(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    static int depth(long entry) {
+        return (int) ((entry >>> 32) & 0xFF);
+    }
+
+    static int bound(long entry) {
+        return (int) ((entry >>> 40) & 0x3);
+    }
+}
@@ -0,0 +1,88 @@
+package chess.engine;
+
+import chess.ChessPiece;
+
+/**
+ * Tuned material and piece-square values, laid out like the ones in {@link chess.PieceSquareTables}:
+ * indexed by piece type ordinal, and tables written from white's side with row 8 first
+ *
+ * @param middlegameValues  material by piece type in the middlegame
+ * @param endgameValues     material by piece type in the endgame
+ * @param middlegameTables  square bonuses by piece type in the middlegame
+ * @param endgameTables     square bonuses by piece type in the endgame
+ * @param initialLoss       the corpus loss before tuning
+ * @param finalLoss         the corpus loss after tuning
+ */
+public record TunedTables(int[] middlegameValues, int[] endgameValues, int[][] middlegameTables,
+                          int[][] endgameTables, double initialLoss, double finalLoss) {
+
+    /**
+     * Splits each piece type's values into material, the average over the squares it can stand on,
+     * and what is left for each square
+     */
+    static TunedTables from(double[] parameters, double initialLoss, double finalLoss) {
+        int types = ChessPiece.PieceType.values().length;
+        int[] middlegameValues = new int[types];
+        int[] endgameValues = new int[types];
+        int[][] middlegameTables = new int[types][64];
+        int[][] endgameTables = new int[types][64];
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            int t = type.ordinal();
+            // Pawns never stand on the first or last row, and a king's material is the same for both sides
+            int firstSquare = type == ChessPiece.PieceType.PAWN ? 8 : 0;
+            int lastSquare = type == ChessPiece.PieceType.PAWN ? 56 : 64;
+            if (type != ChessPiece.PieceType.KING) {
+                middlegameValues[t] = average(parameters, t * 64, firstSquare, lastSquare);
+                endgameValues[t] = average(parameters, TuningCorpus.PIECE_SQUARE_PARAMETERS + t * 64,
+                        firstSquare, lastSquare);
+            }
+            for (int square = firstSquare; square < lastSquare; square++) {
+                int drawnIndex = (7 - square / 8) * 8 + square % 8;
+                middlegameTables[t][drawnIndex] = (int) Math.round(parameters[t * 64 + square])
+                        - middlegameValues[t];
+                endgameTables[t][drawnIndex] = (int) Math.round(
+                        parameters[TuningCorpus.PIECE_SQUARE_PARAMETERS + t * 64 + square]) - endgameValues[t];
+            }
+        }
+        return new TunedTables(middlegameValues, endgameValues, middlegameTables, endgameTables,
+                initialLoss, finalLoss);
+    }
+
+    /**
+     * @return the values as Java array initialisers, ready to paste over the ones in PieceSquareTables
+     */
+    public String format() {
+        StringBuilder text = new StringBuilder();
+        text.append("MIDDLEGAME_VALUES = ").append(row(middlegameValues, 0, middlegameValues.length)).append(";\n");
+        text.append("ENDGAME_VALUES = ").append(row(endgameValues, 0, endgameValues.length)).append(";\n");
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            appendTable(text, type + "_MIDDLEGAME", middlegameTables[type.ordinal()]);
+            appendTable(text, type + "_ENDGAME", endgameTables[type.ordinal()]);
+        }
+        return text.toString();
+    }
+
+    private static int average(double[] parameters, int offset, int firstSquare, int lastSquare) {
+        double total = 0;
+        for (int square = firstSquare; square < lastSquare; square++) {
+            total += parameters[offset + square];
+        }
+        return (int) Math.round(total / (lastSquare - firstSquare));
+    }
+
+    private static void appendTable(StringBuilder text, String name, int[] table) {
+        text.append(name).append(" = {\n");
+        for (int row = 0; row < 8; row++) {
+            String values = row(table, row * 8, row * 8 + 8);
+            text.append("        ").append(values, 1, values.length() - 1).append(row < 7 ? ",\n" : "};\n");
+        }
+    }
+
+    private static String row(int[] values, int from, int to) {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = from; i < to; i++) {
+            text.append(i > from ? ", " : "").append(values[i]);
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,150 @@
+package chess.engine;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+import java.util.Arrays;
+
+/**
+ * Labelled positions for tuning, held in a few primitive arrays so millions of them fit in memory
+ * and can be swept many times a second.
+ * <p>
+ * A position is kept as its pieces, each one a short holding the piece's parameter index and
+ * color, stored one position after another with an offset array marking where each starts. Next to
+ * them are the game phase, the game's result, and the part of the evaluation that tuning leaves
+ * alone, such as pawn structure. That comes to about 60 bytes a position.
+ */
+public class TuningCorpus {
+    /** One parameter per piece type and square, from white's side, for each of middlegame and endgame */
+    static final int PIECE_SQUARE_PARAMETERS = 6 * 64;
+
+    private final TaperedEvaluator evaluator = new TaperedEvaluator();
+    private int size;
+    private int[] offsets = new int[1025];
+    private short[] pieces = new short[32 * 1024];
+    private byte[] phases = new byte[1024];
+    private byte[] results = new byte[1024];
+    private short[] fixedScores = new short[1024];
+
+    /**
+     * Adds a position
+     *
+     * @param board  the position; only read
+     * @param result the game's result for white: 1 for a win, 0.5 for a draw and 0 for a loss
+     */
+    public void add(ChessBoard board, double result) {
+        if (result != 0 && result != 0.5 && result != 1) {
+            throw new IllegalArgumentException("Result must be 0, 0.5 or 1");
+        }
+        if (size == phases.length) {
+            grow();
+        }
+        int end = offsets[size];
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(square / 8 + 1, square % 8 + 1);
+            if (piece == null) {
+                continue;
+            }
+            if (end == pieces.length) {
+                pieces = Arrays.copyOf(pieces, pieces.length * 2);
+            }
+            pieces[end++] = encode(piece, square);
+        }
+        offsets[size + 1] = end;
+
+        int phase = Math.min(board.getGamePhase(), PieceSquareTables.MAX_PHASE);
+        phases[size] = (byte) phase;
+        results[size] = (byte) (result * 2);
+        // Whatever the board's running sums do not cover is kept as it is
+        int tunable = taper(board.getMiddlegameScore(), board.getEndgameScore(), phase);
+        int fixed = evaluator.evaluate(board, ChessGame.TeamColor.WHITE) - tunable;
+        fixedScores[size] = (short) Math.clamp(fixed, Short.MIN_VALUE, Short.MAX_VALUE);
+        size++;
+    }
+
+    /**
+     * @return how many positions have been added
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The parameters the evaluator uses now: material plus square bonus for each piece type and
+     * square from white's side, all middlegame values and then all endgame values
+     */
+    static double[] currentParameters() {
+        double[] parameters = new double[2 * PIECE_SQUARE_PARAMETERS];
+        for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+            ChessPiece piece = new ChessPiece(ChessGame.TeamColor.WHITE, type);
+            for (int square = 0; square < 64; square++) {
+                int index = type.ordinal() * 64 + square;
+                parameters[index] = PieceSquareTables.middlegame(piece, square);
+                parameters[PIECE_SQUARE_PARAMETERS + index] = PieceSquareTables.endgame(piece, square);
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * The position's evaluation for white under the given parameters, before rounding
+     */
+    double evaluate(int position, double[] parameters) {
+        double middlegame = 0;
+        double endgame = 0;
+        for (int i = offsets[position]; i < offsets[position + 1]; i++) {
+            int piece = pieces[i];
+            int index = piece >> 1;
+            double sign = (piece & 1) == 0 ? 1 : -1;
+            middlegame += sign * parameters[index];
+            endgame += sign * parameters[PIECE_SQUARE_PARAMETERS + index];
+        }
+        int phase = phases[position];
+        return (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE
+                + fixedScores[position];
+    }
+
+    /**
+     * Adds scale times the position's derivative by each parameter into gradient
+     */
+    void accumulateGradient(int position, double scale, double[] gradient) {
+        int phase = phases[position];
+        double middlegameWeight = scale * phase / PieceSquareTables.MAX_PHASE;
+        double endgameWeight = scale * (PieceSquareTables.MAX_PHASE - phase) / PieceSquareTables.MAX_PHASE;
+        for (int i = offsets[position]; i < offsets[position + 1]; i++) {
+            int piece = pieces[i];
+            int index = piece >> 1;
+            double sign = (piece & 1) == 0 ? 1 : -1;
+            gradient[index] += sign * middlegameWeight;
+            gradient[PIECE_SQUARE_PARAMETERS + index] += sign * endgameWeight;
+        }
+    }
+
+    /**
+     * @return the game's result for white, 0, 0.5 or 1
+     */
+    double result(int position) {
+        return results[position] / 2.0;
+    }
+
+    private static short encode(ChessPiece piece, int square) {
+        boolean white = piece.getTeamColor() == ChessGame.TeamColor.WHITE;
+        // Black pieces use the square white would see them on
+        int index = piece.getPieceType().ordinal() * 64 + (white ? square : square ^ 56);
+        return (short) (index << 1 | (white ? 0 : 1));
+    }
+
+    private static int taper(int middlegame, int endgame, int phase) {
+        return (middlegame * phase + endgame * (PieceSquareTables.MAX_PHASE - phase)) / PieceSquareTables.MAX_PHASE;
+    }
+
+    private void grow() {
+        int capacity = phases.length * 2;
+        offsets = Arrays.copyOf(offsets, capacity + 1);
+        phases = Arrays.copyOf(phases, capacity);
+        results = Arrays.copyOf(results, capacity);
+        fixedScores = Arrays.copyOf(fixedScores, capacity);
+    }
+}
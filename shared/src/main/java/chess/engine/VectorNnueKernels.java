@@ -0,0 +1,71 @@
+package chess.engine;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The network's inner loops with the Vector API. Only loaded through {@link NnueKernels#best()}
+ * once the module is known to be present. Lengths that are not a multiple of the vector size
+ * finish with a plain loop.
+ */
+final class VectorNnueKernels implements NnueKernels {
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+    // Eight bytes widen to eight ints, so the multiply-add runs on 256-bit int vectors
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_64;
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_256;
+
+    /**
+     * @return whether the hardware has vectors as wide as these kernels use; narrower ones would
+     * emulate them more slowly than the plain loops run
+     */
+    static boolean isNative() {
+        return IntVector.SPECIES_PREFERRED.vectorBitSize() >= INTS.vectorBitSize();
+    }
+
+    @Override
+    public void add(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .add(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    @Override
+    public void subtract(short[] accumulator, short[] weights, int offset) {
+        int i = 0;
+        for (int bound = SHORTS.loopBound(accumulator.length); i < bound; i += SHORTS.length()) {
+            ShortVector.fromArray(SHORTS, accumulator, i)
+                    .sub(ShortVector.fromArray(SHORTS, weights, offset + i))
+                    .intoArray(accumulator, i);
+        }
+        for (; i < accumulator.length; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    @Override
+    public int dot(byte[] input, byte[] weights, int offset, int length) {
+        IntVector sums = IntVector.zero(INTS);
+        int i = 0;
+        for (int bound = BYTES.loopBound(length); i < bound; i += BYTES.length()) {
+            IntVector in = (IntVector) ByteVector.fromArray(BYTES, input, i)
+                    .convertShape(VectorOperators.B2I, INTS, 0);
+            IntVector weight = (IntVector) ByteVector.fromArray(BYTES, weights, offset + i)
+                    .convertShape(VectorOperators.B2I, INTS, 0);
+            sums = sums.add(in.mul(weight));
+        }
+        int sum = sums.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += input[i] * weights[offset + i];
+        }
+        return sum;
+    }
+}
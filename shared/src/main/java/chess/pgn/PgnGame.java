@@ -0,0 +1,26 @@
+package chess.pgn;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * One game read from a PGN file
+ *
+ * @param tags   the tag pairs, in the order they appeared
+ * @param game   the game replayed from its moves; if a move could not be played, the position
+ *               before it, and null if the starting position could not be read
+ * @param result the game termination marker, such as {@code 1-0} or {@code *}, or the Result tag
+ *               if the movetext had none
+ * @param error  why the game could not be fully read, or null if it was
+ * @param line   the line of the file the game started on, counting from 1
+ */
+public record PgnGame(Map<String, String> tags, ChessGame game, String result, String error, long line) {
+
+    /**
+     * @return whether every move was read and played
+     */
+    public boolean valid() {
+        return error == null;
+    }
+}
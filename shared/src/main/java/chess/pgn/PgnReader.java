@@ -0,0 +1,305 @@
+package chess.pgn;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads games from PGN text one at a time, so files of any size can be read in constant memory.
+ * <p>
+ * Each game's tags and moves are read first, then the moves are played on a {@link chess.ChessGame}
+ * from the start position, or from the FEN tag if there is one. {@link #nextRecord()} stops before
+ * playing them, so a caller can play many games at once on other threads. Comments, variations,
+ * NAGs, move numbers and escape lines are skipped. A game that cannot be read does not stop the
+ * rest: it comes back with an error and the reader carries on from the next game, found by its
+ * termination marker or the next tag section.
+ */
+public class PgnReader implements Iterator<PgnGame>, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder text = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private boolean lineStart = true;
+    private PgnRecord next;
+    private boolean finished;
+
+    /**
+     * @param in PGN text in UTF-8; read through a buffer, so it need not be buffered itself
+     */
+    public PgnReader(InputStream in) {
+        this.in = new InputStreamReader(in, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the games lazily as a stream. Closing the stream closes the input.
+     *
+     * @param in PGN text in UTF-8
+     * @return the games, in file order
+     */
+    public static Stream<PgnGame> stream(InputStream in) {
+        PgnReader reader = new PgnReader(in);
+        Spliterator<PgnGame> games = Spliterators.spliteratorUnknownSize(reader,
+                Spliterator.ORDERED | Spliterator.NONNULL);
+        return StreamSupport.stream(games, false).onClose(() -> {
+            try {
+                reader.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    /**
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            try {
+                next = readRecord();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            finished = next == null;
+        }
+        return next != null;
+    }
+
+    /**
+     * @throws UncheckedIOException if the input cannot be read
+     */
+    @Override
+    public PgnGame next() {
+        return nextRecord().replay();
+    }
+
+    /**
+     * Reads the next game's tags and moves without playing them
+     *
+     * @return the game's text
+     * @throws NoSuchElementException if there are no more games
+     * @throws UncheckedIOException   if the input cannot be read
+     */
+    public PgnRecord nextRecord() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        PgnRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * @return the next game, or null at the end of the input
+     */
+    private PgnRecord readRecord() throws IOException {
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        String result = null;
+        String error = null;
+        long startLine = -1;
+        boolean inMovetext = false;
+
+        for (int c = skipWhitespace(); c >= 0 && result == null; c = skipWhitespace()) {
+            if (c == '%' && lineStart) {
+                skipLine();
+                continue;
+            }
+            if (startLine < 0) {
+                startLine = line;
+            }
+            if (c == '[') {
+                if (inMovetext) {
+                    // The next game's tags, so this one ended without a termination marker
+                    break;
+                }
+                read();
+                if (!readTag(tags) && error == null) {
+                    error = "Bad tag on line " + line;
+                }
+            } else {
+                inMovetext = true;
+                read();
+                switch (c) {
+                    case '{' -> skipPast('}');
+                    case ';' -> skipLine();
+                    case '(' -> skipVariation();
+                    case ')' -> {
+                        // A variation that was never opened; nothing to skip
+                    }
+                    case '$' -> readToken();
+                    default -> {
+                        String token = readToken((char) c);
+                        if (isResult(token)) {
+                            result = token;
+                        } else {
+                            String san = stripMoveNumber(token);
+                            if (!san.isEmpty()) {
+                                moves.add(san);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (startLine < 0) {
+            return null;
+        }
+        if (result == null) {
+            result = tags.getOrDefault("Result", "*");
+        }
+        return new PgnRecord(tags, moves, result, error, startLine);
+    }
+
+    /**
+     * Reads the rest of a tag pair after its '['
+     *
+     * @return false if the tag was malformed; the rest of its line is skipped
+     */
+    private boolean readTag(Map<String, String> tags) throws IOException {
+        skipSpaces();
+        text.setLength(0);
+        for (int c = peek(); c >= 0 && (Character.isLetterOrDigit(c) || c == '_'); c = peek()) {
+            text.append((char) read());
+        }
+        String name = text.toString();
+        skipSpaces();
+        if (name.isEmpty() || peek() != '"') {
+            skipLine();
+            return false;
+        }
+        read();
+        text.setLength(0);
+        for (int c = read(); c != '"'; c = read()) {
+            if (c < 0 || c == '\n') {
+                return false;
+            }
+            text.append((char) (c == '\\' && (peek() == '"' || peek() == '\\') ? read() : c));
+        }
+        skipSpaces();
+        if (peek() != ']') {
+            skipLine();
+            return false;
+        }
+        read();
+        tags.put(name, text.toString());
+        return true;
+    }
+
+    private static boolean isResult(String token) {
+        return token.equals("1-0") || token.equals("0-1") || token.equals("1/2-1/2") || token.equals("*");
+    }
+
+    /**
+     * Removes a leading move number such as {@code 12.} or {@code 12...}
+     */
+    private static String stripMoveNumber(String token) {
+        int i = 0;
+        while (i < token.length() && Character.isDigit(token.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i == token.length() || token.charAt(i) != '.') {
+            return i == token.length() ? "" : token;
+        }
+        while (i < token.length() && token.charAt(i) == '.') {
+            i++;
+        }
+        return token.substring(i);
+    }
+
+    private String readToken() throws IOException {
+        text.setLength(0);
+        return finishToken();
+    }
+
+    private String readToken(char first) throws IOException {
+        text.setLength(0);
+        text.append(first);
+        return finishToken();
+    }
+
+    private String finishToken() throws IOException {
+        for (int c = peek(); c >= 0 && !Character.isWhitespace(c) && "{}()[];".indexOf(c) < 0; c = peek()) {
+            text.append((char) read());
+        }
+        return text.toString();
+    }
+
+    private void skipVariation() throws IOException {
+        int depth = 1;
+        while (depth > 0) {
+            int c = read();
+            switch (c) {
+                case -1 -> depth = 0;
+                case '(' -> depth++;
+                case ')' -> depth--;
+                case '{' -> skipPast('}');
+                case ';' -> skipLine();
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void skipPast(char end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+            // Comments may hold anything, including brackets
+        }
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = read(); c >= 0 && c != '\n'; c = read()) {
+            // Up to and including the line break
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c = peek();
+        while (c >= 0 && Character.isWhitespace(c)) {
+            read();
+            c = peek();
+        }
+        return c;
+    }
+
+    private void skipSpaces() throws IOException {
+        while (peek() == ' ' || peek() == '\t') {
+            read();
+        }
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position];
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c >= 0) {
+            position++;
+            if (c == '\n') {
+                line++;
+            }
+            lineStart = c == '\n';
+        }
+        return c;
+    }
+}
@@ -0,0 +1,44 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One game's text as read from a PGN file, before its moves are played
+ *
+ * @param tags   the tag pairs, in the order they appeared
+ * @param moves  the moves of the main line, in Standard Algebraic Notation
+ * @param result the game termination marker, or the Result tag if the movetext had none
+ * @param error  why the text could not be read, or null if it was
+ * @param line   the line of the file the game started on, counting from 1
+ */
+public record PgnRecord(Map<String, String> tags, List<String> moves, String result, String error, long line) {
+
+    /**
+     * Plays the moves from the start position, or from the FEN tag if there is one. Records share
+     * nothing, so different records can be replayed on different threads.
+     *
+     * @return the game, with an error if a move could not be played
+     */
+    public PgnGame replay() {
+        ChessGame game;
+        try {
+            game = tags.containsKey("FEN") ? ChessGame.fromFen(tags.get("FEN")) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            return new PgnGame(tags, null, result, error != null ? error : e.getMessage(), line);
+        }
+        for (String san : moves) {
+            try {
+                game.makeSanMove(san);
+            } catch (InvalidMoveException e) {
+                String dots = game.getTeamTurn() == ChessGame.TeamColor.WHITE ? "." : "...";
+                return new PgnGame(tags, game, result, error != null ? error
+                        : game.getFullmoveNumber() + dots + san + ": " + e.getMessage(), line);
+            }
+        }
+        return new PgnGame(tags, game, result, error, line);
+    }
+}
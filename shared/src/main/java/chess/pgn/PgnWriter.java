@@ -0,0 +1,143 @@
+package chess.pgn;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes games as PGN text one at a time, so any number of games can be written in constant memory.
+ * <p>
+ * A game is written from its move history, played from the start position or from the position in
+ * its FEN tag. A game whose history does not lead to its current position, such as one whose board
+ * was set directly, is written as that position with no moves. Movetext lines are kept under 80
+ * characters.
+ */
+public class PgnWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_LENGTH = 79;
+
+    private final Writer out;
+    private final StringBuilder line = new StringBuilder(LINE_LENGTH + 16);
+
+    /**
+     * @param out where the text goes, in UTF-8; written through a buffer, so it need not be buffered itself
+     */
+    public PgnWriter(OutputStream out) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Writes one game followed by a blank line
+     *
+     * @param tags the tag pairs, in the order to write them; a Result tag is added from the final
+     *             position if there is none, and a FEN tag if the moves cannot be played
+     * @param game the game
+     */
+    public void write(Map<String, String> tags, ChessGame game) throws IOException {
+        Map<String, String> written = new LinkedHashMap<>(tags);
+        List<String> moves = sanMoves(tags.get("FEN"), game);
+        ChessGame start = null;
+        if (moves == null) {
+            moves = List.of();
+            written.put("SetUp", "1");
+            written.put("FEN", game.toFen());
+        } else if (tags.containsKey("FEN")) {
+            start = ChessGame.fromFen(tags.get("FEN"));
+        }
+        String result = written.computeIfAbsent("Result", name -> result(game));
+
+        for (Map.Entry<String, String> tag : written.entrySet()) {
+            out.write('[');
+            out.write(tag.getKey());
+            out.write(" \"");
+            out.write(tag.getValue().replace("\\", "\\\\").replace("\"", "\\\""));
+            out.write("\"]\n");
+        }
+        out.write('\n');
+
+        int moveNumber = start == null ? 1 : start.getFullmoveNumber();
+        boolean white = start == null || start.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        line.setLength(0);
+        if (!white && !moves.isEmpty()) {
+            appendToken(moveNumber + "...");
+        }
+        for (String san : moves) {
+            if (white) {
+                appendToken(moveNumber + ".");
+            } else {
+                moveNumber++;
+            }
+            appendToken(san);
+            white = !white;
+        }
+        appendToken(result);
+        out.write(line.toString());
+        out.write("\n\n");
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void appendToken(String token) throws IOException {
+        if (!line.isEmpty() && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.write(line.toString());
+            out.write('\n');
+            line.setLength(0);
+        }
+        if (!line.isEmpty()) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+
+    /**
+     * @return the game's moves in Standard Algebraic Notation, or null if they do not lead from the
+     * start position to the game's current one
+     */
+    private static List<String> sanMoves(String fen, ChessGame game) {
+        ChessGame replay;
+        try {
+            replay = fen != null ? ChessGame.fromFen(fen) : new ChessGame();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        List<ChessMove> history = game.getMoveHistory();
+        String[] moves = new String[history.size()];
+        try {
+            for (int i = 0; i < moves.length; i++) {
+                moves[i] = history.get(i).toSan(replay);
+                // Reading the text back shows it names the same move
+                if (!replay.makeSanMove(moves[i]).equals(history.get(i))) {
+                    return null;
+                }
+            }
+        } catch (IllegalArgumentException | InvalidMoveException e) {
+            return null;
+        }
+        if (!replay.getBoard().equals(game.getBoard()) || replay.getTeamTurn() != game.getTeamTurn()) {
+            return null;
+        }
+        return List.of(moves);
+    }
+
+    private static String result(ChessGame game) {
+        ChessGame.TeamColor toMove = game.getTeamTurn();
+        if (game.isInCheckmate(toMove)) {
+            return toMove == ChessGame.TeamColor.WHITE ? "0-1" : "1-0";
+        }
+        return game.isInStalemate(toMove) ? "1/2-1/2" : "*";
+    }
+}
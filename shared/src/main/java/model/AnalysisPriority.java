@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * How urgently an analysis is wanted. The server works through waiting analyses in this order.
+ */
+public enum AnalysisPriority {
+    /** A player is waiting on the answer during a game */
+    LIVE,
+    /** Someone is looking back over a position */
+    REVIEW,
+    /** Background work over many positions */
+    BULK
+}
@@ -0,0 +1,13 @@
+package model;
+
+/**
+ * A position to analyze, given either as FEN or as a stored game's current position
+ *
+ * @param fen      the position, or null to use the game
+ * @param gameID   the game, or null to use the FEN
+ * @param lines    how many moves to return, or null for the default
+ * @param depth    how many plies deep to search, or null for the default
+ * @param priority how urgently the answer is wanted, or null for REVIEW
+ */
+public record AnalysisRequest(String fen, Integer gameID, Integer lines, Integer depth, AnalysisPriority priority) {
+}
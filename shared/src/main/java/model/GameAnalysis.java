@@ -0,0 +1,16 @@
+package model;
+
+import java.util.List;
+
+/**
+ * The engine's review of a stored game
+ *
+ * @param gameID        the game
+ * @param depth         how many plies deep each position was searched
+ * @param whiteAccuracy white's average move accuracy, or null if white has not moved
+ * @param blackAccuracy black's average move accuracy, or null if black has not moved
+ * @param plies         every move of the game, in order
+ */
+public record GameAnalysis(int gameID, int depth, Double whiteAccuracy, Double blackAccuracy,
+                           List<PlyAnalysis> plies) {
+}
@@ -1,6 +1,127 @@
 package model;
 
 import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 
-public record GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
-}
\ No newline at end of file
+import java.io.IOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * A game with its players. Behaves like a record of its five fields, but the chess game may be
+ * decoded only when {@link #game()} is first called, so reading many games to show their names
+ * does not build every board.
+ */
+@JsonAdapter(GameData.JsonForm.class)
+public final class GameData {
+    private final int gameID;
+    private final String whiteUsername;
+    private final String blackUsername;
+    private final String gameName;
+    private ChessGame game;
+    // Builds the game on first use; null once it has, or if the game was given
+    private transient volatile Supplier<ChessGame> loader;
+
+    public GameData(int gameID, String whiteUsername, String blackUsername, String gameName, ChessGame game) {
+        this.gameID = gameID;
+        this.whiteUsername = whiteUsername;
+        this.blackUsername = blackUsername;
+        this.gameName = gameName;
+        this.game = game;
+    }
+
+    /**
+     * A game whose chess game is built when it is first asked for
+     *
+     * @param loader builds the game, at most once; any exception it throws is thrown by {@link #game()}
+     */
+    public static GameData lazy(int gameID, String whiteUsername, String blackUsername, String gameName,
+                                Supplier<ChessGame> loader) {
+        GameData data = new GameData(gameID, whiteUsername, blackUsername, gameName, null);
+        data.loader = loader;
+        return data;
+    }
+
+    public int gameID() {
+        return gameID;
+    }
+
+    public String whiteUsername() {
+        return whiteUsername;
+    }
+
+    public String blackUsername() {
+        return blackUsername;
+    }
+
+    public String gameName() {
+        return gameName;
+    }
+
+    public ChessGame game() {
+        if (loader != null) {
+            synchronized (this) {
+                if (loader != null) {
+                    game = loader.get();
+                    loader = null;
+                }
+            }
+        }
+        return game;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GameData other)) {
+            return false;
+        }
+        return gameID == other.gameID && Objects.equals(whiteUsername, other.whiteUsername)
+                && Objects.equals(blackUsername, other.blackUsername) && Objects.equals(gameName, other.gameName)
+                && Objects.equals(game(), other.game());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(gameID, whiteUsername, blackUsername, gameName, game());
+    }
+
+    @Override
+    public String toString() {
+        return "GameData[gameID=" + gameID + ", whiteUsername=" + whiteUsername + ", blackUsername="
+                + blackUsername + ", gameName=" + gameName + ", game=" + game() + "]";
+    }
+
+    /**
+     * Writes and reads the fields by reflection, building a lazy game first so it is written
+     */
+    static final class JsonForm implements TypeAdapterFactory {
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            TypeAdapter<GameData> fields = gson.getDelegateAdapter(this, TypeToken.get(GameData.class));
+            return (TypeAdapter<T>) new TypeAdapter<GameData>() {
+                @Override
+                public void write(JsonWriter out, GameData data) throws IOException {
+                    if (data != null) {
+                        data.game();
+                    }
+                    fields.write(out, data);
+                }
+
+                @Override
+                public GameData read(JsonReader in) throws IOException {
+                    return fields.read(in);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package model;
+
+/**
+ * The engine's view of one move of a stored game
+ *
+ * @param ply      which move of the game, counting both sides' moves from 1
+ * @param eval     the position after the move in centipawns from white's point of view
+ * @param accuracy how close to best the move was, 0-100
+ * @param blunder  whether the move threw away a large part of the mover's winning chances
+ */
+public record PlyAnalysis(int ply, int eval, double accuracy, boolean blunder) {
+}
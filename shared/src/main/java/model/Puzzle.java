@@ -0,0 +1,6 @@
+package model;
+
+import chess.ChessGame;
+
+public record Puzzle(ChessGame game, int mateIn) {
+}
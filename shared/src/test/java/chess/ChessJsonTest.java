@@ -0,0 +1,93 @@
+package chess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import model.GameData;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ChessJsonTest {
+    private static final Gson GSON = ChessJson.create();
+
+    private static ChessGame playedGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.fromUci("e2e4"));
+        game.makeMove(ChessMove.fromUci("d7d5"));
+        game.makeMove(ChessMove.fromUci("e4d5"));
+        game.makeMove(ChessMove.fromUci("g8f6"));
+        return game;
+    }
+
+    @Test
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = playedGame();
+        String json = GSON.toJson(game);
+
+        assertEquals("{\"fen\":\"rnbqkb1r/ppp1pppp/5n2/3P4/8/8/PPPP1PPP/RNBQKBNR w - - 1 3\","
+                + "\"moves\":[\"e2e4\",\"d7d5\",\"e4d5\",\"g8f6\"]}", json);
+        ChessGame read = GSON.fromJson(json, ChessGame.class);
+        assertEquals(game, read);
+        assertEquals(game.getMoveHistory(), read.getMoveHistory());
+        assertEquals(1, read.getHalfmoveClock());
+        assertEquals(3, read.getFullmoveNumber());
+        // The restored history keeps growing
+        read.makeMove(ChessMove.fromUci("d2d4"));
+        assertEquals(5, read.getMoveHistory().size());
+    }
+
+    @Test
+    @DisplayName("Reflective Form Still Read")
+    public void reflectiveFormStillRead() throws InvalidMoveException {
+        ChessGame game = playedGame();
+        String legacy = new Gson().toJson(game);
+
+        ChessGame read = GSON.fromJson(legacy, ChessGame.class);
+        assertEquals(game, read);
+        assertEquals(game.getMoveHistory(), read.getMoveHistory());
+        assertEquals(game.getBoard().getZobristKey(), read.getBoard().getZobristKey());
+        assertTrue(GSON.toJson(game).length() * 10 < legacy.length(), legacy.length() + " bytes");
+    }
+
+    @Test
+    @DisplayName("Moves And Boards")
+    public void movesAndBoards() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2),
+                ChessPiece.PieceType.KNIGHT);
+
+        assertEquals("\"a7b8n\"", GSON.toJson(promotion));
+        assertEquals(promotion, GSON.fromJson("\"a7b8n\"", ChessMove.class));
+        assertEquals(promotion, GSON.fromJson(new Gson().toJson(promotion), ChessMove.class));
+        assertEquals("\"rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR\"", GSON.toJson(new ChessGame().getBoard()));
+        assertThrows(JsonParseException.class, () -> GSON.fromJson("\"e2e9\"", ChessMove.class));
+        assertThrows(JsonParseException.class, () -> GSON.fromJson("\"8/8/8\"", ChessBoard.class));
+    }
+
+    @Test
+    @DisplayName("Game Inside Game Data")
+    public void gameInsideGameData() throws InvalidMoveException {
+        GameData data = new GameData(7, "white", null, "game", playedGame());
+
+        GameData read = GSON.fromJson(GSON.toJson(data), GameData.class);
+        assertEquals(data, read);
+        assertNull(GSON.fromJson(GSON.toJson(new GameData(8, null, null, "empty", null)), GameData.class).game());
+    }
+
+    @Test
+    @DisplayName("Lazy Game Built Once When Needed")
+    public void lazyGameBuiltOnceWhenNeeded() throws InvalidMoveException {
+        ChessGame game = playedGame();
+        int[] loads = {0};
+        GameData lazy = GameData.lazy(7, "white", null, "game", () -> {
+            loads[0]++;
+            return game;
+        });
+
+        assertEquals("game", lazy.gameName());
+        assertEquals(0, loads[0]);
+        assertEquals(new GameData(7, "white", null, "game", game), GSON.fromJson(GSON.toJson(lazy), GameData.class));
+        assertSame(game, lazy.game());
+        assertEquals(1, loads[0]);
+    }
+}
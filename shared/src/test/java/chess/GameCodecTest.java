@@ -0,0 +1,116 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameCodecTest {
+
+    @Test
+    @DisplayName("Game Round Trip")
+    public void gameRoundTrip() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : new String[]{"e2e4", "d7d5", "e4d5", "d8d5", "b1c3"}) {
+            game.makeMove(ChessMove.fromUci(move));
+        }
+        byte[] bytes = GameCodec.encode(game, true);
+
+        assertEquals(GameCodec.encodedSize(game, true), bytes.length);
+        assertEquals(37 + 2 * 5, bytes.length);
+        ChessGame decoded = GameCodec.decode(bytes);
+        assertEquals(game, decoded);
+        assertEquals(game.toFen(), decoded.toFen());
+        assertEquals(game.getMoveHistory(), decoded.getMoveHistory());
+    }
+
+    @Test
+    @DisplayName("Position Without Moves")
+    public void positionWithoutMoves() {
+        ChessGame game = ChessGame.fromFen("1Q2k3/8/8/8/8/8/8/4K2q b - - 131 200");
+        byte[] bytes = GameCodec.encode(game, false);
+
+        // Both clocks take two bytes, and there is no move count
+        assertEquals(38, bytes.length);
+        ChessGame decoded = GameCodec.decode(bytes);
+        assertEquals(game.toFen(), decoded.toFen());
+        assertTrue(decoded.getMoveHistory().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Games Share A Buffer")
+    public void gamesShareABuffer() {
+        ChessGame first = new ChessGame();
+        ChessGame second = ChessGame.fromFen("8/8/8/8/8/8/8/k6K b - - 0 1");
+        ByteBuffer buffer = ByteBuffer.allocate(128);
+        GameCodec.encode(first, true, buffer);
+        GameCodec.encode(second, false, buffer);
+        buffer.flip();
+
+        assertEquals(first, GameCodec.decode(buffer));
+        assertEquals(second, GameCodec.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    @DisplayName("Bad Bytes Rejected")
+    public void badBytesRejected() {
+        byte[] bytes = GameCodec.encode(new ChessGame(), true);
+        byte[] wrongVersion = bytes.clone();
+        wrongVersion[0] = 9;
+        byte[] badPiece = bytes.clone();
+        badPiece[2] = 0x7;
+
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(wrongVersion));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(badPiece));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[10]));
+        assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decode(Arrays.copyOf(bytes, bytes.length + 1)));
+    }
+
+    @Test
+    @DisplayName("Bad Move Rejected")
+    public void badMoveRejected() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.fromUci("e2e4"));
+        byte[] bytes = GameCodec.encode(game, true);
+        // e2e4 is the last two bytes; the same squares with promotion code 7, then with a promotion to a pawn
+        int e2e4 = ChessMove.fromUci("e2e4").toCompact();
+        for (int promotion : new int[]{7, ChessPiece.PieceType.PAWN.ordinal() + 1}) {
+            int bad = e2e4 | promotion << 12;
+            byte[] corrupt = Arrays.copyOf(bytes, bytes.length + 1);
+            corrupt[bytes.length - 2] = (byte) (bad & 0x7F | 0x80);
+            corrupt[bytes.length - 1] = (byte) (bad >>> 7 & 0x7F | 0x80);
+            corrupt[bytes.length] = (byte) (bad >>> 14);
+            assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(corrupt));
+        }
+        assertEquals(game.getMoveHistory(), GameCodec.decode(bytes).getMoveHistory());
+    }
+
+    @Test
+    @DisplayName("Compact Moves Replay")
+    public void compactMovesReplay() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String uci : new String[]{"g1f3", "d7d5", "b1c3", "c8g4", "e2e4", "d5e4", "f1b5", "c7c6", "a2a3"}) {
+            game.makeMove(ChessMove.fromUci(uci));
+        }
+
+        ChessGame replay = new ChessGame();
+        for (ChessMove move : game.getMoveHistory()) {
+            assertEquals(move, replay.makeCompactMove(move.toCompact()));
+        }
+        assertEquals(game, replay);
+        assertEquals(game.getMoveHistory(), replay.getMoveHistory());
+        assertEquals(game.toFen(), replay.toFen());
+
+        // Not black's piece, not a knight's move, a pawn capturing nothing, and a pinned pawn
+        assertThrows(InvalidMoveException.class, () -> replay.makeCompactMove(ChessMove.fromUci("c3d5").toCompact()));
+        assertThrows(InvalidMoveException.class, () -> replay.makeCompactMove(ChessMove.fromUci("g8g6").toCompact()));
+        assertThrows(InvalidMoveException.class, () -> replay.makeCompactMove(ChessMove.fromUci("a7b6").toCompact()));
+        assertThrows(InvalidMoveException.class, () -> replay.makeCompactMove(ChessMove.fromUci("c6c5").toCompact()));
+        assertThrows(InvalidMoveException.class, () -> replay.makeCompactMove(0x7000));
+        assertEquals(game, replay);
+    }
+}
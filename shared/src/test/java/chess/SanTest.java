@@ -0,0 +1,110 @@
+package chess;
+
+import org.junit.jupiter.api.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SanTest {
+
+    private static String san(String fen, String uci) {
+        return ChessMove.fromUci(uci).toSan(ChessGame.fromFen(fen));
+    }
+
+    @Test
+    @DisplayName("Disambiguation")
+    public void disambiguation() throws InvalidMoveException {
+        assertEquals("Nbd2", san("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1", "b1d2"));
+        assertEquals("R1a3", san("4k3/8/8/R7/8/8/8/R6K w - - 0 1", "a1a3"));
+        assertEquals("Qa1b2", san("4k3/8/8/8/8/Q7/8/Q1Q4K w - - 0 1", "a1b2"));
+        // A pinned knight cannot go to d4, so the other one needs no disambiguation
+        String pinned = "4r2k/8/8/1N6/8/8/4N3/4K3 w - - 0 1";
+        assertEquals("Nd4", san(pinned, "b5d4"));
+        assertEquals(ChessMove.fromUci("b5d4"), ChessGame.fromFen(pinned).parseSan("Nd4"));
+        assertEquals(ChessMove.fromUci("a1b2"),
+                ChessGame.fromFen("4k3/8/8/8/8/Q7/8/Q1Q4K w - - 0 1").parseSan("Qa1b2"));
+    }
+
+    @Test
+    @DisplayName("Captures, Promotions And Checks")
+    public void capturesPromotionsAndChecks() throws InvalidMoveException {
+        String promotion = "k7/4P3/1K6/8/8/8/8/8 w - - 0 1";
+        assertEquals("e8=Q#", san(promotion, "e7e8q"));
+        assertEquals("e8=N", san(promotion, "e7e8n"));
+        assertEquals("Ra8+", san("4k3/8/8/8/8/8/8/R3K3 w - - 0 1", "a1a8"));
+        assertEquals("Rxa8+", san("r3k3/8/8/8/8/8/8/R6K w - - 0 1", "a1a8"));
+
+        ChessGame game = ChessGame.fromFen(promotion);
+        assertEquals(ChessMove.fromUci("e7e8q"), game.parseSan("e8=Q#"));
+        assertEquals(ChessMove.fromUci("e7e8r"), game.parseSan("e8R"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("e8"));
+
+        ChessGame opening = new ChessGame();
+        opening.makeMove(opening.parseSan("e4"));
+        opening.makeMove(opening.parseSan("d5"));
+        assertEquals("exd5", ChessMove.fromUci("e4d5").toSan(opening));
+        assertEquals(ChessMove.fromUci("e4d5"), opening.parseSan("exd5"));
+        // Pawns only capture when the file is given
+        assertThrows(InvalidMoveException.class, () -> opening.parseSan("d5"));
+    }
+
+    @Test
+    @DisplayName("Long Algebraic And UCI")
+    public void longAlgebraicAndUci() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessMove.fromUci("g1f3"), game.parseSan("Ng1-f3"));
+        assertEquals(ChessMove.fromUci("e2e4"), game.parseSan("e2e4"));
+        assertEquals(ChessMove.fromUci("e2e4"), game.parseSan("e2-e4"));
+        assertEquals(ChessMove.fromUci("e7e8q"), ChessGame.fromFen("k7/4P3/1K6/8/8/8/8/8 w - - 0 1").parseSan("e7e8q"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("e2e5"));
+    }
+
+    @Test
+    @DisplayName("UCI Piece Moves")
+    public void uciPieceMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        assertEquals(ChessMove.fromUci("g1f3"), game.parseSan("g1f3"));
+        assertEquals(ChessMove.fromUci("b1c3"), game.parseSan("b1-c3"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("d1h5"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("g8f6"));
+
+        game.makeSanMove("e2e4");
+        game.makeSanMove("e7e5");
+        assertEquals(ChessMove.fromUci("d1h5"), game.parseSan("d1h5"));
+        assertEquals(ChessMove.fromUci("e1e2"), game.parseSan("e1e2"));
+        assertEquals(ChessMove.fromUci("f1c4"), game.makeSanMove("f1c4"));
+        assertEquals(ChessMove.fromUci("g8f6"), game.parseSan("g8f6"));
+    }
+
+    @Test
+    @DisplayName("Every Legal Move Round Trips")
+    public void everyLegalMoveRoundTrips() throws InvalidMoveException {
+        Random random = new Random(46);
+        for (int g = 0; g < 20; g++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 120; ply++) {
+                List<ChessMove> moves = new ArrayList<>();
+                for (int row = 1; row <= 8; row++) {
+                    for (int col = 1; col <= 8; col++) {
+                        ChessPiece piece = game.getBoard().getPiece(row, col);
+                        if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                            moves.addAll(game.validMoves(new ChessPosition(row, col)));
+                        }
+                    }
+                }
+                if (moves.isEmpty()) {
+                    break;
+                }
+                Set<String> seen = new HashSet<>();
+                for (ChessMove move : moves) {
+                    String san = move.toSan(game);
+                    assertTrue(seen.add(san), san + " written twice in " + game.toFen());
+                    assertEquals(move, game.parseSan(san), san + " in " + game.toFen());
+                    assertEquals(move, game.parseSan(move.toUci()), move.toUci() + " in " + game.toFen());
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArenaTest {
+
+    private static final ArenaPlayer TAPERED = new ArenaPlayer("tapered",
+            EngineOptions.defaults().withHashSizeMb(1), TaperedEvaluator::new);
+    private static final ArenaPlayer MATERIAL = new ArenaPlayer("material",
+            EngineOptions.defaults().withHashSizeMb(1), MaterialEvaluator::new);
+    // Sees nothing, so it plays whatever move it happens to search first
+    private static final ArenaPlayer BLIND = new ArenaPlayer("blind",
+            EngineOptions.defaults().withHashSizeMb(1), () -> (board, team) -> 0);
+
+    private static ArenaSettings fastSettings() {
+        return ArenaSettings.defaults().withMoveLimits(SearchLimits.nodes(500)).withThreads(2);
+    }
+
+    @Test
+    @DisplayName("Plays Every Pair")
+    public void playsEveryPair() {
+        ArenaResult result = new Arena(TAPERED, MATERIAL, fastSettings().withGamePairs(3)).run();
+
+        assertEquals(6, result.games());
+        assertEquals(Sprt.Decision.CONTINUE, result.decision());
+        assertTrue(result.gamesPerSecond() > 0);
+        assertTrue(result.eloError() > 0);
+    }
+
+    @Test
+    @DisplayName("SPRT Stops Lopsided Match")
+    public void sprtStopsLopsidedMatch() {
+        Sprt sprt = new Sprt(0, 50, 0.05, 0.05);
+        ArenaResult result = new Arena(TAPERED, BLIND, fastSettings().withGamePairs(200).withSprt(sprt)).run();
+
+        assertEquals(Sprt.Decision.ACCEPT_H1, result.decision());
+        assertTrue(result.games() < 400, "played " + result.games());
+        assertTrue(result.llr() >= sprt.upperBound());
+        assertTrue(result.eloDifference() > 0);
+    }
+
+    @Test
+    @DisplayName("Game Ends In Mate")
+    public void gameEndsInMate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """));
+        Arena arena = new Arena(TAPERED, BLIND, fastSettings());
+
+        assertEquals(Arena.Outcome.WHITE_WINS, arena.playGame(game, TAPERED.newEngine(), BLIND.newEngine()));
+    }
+
+    @Test
+    @DisplayName("Bare Kings Are Drawn")
+    public void bareKingsAreDrawn() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |N| |
+                | | | | | | |K| |
+                """);
+
+        assertTrue(Arena.insufficientMaterial(board));
+        assertFalse(Arena.insufficientMaterial(new ChessGame().getBoard()));
+    }
+
+    @Test
+    @DisplayName("Openings Are Repeatable")
+    public void openingsAreRepeatable() {
+        Arena arena = new Arena(TAPERED, MATERIAL, fastSettings());
+
+        ChessGame first = arena.opening(new Random(5));
+
+        assertEquals(first, arena.opening(new Random(5)));
+        assertNotEquals(new ChessGame(), first);
+    }
+
+    @Test
+    @DisplayName("SPRT Bounds And Ratio")
+    public void sprtBoundsAndRatio() {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+
+        assertEquals(Math.log(19), sprt.upperBound(), 1e-9);
+        assertEquals(-Math.log(19), sprt.lowerBound(), 1e-9);
+        assertTrue(sprt.llr(60, 20, 20) > 0);
+        assertTrue(sprt.llr(20, 20, 60) < 0);
+        assertEquals(Sprt.Decision.ACCEPT_H0, sprt.decide(100, 100, 300));
+        assertThrows(IllegalArgumentException.class, () -> new Sprt(10, 0, 0.05, 0.05));
+    }
+
+    @Test
+    @DisplayName("Elo From Score")
+    public void eloFromScore() {
+        // Three quarters of the points is about 191 Elo
+        ArenaResult result = new ArenaResult(60, 30, 10, 0, Sprt.Decision.CONTINUE, 1000);
+
+        assertEquals(0.75, result.score(), 1e-9);
+        assertEquals(190.8, result.eloDifference(), 0.1);
+        assertEquals(100, result.gamesPerSecond(), 1e-9);
+        // The score is 0.75 +- 0.066, which is 134 to 258 Elo
+        assertEquals(62.0, result.eloError(), 0.1);
+        assertEquals(0, new ArenaResult(10, 0, 10, 0, Sprt.Decision.CONTINUE, 1).eloDifference(), 1e-9);
+    }
+}
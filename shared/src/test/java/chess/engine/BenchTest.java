@@ -0,0 +1,39 @@
+package chess.engine;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BenchTest {
+    /**
+     * Total nodes of a bench run at the default depth. Update it in the same change as any
+     * deliberate change to move generation or search, after checking the new number is expected.
+     */
+    private static final long SIGNATURE = 1_271_633;
+
+    @Test
+    @DisplayName("Bench Positions Are Playable")
+    public void positionsArePlayable() {
+        assertTrue(Bench.POSITIONS.length >= 50);
+        for (String fen : Bench.POSITIONS) {
+            ChessGame game = ChessGame.fromFen(fen);
+            ChessGame.TeamColor opponent = game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                    ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+            assertNotNull(game.getBoard().getKingPosition(ChessGame.TeamColor.WHITE), fen);
+            assertNotNull(game.getBoard().getKingPosition(ChessGame.TeamColor.BLACK), fen);
+            assertFalse(game.isInCheck(opponent), fen);
+            assertFalse(game.isInCheckmate(game.getTeamTurn()) || game.isInStalemate(game.getTeamTurn()), fen);
+        }
+    }
+
+    @Test
+    @Tag("bench")
+    @DisplayName("Bench Node Signature")
+    public void benchSignature() {
+        BenchResult result = Bench.run(Bench.DEFAULT_DEPTH, System.out);
+
+        assertEquals(Bench.POSITIONS.length, result.positions());
+        assertEquals(SIGNATURE, result.nodes());
+    }
+}
@@ -0,0 +1,153 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MateSolverTest {
+
+    private final MateSolver solver = new MateSolver(16);
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor teamToMove) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(teamToMove);
+        return game;
+    }
+
+    private static void assertLineMates(ChessGame game, MateResult result) throws InvalidMoveException {
+        ChessGame.TeamColor defender = game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ChessGame replay = new ChessGame();
+        replay.setBoard(new ChessBoard(game.getBoard()));
+        replay.setTeamTurn(game.getTeamTurn());
+        for (ChessMove move : result.line()) {
+            replay.makeMove(move);
+        }
+        assertTrue(replay.isInCheckmate(defender), "line " + result.line() + " does not mate");
+    }
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void findsMateInOne() throws InvalidMoveException {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+
+        MateResult result = solver.solve(game, 3);
+
+        assertEquals(MateResult.Status.MATE, result.status());
+        assertEquals(1, result.mateIn());
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.line().getFirst());
+        assertLineMates(game, result);
+    }
+
+    @Test
+    @DisplayName("Finds Shortest Mate In Two")
+    public void findsMateInTwo() throws InvalidMoveException {
+        ChessGame game = loadGame("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | |K| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        MateResult result = solver.solve(game, 4);
+
+        assertEquals(MateResult.Status.MATE, result.status());
+        assertEquals(2, result.mateIn());
+        assertEquals(3, result.line().size());
+        assertLineMates(game, result);
+    }
+
+    @Test
+    @DisplayName("Black Can Be The Attacker")
+    public void blackAttacks() throws InvalidMoveException {
+        ChessGame game = loadGame("""
+                |r| | | | | |k| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.BLACK);
+
+        MateResult result = solver.solve(game, 2);
+
+        assertEquals(MateResult.Status.MATE, result.status());
+        assertEquals(1, result.mateIn());
+        assertLineMates(game, result);
+    }
+
+    @Test
+    @DisplayName("Reports No Mate Within The Limit")
+    public void reportsNoMate() {
+        MateResult result = solver.solve(new ChessGame(), 2);
+
+        assertEquals(MateResult.Status.NO_MATE, result.status());
+        assertTrue(result.line().isEmpty());
+        assertEquals(0, result.mateIn());
+    }
+
+    @Test
+    @DisplayName("Stalemated Side Has No Mate")
+    public void stalematedSideHasNoMate() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+
+        assertEquals(MateResult.Status.NO_MATE, solver.solve(game, 2).status());
+    }
+
+    @Test
+    @DisplayName("Node Limit Gives Up")
+    public void nodeLimitGivesUp() {
+        MateResult result = solver.solve(new ChessGame(), 4, 500);
+
+        // The limit is checked as positions are visited, so a few children past it may be looked at
+        assertEquals(MateResult.Status.UNKNOWN, result.status());
+        assertTrue(result.nodes() < 1000, "visited " + result.nodes());
+    }
+
+    @Test
+    @DisplayName("Solving Leaves Game Untouched")
+    public void solvingLeavesGameUntouched() {
+        ChessGame game = loadGame("""
+                | | | | | | | |k|
+                | | | | | | | | |
+                | | | | | |K| | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        ChessBoard before = new ChessBoard(game.getBoard());
+
+        solver.solve(game, 3);
+
+        assertEquals(before, game.getBoard());
+    }
+}
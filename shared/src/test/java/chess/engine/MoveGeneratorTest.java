@@ -0,0 +1,62 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTest {
+
+    @Test
+    @DisplayName("Same Moves In The Same Order As pieceMoves")
+    public void matchesPieceMoves() {
+        for (String fen : Bench.POSITIONS) {
+            ChessBoard board = ChessGame.fromFen(fen).getBoard();
+            for (ChessGame.TeamColor team : ChessGame.TeamColor.values()) {
+                assertEquals(pieceMoves(board, team, false), generated(board, team, false), fen + " " + team);
+                assertEquals(pieceMoves(board, team, true), generated(board, team, true), fen + " " + team);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Quiet Queen Promotions Count As Captures")
+    public void quietQueenPromotion() {
+        ChessBoard board = ChessGame.fromFen("8/4P3/8/8/8/8/k7/6K1 w").getBoard();
+
+        List<Integer> captures = generated(board, ChessGame.TeamColor.WHITE, true);
+
+        assertEquals(List.of(new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5),
+                ChessPiece.PieceType.QUEEN).toCompact()), captures);
+        assertEquals(ChessPiece.PieceType.QUEEN, MoveGenerator.promotion(captures.getFirst()));
+    }
+
+    private static List<Integer> generated(ChessBoard board, ChessGame.TeamColor team, boolean capturesOnly) {
+        int[] moves = new int[MoveGenerator.MAX_MOVES];
+        int count = MoveGenerator.generate(board, team, capturesOnly, moves);
+        return Arrays.stream(moves, 0, count).boxed().toList();
+    }
+
+    private static List<Integer> pieceMoves(ChessBoard board, ChessGame.TeamColor team, boolean capturesOnly) {
+        List<Integer> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece == null || piece.getTeamColor() != team) {
+                    continue;
+                }
+                for (ChessMove move : piece.pieceMoves(board, new ChessPosition(row, col))) {
+                    if (!capturesOnly || board.getPiece(move.getEndPosition()) != null
+                            || move.getPromotionPiece() == ChessPiece.PieceType.QUEEN) {
+                        moves.add(move.toCompact());
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+}
@@ -0,0 +1,169 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NnueEvaluatorTest {
+    private static final int HIDDEN = 32;
+    private static final int LAYER = 8;
+
+    private static NnueNetwork network;
+
+    @BeforeAll
+    public static void createNetwork() {
+        SplittableRandom random = new SplittableRandom(34);
+        short[] featureBiases = new short[HIDDEN];
+        short[] featureWeights = new short[NnueNetwork.FEATURES * HIDDEN];
+        for (int i = 0; i < featureBiases.length; i++) {
+            featureBiases[i] = (short) random.nextInt(0, 64);
+        }
+        for (int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) random.nextInt(-16, 17);
+        }
+        network = new NnueNetwork(HIDDEN, LAYER, LAYER, featureBiases, featureWeights,
+                randomInts(random, LAYER), randomBytes(random, 2 * HIDDEN * LAYER),
+                randomInts(random, LAYER), randomBytes(random, LAYER * LAYER),
+                random.nextInt(-500, 500), randomBytes(random, LAYER));
+    }
+
+    private static int[] randomInts(SplittableRandom random, int count) {
+        int[] values = new int[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextInt(-2000, 2000);
+        }
+        return values;
+    }
+
+    private static byte[] randomBytes(SplittableRandom random, int count) {
+        byte[] values = new byte[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = (byte) random.nextInt(-64, 64);
+        }
+        return values;
+    }
+
+    private static int freshScore(ChessBoard board, ChessGame.TeamColor teamToMove) {
+        return new NnueEvaluator(network, new ScalarNnueKernels()).evaluate(new ChessBoard(board), teamToMove);
+    }
+
+    @Test
+    @DisplayName("Incremental Updates Match A Fresh Evaluation")
+    public void incrementalMatchesFresh() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        NnueEvaluator evaluator = new NnueEvaluator(network);
+        evaluator.evaluate(game.getBoard(), game.getTeamTurn());
+
+        // Includes captures and king moves for both sides
+        String[] moves = {"e2e4", "d7d5", "e4d5", "d8d5", "g1f3", "c8g4", "f1e2", "g4f3", "e1f1", "f3e2",
+                "d1e2", "e8d8", "f1g1"};
+        for (String text : moves) {
+            game.makeMove(new ChessMove(
+                    new ChessPosition(text.charAt(1) - '0', text.charAt(0) - 'a' + 1),
+                    new ChessPosition(text.charAt(3) - '0', text.charAt(2) - 'a' + 1), null));
+            assertEquals(freshScore(game.getBoard(), game.getTeamTurn()),
+                    evaluator.evaluate(game.getBoard(), game.getTeamTurn()), "after " + text);
+        }
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores The Same For The Other Side")
+    public void mirroredPositionScoresTheSame() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                |r| | | |k| | |r|
+                |p|p| | | |p|p|p|
+                | | |n| | | | | |
+                | | | |q| | | | |
+                | | | |P| | | | |
+                | | |N| | |B| | |
+                |P|P| | | |P|P|P|
+                |R| | |Q|K| | |R|
+                """);
+        ChessBoard mirrored = new ChessBoard();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(row, col);
+                if (piece != null) {
+                    ChessGame.TeamColor color = piece.getTeamColor() == ChessGame.TeamColor.WHITE
+                            ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+                    mirrored.addPiece(new ChessPosition(9 - row, col), new ChessPiece(color, piece.getPieceType()));
+                }
+            }
+        }
+
+        assertEquals(freshScore(board, ChessGame.TeamColor.WHITE), freshScore(mirrored, ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Network Survives Writing And Loading")
+    public void writeAndLoad(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("test.nnue");
+        network.write(file);
+
+        NnueEvaluator loaded = NnueEvaluator.load(file);
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        assertEquals(freshScore(board, ChessGame.TeamColor.WHITE), loaded.evaluate(board, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Truncated Network File Is Rejected")
+    public void truncatedFileRejected(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("test.nnue");
+        network.write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+
+        assertThrows(IOException.class, () -> NnueNetwork.load(file));
+    }
+
+    @Test
+    @DisplayName("Vector Kernels Match Scalar Kernels")
+    public void vectorMatchesScalar() {
+        Assumptions.assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "Vector API module not loaded");
+        // Built directly, since best() passes them over on hardware with narrow vectors
+        NnueKernels vector = new VectorNnueKernels();
+        NnueKernels scalar = new ScalarNnueKernels();
+        SplittableRandom random = new SplittableRandom(7);
+
+        // 37 is not a multiple of any vector size, so the tail loops run too
+        short[] vectorValues = new short[37];
+        short[] scalarValues = new short[37];
+        short[] weights = new short[100];
+        byte[] input = randomBytes(random, 37);
+        byte[] byteWeights = randomBytes(random, 100);
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = (short) random.nextInt(Short.MIN_VALUE, Short.MAX_VALUE + 1);
+        }
+        vector.add(vectorValues, weights, 3);
+        scalar.add(scalarValues, weights, 3);
+        vector.subtract(vectorValues, weights, 50);
+        scalar.subtract(scalarValues, weights, 50);
+
+        assertArrayEquals(scalarValues, vectorValues);
+        assertEquals(scalar.dot(input, byteWeights, 11, 37), vector.dot(input, byteWeights, 11, 37));
+    }
+
+    @Test
+    @DisplayName("Search Works With The Network")
+    public void searchWithNetwork() {
+        ChessGame game = new ChessGame();
+        SearchEngine engine = new SearchEngine(EngineOptions.defaults(), new NnueEvaluator(network));
+
+        SearchResult result = engine.search(game, 3);
+
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+    }
+}
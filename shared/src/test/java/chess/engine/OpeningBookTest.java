@@ -0,0 +1,135 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OpeningBookTest {
+
+    private static final ChessMove E4 = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+    private static final ChessMove D4 = new ChessMove(new ChessPosition(2, 4), new ChessPosition(4, 4), null);
+    private static final ChessMove E5 = new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null);
+
+    @TempDir
+    Path tempDir;
+
+    private OpeningBook writeBook(List<BookEntry> entries) throws IOException {
+        Path path = tempDir.resolve("book.bin");
+        OpeningBook.write(path, entries);
+        return OpeningBook.open(path);
+    }
+
+    @Test
+    @DisplayName("Probe Returns Book Moves Heaviest First")
+    public void probeReturnsMovesByWeight() throws Exception {
+        ChessGame game = new ChessGame();
+        long startKey = Polyglot.key(game);
+        game.makeMove(E4);
+        long afterE4Key = Polyglot.key(game);
+
+        OpeningBook book = writeBook(List.of(
+                new BookEntry(startKey, D4, 10, 0),
+                new BookEntry(startKey, E4, 30, 0),
+                new BookEntry(afterE4Key, E5, 5, 0)));
+
+        List<BookEntry> moves = book.probe(new ChessGame());
+        assertEquals(2, moves.size());
+        assertEquals(E4, moves.get(0).move());
+        assertEquals(30, moves.get(0).weight());
+        assertEquals(D4, moves.get(1).move());
+
+        assertEquals(List.of(new BookEntry(afterE4Key, E5, 5, 0)), book.probe(game));
+    }
+
+    @Test
+    @DisplayName("Keys Match Published Test Positions")
+    public void keysMatchPublishedTestPositions() throws Exception {
+        // Keys from the Polyglot format description
+        assertEquals(0x463b96181691fc9cL, Polyglot.key(new ChessGame()));
+        assertEquals(0x823c9b50fd114196L, keyAfter("e2e4"));
+        assertEquals(0x0756b94461c50fb0L, keyAfter("e2e4", "d7d5"));
+        assertEquals(0x662fafb965db29d4L, keyAfter("e2e4", "d7d5", "e4e5"));
+        assertEquals(0x22a48b5a8e47ff78L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5"));
+        assertEquals(0x652a607ca3f242c1L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2"));
+        assertEquals(0x00fdd303c946bdd9L, keyAfter("e2e4", "d7d5", "e4e5", "f7f5", "e1e2", "e8f7"));
+        assertEquals(0x3c8123ea7b067637L, keyAfter("a2a4", "b7b5", "h2h4", "b5b4", "c2c4"));
+        // Reached by an en passant capture, which this game cannot play, and then a rook move that
+        // gives up white's long castling
+        ChessGame rookMoved = ChessGame.fromFen("rnbqkbnr/p1pppppp/8/8/P6P/R1p5/1P1PPPP1/1NBQKBNR b Kkq - 0 4");
+        assertEquals(0x5c3f9b829b279560L, Polyglot.key(rookMoved));
+    }
+
+    private static long keyAfter(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeMove(ChessMove.fromUci(move));
+        }
+        return Polyglot.key(game);
+    }
+
+    @Test
+    @DisplayName("Unknown Position Has No Book Moves")
+    public void unknownPositionHasNoMoves() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(D4);
+        OpeningBook book = writeBook(List.of(new BookEntry(Polyglot.key(new ChessGame()), E4, 1, 0)));
+
+        assertTrue(book.probe(game).isEmpty());
+        assertNull(book.pickMove(game));
+    }
+
+    @Test
+    @DisplayName("Illegal Book Moves Are Ignored")
+    public void illegalMovesIgnored() throws Exception {
+        ChessMove illegal = new ChessMove(new ChessPosition(2, 5), new ChessPosition(5, 5), null);
+        OpeningBook book = writeBook(List.of(new BookEntry(Polyglot.key(new ChessGame()), illegal, 1, 0)));
+
+        assertTrue(book.probe(new ChessGame()).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Binary Search Finds Keys In A Large Book")
+    public void binarySearchInLargeBook() throws Exception {
+        List<BookEntry> entries = new ArrayList<>();
+        for (long key = 1; key <= 10_000; key++) {
+            entries.add(new BookEntry(key * 0x9E3779B97F4A7C15L, D4, 1, 0));
+        }
+        entries.add(new BookEntry(Polyglot.key(new ChessGame()), E4, 7, 3));
+        OpeningBook book = writeBook(entries);
+
+        assertEquals(10_001, book.size());
+        assertEquals(16 * 10_001, Files.size(tempDir.resolve("book.bin")));
+        assertEquals(List.of(new BookEntry(Polyglot.key(new ChessGame()), E4, 7, 3)), book.probe(new ChessGame()));
+    }
+
+    @Test
+    @DisplayName("Move Encoding Round Trips")
+    public void moveEncodingRoundTrips() {
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+
+        assertEquals(E4, Polyglot.decodeMove(Polyglot.encodeMove(E4)));
+        assertEquals(promotion, Polyglot.decodeMove(Polyglot.encodeMove(promotion)));
+        // e2e4 is from file 4 row 1 to file 4 row 3 in Polyglot's zero-based numbering
+        assertEquals((4) | (3 << 3) | (4 << 6) | (1 << 9), Polyglot.encodeMove(E4));
+    }
+
+    @Test
+    @DisplayName("Engine Plays Book Move Without Searching")
+    public void enginePlaysBookMove() throws Exception {
+        SearchEngine engine = new SearchEngine();
+        engine.setOpeningBook(writeBook(List.of(new BookEntry(Polyglot.key(new ChessGame()), D4, 1, 0))));
+
+        SearchResult result = engine.search(new ChessGame(), 6);
+
+        assertEquals(D4, result.bestMove());
+        assertEquals(0, result.nodes());
+    }
+}
@@ -0,0 +1,88 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PondererTest {
+
+    private SearchEngine engine;
+    private Ponderer ponderer;
+    private ChessGame game;
+    private ChessMove predictedMove;
+
+    @BeforeEach
+    public void setup() throws InvalidMoveException {
+        engine = new SearchEngine();
+        ponderer = new Ponderer(engine);
+        game = new ChessGame();
+
+        SearchResult first = engine.search(game, 4);
+        game.makeMove(first.bestMove());
+        predictedMove = first.ponderMove();
+        assertNotNull(predictedMove);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ponderer.cancel();
+    }
+
+    @Test
+    @DisplayName("Ponder Hit Continues The Search")
+    public void ponderHitContinuesSearch() throws Exception {
+        ponderer.startPondering(game, predictedMove);
+        assertTrue(ponderer.isPondering());
+        Thread.sleep(200);
+
+        game.makeMove(predictedMove);
+        SearchResult result = ponderer.respond(game, predictedMove, SearchLimits.moveTime(50));
+
+        assertNotNull(result.bestMove());
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        assertFalse(ponderer.isPondering());
+    }
+
+    @Test
+    @DisplayName("Ponder Miss Searches The Real Position")
+    public void ponderMissSearchesRealPosition() throws Exception {
+        ponderer.startPondering(game, predictedMove);
+        Thread.sleep(50);
+
+        ChessMove otherMove = null;
+        for (int col = 1; col <= 8 && otherMove == null; col++) {
+            ChessMove candidate = new ChessMove(new ChessPosition(7, col), new ChessPosition(6, col), null);
+            if (!candidate.equals(predictedMove)
+                    && game.validMoves(candidate.getStartPosition()).contains(candidate)) {
+                otherMove = candidate;
+            }
+        }
+        game.makeMove(otherMove);
+        SearchResult result = ponderer.respond(game, otherMove, SearchLimits.moveTime(50));
+
+        assertNotNull(result.bestMove());
+        assertTrue(game.validMoves(result.bestMove().getStartPosition()).contains(result.bestMove()));
+        assertFalse(ponderer.isPondering());
+    }
+
+    @Test
+    @DisplayName("Hit Before Ponder Thread Starts Still Returns")
+    public void immediateHitReturns() throws Exception {
+        ponderer.startPondering(game, predictedMove);
+
+        game.makeMove(predictedMove);
+        SearchResult result = ponderer.respond(game, predictedMove, SearchLimits.moveTime(50));
+
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Cancel Stops Pondering")
+    public void cancelStopsPondering() {
+        ponderer.startPondering(game, predictedMove);
+        ponderer.cancel();
+
+        assertFalse(ponderer.isPondering());
+    }
+}
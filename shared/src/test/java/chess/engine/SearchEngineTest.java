@@ -0,0 +1,233 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SearchEngineTest {
+
+    private static final EngineOptions NO_PRUNING = EngineOptions.defaults()
+            .withNullMovePruning(false)
+            .withLateMoveReductions(false)
+            .withFutilityPruning(false)
+            .withRazoring(false);
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor teamToMove) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(teamToMove);
+        return game;
+    }
+
+    private static ChessGame backRankMate() {
+        return loadGame("""
+                | | | | | | |k| |
+                | | | | | |p|p|p|
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | |P|P|P|
+                |R| | | | | |K| |
+                """, ChessGame.TeamColor.WHITE);
+    }
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void findsMateInOne() {
+        SearchResult result = new SearchEngine().search(backRankMate(), 4);
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        assertTrue(result.isMateScore());
+        assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+    }
+
+    @Test
+    @DisplayName("Finds Mate With Every Technique Off")
+    public void findsMateWithoutPruning() {
+        SearchResult result = new SearchEngine(NO_PRUNING, new MaterialEvaluator()).search(backRankMate(), 4);
+
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Captures Hanging Queen")
+    public void capturesHangingQueen() {
+        ChessGame game = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |q| | | | |
+                | | | | | | | | |
+                | | | | |N| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        SearchResult result = new SearchEngine().search(game, 3);
+
+        assertEquals(new ChessMove(new ChessPosition(3, 5), new ChessPosition(5, 4), null), result.bestMove());
+        assertTrue(result.score() > 200);
+    }
+
+    @Test
+    @DisplayName("Search Leaves Game Untouched")
+    public void searchLeavesGameUntouched() {
+        ChessGame game = new ChessGame();
+        ChessGame copy = new ChessGame();
+
+        new SearchEngine().search(game, 3);
+
+        assertEquals(copy, game);
+    }
+
+    @Test
+    @DisplayName("Stalemated Side Has No Move")
+    public void stalemateHasNoMove() {
+        ChessGame game = loadGame("""
+                |k| | | | | | | |
+                | | |Q| | | | | |
+                | |K| | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+
+        SearchResult result = new SearchEngine().search(game, 3);
+
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    @DisplayName("Selective Search Visits Fewer Nodes")
+    public void selectiveSearchVisitsFewerNodes() {
+        SearchResult pruned = new SearchEngine().search(new ChessGame(), 5);
+        SearchResult full = new SearchEngine(NO_PRUNING, new MaterialEvaluator()).search(new ChessGame(), 5);
+
+        assertTrue(pruned.nodes() < full.nodes(),
+                "pruned search used " + pruned.nodes() + " nodes, full search " + full.nodes());
+    }
+
+    @Test
+    @DisplayName("Move Time Is Respected")
+    public void moveTimeIsRespected() {
+        SearchEngine engine = new SearchEngine();
+        engine.search(new ChessGame(), 3);
+
+        SearchResult result = engine.search(new ChessGame(), SearchLimits.moveTime(100));
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.elapsedMillis() <= 100, "took " + result.elapsedMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("Clock Leaves Time For Later Moves")
+    public void clockLeavesTimeForLaterMoves() {
+        SearchResult result = new SearchEngine().search(new ChessGame(),
+                SearchLimits.clock(3000, 3000, 0, 0));
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.elapsedMillis() < 3000 / 4, "took " + result.elapsedMillis() + " ms");
+    }
+
+    @Test
+    @DisplayName("Node Limit Is Respected")
+    public void nodeLimitIsRespected() {
+        SearchResult result = new SearchEngine().search(new ChessGame(), SearchLimits.nodes(2000));
+
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() <= 2000);
+    }
+
+    @Test
+    @DisplayName("Stop Ends Infinite Search")
+    public void stopEndsInfiniteSearch() throws Exception {
+        SearchEngine engine = new SearchEngine();
+        var future = CompletableFuture.supplyAsync(
+                () -> engine.search(new ChessGame(), SearchLimits.infinite()));
+
+        Thread.sleep(100);
+        engine.stop();
+        SearchResult result = future.get(1, TimeUnit.SECONDS);
+
+        assertNotNull(result.bestMove());
+    }
+
+    @Test
+    @DisplayName("Interrupt Ends Infinite Search")
+    public void interruptEndsInfiniteSearch() throws Exception {
+        SearchEngine engine = new SearchEngine();
+        SearchResult[] result = new SearchResult[1];
+        Thread thread = new Thread(() -> result[0] = engine.search(new ChessGame(), SearchLimits.infinite()));
+        thread.start();
+
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join(1000);
+
+        assertFalse(thread.isAlive());
+        assertNotNull(result[0].bestMove());
+    }
+
+    @Test
+    @DisplayName("Multiple Lines Are Distinct And Best First")
+    public void multipleLinesBestFirst() {
+        ChessGame game = new ChessGame();
+
+        List<SearchResult> lines = new SearchEngine().searchLines(game, SearchLimits.depth(4), 3);
+
+        assertEquals(3, lines.size());
+        assertEquals(3, lines.stream().map(SearchResult::bestMove).distinct().count());
+        for (int i = 0; i < lines.size(); i++) {
+            SearchResult line = lines.get(i);
+            assertTrue(game.validMoves(line.bestMove().getStartPosition()).contains(line.bestMove()));
+            assertEquals(line.bestMove(), line.principalLine().getFirst());
+            if (i > 0) {
+                assertTrue(line.score() <= lines.get(i - 1).score());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Multiple Lines Stop At The Legal Moves")
+    public void multipleLinesCappedByLegalMoves() {
+        ChessGame game = loadGame("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |k| | | | |P|
+                |K| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        List<SearchResult> lines = new SearchEngine().searchLines(game, SearchLimits.depth(3), 5);
+
+        assertEquals(3, lines.size());
+        assertEquals(3, lines.stream().map(SearchResult::bestMove).distinct().count());
+    }
+
+    @Test
+    @DisplayName("Multiple Lines Cost Less Than Separate Searches")
+    public void multipleLinesShareWork() {
+        long single = 0;
+        long multiple = 0;
+        for (int i = 0; i < Bench.POSITIONS.length; i += Bench.POSITIONS.length / 10) {
+            single += new SearchEngine().search(ChessGame.fromFen(Bench.POSITIONS[i]), 5).nodes();
+            multiple += new SearchEngine().searchLines(ChessGame.fromFen(Bench.POSITIONS[i]), SearchLimits.depth(5), 3)
+                    .getFirst().nodes();
+        }
+
+        assertTrue(multiple < 3 * single, multiple + " nodes for three lines, " + single + " for one");
+    }
+}
@@ -0,0 +1,177 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import passoff.chess.TestUtilities;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TablebaseTest {
+
+    @TempDir
+    static Path directory;
+
+    private static Tablebase tablebase;
+
+    @BeforeAll
+    public static void generateTables() throws Exception {
+        TablebaseGenerator generator = new TablebaseGenerator(directory);
+        generator.generate("KQK");
+        generator.generate("KRK");
+        generator.generate("KPK");
+        tablebase = Tablebase.open(directory);
+    }
+
+    private static ChessGame loadGame(String boardText, ChessGame.TeamColor teamToMove) {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard(boardText));
+        game.setTeamTurn(teamToMove);
+        return game;
+    }
+
+    private static int longestWin(String name) throws Exception {
+        ByteBuffer table = Tablebase.map(directory.resolve(name + Tablebase.EXTENSION)).getValue();
+        int longest = 0;
+        while (table.hasRemaining()) {
+            longest = Math.max(longest, table.get());
+        }
+        return longest;
+    }
+
+    @Test
+    @DisplayName("Dependencies Of Pawn Endings Are Generated")
+    public void dependenciesAreGenerated() {
+        assertTrue(tablebase.tables().containsAll(Set.of("KQK", "KRK", "KBK", "KNK", "KPK")),
+                "tables were " + tablebase.tables());
+    }
+
+    @Test
+    @DisplayName("Longest Mates Match Known Values")
+    public void longestMatesMatchKnownValues() throws Exception {
+        // Queen mates in at most 10 moves, rook in at most 16
+        assertEquals(19, longestWin("KQK"));
+        assertEquals(31, longestWin("KRK"));
+    }
+
+    @Test
+    @DisplayName("Finds Mate In One")
+    public void findsMateInOne() {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1), tablebase.probe(game));
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null),
+                tablebase.bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Stronger Black Side Is Looked Up Flipped")
+    public void blackStrongerSide() {
+        ChessGame game = loadGame("""
+                |r| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                """, ChessGame.TeamColor.BLACK);
+
+        assertEquals(new TablebaseResult(TablebaseResult.Outcome.WIN, 1), tablebase.probe(game));
+        assertEquals(new ChessMove(new ChessPosition(8, 1), new ChessPosition(1, 1), null),
+                tablebase.bestMove(game));
+    }
+
+    @Test
+    @DisplayName("Pawn Endings Know Wins And Draws")
+    public void pawnEndings() {
+        ChessGame won = loadGame("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                | | | | |P| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.BLACK);
+        ChessGame drawn = loadGame("""
+                |k| | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |P| | | | | | | |
+                | | | | | | | | |
+                |K| | | | | | | |
+                | | | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+
+        assertEquals(TablebaseResult.Outcome.LOSS, tablebase.probe(won).outcome());
+        assertEquals(TablebaseResult.Outcome.DRAW, tablebase.probe(drawn).outcome());
+    }
+
+    @Test
+    @DisplayName("Best Moves Mate In The Promised Number Of Moves")
+    public void bestMovesMate() throws InvalidMoveException {
+        ChessGame game = loadGame("""
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |k| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |K|R| | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        TablebaseResult start = tablebase.probe(game);
+        assertEquals(TablebaseResult.Outcome.WIN, start.outcome());
+
+        for (int ply = 0; ply < start.pliesToMate(); ply++) {
+            game.makeMove(tablebase.bestMove(game));
+        }
+
+        assertTrue(game.isInCheckmate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Search Plays Table Moves")
+    public void searchUsesTablebase() {
+        ChessGame game = loadGame("""
+                | | | | | | |k| |
+                | | | | | | | | |
+                | | | | | | |K| |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |R| | | | | | | |
+                """, ChessGame.TeamColor.WHITE);
+        SearchEngine engine = new SearchEngine();
+        engine.setTablebase(tablebase);
+
+        SearchResult result = engine.search(game, 6);
+
+        assertEquals(SearchEngine.MATE_SCORE - 1, result.score());
+        assertEquals(0, result.nodes());
+    }
+
+    @Test
+    @DisplayName("Positions With More Pieces Are Not Covered")
+    public void largerPositionsAreNotCovered() {
+        assertNull(tablebase.probe(new ChessGame()));
+    }
+}
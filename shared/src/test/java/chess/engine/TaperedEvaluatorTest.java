@@ -0,0 +1,159 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import passoff.chess.TestUtilities;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaperedEvaluatorTest {
+
+    private final TaperedEvaluator evaluator = new TaperedEvaluator();
+
+    @Test
+    @DisplayName("Starting Position Is Even")
+    public void startingPositionIsEven() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        assertEquals(0, evaluator.evaluate(board, ChessGame.TeamColor.WHITE));
+        assertEquals(PieceSquareTables.MAX_PHASE, board.getGamePhase());
+    }
+
+    @Test
+    @DisplayName("Incremental Scores Match Rebuilt Board")
+    public void incrementalMatchesRebuilt() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 4), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 4), new ChessPosition(5, 4), null));
+
+        ChessBoard board = game.getBoard();
+        ChessBoard rebuilt = new ChessBoard(board);
+
+        assertEquals(rebuilt.getMiddlegameScore(), board.getMiddlegameScore());
+        assertEquals(rebuilt.getEndgameScore(), board.getEndgameScore());
+        assertEquals(rebuilt.getGamePhase(), board.getGamePhase());
+        assertEquals(rebuilt.getZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores The Same For The Other Side")
+    public void mirroredPositionIsSymmetric() {
+        ChessBoard board = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | |p| | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                | | | | | |P| | |
+                | | | | |K| | |R|
+                """);
+        ChessBoard mirrored = TestUtilities.loadBoard("""
+                | | | | |k| | |r|
+                | | | | | |p| | |
+                | | | | | | | | |
+                | | | |n| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | |P| | | | | |
+                | | | | |K| | | |
+                """);
+
+        assertEquals(evaluator.evaluate(board, ChessGame.TeamColor.WHITE),
+                evaluator.evaluate(mirrored, ChessGame.TeamColor.BLACK));
+        assertTrue(evaluator.evaluate(board, ChessGame.TeamColor.WHITE) > 0);
+    }
+
+    @Test
+    @DisplayName("Centralized Knight Scores Higher")
+    public void centralizedKnightScoresHigher() {
+        ChessBoard center = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |N| | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | |K| | | |
+                """);
+        ChessBoard corner = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                |N| | | |K| | | |
+                """);
+
+        assertTrue(evaluator.evaluate(center, ChessGame.TeamColor.WHITE)
+                > evaluator.evaluate(corner, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Pawn Key Ignores Other Pieces")
+    public void pawnKeyIgnoresOtherPieces() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        long pawnKey = game.getBoard().getPawnKey();
+
+        game.makeMove(new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null));
+        assertEquals(pawnKey, game.getBoard().getPawnKey());
+
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        assertNotEquals(pawnKey, game.getBoard().getPawnKey());
+    }
+
+    @Test
+    @DisplayName("Doubled Isolated Pawns Score Lower")
+    public void doubledIsolatedPawnsScoreLower() {
+        ChessBoard healthy = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | |P|P| | | |
+                | | | | |K| | | |
+                """);
+        ChessBoard weak = TestUtilities.loadBoard("""
+                | | | | |k| | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | | | | | | | | |
+                | |P| | | | | | |
+                | |P| | | | | | |
+                | | | | |K| | | |
+                """);
+
+        assertTrue(evaluator.evaluate(healthy, ChessGame.TeamColor.WHITE)
+                > evaluator.evaluate(weak, ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Pawn Hash Answers Most Lookups During Search")
+    public void pawnHashHitRate() {
+        ChessGame game = new ChessGame();
+        game.setBoard(TestUtilities.loadBoard("""
+                |r| |b|q| |r|k| |
+                |p|p| | |b|p|p|p|
+                | | |n|p| |n| | |
+                | | |p| |p| | | |
+                | | |P| |P| | | |
+                | | |N|P| |N| | |
+                |P|P| | |B|P|P|P|
+                |R| |B|Q| |R|K| |
+                """));
+        TaperedEvaluator searchEvaluator = new TaperedEvaluator();
+        new SearchEngine(EngineOptions.defaults(), searchEvaluator).search(game, 5);
+
+        assertTrue(searchEvaluator.getPawnHashHitRate() > 0.9,
+                "hit rate was " + searchEvaluator.getPawnHashHitRate());
+    }
+}
@@ -0,0 +1,111 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TexelTunerTest {
+
+    private static TuningCorpus corpus;
+
+    /**
+     * The bench positions and a few random moves on from each, labelled by who the evaluator
+     * thinks is better
+     */
+    @BeforeAll
+    public static void buildCorpus() throws InvalidMoveException {
+        corpus = new TuningCorpus();
+        TaperedEvaluator evaluator = new TaperedEvaluator();
+        Random random = new Random(7);
+        for (String fen : Bench.POSITIONS) {
+            ChessGame game = ChessGame.fromFen(fen);
+            for (int ply = 0; ply < 20; ply++) {
+                int eval = evaluator.evaluate(game.getBoard(), ChessGame.TeamColor.WHITE);
+                corpus.add(game.getBoard(), eval > 50 ? 1 : eval < -50 ? 0 : 0.5);
+                List<ChessMove> moves = legalMoves(game);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    private static List<ChessMove> legalMoves(ChessGame game) {
+        List<ChessMove> moves = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(row, col);
+                if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                    Collection<ChessMove> pieceMoves = game.validMoves(new ChessPosition(row, col));
+                    pieceMoves.stream().sorted((a, b) -> a.toString().compareTo(b.toString())).forEach(moves::add);
+                }
+            }
+        }
+        return moves;
+    }
+
+    @Test
+    @DisplayName("Corpus Matches Evaluator")
+    public void corpusMatchesEvaluator() throws InvalidMoveException {
+        TuningCorpus single = new TuningCorpus();
+        ChessGame game = ChessGame.fromFen(Bench.POSITIONS[3]);
+        single.add(game.getBoard(), 0.5);
+
+        int expected = new TaperedEvaluator().evaluate(game.getBoard(), ChessGame.TeamColor.WHITE);
+        // The corpus does not round the blend the way the evaluator does
+        assertEquals(expected, single.evaluate(0, TuningCorpus.currentParameters()), 1.0);
+    }
+
+    @Test
+    @DisplayName("Rejects Unknown Result")
+    public void rejectsUnknownResult() {
+        assertThrows(IllegalArgumentException.class, () -> new TuningCorpus().add(new ChessGame().getBoard(), 0.7));
+    }
+
+    @Test
+    @DisplayName("Gradient Matches Difference Quotient")
+    public void gradientMatchesDifferenceQuotient() {
+        TexelTuner tuner = new TexelTuner(corpus, ForkJoinPool.commonPool());
+        double scale = tuner.fitScale();
+        double[] parameters = TuningCorpus.currentParameters();
+        double[] gradient = tuner.gradient(parameters);
+
+        // A white knight on f3 in the middlegame and a black rook's square in the endgame
+        int[] indices = {ChessPiece.PieceType.KNIGHT.ordinal() * 64 + 21,
+                TuningCorpus.PIECE_SQUARE_PARAMETERS + ChessPiece.PieceType.ROOK.ordinal() * 64 + 8};
+        for (int index : indices) {
+            double[] up = parameters.clone();
+            double[] down = parameters.clone();
+            up[index] += 0.5;
+            down[index] -= 0.5;
+            double quotient = tuner.loss(up, scale) - tuner.loss(down, scale);
+            assertNotEquals(0, gradient[index]);
+            assertEquals(quotient, gradient[index], Math.abs(quotient) * 1e-3);
+        }
+    }
+
+    @Test
+    @DisplayName("Tuning Lowers Loss")
+    public void tuningLowersLoss() {
+        TexelTuner tuner = new TexelTuner(corpus, ForkJoinPool.commonPool());
+
+        TunedTables tables = tuner.tune(50, 2);
+
+        assertTrue(tuner.getScale() > 0);
+        assertTrue(tables.finalLoss() < tables.initialLoss(),
+                tables.initialLoss() + " -> " + tables.finalLoss());
+        assertEquals(0, tables.middlegameValues()[ChessPiece.PieceType.KING.ordinal()]);
+        // Material stays roughly where it was
+        int queen = tables.middlegameValues()[ChessPiece.PieceType.QUEEN.ordinal()];
+        assertTrue(queen > 900 && queen < 1150, "queen " + queen);
+        assertTrue(tables.format().startsWith("MIDDLEGAME_VALUES = {0, "));
+    }
+}
@@ -0,0 +1,99 @@
+package chess.engine;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TrainingDataTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Records Round Trip")
+    public void recordsRoundTrip() throws IOException {
+        ChessGame promoted = ChessGame.fromFen("1Q2k3/8/8/8/8/8/8/4K2q b - - 0 1");
+        List<TrainingSample> samples = List.of(
+                new TrainingSample(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE, 25, 1, 0),
+                new TrainingSample(promoted.getBoard(), ChessGame.TeamColor.BLACK, -1234, 0.5, 87),
+                new TrainingSample(new ChessBoard(), ChessGame.TeamColor.WHITE, 40000, 0, 1));
+        Path file = directory.resolve("samples.bin");
+        try (TrainingDataWriter writer = TrainingDataWriter.open(file)) {
+            writer.write(samples);
+            assertEquals(3, writer.count());
+        }
+
+        assertEquals(3L * TrainingSample.SIZE, Files.size(file));
+        try (TrainingDataReader reader = TrainingDataReader.open(file)) {
+            assertEquals(3, reader.size());
+            assertEquals(samples.get(0), reader.next());
+            assertEquals(samples.get(1), reader.next());
+            // Scores are clamped to fit the record
+            assertEquals(Short.MAX_VALUE, reader.next().score());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Writer Appends Across Buffers")
+    public void writerAppendsAcrossBuffers() throws IOException {
+        Path file = directory.resolve("many.bin");
+        TrainingSample sample = new TrainingSample(new ChessGame().getBoard(), ChessGame.TeamColor.WHITE, 0, 0.5, 3);
+        List<TrainingSample> batch = Collections.nCopies(50_000, sample);
+        try (TrainingDataWriter writer = TrainingDataWriter.open(file)) {
+            writer.write(batch);
+        }
+        try (TrainingDataWriter writer = TrainingDataWriter.open(file)) {
+            writer.write(List.of(sample));
+        }
+
+        TuningCorpus corpus = new TuningCorpus();
+        try (TrainingDataReader reader = TrainingDataReader.open(file)) {
+            assertEquals(50_001, reader.readInto(corpus));
+        }
+        assertEquals(50_001, corpus.size());
+    }
+
+    @Test
+    @DisplayName("Partial Record Rejected")
+    public void partialRecordRejected() throws IOException {
+        Path file = directory.resolve("broken.bin");
+        Files.write(file, new byte[TrainingSample.SIZE + 5]);
+
+        assertThrows(IOException.class, () -> TrainingDataReader.open(file));
+    }
+
+    @Test
+    @DisplayName("Arena Records Quiet Positions")
+    public void arenaRecordsQuietPositions() throws IOException {
+        ArenaPlayer player = new ArenaPlayer("tapered", EngineOptions.defaults().withHashSizeMb(1),
+                TaperedEvaluator::new);
+        Path file = directory.resolve("selfplay.bin");
+        ArenaResult result;
+        try (TrainingDataWriter writer = TrainingDataWriter.open(file)) {
+            result = new Arena(player, player, ArenaSettings.defaults().withMoveLimits(SearchLimits.nodes(300))
+                    .withGamePairs(2).withThreads(2).withTrainingData(writer)).run();
+            // Everything is on disk once the match is over
+            assertEquals(writer.count() * TrainingSample.SIZE, Files.size(file));
+        }
+
+        int records = 0;
+        try (TrainingDataReader reader = TrainingDataReader.open(file)) {
+            for (TrainingSample sample = reader.next(); sample != null; sample = reader.next()) {
+                records++;
+                assertTrue(sample.ply() >= ArenaSettings.defaults().openingPlies());
+                assertFalse(SearchEngine.isMateScore(sample.score()));
+            }
+        }
+        assertTrue(records > 0);
+        assertEquals(4, result.games());
+    }
+}
@@ -0,0 +1,152 @@
+package chess.pgn;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnReaderTest {
+    private static final String TWO_GAMES = """
+            [Event "Casual \\"blitz\\""]
+            [White "Ana"]
+            [Black "Bo"]
+            [Result "1-0"]
+
+            1. e4 e5 2. Bc4 {aiming at f7} Nc6 (2... Nf6 3. d3) 3. Qh5 $2 Nf6?? 4. Qxf7# 1-0
+            % an escaped line [with brackets]
+
+            [Event "Second"]
+            [Result "*"]
+
+            1.d4 d5 2.c4 dxc4 ; the gambit accepted
+            3.e3 *
+            """;
+
+    private static List<PgnGame> read(String pgn) {
+        try (Stream<PgnGame> games = PgnReader.stream(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            return games.toList();
+        }
+    }
+
+    @Test
+    @DisplayName("Reads Tags And Moves")
+    public void readsTagsAndMoves() {
+        List<PgnGame> games = read(TWO_GAMES);
+
+        assertEquals(2, games.size());
+        PgnGame first = games.getFirst();
+        assertTrue(first.valid(), first.error());
+        assertEquals("Casual \"blitz\"", first.tags().get("Event"));
+        assertEquals("1-0", first.result());
+        assertEquals(7, first.game().getMoveHistory().size());
+        assertTrue(first.game().isInCheckmate(ChessGame.TeamColor.BLACK));
+        assertEquals(1, first.line());
+
+        PgnGame second = games.get(1);
+        assertTrue(second.valid(), second.error());
+        assertEquals("*", second.result());
+        assertEquals("rnbqkbnr/ppp1pppp/8/8/2pP4/4P3/PP3PPP/RNBQKBNR b - - 0 3", second.game().toFen());
+        assertEquals(9, second.line());
+    }
+
+    @Test
+    @DisplayName("Records Replay Later")
+    public void recordsReplayLater() throws IOException {
+        try (PgnReader reader = new PgnReader(new ByteArrayInputStream(TWO_GAMES.getBytes(StandardCharsets.UTF_8)))) {
+            PgnRecord first = reader.nextRecord();
+            PgnRecord second = reader.nextRecord();
+            assertFalse(reader.hasNext());
+
+            assertEquals(List.of("d4", "d5", "c4", "dxc4", "e3"), second.moves());
+            assertEquals(9, second.line());
+            assertEquals(read(TWO_GAMES).getFirst().game(), first.replay().game());
+        }
+    }
+
+    @Test
+    @DisplayName("Bad Game Does Not Stop The Rest")
+    public void badGameDoesNotStopTheRest() {
+        List<PgnGame> games = read("""
+                [Event "Broken"]
+
+                1. e4 e5 2. Ke3 Nc6 1-0
+
+                [Event "Unfinished"]
+
+                1. Nf3
+
+                [Event "Fine"]
+
+                1. e4 e5 0-1
+                """);
+
+        assertEquals(3, games.size());
+        assertFalse(games.get(0).valid());
+        assertTrue(games.get(0).error().startsWith("2.Ke3"), games.get(0).error());
+        assertEquals(2, games.get(0).game().getMoveHistory().size());
+        assertTrue(games.get(1).valid());
+        assertEquals("*", games.get(1).result());
+        assertTrue(games.get(2).valid());
+        assertEquals("0-1", games.get(2).result());
+    }
+
+    @Test
+    @DisplayName("Starts From FEN Tag")
+    public void startsFromFenTag() {
+        List<PgnGame> games = read("""
+                [SetUp "1"]
+                [FEN "4k3/P7/8/8/8/8/8/4K3 w - - 0 1"]
+
+                1. a8=Q+ Kd7 *
+
+                [FEN "not a position"]
+
+                1. e4 *
+                """);
+
+        assertTrue(games.get(0).valid(), games.get(0).error());
+        assertEquals(new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN),
+                games.get(0).game().getBoard().getPiece(8, 1));
+        assertFalse(games.get(1).valid());
+        assertNull(games.get(1).game());
+    }
+
+    @Test
+    @DisplayName("Reads Lazily")
+    public void readsLazily() {
+        // An endless input: only as much as the games asked for is read
+        byte[] game = "[Event \"Again\"]\n\n1. e4 e5 2. Nf3 Nc6 *\n\n".getBytes(StandardCharsets.UTF_8);
+        InputStream endless = new InputStream() {
+            private long offset;
+
+            @Override
+            public int read() {
+                return game[(int) (offset++ % game.length)];
+            }
+        };
+
+        try (Stream<PgnGame> games = PgnReader.stream(endless)) {
+            assertEquals(1000, games.limit(1000).filter(PgnGame::valid).count());
+        }
+    }
+
+    @Test
+    @DisplayName("Parses SAN")
+    public void parsesSan() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/1N2KN2 w - - 0 1");
+
+        assertEquals(ChessMove.fromUci("b1d2"), game.parseSan("Nbd2"));
+        assertEquals(ChessMove.fromUci("f1g3"), game.parseSan("Ng3!"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("Nd2"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("Nc2"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("O-O"));
+        assertThrows(InvalidMoveException.class, () -> game.parseSan("Zz9"));
+    }
+}
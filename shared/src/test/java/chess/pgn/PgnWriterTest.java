@@ -0,0 +1,102 @@
+package chess.pgn;
+
+import chess.*;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PgnWriterTest {
+
+    private static String write(Map<String, String> tags, ChessGame... games) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (PgnWriter writer = new PgnWriter(out)) {
+            for (ChessGame game : games) {
+                writer.write(tags, game);
+            }
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ChessGame play(String... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for (String move : moves) {
+            game.makeSanMove(move);
+        }
+        return game;
+    }
+
+    @Test
+    @DisplayName("Writes Tags And Moves")
+    public void writesTagsAndMoves() throws Exception {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Club \"open\"");
+        tags.put("White", "Ana");
+
+        String pgn = write(tags, play("f3", "e5", "g4", "Qh4#"));
+
+        assertEquals("""
+                [Event "Club \\"open\\""]
+                [White "Ana"]
+                [Result "0-1"]
+
+                1. f3 e5 2. g4 Qh4# 0-1
+
+                """, pgn);
+    }
+
+    @Test
+    @DisplayName("Read Back The Same")
+    public void readBackTheSame() throws Exception {
+        ChessGame first = play("e4", "e5", "Nf3", "Nc6", "Bb5", "a6", "Ba4", "Nf6", "d3", "b5", "Bb3", "d6",
+                "c3", "Be7", "Nbd2", "h6", "Nf1", "Bg4", "Ng3", "Qd7", "h3", "Bxf3", "Qxf3", "g6");
+        ChessGame second = ChessGame.fromFen("8/8/8/8/8/8/k1K5/8 b - - 3 40");
+
+        String pgn = write(Map.of("Event", "Test"), first, second);
+
+        try (Stream<PgnGame> games = PgnReader.stream(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8)))) {
+            List<PgnGame> read = games.toList();
+            assertEquals(2, read.size());
+            assertEquals(first, read.get(0).game());
+            assertEquals(first.getMoveHistory(), read.get(0).game().getMoveHistory());
+            assertEquals("*", read.get(0).result());
+            assertEquals(second.toFen(), read.get(1).game().toFen());
+        }
+        for (String line : pgn.split("\n")) {
+            assertTrue(line.length() < 80, line);
+        }
+    }
+
+    @Test
+    @DisplayName("Set Up Position Written As FEN")
+    public void setUpPositionWrittenAsFen() throws Exception {
+        ChessGame game = play("e4");
+        game.getBoard().removePiece(new ChessPosition(1, 1));
+
+        String pgn = write(Map.of(), game);
+
+        assertTrue(pgn.contains("[SetUp \"1\"]\n[FEN \"" + game.toFen() + "\"]"), pgn);
+        assertTrue(pgn.contains("\n\n*\n"), pgn);
+    }
+
+    @Test
+    @DisplayName("Black To Move From FEN")
+    public void blackToMoveFromFen() throws Exception {
+        String fen = "4k3/8/8/8/8/8/4P3/4K3 b - - 0 12";
+        ChessGame game = ChessGame.fromFen(fen);
+        game.makeSanMove("Kd7");
+        game.makeSanMove("e4");
+
+        String pgn = write(Map.of("FEN", fen), game);
+
+        assertTrue(pgn.endsWith("\n\n12... Kd7 13. e4 *\n\n"), pgn);
+    }
+}